@@ -0,0 +1,119 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.common.ValueRanker;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.InvalidValuePointException;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+import fi.smaa.jsmaa.model.maut.UtilityFunction;
+
+/**
+ * The per-iteration aggregation steps of SMAA-2: partial value functions and ranking of the utilities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+	
+	private static final int VALUES = 1024;
+	
+	@State(Scope.Thread)
+	public static class UtilityState {
+		/** Number of points of the partial value function; 2 is linear. */
+		@Param({"2", "5", "20"})
+		public int points;
+		
+		ScaleCriterion criterion;
+		double[] values = new double[VALUES];
+		int next = 0;
+		
+		@Setup(Level.Trial)
+		public void setUp() throws InvalidValuePointException {
+			criterion = new ScaleCriterion("c", true);
+			criterion.setScale(new Interval(0.0, 1.0));
+			for (int i = 1; i < points - 1; ++i) {
+				double x = i / (points - 1.0);
+				criterion.addValuePoint(new Point2D(x, x * x));
+			}
+			RandomUtil random = RandomUtil.createWithFixedSeed();
+			for (int i = 0; i < VALUES; ++i) {
+				values[i] = random.createUnif01();
+			}
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class RankState {
+		@Param({"10", "100", "1000"})
+		public int alternatives;
+		
+		double[][] utilities = new double[VALUES / 8][];
+		int[] ranks;
+		int next = 0;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			RandomUtil random = RandomUtil.createWithFixedSeed();
+			for (int i = 0; i < utilities.length; ++i) {
+				utilities[i] = new double[alternatives];
+				for (int j = 0; j < alternatives; ++j) {
+					utilities[i][j] = random.createUnif01();
+				}
+			}
+			ranks = new int[alternatives];
+		}
+	}
+
+	@Benchmark
+	public double utility(UtilityState state) {
+		state.next = (state.next + 1) & (VALUES - 1);
+		return UtilityFunction.utility(state.criterion, state.values[state.next]);
+	}
+	
+	@Benchmark
+	public int[] rankValues(RankState state) {
+		state.next = (state.next + 1) % state.utilities.length;
+		ValueRanker.rankValues(state.utilities[state.next], state.ranks);
+		return state.ranks;
+	}
+}
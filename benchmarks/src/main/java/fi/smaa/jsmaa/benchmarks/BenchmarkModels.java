@@ -0,0 +1,112 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javolution.xml.stream.XMLStreamException;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+
+/**
+ * The models the benchmarks are parameterized over. A name is either one of the models bundled
+ * in /models (without the extension), or "synthetic-AxC" for a generated model with A alternatives
+ * and C criteria.
+ */
+public class BenchmarkModels {
+	
+	public static final String SYNTHETIC_PREFIX = "synthetic-";
+	
+	private static final int SYNTHETIC_CATEGORIES = 3;
+	private static final long SEED = 1L;
+	
+	/**
+	 * Loads or generates an SMAA-2 model.
+	 */
+	public static SMAAModel smaa2(String name) throws IOException {
+		if (name.startsWith(SYNTHETIC_PREFIX)) {
+			int[] size = parseSize(name);
+			return syntheticSMAA2(size[0], size[1]);
+		}
+		return load(name);
+	}
+	
+	/**
+	 * Loads or generates an SMAA-TRI model.
+	 */
+	public static SMAATRIModel smaaTri(String name) throws IOException {
+		if (name.startsWith(SYNTHETIC_PREFIX)) {
+			int[] size = parseSize(name);
+			return syntheticSMAATRI(size[0], size[1]);
+		}
+		SMAAModel model = load(name);
+		if (!(model instanceof SMAATRIModel)) {
+			throw new IllegalArgumentException(name + " is not an SMAA-TRI model");
+		}
+		return (SMAATRIModel) model;
+	}
+
+	private static SMAAModel load(String name) throws IOException {
+		InputStream is = BenchmarkModels.class.getResourceAsStream("/models/" + name + ".jsmaa");
+		if (is == null) {
+			throw new IllegalArgumentException("No bundled model " + name);
+		}
+		try {
+			return JSMAABinding.readModel(is);
+		} catch (XMLStreamException e) {
+			throw new IOException("Cannot read model " + name + ": " + e.getMessage());
+		} finally {
+			is.close();
+		}
+	}
+
+	private static int[] parseSize(String name) {
+		String[] parts = name.substring(SYNTHETIC_PREFIX.length()).split("x");
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Expected " + SYNTHETIC_PREFIX + "AxC, got " + name);
+		}
+		return new int[] { Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) };
+	}
+
+	/**
+	 * Generates an SMAA-2 model whose criteria cycle through Gaussian, log-normal, interval and beta
+	 * measurements, with missing preference information.
+	 */
+	public static SMAAModel syntheticSMAA2(int numAlts, int numCrits) {
+		return new ModelGenerator(SEED).setAlternatives(numAlts).setCriteria(numCrits)
+			.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.LOGNORMAL, MeasurementType.INTERVAL, MeasurementType.BETA)
+			.generateSMAA2();
+	}
+
+	/**
+	 * Generates an SMAA-TRI model with {@value #SYNTHETIC_CATEGORIES} categories and Gaussian measurements.
+	 */
+	public static SMAATRIModel syntheticSMAATRI(int numAlts, int numCrits) {
+		return new ModelGenerator(SEED).setAlternatives(numAlts).setCriteria(numCrits).setCategories(SYNTHETIC_CATEGORIES)
+			.setMeasurementMix(MeasurementType.GAUSSIAN).generateSMAATRI();
+	}
+}
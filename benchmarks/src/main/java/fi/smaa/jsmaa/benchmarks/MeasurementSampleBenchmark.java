@@ -0,0 +1,190 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalMeasurement;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.FullJointMeasurements;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.MultivariateGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.RelativeGaussianMeasurementBase;
+import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+
+/**
+ * Sampling of each measurement type, of a multivariate Gaussian criterion, and of the complete
+ * measurements of a model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasurementSampleBenchmark {
+	
+	@State(Scope.Thread)
+	public static class CardinalState {
+		@Param({"exact", "interval", "gaussian", "lognormal", "logitnormal", "beta", "discrete", "relativenormal", "relativelogitnormal"})
+		public String type;
+		
+		CardinalMeasurement measurement;
+		BaselineGaussianMeasurement baseline;
+		RandomUtil random;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			random = RandomUtil.createWithFixedSeed();
+			measurement = create(type);
+			if (measurement instanceof RelativeGaussianMeasurementBase) {
+				baseline = ((RelativeGaussianMeasurementBase) measurement).getBaseline();
+			}
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class MultivariateState {
+		@Param({"2", "10", "100"})
+		public int alternatives;
+		
+		MultivariateGaussianCriterionMeasurement measurement;
+		double[][] target;
+		RandomUtil random;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			random = RandomUtil.createWithFixedSeed();
+			List<Alternative> alts = new ArrayList<Alternative>();
+			for (int i = 0; i < alternatives; ++i) {
+				alts.add(new Alternative("alt" + i));
+			}
+			double[][] cov = new double[alternatives][alternatives];
+			for (int i = 0; i < alternatives; ++i) {
+				for (int j = 0; j < alternatives; ++j) {
+					cov[i][j] = i == j ? 1.0 : 0.5;
+				}
+			}
+			measurement = new MultivariateGaussianCriterionMeasurement(alts);
+			measurement.setMeanVector(new ArrayRealVector(alternatives, 1.0));
+			measurement.setCovarianceMatrix(new Array2DRowRealMatrix(cov));
+			target = new double[1][alternatives];
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class ModelState {
+		@Param({"smaa2-benefitrisk", "smaa2-br-betas", "synthetic-10x5", "synthetic-100x10", "synthetic-1000x20"})
+		public String model;
+		
+		FullJointMeasurements measurements;
+		double[][] target;
+		RandomUtil random;
+		
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			random = RandomUtil.createWithFixedSeed();
+			SMAAModel m = BenchmarkModels.smaa2(model);
+			measurements = m.getMeasurements();
+			target = new double[m.getCriteria().size()][m.getAlternatives().size()];
+		}
+	}
+	
+	static CardinalMeasurement create(String type) {
+		if (type.equals("exact")) {
+			return new ExactMeasurement(1.0);
+		} else if (type.equals("interval")) {
+			return new Interval(0.0, 1.0);
+		} else if (type.equals("gaussian")) {
+			return new GaussianMeasurement(0.0, 1.0);
+		} else if (type.equals("lognormal")) {
+			return new LogNormalMeasurement(0.0, 0.5);
+		} else if (type.equals("logitnormal")) {
+			return new LogitNormalMeasurement(0.0, 0.5);
+		} else if (type.equals("beta")) {
+			return new BetaMeasurement(2.0, 3.0, 0.0, 1.0);
+		} else if (type.equals("discrete")) {
+			DiscreteMeasurement m = new DiscreteMeasurement();
+			m.add(new Point2D(1.0, 0.2));
+			m.add(new Point2D(2.0, 0.3));
+			m.add(new Point2D(3.0, 0.5));
+			return m;
+		} else if (type.equals("relativenormal")) {
+			return new RelativeNormalMeasurement(new BaselineGaussianMeasurement(0.0, 1.0), new GaussianMeasurement(0.5, 0.2));
+		} else if (type.equals("relativelogitnormal")) {
+			return new RelativeLogitNormalMeasurement(new BaselineGaussianMeasurement(0.0, 1.0), new GaussianMeasurement(0.5, 0.2));
+		}
+		throw new IllegalArgumentException("Unknown measurement type " + type);
+	}
+
+	/**
+	 * Relative measurements include the sampling of their baseline, which is shared by the
+	 * alternatives of a criterion and sampled once per iteration.
+	 */
+	@Benchmark
+	public double cardinal(CardinalState state) {
+		if (state.baseline != null) {
+			state.baseline.update(state.random);
+		}
+		return state.measurement.sample(state.random);
+	}
+	
+	@Benchmark
+	public double[][] multivariateGaussian(MultivariateState state) {
+		state.measurement.sample(state.random, state.target, 0);
+		return state.target;
+	}
+	
+	@Benchmark
+	public double[][] model(ModelState state) {
+		state.measurements.sample(state.random, state.target);
+		return state.target;
+	}
+}
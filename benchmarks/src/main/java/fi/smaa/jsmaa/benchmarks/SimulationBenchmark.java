@@ -0,0 +1,113 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.drugis.common.threading.TaskUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAATRISimulation;
+
+/**
+ * Time per simulation iteration. Each invocation runs a fresh simulation of {@value #ITERATIONS}
+ * iterations; for SMAA-2 an iteration covers both the rank acceptability and the confidence factor step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+	
+	public static final int ITERATIONS = 200;
+	
+	@State(Scope.Thread)
+	public static class SMAA2State {
+		@Param({"smaa2-benefitrisk", "smaa2-br-betas", "synthetic-10x5", "synthetic-50x10", "synthetic-200x20"})
+		public String model;
+		
+		SMAAModel smaaModel;
+		SMAA2Simulation simulation;
+		
+		@Setup(Level.Trial)
+		public void loadModel() throws IOException {
+			smaaModel = BenchmarkModels.smaa2(model);
+		}
+		
+		@Setup(Level.Invocation)
+		public void createSimulation() {
+			simulation = new SMAA2Simulation(smaaModel, RandomUtil.createWithFixedSeed(), ITERATIONS);
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class SMAATRIState {
+		@Param({"smaatri-riskzoning", "synthetic-10x5", "synthetic-50x10", "synthetic-200x20"})
+		public String model;
+		
+		SMAATRIModel triModel;
+		SMAATRISimulation simulation;
+		
+		@Setup(Level.Trial)
+		public void loadModel() throws IOException {
+			triModel = BenchmarkModels.smaaTri(model);
+		}
+		
+		@Setup(Level.Invocation)
+		public void createSimulation() {
+			simulation = new SMAATRISimulation(triModel, RandomUtil.createWithFixedSeed(), ITERATIONS);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ITERATIONS)
+	public Object smaa2Iteration(SMAA2State state) throws InterruptedException {
+		TaskUtil.run(state.simulation.getTask());
+		return state.simulation.getResults();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ITERATIONS)
+	public Object smaaTriIteration(SMAATRIState state) throws InterruptedException {
+		TaskUtil.run(state.simulation.getTask());
+		return state.simulation.getResults();
+	}
+}
@@ -0,0 +1,105 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.MissingPreferenceInformation;
+import fi.smaa.jsmaa.model.OrdinalPreferenceInformation;
+import fi.smaa.jsmaa.model.PreferenceInformation;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+/**
+ * Weight sampling for each kind of preference information. The cardinal preferences are intervals
+ * around equal weights, so that sampling needs rejections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightSamplingBenchmark {
+	
+	@State(Scope.Thread)
+	public static class PreferenceState {
+		@Param({"missing", "ordinal", "cardinal"})
+		public String preferences;
+		
+		@Param({"3", "6", "10"})
+		public int criteria;
+		
+		PreferenceInformation info;
+		RandomUtil random;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			random = RandomUtil.createWithFixedSeed();
+			List<Criterion> crits = new ArrayList<Criterion>();
+			for (int i = 0; i < criteria; ++i) {
+				crits.add(new ScaleCriterion("crit" + i));
+			}
+			if (preferences.equals("missing")) {
+				info = new MissingPreferenceInformation(criteria);
+			} else if (preferences.equals("ordinal")) {
+				OrdinalPreferenceInformation ord = new OrdinalPreferenceInformation(crits);
+				for (int i = 0; i < criteria; ++i) {
+					ord.getMeasurement(crits.get(i)).setRank(i + 1);
+				}
+				info = ord;
+			} else if (preferences.equals("cardinal")) {
+				CardinalPreferenceInformation card = new CardinalPreferenceInformation(crits);
+				double w = 1.0 / criteria;
+				for (Criterion c : crits) {
+					card.setMeasurement(c, new Interval(w * 0.5, w * 1.5));
+				}
+				info = card;
+			} else {
+				throw new IllegalArgumentException("Unknown preferences " + preferences);
+			}
+		}
+	}
+
+	@Benchmark
+	public double[] sampleWeights(PreferenceState state) {
+		return state.info.sampleWeights(state.random);
+	}
+}
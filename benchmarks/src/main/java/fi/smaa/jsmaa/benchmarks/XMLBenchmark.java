@@ -0,0 +1,87 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javolution.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+
+/**
+ * Reading and writing models in the XML format of {@link JSMAABinding}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XMLBenchmark {
+	
+	@State(Scope.Thread)
+	public static class ModelState {
+		@Param({"smaa2-benefitrisk", "smaa2-br-betas", "smaatri-riskzoning", "synthetic-10x5", "synthetic-100x10", "synthetic-1000x20"})
+		public String model;
+		
+		SMAAModel smaaModel;
+		byte[] xml;
+		ByteArrayOutputStream out;
+		
+		@Setup(Level.Trial)
+		public void setUp() throws IOException, XMLStreamException {
+			smaaModel = BenchmarkModels.smaa2(model);
+			out = new ByteArrayOutputStream();
+			JSMAABinding.writeModel(smaaModel, out);
+			xml = out.toByteArray();
+		}
+	}
+
+	@Benchmark
+	public SMAAModel read(ModelState state) throws XMLStreamException {
+		return JSMAABinding.readModel(new ByteArrayInputStream(state.xml));
+	}
+	
+	@Benchmark
+	public int write(ModelState state) throws XMLStreamException {
+		state.out.reset();
+		JSMAABinding.writeModel(state.smaaModel, state.out);
+		return state.out.size();
+	}
+}
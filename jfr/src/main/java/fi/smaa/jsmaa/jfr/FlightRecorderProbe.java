@@ -0,0 +1,130 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.jfr;
+
+import fi.smaa.jsmaa.diagnostics.DiagnosticsProbe;
+
+/**
+ * Emits the JSMAA diagnostics as Java Flight Recorder events. Registered as a service, so putting
+ * this module on the class path is enough; the events are enabled in the recording settings
+ * (e.g. -XX:StartFlightRecording) like any other event.
+ */
+public class FlightRecorderProbe implements DiagnosticsProbe {
+
+	public Object simulationStarted(String simulation, String modelName, int alternatives, int criteria,
+			int iterations, Long seed) {
+		SimulationEvent event = new SimulationEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.simulation = simulation;
+		event.model = modelName;
+		event.alternatives = alternatives;
+		event.criteria = criteria;
+		event.plannedIterations = iterations;
+		event.seeded = seed != null;
+		event.seed = seed != null ? seed : 0L;
+		event.begin();
+		return event;
+	}
+
+	public void simulationEnded(Object handle, long iterations, Outcome outcome) {
+		if (handle == null) {
+			return;
+		}
+		SimulationEvent event = (SimulationEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.iterations = iterations;
+			event.outcome = outcome.toString();
+			event.commit();
+		}
+	}
+
+	public void simulationCheckpoint(String simulation, String modelName, long iteration) {
+		SimulationCheckpointEvent event = new SimulationCheckpointEvent();
+		if (event.shouldCommit()) {
+			event.simulation = simulation;
+			event.model = modelName;
+			event.iteration = iteration;
+			event.commit();
+		}
+	}
+
+	public void iterationFailed(String simulation, String modelName, long iteration, String message) {
+		IterationFailureEvent event = new IterationFailureEvent();
+		if (event.shouldCommit()) {
+			event.simulation = simulation;
+			event.model = modelName;
+			event.iteration = iteration;
+			event.message = message;
+			event.commit();
+		}
+	}
+
+	public Object modelCopyStarted() {
+		ModelCopyEvent event = new ModelCopyEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	public void modelCopyEnded(Object handle, String modelName, int alternatives, int criteria) {
+		if (handle == null) {
+			return;
+		}
+		ModelCopyEvent event = (ModelCopyEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.model = modelName;
+			event.alternatives = alternatives;
+			event.criteria = criteria;
+			event.commit();
+		}
+	}
+
+	public Object modelIOStarted() {
+		ModelIOEvent event = new ModelIOEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	public void modelIOEnded(Object handle, String format, String operation, String modelName) {
+		if (handle == null) {
+			return;
+		}
+		ModelIOEvent event = (ModelIOEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.format = format;
+			event.operation = operation;
+			event.model = modelName;
+			event.commit();
+		}
+	}
+}
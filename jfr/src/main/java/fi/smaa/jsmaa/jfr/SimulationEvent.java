@@ -0,0 +1,63 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fi.smaa.jsmaa.Simulation")
+@Label("Simulation")
+@Category({"JSMAA", "Simulation"})
+@Description("A simulation run, from its first iteration until it finished, was aborted or failed")
+class SimulationEvent extends Event {
+	@Label("Simulation")
+	String simulation;
+	
+	@Label("Model")
+	String model;
+	
+	@Label("Alternatives")
+	int alternatives;
+	
+	@Label("Criteria")
+	int criteria;
+	
+	@Label("Planned Iterations")
+	int plannedIterations;
+	
+	@Label("Completed Iterations")
+	long iterations;
+	
+	@Label("Seed")
+	@Description("Seed of the random generator; 0 if it was seeded randomly")
+	long seed;
+	
+	@Label("Seeded")
+	boolean seeded;
+	
+	@Label("Outcome")
+	String outcome;
+}
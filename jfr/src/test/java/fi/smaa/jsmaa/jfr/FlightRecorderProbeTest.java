@@ -0,0 +1,97 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.diagnostics.Diagnostics;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAASimulation;
+
+public class FlightRecorderProbeTest {
+	
+	private File file;
+	
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("jsmaa", ".jfr");
+	}
+	
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+	
+	@Test
+	public void testProviderIsLoaded() {
+		assertTrue(Diagnostics.getProbe() instanceof FlightRecorderProbe);
+	}
+	
+	@Test
+	public void testSimulationEvents() throws Exception {
+		SMAAModel model = new ModelGenerator(1L).setAlternatives(3).setCriteria(2).generateSMAA2();
+		Recording recording = new Recording();
+		recording.enable(SimulationEvent.class);
+		recording.enable(SimulationCheckpointEvent.class);
+		recording.start();
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithSeed(7), SMAASimulation.REPORTING_INTERVAL);
+		simulation.getTask().run();
+		recording.stop();
+		recording.dump(file.toPath());
+		recording.close();
+		
+		List<RecordedEvent> sims = new ArrayList<RecordedEvent>();
+		int checkpoints = 0;
+		for (RecordedEvent e : RecordingFile.readAllEvents(file.toPath())) {
+			if (e.getEventType().getName().equals("fi.smaa.jsmaa.Simulation")) {
+				sims.add(e);
+			} else if (e.getEventType().getName().equals("fi.smaa.jsmaa.SimulationCheckpoint")) {
+				checkpoints++;
+			}
+		}
+		assertEquals(1, sims.size());
+		RecordedEvent sim = sims.get(0);
+		assertEquals("SMAA2Simulation", sim.getString("simulation"));
+		assertEquals(3, sim.getInt("alternatives"));
+		assertEquals(2 * SMAASimulation.REPORTING_INTERVAL, sim.getLong("iterations"));
+		assertEquals(7L, sim.getLong("seed"));
+		assertEquals("FINISHED", sim.getString("outcome"));
+		assertEquals(2, checkpoints);
+	}
+}
@@ -0,0 +1,112 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Draws from a beta distribution as X / (X + Y) for gamma distributed X and Y, which are drawn
+ * with the method of Marsaglia and Tsang (2000). The constants depend only on the shape
+ * parameters, so a measurement keeps its sampler until they change.
+ * 
+ * @see RandomUtil#createBeta(BetaSampler, double, double)
+ */
+public final class BetaSampler {
+	
+	private final double alpha;
+	private final double beta;
+	private final GammaShape x;
+	private final GammaShape y;
+	private final boolean small;
+	
+	public BetaSampler(double alpha, double beta) {
+		if (!(alpha > 0.0) || !(beta > 0.0)) {
+			throw new IllegalArgumentException("shape parameters must be positive");
+		}
+		this.alpha = alpha;
+		this.beta = beta;
+		this.x = new GammaShape(alpha);
+		this.y = new GammaShape(beta);
+		this.small = alpha < 1.0 || beta < 1.0;
+	}
+	
+	public double getAlpha() {
+		return alpha;
+	}
+	
+	public double getBeta() {
+		return beta;
+	}
+	
+	double sample(RandomGenerator engine) {
+		if (small) {
+			// shapes below 1 may underflow both gammas, so divide on the log scale
+			double logX = x.sampleLog(engine);
+			double logY = y.sampleLog(engine);
+			return 1.0 / (1.0 + Math.exp(logY - logX));
+		}
+		double gx = x.sample(engine);
+		double gy = y.sample(engine);
+		return gx / (gx + gy);
+	}
+	
+	private static final class GammaShape {
+		private final double d;
+		private final double c;
+		// 1 / shape for shapes below 1, which are boosted to shape + 1; 0 otherwise
+		private final double boost;
+		
+		public GammaShape(double shape) {
+			boost = shape < 1.0 ? 1.0 / shape : 0.0;
+			d = (shape < 1.0 ? shape + 1.0 : shape) - 1.0 / 3.0;
+			c = 1.0 / Math.sqrt(9.0 * d);
+		}
+		
+		public double sample(RandomGenerator engine) {
+			double g = sampleBoosted(engine);
+			return boost == 0.0 ? g : g * Math.pow(1.0 - engine.nextDouble(), boost);
+		}
+		
+		public double sampleLog(RandomGenerator engine) {
+			double g = Math.log(sampleBoosted(engine));
+			return boost == 0.0 ? g : g + Math.log(1.0 - engine.nextDouble()) * boost;
+		}
+		
+		private double sampleBoosted(RandomGenerator engine) {
+			while (true) {
+				double z;
+				double v;
+				do {
+					z = Ziggurat.nextGaussian(engine);
+					v = 1.0 + c * z;
+				} while (v <= 0.0);
+				v = v * v * v;
+				double u = 1.0 - engine.nextDouble();
+				double z2 = z * z;
+				if (u < 1.0 - 0.0331 * z2 * z2 || Math.log(u) < 0.5 * z2 + d * (1.0 - v + Math.log(v))) {
+					return d * v;
+				}
+			}
+		}
+	}
+}
@@ -4,54 +4,185 @@ import java.util.Arrays;
 
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
-import org.apache.commons.math3.random.CorrelatedRandomVectorGenerator;
-import org.apache.commons.math3.random.GaussianRandomGenerator;
+import org.apache.commons.math3.linear.RectangularCholeskyDecomposition;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.RandomVectorGenerator;
 
+/**
+ * Generates multivariate Gaussian vectors as mean + L z, where L is a rank-revealing Cholesky root
+ * of the covariance matrix and z a vector of independent standard normals. The root depends only
+ * on the covariance, so the generator can be kept for as long as the covariance is unchanged and
+ * used with any RandomUtil. Samples are written into the caller's arrays; the generator keeps
+ * scratch buffers for the normals, so an instance must not be used by several threads at once
+ * (see {@link #share()}).
+ */
 public class MultivariateGaussianGenerator implements RandomVectorGenerator {
-	private CorrelatedRandomVectorGenerator generator;
+	private static final int BLOCK_SIZE = 32;
+	
+	// n x rank; rows of components with zero variance are all zero
+	private final double[][] root;
+	// the root is triangular up to a permutation: row i is zero from column length[i] on
+	private final int[] length;
+	private final int rank;
+	private final double[] normals;
+	// rank x BLOCK_SIZE, so that the inner loop of the product runs over the samples
+	private double[][] blockNormals;
+	private double[] blockSums;
+	
 	private double[] mean;
-	private int[] rowMap;
+	private RandomGenerator generator;
 	
 	public MultivariateGaussianGenerator(RealVector mean, RealMatrix covariance, RandomGenerator generator) {
+		this(covariance);
 		this.mean = mean.toArray();
+		this.generator = generator;
+	}
+	
+	/**
+	 * Factorizes the covariance matrix.
+	 * @throws org.apache.commons.math3.linear.NonPositiveDefiniteMatrixException if the covariance is not positive semi-definite.
+	 */
+	public MultivariateGaussianGenerator(RealMatrix covariance) {
+		final int n = covariance.getColumnDimension();
+		root = new double[n][];
 		
+		int m = 0;
+		double[][] subRoot = new double[0][];
+		int[] rowMap = new int[n];
+		Arrays.fill(rowMap, -1);
 		if (covariance.getNorm() != 0) {
-			final int n = covariance.getColumnDimension();
 			final double small = 1.0e-12 * covariance.getNorm();
-			rowMap = new int[n];
 			int[] select = new int[n]; 
-					
-			int j = 0;
+			// decomposing without the zero-variance components works around MATH-789
 			for (int i = 0; i < n; ++i) {
-				if (covariance.getEntry(i, i) < small) {
-					rowMap[i] = -1;
-				} else {
-					rowMap[i] = j;
-					select[j] = i;
-					++j;
+				if (covariance.getEntry(i, i) >= small) {
+					rowMap[i] = m;
+					select[m] = i;
+					++m;
 				}
 			}
-			final int m = j;
 			int[] selectTruncated = Arrays.copyOf(select, m);
-			covariance = covariance.getSubMatrix(selectTruncated, selectTruncated);
-			
-			this.generator = new CorrelatedRandomVectorGenerator(new double[m], covariance,
-					small, new GaussianRandomGenerator(generator));
+			RectangularCholeskyDecomposition decomposition = new RectangularCholeskyDecomposition(
+					covariance.getSubMatrix(selectTruncated, selectTruncated), small);
+			subRoot = decomposition.getRootMatrix().getData();
+			m = decomposition.getRank();
 		}
+		rank = m;
+		length = new int[n];
+		for (int i = 0; i < n; ++i) {
+			root[i] = rowMap[i] < 0 ? new double[rank] : Arrays.copyOf(subRoot[rowMap[i]], rank);
+			int len = rank;
+			while (len > 0 && root[i][len - 1] == 0.0) {
+				--len;
+			}
+			length[i] = len;
+		}
+		normals = new double[rank];
+	}
+	
+	private MultivariateGaussianGenerator(MultivariateGaussianGenerator other) {
+		root = other.root;
+		length = other.length;
+		rank = other.rank;
+		normals = new double[rank];
+	}
+	
+	/**
+	 * @return a generator that shares the factorization of this one, but has its own buffers.
+	 */
+	public MultivariateGaussianGenerator share() {
+		return new MultivariateGaussianGenerator(this);
+	}
+	
+	public int getDimension() {
+		return root.length;
+	}
+	
+	public int getRank() {
+		return rank;
 	}
 
+	/**
+	 * @return a new sample from the mean and generator given on construction.
+	 */
 	@Override
 	public double[] nextVector() {
-		double sample[] = new double[this.mean.length];
-		System.arraycopy(this.mean, 0, sample, 0, sample.length);
-		if (this.generator != null) {
-			double[] x = this.generator.nextVector();
-			for (int i = 0; i < mean.length; ++i) {
-				sample[i] += rowMap[i] < 0 ? 0.0 : x[rowMap[i]];
-			}
+		for (int k = 0; k < rank; ++k) {
+			normals[k] = generator.nextGaussian();
 		}
+		double[] sample = new double[root.length];
+		transform(mean, normals, sample);
 		return sample;
 	}
+	
+	/**
+	 * Writes a sample with the given mean into target.
+	 */
+	public void nextVector(RandomUtil random, double[] mean, double[] target) {
+		for (int k = 0; k < rank; ++k) {
+			normals[k] = random.nextStandardGaussian();
+		}
+		transform(mean, normals, target);
+	}
+	
+	/**
+	 * Writes a sample with the given mean into each row of target. The normals are drawn for blocks
+	 * of rows at a time and transformed as a matrix product, so that each row of the root is read
+	 * once per block rather than once per sample.
+	 */
+	public void nextVectors(RandomUtil random, double[] mean, double[][] target) {
+		if (blockNormals == null) {
+			blockNormals = new double[rank][BLOCK_SIZE];
+			blockSums = new double[BLOCK_SIZE];
+		}
+		for (int start = 0; start < target.length; start += BLOCK_SIZE) {
+			int count = Math.min(BLOCK_SIZE, target.length - start);
+			for (int t = 0; t < count; ++t) {
+				for (int k = 0; k < rank; ++k) {
+					blockNormals[k][t] = random.nextStandardGaussian();
+				}
+			}
+			for (int i = 0; i < root.length; ++i) {
+				double[] r = root[i];
+				Arrays.fill(blockSums, 0.0);
+				for (int k = 0; k < length[i]; ++k) {
+					double rk = r[k];
+					double[] z = blockNormals[k];
+					for (int t = 0; t < count; ++t) {
+						blockSums[t] += rk * z[t];
+					}
+				}
+				for (int t = 0; t < count; ++t) {
+					target[start + t][i] = mean[i] + blockSums[t];
+				}
+			}
+		}
+	}
+	
+	private void transform(double[] mean, double[] z, double[] target) {
+		for (int i = 0; i < root.length; ++i) {
+			target[i] = mean[i] + dot(root[i], z, length[i]);
+		}
+	}
+	
+	/**
+	 * Dot product with independent partial sums, so that the additions need not wait for each other.
+	 */
+	private static double dot(double[] r, double[] z, int len) {
+		double s0 = 0.0;
+		double s1 = 0.0;
+		double s2 = 0.0;
+		double s3 = 0.0;
+		int k = 0;
+		for (; k + 3 < len; k += 4) {
+			s0 += r[k] * z[k];
+			s1 += r[k + 1] * z[k + 1];
+			s2 += r[k + 2] * z[k + 2];
+			s3 += r[k + 3] * z[k + 3];
+		}
+		for (; k < len; ++k) {
+			s0 += r[k] * z[k];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
 }
@@ -30,21 +30,170 @@ import org.apache.commons.math3.random.RandomVectorGenerator;
 
 public class RandomUtil {
 	public static RandomUtil createWithFixedSeed() {
+		return createWithSeed(666);
+	}
+
+	/**
+	 * Creates a generator with its own engine seeded with the given seed, so that
+	 * independently running simulations do not share random state.
+	 * 
+	 * @param seed the seed for the engine
+	 * @return a new RandomUtil
+	 */
+	public static RandomUtil createWithSeed(long seed) {
 		JDKRandomGenerator engine = new JDKRandomGenerator();
-		engine.setSeed(666);
-		return new RandomUtil(engine);
+		engine.setSeed(seed);
+		return new RandomUtil(engine, seed);
 	}
 	
 	public static RandomUtil createWithRandomSeed() {
-		return new RandomUtil(new MersenneTwister());
+		return new RandomUtil(new MersenneTwister(), null);
+	}
+	
+	/**
+	 * Creates a randomized quasi-Monte Carlo generator: the draws of each iteration (see
+	 * {@link #nextPoint()}) form a point of a scrambled Halton sequence, and Gaussian and beta
+	 * draws are made by inverting the CDF. Results converge faster than with pseudo-random draws.
+	 * Generators with different seeds are independent randomizations, so the Monte Carlo error
+	 * can be estimated from replicates.
+	 * 
+	 * @param seed the seed of the randomization
+	 * @return a new RandomUtil
+	 */
+	public static RandomUtil createQuasiRandom(long seed) {
+		return new RandomUtil(new QuasiRandomGenerator(seed), seed);
 	}
 
 	private RandomDataImpl random;
 	private RandomGenerator engine;
+	private final Long seed;
+	private final QuasiRandomGenerator quasiRandom;
+	private final boolean inversion;
+	private VarianceReductionGenerator measurementEngine;
+	private RandomUtil measurementRandom;
+	
+	public static final int DEFAULT_STRATA = 100;
 	
-	private RandomUtil(RandomGenerator engine) {
+	private RandomUtil(RandomGenerator engine, Long seed) {
 		this.random = new RandomDataImpl(engine);
 		this.engine = engine;
+		this.seed = seed;
+		this.quasiRandom = engine instanceof QuasiRandomGenerator ? (QuasiRandomGenerator) engine : null;
+		this.inversion = quasiRandom != null || engine instanceof VarianceReductionGenerator;
+	}
+	
+	/**
+	 * Starts a new sample point; call at the start of every iteration. With a quasi-random
+	 * generator, the draws until the next call are the coordinates of one point, so they must be
+	 * made in the same order in every iteration. Rejection loops, which make a varying number of
+	 * draws, should be enclosed in a block (see {@link #beginRejectionBlock()}) to keep the later
+	 * draws on the same coordinates. Does nothing for pseudo-random generators.
+	 */
+	public void nextPoint() {
+		if (quasiRandom != null) {
+			quasiRandom.nextPoint();
+		}
+	}
+	
+	/**
+	 * Starts the draws of a rejection loop. With a quasi-random generator, the first attempt takes
+	 * a fixed block of coordinates, and the attempts after {@link #retryRejectionBlock()} are
+	 * pseudo-random, so that the iterations that reject lose the low-discrepancy structure only for
+	 * the values drawn in the loop. Does nothing for pseudo-random generators.
+	 */
+	public void beginRejectionBlock() {
+		if (quasiRandom != null) {
+			quasiRandom.beginBlock();
+		}
+	}
+	
+	/**
+	 * Starts another attempt of the rejection loop.
+	 */
+	public void retryRejectionBlock() {
+		if (quasiRandom != null) {
+			quasiRandom.repeatBlock();
+		}
+	}
+	
+	/**
+	 * Ends the rejection loop; the next draws take the coordinates after its first attempt.
+	 */
+	public void endRejectionBlock() {
+		if (quasiRandom != null) {
+			quasiRandom.endBlock();
+		}
+	}
+	
+	public boolean isQuasiRandom() {
+		return quasiRandom != null;
+	}
+	
+	/**
+	 * @return true if the draws of every sample must be made in order, as they are for quasi-random
+	 * and variance reduced generators. Otherwise draws can be made ahead of time.
+	 */
+	public boolean isOrdered() {
+		return inversion;
+	}
+	
+	/**
+	 * Sets the variance reduction scheme for sampling the measurements, with
+	 * {@link #DEFAULT_STRATA} strata for a Latin hypercube.
+	 * 
+	 * @see #setVarianceReduction(VarianceReduction, int)
+	 */
+	public void setVarianceReduction(VarianceReduction scheme) {
+		setVarianceReduction(scheme, DEFAULT_STRATA);
+	}
+	
+	/**
+	 * Sets the variance reduction scheme for sampling the measurements. The measurements are
+	 * sampled through {@link #nextMeasurementSample()}, so the scheme applies to every
+	 * {@link fi.smaa.jsmaa.model.FullJointMeasurements}; weights and profiles are still sampled
+	 * independently. Set the scheme before the simulation starts.
+	 * 
+	 * @param scheme the scheme
+	 * @param strata the number of iterations in a block of a Latin hypercube; ignored for the other schemes
+	 * @throws IllegalStateException if this is a quasi-random generator, whose points are already stratified
+	 */
+	public void setVarianceReduction(VarianceReduction scheme, int strata) {
+		if (scheme == VarianceReduction.NONE) {
+			measurementEngine = null;
+			measurementRandom = null;
+			return;
+		}
+		if (isQuasiRandom()) {
+			throw new IllegalStateException("quasi-random draws need no variance reduction");
+		}
+		measurementEngine = new VarianceReductionGenerator(engine, scheme, strata);
+		measurementRandom = new RandomUtil(measurementEngine, seed);
+	}
+	
+	public VarianceReduction getVarianceReduction() {
+		return measurementEngine == null ? VarianceReduction.NONE : measurementEngine.getScheme();
+	}
+	
+	/**
+	 * Starts sampling the next joint sample of the measurements.
+	 * 
+	 * @return the generator to sample the measurements with: this generator if there is no
+	 * variance reduction, otherwise a generator whose draws are correlated with those of the
+	 * previous samples. The draws must be made in the same order for every sample.
+	 */
+	public RandomUtil nextMeasurementSample() {
+		if (measurementEngine == null) {
+			return this;
+		}
+		measurementEngine.nextSample();
+		return measurementRandom;
+	}
+	
+	/**
+	 * @return the seed this generator was created with, or null if it was seeded randomly.
+	 */
+	public Long getSeed() {
+		return seed;
 	}
 	
 	/**
@@ -55,7 +204,15 @@ public class RandomUtil {
 	 * @return a value sampled from the gaussian distribution
 	 */
 	public double createGaussian(double mean, double stddev) {
-		return stddev == 0 ? mean : random.nextGaussian(mean, stddev);
+		return stddev == 0 ? mean : mean + stddev * nextStandardGaussian();
+	}
+	
+	/**
+	 * Draws by the ziggurat method, unless the draws of this generator must each take a single
+	 * coordinate (quasi-random or variance reduced), in which case the engine inverts the CDF.
+	 */
+	double nextStandardGaussian() {
+		return inversion ? engine.nextGaussian() : Ziggurat.nextGaussian(engine);
 	}
 	
 	/**
@@ -123,6 +280,15 @@ public class RandomUtil {
 		return r * (max - min) + min;
 	}
 	
+	/**
+	 * Generates a beta distributed number scaled to [min, max], using the precomputed constants of
+	 * the sampler. Quasi-random and variance reduced generators invert the CDF instead.
+	 */
+	public double createBeta(BetaSampler sampler, double min, double max) {
+		double r = inversion ? random.nextBeta(sampler.getAlpha(), sampler.getBeta()) : sampler.sample(engine);
+		return r * (max - min) + min;
+	}
+	
 	public RandomVectorGenerator createMultivariateGaussian(RealVector mean, RealMatrix covariance) {
 		return new MultivariateGaussianGenerator(mean, covariance, this.engine);
 	}
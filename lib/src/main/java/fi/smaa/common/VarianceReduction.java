@@ -0,0 +1,44 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+/**
+ * Variance reduction schemes for sampling the measurements, see
+ * {@link RandomUtil#setVarianceReduction(VarianceReduction, int)}.
+ */
+public enum VarianceReduction {
+	/**
+	 * Independent draws in every iteration.
+	 */
+	NONE,
+	/**
+	 * Antithetic pairs: every second iteration mirrors the draws of the previous one, so a uniform
+	 * draw u becomes 1 - u and a standard normal draw z becomes -z.
+	 */
+	ANTITHETIC,
+	/**
+	 * Latin hypercube: within a block of iterations, each draw of the sample falls exactly once in
+	 * each of the equally probable strata of its distribution, in a random order per draw.
+	 */
+	LATIN_HYPERCUBE
+}
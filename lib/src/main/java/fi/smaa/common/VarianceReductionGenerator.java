@@ -0,0 +1,181 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.random.AbstractRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Generator that correlates the draws of successive samples to reduce the variance of estimates.
+ * The draws between two calls to {@link #nextSample()} form one sample; the n-th draw of a sample
+ * is correlated with the n-th draw of the other samples in the same block, so the draws must be
+ * made in the same order for every sample. Each draw is still marginally distributed as an
+ * independent draw from the underlying engine, so estimates remain unbiased.
+ * 
+ * Gaussian draws of a Latin hypercube are made by inverting the normal CDF of a stratified
+ * uniform draw.
+ */
+class VarianceReductionGenerator extends AbstractRandomGenerator {
+	
+	private final RandomGenerator engine;
+	private final VarianceReduction scheme;
+	private final int blockSize;
+	
+	private int iteration;
+	private int block;
+	private int draw;
+	
+	// antithetic: the draws of the first sample of the pair
+	private double[] values = new double[16];
+	private boolean[] gaussian = new boolean[16];
+	private int stored;
+	
+	// Latin hypercube: the order in which each draw visits the strata in the current block
+	private int[][] strata = new int[16][];
+	private int[] strataBlock = new int[16];
+	
+	public VarianceReductionGenerator(RandomGenerator engine, VarianceReduction scheme, int blockSize) {
+		if (scheme == VarianceReduction.NONE) {
+			throw new IllegalArgumentException("no variance reduction scheme");
+		}
+		if (blockSize < 2) {
+			throw new IllegalArgumentException("blockSize < 2");
+		}
+		this.engine = engine;
+		this.scheme = scheme;
+		this.blockSize = scheme == VarianceReduction.ANTITHETIC ? 2 : blockSize;
+		reset();
+	}
+	
+	private void reset() {
+		iteration = blockSize - 1;
+		block = 0;
+		draw = 0;
+		stored = 0;
+		Arrays.fill(strataBlock, -1);
+	}
+	
+	public VarianceReduction getScheme() {
+		return scheme;
+	}
+	
+	public int getBlockSize() {
+		return blockSize;
+	}
+	
+	/**
+	 * Starts the next sample.
+	 */
+	public void nextSample() {
+		iteration++;
+		if (iteration == blockSize) {
+			iteration = 0;
+			block++;
+			stored = 0;
+		}
+		draw = 0;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		engine.setSeed(seed);
+		reset();
+		clear();
+	}
+
+	@Override
+	public double nextDouble() {
+		int d = draw++;
+		if (scheme == VarianceReduction.LATIN_HYPERCUBE) {
+			return stratified(d);
+		}
+		if (iteration == 0) {
+			double u = engine.nextDouble();
+			store(d, u, false);
+			return u;
+		}
+		if (d < stored && !gaussian[d]) {
+			return values[d] > 0.0 ? 1.0 - values[d] : 0.0;
+		}
+		return engine.nextDouble();
+	}
+	
+	@Override
+	public double nextGaussian() {
+		if (scheme == VarianceReduction.LATIN_HYPERCUBE) {
+			double u = stratified(draw++);
+			return QuasiRandomGenerator.inverseNormal(u > 0.0 ? u : Double.MIN_VALUE);
+		}
+		int d = draw++;
+		if (iteration == 0) {
+			double z = engine.nextGaussian();
+			store(d, z, true);
+			return z;
+		}
+		if (d < stored && gaussian[d]) {
+			return -values[d];
+		}
+		return engine.nextGaussian();
+	}
+	
+	private void store(int d, double value, boolean isGaussian) {
+		if (d >= values.length) {
+			values = Arrays.copyOf(values, 2 * d);
+			gaussian = Arrays.copyOf(gaussian, 2 * d);
+		}
+		values[d] = value;
+		gaussian[d] = isGaussian;
+		stored = d + 1;
+	}
+	
+	private double stratified(int d) {
+		if (d >= strata.length) {
+			int n = strata.length;
+			strata = Arrays.copyOf(strata, 2 * d);
+			strataBlock = Arrays.copyOf(strataBlock, 2 * d);
+			Arrays.fill(strataBlock, n, strataBlock.length, -1);
+		}
+		if (strata[d] == null) {
+			strata[d] = new int[blockSize];
+			for (int i=0;i<blockSize;i++) {
+				strata[d][i] = i;
+			}
+		}
+		if (strataBlock[d] != block) {
+			shuffle(strata[d]);
+			strataBlock[d] = block;
+		}
+		return (strata[d][iteration] + engine.nextDouble()) / blockSize;
+	}
+	
+	private void shuffle(int[] perm) {
+		for (int i=perm.length-1;i>0;i--) {
+			int k = engine.nextInt(i + 1);
+			int tmp = perm[i];
+			perm[i] = perm[k];
+			perm[k] = tmp;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Standard normal draws by the ziggurat method of Marsaglia and Tsang (2000), in the variant of
+ * Doornik (2005) that draws the layer and the position independently. Most draws take one
+ * uniform, one int and a table lookup.
+ */
+final class Ziggurat {
+	
+	private static final int LAYERS = 128;
+	private static final double R = 3.442619855899;
+	private static final double V = 9.91256303526217e-3;
+	
+	private static final double[] X = new double[LAYERS + 1];
+	private static final double[] RATIO = new double[LAYERS];
+	
+	static {
+		double f = Math.exp(-0.5 * R * R);
+		X[0] = V / f;
+		X[1] = R;
+		X[LAYERS] = 0.0;
+		for (int i=2;i<LAYERS;i++) {
+			X[i] = Math.sqrt(-2.0 * Math.log(V / X[i - 1] + f));
+			f = Math.exp(-0.5 * X[i] * X[i]);
+		}
+		for (int i=0;i<LAYERS;i++) {
+			RATIO[i] = X[i + 1] / X[i];
+		}
+	}
+	
+	private Ziggurat() {
+	}
+	
+	public static double nextGaussian(RandomGenerator engine) {
+		while (true) {
+			double u = 2.0 * engine.nextDouble() - 1.0;
+			int i = engine.nextInt() & (LAYERS - 1);
+			// inside the rectangle of the layer
+			if (Math.abs(u) < RATIO[i]) {
+				return u * X[i];
+			}
+			if (i == 0) {
+				return tail(engine, u < 0.0);
+			}
+			// in the wedge between the rectangle and the density
+			double x = u * X[i];
+			double f0 = Math.exp(-0.5 * (X[i] * X[i] - x * x));
+			double f1 = Math.exp(-0.5 * (X[i + 1] * X[i + 1] - x * x));
+			if (f1 + engine.nextDouble() * (f0 - f1) < 1.0) {
+				return x;
+			}
+		}
+	}
+	
+	private static double tail(RandomGenerator engine, boolean negative) {
+		double x;
+		double y;
+		do {
+			x = Math.log(1.0 - engine.nextDouble()) / R;
+			y = Math.log(1.0 - engine.nextDouble());
+		} while (-2.0 * y < x * x);
+		return negative ? x - R : R - x;
+	}
+}
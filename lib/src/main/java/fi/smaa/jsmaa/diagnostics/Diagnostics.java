@@ -0,0 +1,95 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.diagnostics;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Access to the installed {@link DiagnosticsProbe}. The first provider on the class path is used
+ * (e.g. the jsmaa-jfr module); without one, events are discarded.
+ */
+public class Diagnostics {
+	
+	private static final DiagnosticsProbe NONE = new NullProbe();
+	private static volatile DiagnosticsProbe probe;
+	
+	private Diagnostics() {
+	}
+	
+	public static DiagnosticsProbe getProbe() {
+		DiagnosticsProbe p = probe;
+		if (p == null) {
+			synchronized (Diagnostics.class) {
+				if (probe == null) {
+					probe = loadProbe();
+				}
+				p = probe;
+			}
+		}
+		return p;
+	}
+	
+	/**
+	 * Installs a probe, or reverts to the provider on the class path if null.
+	 */
+	public static synchronized void setProbe(DiagnosticsProbe p) {
+		probe = p;
+	}
+	
+	private static DiagnosticsProbe loadProbe() {
+		try {
+			Iterator<DiagnosticsProbe> it = ServiceLoader.load(DiagnosticsProbe.class).iterator();
+			if (it.hasNext()) {
+				return it.next();
+			}
+		} catch (ServiceConfigurationError e) {
+			// e.g. the provider needs a newer JRE; run without diagnostics
+		}
+		return NONE;
+	}
+	
+	private static class NullProbe implements DiagnosticsProbe {
+		public Object simulationStarted(String simulation, String modelName, int alternatives, int criteria,
+				int iterations, Long seed) {
+			return null;
+		}
+		public void simulationEnded(Object handle, long iterations, Outcome outcome) {
+		}
+		public void simulationCheckpoint(String simulation, String modelName, long iteration) {
+		}
+		public void iterationFailed(String simulation, String modelName, long iteration, String message) {
+		}
+		public Object modelCopyStarted() {
+			return null;
+		}
+		public void modelCopyEnded(Object handle, String modelName, int alternatives, int criteria) {
+		}
+		public Object modelIOStarted() {
+			return null;
+		}
+		public void modelIOEnded(Object handle, String format, String operation, String modelName) {
+		}
+	}
+}
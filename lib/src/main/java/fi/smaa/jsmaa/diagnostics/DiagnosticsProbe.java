@@ -0,0 +1,68 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.diagnostics;
+
+/**
+ * Receives simulation and model lifecycle events, for example to emit them as Java Flight Recorder
+ * events. Implementations are found with {@link java.util.ServiceLoader}; see {@link Diagnostics}.
+ * 
+ * The *Started methods return a handle that is passed to the matching *Ended method, so that an
+ * implementation can measure the duration. Implementations must be thread-safe and cheap when
+ * they are not recording.
+ */
+public interface DiagnosticsProbe {
+	
+	public enum Outcome {
+		FINISHED,
+		ABORTED,
+		FAILED
+	}
+	
+	/**
+	 * @param seed the seed of the random generator, or null if it is not known.
+	 */
+	public Object simulationStarted(String simulation, String modelName, int alternatives, int criteria,
+			int iterations, Long seed);
+	
+	public void simulationEnded(Object handle, long iterations, Outcome outcome);
+	
+	/**
+	 * Called once every reporting interval of a running simulation.
+	 */
+	public void simulationCheckpoint(String simulation, String modelName, long iteration);
+	
+	public void iterationFailed(String simulation, String modelName, long iteration, String message);
+	
+	public Object modelCopyStarted();
+	
+	public void modelCopyEnded(Object handle, String modelName, int alternatives, int criteria);
+	
+	public Object modelIOStarted();
+	
+	/**
+	 * @param format "xml" or "binary".
+	 * @param operation "load" or "save".
+	 * @param modelName the name of the model, or null if it could not be loaded.
+	 */
+	public void modelIOEnded(Object handle, String format, String operation, String modelName);
+}
@@ -26,7 +26,11 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+
+import fi.smaa.common.RandomUtil;
 
 public abstract class AbstractMeasurements extends AbstractEntity implements FullJointMeasurements {
 	private static final long serialVersionUID = -3700988320972977116L;
@@ -34,6 +38,10 @@ public abstract class AbstractMeasurements extends AbstractEntity implements Ful
 	protected final List<Criterion> criteria;
 	protected final List<Alternative> alternatives;
 	private transient List<ImpactMatrixListener> thisListeners = new ArrayList<ImpactMatrixListener>();
+	private transient int batchDepth;
+	private transient Set<Criterion> pendingScales;
+	private transient boolean pendingChange;
+	private transient boolean pendingTypeChange;
 
 	public AbstractMeasurements() {
 		this(Collections.<Criterion>emptyList(), Collections.<Alternative>emptyList());
@@ -41,8 +49,8 @@ public abstract class AbstractMeasurements extends AbstractEntity implements Ful
 	
 	public AbstractMeasurements(List<Criterion> criteria, List<Alternative> alternatives) {
 		super();
-		this.criteria = new ArrayList<Criterion>(criteria);
-		this.alternatives = new ArrayList<Alternative>(alternatives);
+		this.criteria = new IndexedList<Criterion>(criteria);
+		this.alternatives = new IndexedList<Alternative>(alternatives);
 	}
 
 	@Override
@@ -68,18 +76,97 @@ public abstract class AbstractMeasurements extends AbstractEntity implements Ful
 		return criteria;
 	}
 
+	/**
+	 * Samples through the variance reduction scheme of the generator, if any.
+	 * @see RandomUtil#nextMeasurementSample()
+	 */
+	@Override
+	public final void sample(RandomUtil random, double[][] target) {
+		sampleMeasurements(random.nextMeasurementSample(), target);
+	}
+	
+	/**
+	 * Sample from the full joint distribution, drawing in the same order for every sample.
+	 * @param target Target array, criteria x alternatives.
+	 */
+	protected abstract void sampleMeasurements(RandomUtil random, double[][] target);
+
 	protected void assertExistAlternativeAndCriterion(Criterion crit, Alternative alt) {
 		assert(criteria.contains(crit));
 		assert(alternatives.contains(alt));
 	}
 
+	/**
+	 * Starts a batch of edits: until the matching {@link #endBatch()}, scale updates and change
+	 * events are deferred. Batches nest.
+	 */
+	public void beginBatch() {
+		if (batchDepth++ == 0) {
+			pendingScales = new LinkedHashSet<Criterion>();
+		}
+	}
+	
+	/**
+	 * Ends a batch of edits. When the outermost batch ends, the scale of each criterion changed
+	 * in the batch is updated once, and each kind of change event is fired at most once.
+	 * @throws IllegalStateException if no batch was started.
+	 */
+	public void endBatch() {
+		if (batchDepth == 0) {
+			throw new IllegalStateException("endBatch() without beginBatch()");
+		}
+		if (--batchDepth > 0) {
+			return;
+		}
+		Set<Criterion> scales = pendingScales;
+		pendingScales = null;
+		for (Criterion c : scales) {
+			if (criteria.contains(c)) {
+				updateScale(c);
+			}
+		}
+		if (pendingTypeChange) {
+			pendingTypeChange = false;
+			fireMeasurementTypeChanged();
+		}
+		if (pendingChange) {
+			pendingChange = false;
+			fireMeasurementChanged();
+		}
+	}
+	
+	/**
+	 * Updates the scale of the criterion, or marks it for update at the end of the current batch.
+	 */
+	protected void scaleChanged(Criterion c) {
+		if (batchDepth > 0) {
+			pendingScales.add(c);
+		} else {
+			updateScale(c);
+		}
+	}
+	
+	/**
+	 * Sets the scale of the criterion from the measurements. Does nothing by default.
+	 */
+	protected void updateScale(Criterion c) {
+	}
+
 	protected void fireMeasurementChanged() {
+		if (batchDepth > 0) {
+			pendingChange = true;
+			return;
+		}
 		for (ImpactMatrixListener l : thisListeners) {
 			l.measurementChanged();
 		}
 	}
 
 	protected void fireMeasurementTypeChanged() {
+		if (batchDepth > 0) {
+			pendingTypeChange = true;
+			return;
+		}
 		for (ImpactMatrixListener l : thisListeners) {
 			l.measurementTypeChanged();
 		}
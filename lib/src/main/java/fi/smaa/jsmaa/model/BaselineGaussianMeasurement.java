@@ -31,7 +31,8 @@ import javolution.xml.stream.XMLStreamException;
  */
 public class BaselineGaussianMeasurement extends GaussianMeasurement {
 	private static final long serialVersionUID = 5221976399470534972L;
-	private Double d_sample = null;
+	private transient double d_lastSample;
+	private transient boolean d_sampled;
 
 	public BaselineGaussianMeasurement(Double mean, Double stdDev) {
 		super(mean, stdDev);
@@ -45,14 +46,15 @@ public class BaselineGaussianMeasurement extends GaussianMeasurement {
 	 * Advance to the next state.
 	 */
 	public void update(RandomUtil random) {
-		d_sample = super.sample(random);
+		d_lastSample = super.sample(random);
+		d_sampled = true;
 	}
 	
 	public double sample(RandomUtil random) {
-		if (d_sample == null) {
+		if (!d_sampled) {
 			throw new IllegalStateException(getClass().getSimpleName() + " requires calling update() before sample()");
 		}
-		return d_sample;
+		return d_lastSample;
 	}
 	
 	@Override
@@ -27,6 +27,7 @@ import javolution.xml.stream.XMLStreamException;
 
 import org.apache.commons.math3.distribution.BetaDistribution;
 
+import fi.smaa.common.BetaSampler;
 import fi.smaa.common.RandomUtil;
 
 public class BetaMeasurement extends CardinalMeasurement {
@@ -42,6 +43,7 @@ public class BetaMeasurement extends CardinalMeasurement {
 	private Double beta;
 	private Double min;
 	private Double max;
+	private transient BetaSampler sampler;
 		
 	public BetaMeasurement(double alpha, double beta, double min, double max) {
 		assert(alpha > 0.0);
@@ -96,6 +98,7 @@ public class BetaMeasurement extends CardinalMeasurement {
 		
 		Object oldval = this.alpha;
 		this.alpha = alpha;
+		sampler = null;
 		firePropertyChange(PROPERTY_ALPHA, oldval, this.alpha);				
 	}
 
@@ -108,6 +111,7 @@ public class BetaMeasurement extends CardinalMeasurement {
 		
 		Object oldval = this.beta;
 		this.beta = beta;
+		sampler = null;
 		firePropertyChange(PROPERTY_BETA, oldval, this.beta);				
 	}	
 	
@@ -125,7 +129,12 @@ public class BetaMeasurement extends CardinalMeasurement {
 
 	@Override
 	public double sample(RandomUtil random) {
-		return random.createBeta(min, max, alpha, beta);
+		BetaSampler s = sampler;
+		if (s == null) {
+			s = new BetaSampler(alpha, beta);
+			sampler = s;
+		}
+		return random.createBeta(s, min, max);
 	}
 	
 	public BetaMeasurement deepCopy() {
@@ -41,6 +41,7 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 	private static final int MAXGENITERS = 10000;
 	protected Map<Criterion, CardinalMeasurement> prefs = new HashMap<Criterion, CardinalMeasurement>();
 	private static final double WEIGHT_EPSILON = 1E-4;
+	private transient int lastRejections;
 
 	public CardinalPreferenceInformation(List<Criterion> criteria) {
 		super(criteria);
@@ -85,8 +86,21 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 
 		double[] tmpArr = new double[numIntervalCriteria];
 
+		random.beginRejectionBlock();
+		try {
+			return sampleWeights(random, weights, tmpArr, lowerBounds);
+		} finally {
+			random.endRejectionBlock();
+		}
+	}
+	
+	private double[] sampleWeights(RandomUtil random, double[] weights, double[] tmpArr, double lowerBounds) throws IterationException {
 		for (int iter=0;iter<MAXGENITERS;iter++) {
-			if (numIntervalCriteria > 0) {
+			lastRejections = iter;
+			if (iter > 0) {
+				random.retryRejectionBlock();
+			}
+			if (tmpArr.length > 0) {
 				random.createSumToRand(tmpArr, 1.0 - lowerBounds);
 			}
 
@@ -112,8 +126,16 @@ public final class CardinalPreferenceInformation extends AbstractPreferenceInfor
 				return weights;
 			}
 		}
+		lastRejections = MAXGENITERS;
 		throw new IterationException("infeasible weight constraints");
 	}
+	
+	/**
+	 * @return the number of weight vectors rejected by the last call to sampleWeights.
+	 */
+	public int getLastRejections() {
+		return lastRejections;
+	}
 
 	private boolean checkSumTo1(double[] weights) {
 		double sum = 0.0;
@@ -23,7 +23,9 @@
 package fi.smaa.jsmaa.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -47,6 +49,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 
 	private List<Point2D> discretePoints;
 	private TotalProbability totalProbability;
+	private transient SampleTable sampleTable;
 
 	public DiscreteMeasurement(List<Point2D> discretePoints)
 			throws PointOutsideIntervalException {
@@ -84,20 +87,25 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 		return new Interval(min, max);
 	}
 
+	/**
+	 * Samples from tables that are built on the first call after the points have changed. Takes a
+	 * single uniform draw. Pseudo-random draws use an alias table in constant time; ordered draws
+	 * (see {@link RandomUtil#isOrdered()}) invert the cumulative distribution in logarithmic time,
+	 * so that the sample is monotone in the draw as variance reduction and quasi-random sampling
+	 * require.
+	 */
 	@Override
 	public double sample(RandomUtil random) {
-		if (totalProbability.doubleValue() < 1.0) {
-			throw new InvalidIntervalException("Discrete measurement probabilities sum to less than 1");
-		}
-		double probability = random.createUnif01();
-		double total = 0.0;
-		for (Point2D point : discretePoints) {
-			total += point.getY();
-			if (total >= probability) {
-				return point.getX();
+		SampleTable table = sampleTable;
+		if (table == null) {
+			if (totalProbability.doubleValue() < 1.0) {
+				throw new InvalidIntervalException("Discrete measurement probabilities sum to less than 1");
 			}
+			table = new SampleTable(discretePoints);
+			sampleTable = table;
 		}
-		return Double.NaN; // it will never get here
+		double u = random.createUnif01();
+		return random.isOrdered() ? table.sampleInverse(u) : table.sampleAlias(u);
 	}
 
 	public List<Point2D> getList() {
@@ -234,6 +242,10 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 		if (!checkFeasibility(points))
 			return false;
 		discretePoints.addAll(index, points);
+		for (Point2D point : points) {
+			totalProbability.add(point.getY());
+		}
+		fireIntervalAdded(this, index, index + points.size() - 1);
 		return true;
 	}
 
@@ -371,6 +383,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 
 	protected void fireContentsChanged(Object source, int startIndex,
 			int endIndex) {
+		sampleTable = null;
 		ListDataEvent event = new ListDataEvent(source,
 				ListDataEvent.CONTENTS_CHANGED, startIndex, endIndex);
 		ListDataListener[] listeners = getListDataListeners();
@@ -381,6 +394,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 	}
 
 	protected void fireIntervalAdded(Object source, int startIndex, int endIndex) {
+		sampleTable = null;
 		ListDataEvent event = new ListDataEvent(source,
 				ListDataEvent.INTERVAL_ADDED, startIndex, endIndex);
 		ListDataListener[] listeners = getListDataListeners();
@@ -392,6 +406,7 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 
 	protected void fireIntervalRemoved(Object source, int startIndex,
 			int endIndex) {
+		sampleTable = null;
 		ListDataEvent event = new ListDataEvent(source,
 				ListDataEvent.INTERVAL_REMOVED, startIndex, endIndex);
 		ListDataListener[] listeners = getListDataListeners();
@@ -401,6 +416,101 @@ public class DiscreteMeasurement extends CardinalMeasurement implements
 		firePropertyChange(PROPERTY_DISCRETEPOINTS, null, null);
 	}
 	
+	/**
+	 * Walker's alias table, built with Vose's method: column i is chosen uniformly, and then
+	 * either its own point (with probability prob[i]) or its alias. Also holds the cumulative
+	 * distribution of the points in ascending order, for sampling by inversion.
+	 */
+	private static class SampleTable {
+		private final double[] values;
+		private final double[] prob;
+		private final double[] aliasValues;
+		private final double[] sortedValues;
+		private final double[] cumulative;
+		
+		public SampleTable(List<Point2D> points) {
+			int n = points.size();
+			values = new double[n];
+			prob = new double[n];
+			aliasValues = new double[n];
+			
+			double total = 0.0;
+			for (Point2D p : points) {
+				total += p.getY();
+			}
+			int[] small = new int[n];
+			int[] large = new int[n];
+			int nSmall = 0;
+			int nLarge = 0;
+			for (int i=0;i<n;i++) {
+				values[i] = points.get(i).getX();
+				aliasValues[i] = values[i];
+				prob[i] = points.get(i).getY() * n / total;
+				if (prob[i] < 1.0) {
+					small[nSmall++] = i;
+				} else {
+					large[nLarge++] = i;
+				}
+			}
+			while (nSmall > 0 && nLarge > 0) {
+				int s = small[--nSmall];
+				int l = large[--nLarge];
+				aliasValues[s] = values[l];
+				prob[l] = (prob[l] + prob[s]) - 1.0;
+				if (prob[l] < 1.0) {
+					small[nSmall++] = l;
+				} else {
+					large[nLarge++] = l;
+				}
+			}
+			// the remaining columns are full, up to rounding
+			while (nLarge > 0) {
+				prob[large[--nLarge]] = 1.0;
+			}
+			while (nSmall > 0) {
+				prob[small[--nSmall]] = 1.0;
+			}
+			
+			Point2D[] sorted = points.toArray(new Point2D[n]);
+			Arrays.sort(sorted, new Comparator<Point2D>() {
+				public int compare(Point2D a, Point2D b) {
+					return Double.compare(a.getX(), b.getX());
+				}
+			});
+			sortedValues = new double[n];
+			cumulative = new double[n];
+			double sum = 0.0;
+			for (int i=0;i<n;i++) {
+				sortedValues[i] = sorted[i].getX();
+				sum += sorted[i].getY();
+				cumulative[i] = sum / total;
+			}
+		}
+		
+		public double sampleAlias(double u) {
+			double x = u * values.length;
+			int i = Math.min((int) x, values.length - 1);
+			return x - i < prob[i] ? values[i] : aliasValues[i];
+		}
+		
+		/**
+		 * @return the first value whose cumulative probability exceeds u.
+		 */
+		public double sampleInverse(double u) {
+			int lo = 0;
+			int hi = sortedValues.length - 1;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (cumulative[mid] > u) {
+					hi = mid;
+				} else {
+					lo = mid + 1;
+				}
+			}
+			return sortedValues[lo];
+		}
+	}
+	
 	private class TotalProbability {
 		private long totalProbability;
 		private static final int MULTIPLIER=10000000;
@@ -0,0 +1,225 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A file of joint draws of the measurements, such as the posterior samples of a Bayesian model.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: {@link #MAGIC}, the format version,
+ * the number of criteria, the number of alternatives (all ints) and the number of draws (a long).
+ * The draws follow, each as criteria x alternatives doubles in row-major order. All numbers are
+ * little-endian, so that an array of draws written by other tools can be used after prepending the
+ * header. The file is memory-mapped read-only, in segments of whole draws because a single mapping
+ * is limited to 2 GB, so files larger than the heap can be used.
+ * 
+ * @see EmpiricalDrawsWriter
+ * @see EmpiricalMeasurements
+ */
+public class EmpiricalDraws implements Serializable {
+	private static final long serialVersionUID = 3015880244577924307L;
+
+	public static final String FILE_EXTENSION = "jsmaad";
+	public static final int MAGIC = 0x444D534A; // "JSMD"
+	public static final int FORMAT_VERSION = 1;
+	public static final int HEADER_SIZE = 24;
+	
+	private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+	private final File file;
+	private final int numCriteria;
+	private final int numAlternatives;
+	private final long numDraws;
+	private final int drawsPerSegment;
+	private transient DoubleBuffer[] segments;
+	private transient double[] min;
+	private transient double[] max;
+	
+	/**
+	 * Opens a file of draws. The file is mapped when the draws are first read.
+	 * 
+	 * @throws IOException if reading fails or the file doesn't contain valid draws.
+	 */
+	public EmpiricalDraws(File file) throws IOException {
+		this(file, MAX_SEGMENT_SIZE);
+	}
+	
+	EmpiricalDraws(File file, long maxSegmentSize) throws IOException {
+		this.file = file;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			if (raf.length() < HEADER_SIZE) {
+				throw new IOException("Not a draws file: " + file);
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			raf.readFully(header.array());
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a draws file: " + file);
+			}
+			int version = header.getInt();
+			if (version != FORMAT_VERSION) {
+				throw new IOException("Unsupported draws format version " + version);
+			}
+			numCriteria = header.getInt();
+			numAlternatives = header.getInt();
+			numDraws = header.getLong();
+			if (numCriteria < 0 || numAlternatives < 0 || numDraws < 1) {
+				throw new IOException("Invalid dimensions in draws file " + file);
+			}
+			long drawSize = getDrawSize() * 8L;
+			if (drawSize > maxSegmentSize) {
+				throw new IOException("A single draw in " + file + " exceeds the maximum mapping size");
+			}
+			if (raf.length() != HEADER_SIZE + numDraws * drawSize) {
+				throw new IOException("Size of " + file + " does not match its header");
+			}
+			drawsPerSegment = drawSize == 0 ? Integer.MAX_VALUE : (int) Math.min(maxSegmentSize / drawSize, Integer.MAX_VALUE);
+		} finally {
+			raf.close();
+		}
+	}
+	
+	public File getFile() {
+		return file;
+	}
+
+	public int getNumCriteria() {
+		return numCriteria;
+	}
+	
+	public int getNumAlternatives() {
+		return numAlternatives;
+	}
+	
+	public long getNumDraws() {
+		return numDraws;
+	}
+	
+	/**
+	 * The number of values in a single draw: criteria x alternatives.
+	 */
+	public int getDrawSize() {
+		return numCriteria * numAlternatives;
+	}
+	
+	int getDrawsPerSegment() {
+		return drawsPerSegment;
+	}
+	
+	/**
+	 * Views of the mapped segments, with a position independent of other views. Draw d starts at
+	 * index (d % getDrawsPerSegment()) * getDrawSize() of segment d / getDrawsPerSegment().
+	 * 
+	 * @throws IllegalStateException if the file can no longer be mapped.
+	 */
+	DoubleBuffer[] createViews() {
+		DoubleBuffer[] segs = getSegments();
+		DoubleBuffer[] views = new DoubleBuffer[segs.length];
+		for (int i = 0; i < segs.length; ++i) {
+			views[i] = segs[i].duplicate();
+		}
+		return views;
+	}
+	
+	/**
+	 * The smallest and largest value in the given cell over all draws. The file is scanned once, on
+	 * the first call.
+	 * 
+	 * @return an interval.
+	 */
+	public Interval getRange(int criterion, int alternative) {
+		synchronized (this) {
+			if (min == null) {
+				scan();
+			}
+		}
+		int cell = criterion * numAlternatives + alternative;
+		return new Interval(min[cell], max[cell]);
+	}
+
+	private void scan() {
+		int size = getDrawSize();
+		double[] lo = new double[size];
+		double[] hi = new double[size];
+		Arrays.fill(lo, Double.POSITIVE_INFINITY);
+		Arrays.fill(hi, Double.NEGATIVE_INFINITY);
+		double[] draw = new double[size];
+		for (DoubleBuffer seg : createViews()) {
+			seg.position(0);
+			while (seg.remaining() >= size && size > 0) {
+				seg.get(draw);
+				for (int i = 0; i < size; ++i) {
+					double x = draw[i];
+					if (x < lo[i]) {
+						lo[i] = x;
+					}
+					if (x > hi[i]) {
+						hi[i] = x;
+					}
+				}
+			}
+		}
+		max = hi;
+		min = lo;
+	}
+	
+	private synchronized DoubleBuffer[] getSegments() {
+		if (segments == null) {
+			try {
+				segments = map();
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to map " + file, e);
+			}
+		}
+		return segments;
+	}
+	
+	private DoubleBuffer[] map() throws IOException {
+		long drawSize = getDrawSize() * 8L;
+		int count = (int) ((numDraws + drawsPerSegment - 1) / drawsPerSegment);
+		DoubleBuffer[] segs = new DoubleBuffer[count];
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			// the mappings remain valid after the channel is closed
+			FileChannel channel = raf.getChannel();
+			for (int i = 0; i < count; ++i) {
+				long first = (long) i * drawsPerSegment;
+				long draws = Math.min(drawsPerSegment, numDraws - first);
+				ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * drawSize, draws * drawSize);
+				segs[i] = buf.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			}
+		} finally {
+			raf.close();
+		}
+		return segs;
+	}
+}
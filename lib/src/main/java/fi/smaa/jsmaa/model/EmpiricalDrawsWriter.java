@@ -0,0 +1,123 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a file of joint draws in the format of {@link EmpiricalDraws}, one draw at a time. The
+ * number of draws in the header is filled in on {@link #close()}.
+ */
+public class EmpiricalDrawsWriter {
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int numCriteria;
+	private final int numAlternatives;
+	private long numDraws;
+	
+	/**
+	 * Creates the file, replacing an existing one.
+	 */
+	public EmpiricalDrawsWriter(File file, int numCriteria, int numAlternatives) throws IOException {
+		if (numCriteria < 0 || numAlternatives < 0) {
+			throw new IllegalArgumentException("negative dimensions");
+		}
+		this.numCriteria = numCriteria;
+		this.numAlternatives = numAlternatives;
+		raf = new RandomAccessFile(file, "rw");
+		raf.setLength(0);
+		channel = raf.getChannel();
+		buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, numCriteria * numAlternatives * 8)).order(ByteOrder.LITTLE_ENDIAN);
+		writeHeader();
+	}
+	
+	/**
+	 * Appends a draw.
+	 * 
+	 * @param draw the measurements, criteria x alternatives.
+	 * @throws IllegalArgumentException if the dimensions of the draw do not match the file.
+	 */
+	public void write(double[][] draw) throws IOException {
+		if (draw.length != numCriteria) {
+			throw new IllegalArgumentException("draw.length != numCriteria");
+		}
+		if (buffer.remaining() < numCriteria * numAlternatives * 8) {
+			flush();
+		}
+		for (double[] row : draw) {
+			if (row.length != numAlternatives) {
+				throw new IllegalArgumentException("draw[i].length != numAlternatives");
+			}
+		}
+		for (double[] row : draw) {
+			for (double x : row) {
+				buffer.putDouble(x);
+			}
+		}
+		++numDraws;
+	}
+	
+	/**
+	 * Writes the buffered draws and the number of draws, and closes the file.
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+			writeHeader();
+		} finally {
+			raf.close();
+		}
+	}
+	
+	private void writeHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(EmpiricalDraws.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(EmpiricalDraws.MAGIC);
+		header.putInt(EmpiricalDraws.FORMAT_VERSION);
+		header.putInt(numCriteria);
+		header.putInt(numAlternatives);
+		header.putLong(numDraws);
+		header.flip();
+		long pos = channel.position();
+		channel.position(0);
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+		channel.position(Math.max(pos, EmpiricalDraws.HEADER_SIZE));
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
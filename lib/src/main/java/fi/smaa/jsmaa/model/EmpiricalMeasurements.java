@@ -0,0 +1,285 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fi.smaa.common.RandomUtil;
+
+/**
+ * Measurements given by a file of joint draws, such as the posterior samples of a Bayesian model,
+ * so that the dependencies between criteria and alternatives are kept as they are. Each sample is a
+ * uniformly chosen draw of the file, read from the memory-mapped file without copying it to the
+ * heap: the cost of a sample does not depend on the number of draws.
+ * <p>
+ * Each criterion and alternative is bound to a row and column of the draws. They are bound in the
+ * order in which they are added, to the first row or column not bound to another one, so that a
+ * model built by adding the alternatives and criteria in the order of the file uses the draws as
+ * they are. Deleting and reordering keeps the binding of the others. The scales are the ranges of
+ * the draws of the bound cells.
+ * 
+ * @see EmpiricalDraws
+ */
+public class EmpiricalMeasurements extends AbstractMeasurements implements FullJointMeasurements {
+	private static final long serialVersionUID = -2911566387260458937L;
+	
+	private final EmpiricalDraws draws;
+	private final Map<Criterion, Integer> criterionRows = new HashMap<Criterion, Integer>();
+	private final Map<Alternative, Integer> alternativeColumns = new HashMap<Alternative, Integer>();
+	private transient DoubleBuffer[] views;
+	private transient int[] rows;
+	private transient int[] columns;
+	private transient boolean contiguous;
+
+	/**
+	 * Creates measurements without criteria and alternatives, to be bound as they are added.
+	 */
+	public EmpiricalMeasurements(EmpiricalDraws draws) {
+		this(draws, Collections.<Criterion>emptyList(), Collections.<Alternative>emptyList());
+	}
+	
+	/**
+	 * Creates measurements binding the criteria and alternatives to the rows and columns of the
+	 * draws, in order.
+	 * 
+	 * @throws IllegalArgumentException if there are more criteria or alternatives than in the draws.
+	 */
+	public EmpiricalMeasurements(EmpiricalDraws draws, List<Criterion> criteria, List<Alternative> alternatives) {
+		super(criteria, alternatives);
+		if (criteria.size() > draws.getNumCriteria()) {
+			throw new IllegalArgumentException("criteria.size() > draws.getNumCriteria()");
+		}
+		if (alternatives.size() > draws.getNumAlternatives()) {
+			throw new IllegalArgumentException("alternatives.size() > draws.getNumAlternatives()");
+		}
+		this.draws = draws;
+		for (int i = 0; i < criteria.size(); ++i) {
+			criterionRows.put(criteria.get(i), i);
+		}
+		for (int i = 0; i < alternatives.size(); ++i) {
+			alternativeColumns.put(alternatives.get(i), i);
+		}
+		updateScales();
+	}
+	
+	public EmpiricalDraws getDraws() {
+		return draws;
+	}
+	
+	/**
+	 * The row of the draws bound to the criterion, or null if it is not in the measurements.
+	 */
+	public Integer getRow(Criterion c) {
+		return criterionRows.get(c);
+	}
+
+	/**
+	 * The column of the draws bound to the alternative, or null if it is not in the measurements.
+	 */
+	public Integer getColumn(Alternative a) {
+		return alternativeColumns.get(a);
+	}
+
+	/**
+	 * @throws IllegalStateException if all columns of the draws are bound.
+	 */
+	@Override
+	public void addAlternative(Alternative alt) {
+		if (alternativeColumns.containsKey(alt)) {
+			return;
+		}
+		alternativeColumns.put(alt, firstUnbound(alternativeColumns, draws.getNumAlternatives()));
+		alternatives.add(alt);
+		structureChanged();
+		updateScales();
+	}
+
+	@Override
+	public void deleteAlternative(Alternative alt) {
+		if (alternativeColumns.remove(alt) == null) {
+			return;
+		}
+		alternatives.remove(alt);
+		structureChanged();
+		updateScales();
+	}
+
+	@Override
+	public void reorderAlternatives(List<Alternative> alts) {
+		alternatives.clear();
+		alternatives.addAll(alts);
+		structureChanged();
+	}
+
+	/**
+	 * The scale of an added criterion is always set, as its draws are known.
+	 * @throws IllegalStateException if all rows of the draws are bound.
+	 */
+	@Override
+	public void addCriterion(Criterion c, boolean updateScales) {
+		if (criterionRows.containsKey(c)) {
+			return;
+		}
+		criterionRows.put(c, firstUnbound(criterionRows, draws.getNumCriteria()));
+		criteria.add(c);
+		structureChanged();
+		scaleChanged(c);
+	}
+
+	@Override
+	public void deleteCriterion(Criterion c) {
+		if (criterionRows.remove(c) == null) {
+			return;
+		}
+		criteria.remove(c);
+		structureChanged();
+	}
+
+	@Override
+	public void reorderCriteria(List<Criterion> crits) {
+		criteria.clear();
+		criteria.addAll(crits);
+		structureChanged();
+	}
+
+	@Override
+	protected void sampleMeasurements(RandomUtil random, double[][] target) {
+		if (rows == null) {
+			index();
+		}
+		long numDraws = draws.getNumDraws();
+		long d = Math.min((long) (random.createUnif01() * numDraws), numDraws - 1);
+		int perSegment = draws.getDrawsPerSegment();
+		DoubleBuffer seg = views[(int) (d / perSegment)];
+		int base = (int) (d % perSegment) * draws.getDrawSize();
+		int numAlts = draws.getNumAlternatives();
+		for (int i = 0; i < rows.length; ++i) {
+			int row = base + rows[i] * numAlts;
+			double[] t = target[i];
+			if (contiguous) {
+				seg.position(row);
+				seg.get(t, 0, columns.length);
+			} else {
+				for (int j = 0; j < columns.length; ++j) {
+					t[j] = seg.get(row + columns[j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The range of the draws of the criterion over the alternatives, or null for an ordinal criterion.
+	 */
+	@Override
+	public Interval getRange(Criterion crit) {
+		if (!(crit instanceof CardinalCriterion)) {
+			return null;
+		}
+		int row = criterionRows.get(crit);
+		List<Interval> ivals = new ArrayList<Interval>();
+		for (Alternative a : alternatives) {
+			ivals.add(draws.getRange(row, alternativeColumns.get(a)));
+		}
+		return ivals.isEmpty() ? new Interval(0.0, 0.0) : Interval.enclosingInterval(ivals);
+	}
+
+	/**
+	 * Make a copy sharing the draws, binding the given criteria and alternatives to the rows and
+	 * columns of the ones in the same position.
+	 */
+	@Override
+	public EmpiricalMeasurements deepCopy(List<Criterion> crit, List<Alternative> alts) {
+		if (getAlternatives().size() != alts.size()) {
+			throw new IllegalArgumentException("getAlternatives().size() != alts.size()");
+		}
+		if (getCriteria().size() != crit.size()) {
+			throw new IllegalArgumentException("getCriteria().size() != crit.size()");
+		}
+		EmpiricalMeasurements m = new EmpiricalMeasurements(draws);
+		m.criteria.addAll(crit);
+		m.alternatives.addAll(alts);
+		for (int i = 0; i < crit.size(); ++i) {
+			m.criterionRows.put(crit.get(i), criterionRows.get(criteria.get(i)));
+		}
+		for (int i = 0; i < alts.size(); ++i) {
+			m.alternativeColumns.put(alts.get(i), alternativeColumns.get(alternatives.get(i)));
+		}
+		m.updateScales();
+		return m;
+	}
+	
+	private void structureChanged() {
+		rows = null;
+		columns = null;
+	}
+	
+	private void index() {
+		if (views == null) {
+			views = draws.createViews();
+		}
+		int[] r = new int[criteria.size()];
+		for (int i = 0; i < r.length; ++i) {
+			r[i] = criterionRows.get(criteria.get(i));
+		}
+		int[] c = new int[alternatives.size()];
+		boolean cont = true;
+		for (int j = 0; j < c.length; ++j) {
+			c[j] = alternativeColumns.get(alternatives.get(j));
+			cont &= c[j] == j;
+		}
+		contiguous = cont;
+		columns = c;
+		rows = r;
+	}
+	
+	private static <T> int firstUnbound(Map<T, Integer> bound, int size) {
+		boolean[] used = new boolean[size];
+		for (Integer i : bound.values()) {
+			used[i] = true;
+		}
+		for (int i = 0; i < size; ++i) {
+			if (!used[i]) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("All " + size + " rows or columns of the draws are bound");
+	}
+
+	private void updateScales() {
+		for (Criterion c : criteria) {
+			scaleChanged(c);
+		}
+	}
+	
+	@Override
+	protected void updateScale(Criterion c) {
+		if (c instanceof ScaleCriterion) {
+			((ScaleCriterion) c).setScale(getRange(c));
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.util.List;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+import fi.smaa.common.RandomUtil;
+
+/**
+ * Multivariate Gaussian measurement with a factor-model covariance: the covariance is L L^T + D for
+ * an n x k matrix of loadings L and a diagonal of specific variances D. Storage and sampling are
+ * O(n k), so unlike {@link MultivariateGaussianCriterionMeasurement} it scales to thousands of
+ * alternatives. A sample is mean + L f + sqrt(D) e for k + n independent standard normals f and e.
+ */
+public class FactorGaussianCriterionMeasurement extends AbstractEntity implements CriterionMeasurement {
+	private static final long serialVersionUID = -2387451196603541129L;
+	public static final String PROPERTY_ALTERNATIVES = "alternatives";
+	public static final String PROPERTY_MEAN_VECTOR = "meanVector";
+	public static final String PROPERTY_LOADINGS = "loadings";
+	public static final String PROPERTY_VARIANCES = "variances";
+	
+	private final List<Alternative> alternatives;
+	private RealVector meanVector;
+	private RealMatrix loadings;
+	private RealVector variances;
+	
+	/**
+	 * Caches the parameters as arrays for sampling; rebuilt when a parameter changes.
+	 */
+	private transient double[] mean;
+	private transient double[][] loadingRows;
+	private transient double[] specificStdDev;
+	private transient double[] factors;
+	
+	/**
+	 * Creates a measurement with zero mean and zero loadings on the given number of factors, and unit
+	 * specific variances (so an identity covariance).
+	 * @param numFactors the number of factors, at least 1.
+	 */
+	public FactorGaussianCriterionMeasurement(List<Alternative> alternatives, int numFactors) {
+		if (numFactors < 1) {
+			throw new IllegalArgumentException("Number of factors must be positive: " + numFactors);
+		}
+		this.alternatives = new IndexedList<Alternative>(alternatives);
+		this.meanVector = new ArrayRealVector(alternatives.size(), 0.0);
+		this.loadings = new Array2DRowRealMatrix(alternatives.size(), numFactors);
+		this.variances = new ArrayRealVector(alternatives.size(), 1.0);
+	}
+	
+	@Override
+	public List<Alternative> getAlternatives() {
+		return alternatives;
+	}
+	
+	public int getNumFactors() {
+		return loadings.getColumnDimension();
+	}
+
+	@Override
+	public void addAlternative(Alternative alt) {
+		alternatives.add(alt);
+		final int n = alternatives.size();
+		RealMatrix newLoadings = new Array2DRowRealMatrix(n, getNumFactors());
+		if (n > 1) {
+			newLoadings.setSubMatrix(loadings.getData(), 0, 0);
+		}
+		fireEvents(setMeanVectorInternal(meanVector.append(0.0)), setLoadingsInternal(newLoadings),
+				setVariancesInternal(variances.append(1.0)));
+	}
+
+	@Override
+	public void deleteAlternative(Alternative alt) {
+		final int index = alternatives.indexOf(alt);
+		if (index < 0) {
+			return;
+		}
+		alternatives.remove(index);
+		int[] rows = new int[alternatives.size()];
+		for (int i = 0; i < rows.length; ++i) {
+			rows[i] = i < index ? i : i + 1;
+		}
+		fireEvents(setMeanVectorInternal(select(meanVector, rows)), setLoadingsInternal(select(loadings, rows)),
+				setVariancesInternal(select(variances, rows)));
+	}
+
+	@Override
+	public void reorderAlternatives(List<Alternative> alts) {
+		int[] rows = new int[alts.size()];
+		for (int i = 0; i < rows.length; ++i) {
+			rows[i] = alternatives.indexOf(alts.get(i));
+		}
+		alternatives.clear();
+		alternatives.addAll(alts);
+		fireEvents(setMeanVectorInternal(select(meanVector, rows)), setLoadingsInternal(select(loadings, rows)),
+				setVariancesInternal(select(variances, rows)));
+	}
+	
+	private static RealVector select(RealVector v, int[] rows) {
+		double[] data = new double[rows.length];
+		for (int i = 0; i < rows.length; ++i) {
+			data[i] = v.getEntry(rows[i]);
+		}
+		return new ArrayRealVector(data, false);
+	}
+	
+	private static RealMatrix select(RealMatrix m, int[] rows) {
+		double[][] data = new double[rows.length][];
+		for (int i = 0; i < rows.length; ++i) {
+			data[i] = m.getRow(rows[i]);
+		}
+		return new Array2DRowRealMatrix(data, false);
+	}
+
+	private void fireEvents(RealVector oldMeanVector, RealMatrix oldLoadings, RealVector oldVariances) {
+		firePropertyChange(PROPERTY_ALTERNATIVES, null, alternatives);
+		firePropertyChange(PROPERTY_MEAN_VECTOR, oldMeanVector, meanVector);
+		firePropertyChange(PROPERTY_LOADINGS, oldLoadings, loadings);
+		firePropertyChange(PROPERTY_VARIANCES, oldVariances, variances);
+	}
+	
+	public RealVector getMeanVector() {
+		return meanVector;
+	}
+	
+	public void setMeanVector(RealVector newValue) {
+		RealVector oldValue = setMeanVectorInternal(newValue);
+		firePropertyChange(PROPERTY_MEAN_VECTOR, oldValue, newValue);
+	}
+
+	private RealVector setMeanVectorInternal(RealVector newValue) {
+		checkDimension(newValue.getDimension());
+		RealVector oldValue = meanVector;
+		meanVector = newValue;
+		mean = null;
+		return oldValue;
+	}
+	
+	/**
+	 * @return the n x k matrix of factor loadings.
+	 */
+	public RealMatrix getLoadings() {
+		return loadings;
+	}
+	
+	/**
+	 * Sets the loadings; the number of columns sets the number of factors.
+	 */
+	public void setLoadings(RealMatrix newValue) {
+		RealMatrix oldValue = setLoadingsInternal(newValue);
+		firePropertyChange(PROPERTY_LOADINGS, oldValue, newValue);
+	}
+	
+	private RealMatrix setLoadingsInternal(RealMatrix newValue) {
+		checkDimension(newValue.getRowDimension());
+		RealMatrix oldValue = loadings;
+		loadings = newValue;
+		loadingRows = null;
+		return oldValue;
+	}
+	
+	/**
+	 * @return the specific variances, the diagonal of D.
+	 */
+	public RealVector getVariances() {
+		return variances;
+	}
+	
+	/**
+	 * @throws IllegalArgumentException if a variance is negative.
+	 */
+	public void setVariances(RealVector newValue) {
+		RealVector oldValue = setVariancesInternal(newValue);
+		firePropertyChange(PROPERTY_VARIANCES, oldValue, newValue);
+	}
+	
+	private RealVector setVariancesInternal(RealVector newValue) {
+		checkDimension(newValue.getDimension());
+		for (int i = 0; i < newValue.getDimension(); ++i) {
+			if (!(newValue.getEntry(i) >= 0.0)) {
+				throw new IllegalArgumentException("Negative variance " + newValue.getEntry(i) + " for " + alternatives.get(i));
+			}
+		}
+		RealVector oldValue = variances;
+		variances = newValue;
+		specificStdDev = null;
+		return oldValue;
+	}
+	
+	private void checkDimension(int n) {
+		if (n != alternatives.size()) {
+			throw new IllegalArgumentException("Incorrect dimension " + n + ", expected " + alternatives.size());
+		}
+	}
+	
+	/**
+	 * Computes the full covariance matrix L L^T + D. This takes O(n^2) time and memory.
+	 */
+	public RealMatrix getCovarianceMatrix() {
+		RealMatrix cov = loadings.multiply(loadings.transpose());
+		for (int i = 0; i < alternatives.size(); ++i) {
+			cov.addToEntry(i, i, variances.getEntry(i));
+		}
+		return cov;
+	}
+	
+	/**
+	 * @return the marginal variance of the given alternative, the i-th diagonal element of the covariance.
+	 */
+	public double getVariance(int index) {
+		double var = variances.getEntry(index);
+		for (int j = 0; j < getNumFactors(); ++j) {
+			double l = loadings.getEntry(index, j);
+			var += l * l;
+		}
+		return var;
+	}
+
+	@Override
+	public void sample(RandomUtil random, double[][] target, int criterionIndex) {
+		if (mean == null) {
+			mean = meanVector.toArray();
+		}
+		if (loadingRows == null) {
+			loadingRows = loadings.getData();
+			factors = new double[getNumFactors()];
+		}
+		if (specificStdDev == null) {
+			specificStdDev = new double[alternatives.size()];
+			for (int i = 0; i < specificStdDev.length; ++i) {
+				specificStdDev[i] = Math.sqrt(variances.getEntry(i));
+			}
+		}
+		for (int j = 0; j < factors.length; ++j) {
+			factors[j] = random.createGaussian(0.0, 1.0);
+		}
+		double[] row = target[criterionIndex];
+		for (int i = 0; i < mean.length; ++i) {
+			double x = mean[i];
+			double[] l = loadingRows[i];
+			for (int j = 0; j < factors.length; ++j) {
+				x += l[j] * factors[j];
+			}
+			row[i] = x + random.createGaussian(0.0, specificStdDev[i]);
+		}
+	}
+	
+	/**
+	 * Derives range of 95% confidence interval, as for {@link MultivariateGaussianCriterionMeasurement#getRange()}.
+	 */
+	@Override
+	public Interval getRange() {
+		final double z = 1.96;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < alternatives.size(); ++i) {
+			double sd = Math.sqrt(getVariance(i));
+			min = Math.min(min, meanVector.getEntry(i) - z * sd);
+			max = Math.max(max, meanVector.getEntry(i) + z * sd);
+		}
+		return new Interval(min, max);
+	}
+
+	@Override
+	public FactorGaussianCriterionMeasurement deepCopy(List<Alternative> alts) {
+		if (getAlternatives().size() != alts.size()) {
+			throw new IllegalArgumentException("getAlternatives().size() != alts.size()");
+		}
+		FactorGaussianCriterionMeasurement m = new FactorGaussianCriterionMeasurement(alts, getNumFactors());
+		m.setMeanVector(meanVector.copy());
+		m.setLoadings(loadings.copy());
+		m.setVariances(variances.copy());
+		return m;
+	}
+}
@@ -27,6 +27,7 @@ import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,14 +38,37 @@ import fi.smaa.common.RandomUtil;
 import fi.smaa.jsmaa.model.xml.CriterionAlternativeMeasurement;
 import fi.smaa.jsmaa.simulator.Sampler;
 
+/**
+ * Independent measurements, stored densely: each criterion and alternative holds a slot, a stable
+ * index into the rows and columns of the measurement array that does not change when others are
+ * added, deleted or reordered. Slots of deleted entities are reused.
+ */
 public final class ImpactMatrix extends AbstractMeasurements implements IndependentMeasurements {
 	
-	private static final long serialVersionUID = -5524839710856011441L;
+	private static final long serialVersionUID = 4476315337217218962L;
 	
-	Map<Criterion, Map<Alternative, Measurement>> measurements = new HashMap<Criterion, Map<Alternative, Measurement>>();
+	private static final int INITIAL_CAPACITY = 4;
+	
+	private final Map<Criterion, Integer> criterionSlots = new HashMap<Criterion, Integer>();
+	private final Map<Alternative, Integer> alternativeSlots = new HashMap<Alternative, Integer>();
+	private final List<Integer> freeCriterionSlots = new ArrayList<Integer>();
+	private final List<Integer> freeAlternativeSlots = new ArrayList<Integer>();
+	private int numCriterionSlots;
+	private int numAlternativeSlots;
+	// [criterion slot][alternative slot], rows of free criterion slots are null
+	private Measurement[][] cells = new Measurement[INITIAL_CAPACITY][];
+	private int alternativeCapacity = INITIAL_CAPACITY;
 	private Map<Criterion, BaselineGaussianMeasurement> baselines = new HashMap<Criterion, BaselineGaussianMeasurement>();
-	transient MeasurementListener measListener = new MeasurementListener();
+	// the listener of each cell, which tracks its range for the scale of a ScaleCriterion
+	private transient CellListener[][] cellListeners = new CellListener[INITIAL_CAPACITY][];
+	private transient Map<Criterion, RangeTracker> scaleTrackers = new HashMap<Criterion, RangeTracker>();
 	private transient Map<Criterion, RankSet<Alternative>> ordinalCriteriaRanksSets = new HashMap<Criterion, RankSet<Alternative>>();
+	// slots in the order of the criteria and alternatives, null when the structure has changed
+	private transient int[] criterionOrder;
+	private transient int[] alternativeOrder;
+	// per criterion slot, the copies of the row shared by the snapshots, null when the row changed
+	private transient Measurement[][] snapshotRows = new Measurement[INITIAL_CAPACITY][];
+	private boolean snapshot;
 
 	/**
 	 * Constructs an impact matrix without alternatives or criteria.
@@ -54,7 +78,15 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	
 	@Override
 	public String toString() {
-		return measurements.toString();
+		StringBuilder b = new StringBuilder("{");
+		for (int i = 0; i < criteria.size(); ++i) {
+			b.append(i > 0 ? ", " : "").append(criteria.get(i)).append("={");
+			for (int j = 0; j < alternatives.size(); ++j) {
+				b.append(j > 0 ? ", " : "").append(alternatives.get(j)).append('=').append(getMeasurement(i, j));
+			}
+			b.append('}');
+		}
+		return b.append('}').toString();
 	}
 	
 	/**
@@ -65,13 +97,86 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	 */
 	public ImpactMatrix(List<Alternative> alternatives, List<Criterion> criteria) {
 		for (Alternative a : alternatives) {
-			addAlternative(a);
+			addAlternative(a, false);
 		}
 		for (Criterion c : criteria) {
 			addCriterion(c, false);
 		}		
 	}
 	
+	/**
+	 * Constructs an impact matrix with the given measurements in bulk. The measurements
+	 * are installed without firing events and the scales are computed once, at the end.
+	 * Relative measurements should share the baseline of their criterion.
+	 * 
+	 * @param alternatives the alternatives.
+	 * @param criteria the criteria.
+	 * @param meas the measurements, indexed [criterion][alternative]. Null cells get the default
+	 * measurement of their criterion. The given ranks of an ordinal criterion must form 1..k.
+	 * @throws IllegalArgumentException if the dimensions of meas do not match.
+	 */
+	public ImpactMatrix(List<Alternative> alternatives, List<Criterion> criteria, Measurement[][] meas) {
+		load(alternatives, criteria, meas);
+	}
+	
+	/**
+	 * Installs the alternatives, criteria and measurements of an empty matrix in a single pass.
+	 * Cells left null get the default measurement of their criterion.
+	 */
+	private void load(List<Alternative> alts, List<Criterion> crits, Measurement[][] meas) {
+		assert(alternatives.isEmpty() && criteria.isEmpty());
+		if (meas.length != crits.size()) {
+			throw new IllegalArgumentException("ImpactMatrix.load() : meas.length != criteria.size()");
+		}
+		alternatives.addAll(alts);
+		criteria.addAll(crits);
+		ensureCapacity(crits.size(), alts.size());
+		for (int aIndex=0;aIndex<alts.size();aIndex++) {
+			alternativeSlots.put(alts.get(aIndex), aIndex);
+		}
+		numAlternativeSlots = alts.size();
+		for (int cIndex=0;cIndex<meas.length;cIndex++) {
+			Criterion c = crits.get(cIndex);
+			if (meas[cIndex].length != alts.size()) {
+				throw new IllegalArgumentException("ImpactMatrix.load() : meas[" + cIndex + "].length != alternatives.size()");
+			}
+			criterionSlots.put(c, cIndex);
+			createRow(c, cIndex);
+			Map<Alternative, Rank> ranks = c instanceof OrdinalCriterion ? new HashMap<Alternative, Rank>() : null;
+			if (c instanceof CardinalCriterion) {
+				baselines.put(c, new BaselineGaussianMeasurement());
+			}
+			for (int aIndex=0;aIndex<meas[cIndex].length;aIndex++) {
+				Measurement m = meas[cIndex][aIndex];
+				if (m == null) {
+					if (ranks != null) {
+						continue; // ranked after the given ones below
+					}
+					m = new Interval();
+				}
+				connect(c, cIndex, aIndex, m);
+				if (ranks != null) {
+					ranks.put(alts.get(aIndex), (Rank) m);
+				}
+				if (m instanceof RelativeGaussianMeasurementBase) {
+					baselines.put(c, ((RelativeGaussianMeasurementBase) m).getBaseline());
+				}
+			}
+			if (ranks != null) {
+				for (int aIndex=0;aIndex<meas[cIndex].length;aIndex++) {
+					if (meas[cIndex][aIndex] == null) {
+						Rank r = new Rank(ranks.size() + 1);
+						connect(c, cIndex, aIndex, r);
+						ranks.put(alts.get(aIndex), r);
+					}
+				}
+				ordinalCriteriaRanksSets.put(c, new RankSet<Alternative>(ranks));
+			}
+		}
+		numCriterionSlots = crits.size();
+		updateScales();
+	}
+	
 	@Override
 	public boolean equals(Object other) {
 		if (!(other instanceof ImpactMatrix)) {
@@ -84,8 +189,13 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 		if (!alternatives.equals(m.alternatives)) {
 			return false;
 		}
-		if (!measurements.equals(m.measurements)) {
-			return false;
+		for (int i = 0; i < criteria.size(); ++i) {
+			for (int j = 0; j < alternatives.size(); ++j) {
+				Measurement meas = getMeasurement(i, j);
+				if (meas == null ? m.getMeasurement(i, j) != null : !meas.equals(m.getMeasurement(i, j))) {
+					return false;
+				}
+			}
 		}
 		if (!baselines.equals(m.baselines)) {
 			return false;
@@ -95,35 +205,105 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	
 	@Override
 	public void setMeasurement(Criterion crit, Alternative alt, Measurement meas) {
+		assertNotSnapshot();
 		if (meas == null) {
 			throw new NullPointerException("null measurement");
 		}
 		assertExistAlternativeAndCriterion(crit, alt);
 		setMeasurementNoFires(crit, alt, meas);
 		if (crit instanceof ScaleCriterion) {
-			updateScales();
+			scaleChanged(crit);
 		}
 		fireMeasurementTypeChanged();
 	}
 
 	private void setMeasurementNoFires(Criterion crit, Alternative alt,
 			Measurement meas) {
-		disconnectConnectMeasurementListener(crit, alt, meas);
-		measurements.get(crit).put(alt, meas);
+		int c = criterionSlots.get(crit);
+		int a = alternativeSlots.get(alt);
+		disconnect(c, a);
+		connect(crit, c, a, meas);
+	}
+	
+	private void connect(Criterion crit, int c, int a, Measurement meas) {
+		CellListener l = new CellListener(crit, c, meas);
+		cells[c][a] = meas;
+		snapshotRows[c] = null;
+		cellListeners[c][a] = l;
+		meas.addPropertyChangeListener(l);
+	}
+	
+	private void disconnect(int c, int a) {
+		CellListener l = cellListeners[c][a];
+		if (l != null) {
+			cells[c][a].removePropertyChangeListener(l);
+			l.untrack();
+			cellListeners[c][a] = null;
+		}
+		cells[c][a] = null;
+		snapshotRows[c] = null;
+	}
+	
+	private void createRow(Criterion c, int slot) {
+		cells[slot] = new Measurement[alternativeCapacity];
+		cellListeners[slot] = new CellListener[alternativeCapacity];
+		snapshotRows[slot] = null;
+		if (c instanceof ScaleCriterion) {
+			scaleTrackers.put(c, new RangeTracker());
+		}
 	}
 	
 	@Override
 	public Measurement getMeasurement(Criterion crit, Alternative alt) {
 		assertExistAlternativeAndCriterion(crit, alt);
-		return measurements.get(crit).get(alt);
+		Integer c = criterionSlots.get(crit);
+		Integer a = alternativeSlots.get(alt);
+		if (c == null || a == null) {
+			return null;
+		}
+		return cells[c][a];
+	}
+	
+	/**
+	 * Get the measurement by position, without looking up the criterion and alternative.
+	 * 
+	 * @param critIndex the index of the criterion in {@link #getCriteria()}.
+	 * @param altIndex the index of the alternative in {@link #getAlternatives()}.
+	 */
+	public Measurement getMeasurement(int critIndex, int altIndex) {
+		if (criterionOrder == null) {
+			index();
+		}
+		return cells[criterionOrder[critIndex]][alternativeOrder[altIndex]];
+	}
+	
+	@Override
+	protected void assertExistAlternativeAndCriterion(Criterion crit, Alternative alt) {
+		assert(criterionSlots.containsKey(crit));
+		assert(alternativeSlots.containsKey(alt));
+	}
+	
+	private void assertNotSnapshot() {
+		if (snapshot) {
+			throw new UnsupportedOperationException("a snapshot can not be edited");
+		}
 	}
 	
 	@Override
 	public void deleteAlternative(Alternative alt) {
-		if (!alternatives.contains(alt)) {
+		assertNotSnapshot();
+		Integer slot = alternativeSlots.remove(alt);
+		if (slot == null) {
 			return;
 		}
 		alternatives.remove(alt);
+		for (int c = 0; c < numCriterionSlots; ++c) {
+			if (cells[c] != null) {
+				disconnect(c, slot);
+			}
+		}
+		freeAlternativeSlots.add(slot);
+		alternativesChanged();
 		for (RankSet<Alternative> set : ordinalCriteriaRanksSets.values()) {
 			set.deleteObject(alt);
 		}
@@ -132,24 +312,31 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	
 	@Override	
 	public void addAlternative(Alternative alt) {
+		assertNotSnapshot();
 		addAlternative(alt, true);
 	}
 	
 	private void addAlternative(Alternative alt, boolean updateScales) {
-		if (alternatives.contains(alt)) {
+		if (alternativeSlots.containsKey(alt)) {
 			return;
 		}
 		alternatives.add(alt);
+		int slot;
+		if (freeAlternativeSlots.isEmpty()) {
+			slot = numAlternativeSlots++;
+			ensureCapacity(numCriterionSlots, numAlternativeSlots);
+		} else {
+			slot = freeAlternativeSlots.remove(freeAlternativeSlots.size() - 1);
+		}
+		alternativeSlots.put(alt, slot);
+		alternativesChanged();
 		for (Criterion c : criteria) {			
-			Map<Alternative, Measurement> map = measurements.get(c);			
-			if (!map.keySet().contains(alt)) {
-				if (c instanceof CardinalCriterion) {
-					setMeasurementNoFires(c, alt, new Interval());
-				} else if (c instanceof OrdinalCriterion) {
-					ordinalCriteriaRanksSets.get(c).addObject(alt);
-					Rank r = ordinalCriteriaRanksSets.get(c).getRank(alt);
-					setMeasurementNoFires(c, alt, r);
-				}
+			if (c instanceof CardinalCriterion) {
+				setMeasurementNoFires(c, alt, new Interval());
+			} else if (c instanceof OrdinalCriterion) {
+				ordinalCriteriaRanksSets.get(c).addObject(alt);
+				Rank r = ordinalCriteriaRanksSets.get(c).getRank(alt);
+				setMeasurementNoFires(c, alt, r);
 			}
 		}
 		if (updateScales) {
@@ -159,23 +346,42 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	
 	@Override
 	public void deleteCriterion(Criterion c) {
-		if (!criteria.contains(c)) {
+		assertNotSnapshot();
+		Integer slot = criterionSlots.remove(c);
+		if (slot == null) {
 			return;
 		}
 		criteria.remove(c);
-		measurements.remove(c);
+		for (int a = 0; a < numAlternativeSlots; ++a) {
+			disconnect(slot, a);
+		}
+		cells[slot] = null;
+		cellListeners[slot] = null;
+		snapshotRows[slot] = null;
+		scaleTrackers.remove(c);
+		freeCriterionSlots.add(slot);
+		structureChanged();
 		ordinalCriteriaRanksSets.remove(c);
 		baselines.remove(c);
 	}
 	
 	@Override
 	public void addCriterion(Criterion c, boolean updateScales) {
-		if (criteria.contains(c)) {
+		assertNotSnapshot();
+		if (criterionSlots.containsKey(c)) {
 			return;
 		}
 		criteria.add(c);	
-		HashMap<Alternative, Measurement> newMap = new HashMap<Alternative, Measurement>();
-		measurements.put(c, newMap);
+		int slot;
+		if (freeCriterionSlots.isEmpty()) {
+			slot = numCriterionSlots++;
+			ensureCapacity(numCriterionSlots, numAlternativeSlots);
+		} else {
+			slot = freeCriterionSlots.remove(freeCriterionSlots.size() - 1);
+		}
+		criterionSlots.put(c, slot);
+		createRow(c, slot);
+		structureChanged();
 		if (c instanceof OrdinalCriterion) {
 			RankSet<Alternative> rs = new RankSet<Alternative>();
 			ordinalCriteriaRanksSets.put(c, rs);
@@ -187,29 +393,71 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 		} else if (c instanceof CardinalCriterion) {
 			baselines.put(c, new BaselineGaussianMeasurement());
 			for (Alternative a : alternatives) {
-				if (getMeasurement(c, a) == null) {
-					setMeasurementNoFires(c, a, new Interval());
-				}
+				setMeasurementNoFires(c, a, new Interval());
 			}
 		}
 		if (c instanceof ScaleCriterion && updateScales) {
-			updateScales();
+			scaleChanged(c);
+		}
+	}
+	
+	private void ensureCapacity(int numCriteria, int numAlternatives) {
+		if (numCriteria > cells.length) {
+			cells = Arrays.copyOf(cells, Math.max(numCriteria, 2 * cells.length));
+			cellListeners = Arrays.copyOf(cellListeners, cells.length);
+			snapshotRows = Arrays.copyOf(snapshotRows, cells.length);
+		}
+		if (numAlternatives > alternativeCapacity) {
+			alternativeCapacity = Math.max(numAlternatives, 2 * alternativeCapacity);
+			for (int i = 0; i < cells.length; ++i) {
+				if (cells[i] != null) {
+					cells[i] = Arrays.copyOf(cells[i], alternativeCapacity);
+					cellListeners[i] = Arrays.copyOf(cellListeners[i], alternativeCapacity);
+				}
+			}
 		}
 	}
 	
+	private void structureChanged() {
+		criterionOrder = null;
+		alternativeOrder = null;
+	}
+	
+	private void alternativesChanged() {
+		structureChanged();
+		Arrays.fill(snapshotRows, null);
+	}
+	
+	private void index() {
+		int[] alts = new int[alternatives.size()];
+		for (int j = 0; j < alts.length; ++j) {
+			alts[j] = alternativeSlots.get(alternatives.get(j));
+		}
+		int[] crits = new int[criteria.size()];
+		for (int i = 0; i < crits.length; ++i) {
+			crits[i] = criterionSlots.get(criteria.get(i));
+		}
+		alternativeOrder = alts;
+		criterionOrder = crits;
+	}
+	
 	private void updateScales() {
 		for (Criterion c : criteria) {
-			if (c instanceof ScaleCriterion) {
-				Map<Alternative, Measurement> cMeas = measurements.get(c);
-				
-				ArrayList<Interval> ivals = new ArrayList<Interval>();
-				for (Measurement m : cMeas.values()) {
-					CardinalMeasurement cm = (CardinalMeasurement) m;
-					ivals.add(cm.getRange());
-				}
-				Interval scale = ivals.size() == 0 ? new Interval(0.0, 0.0) 
-					: Interval.enclosingInterval(ivals);
-				((ScaleCriterion) c).setScale(scale);
+			scaleChanged(c);
+		}
+	}
+	
+	/**
+	 * Sets the scale of the criterion to the ranges tracked by its cells, in O(log A). The scale is
+	 * only replaced if it changed, so that unrelated edits do not fire scale changes.
+	 */
+	@Override
+	protected void updateScale(Criterion c) {
+		if (c instanceof ScaleCriterion) {
+			ScaleCriterion sc = (ScaleCriterion) c;
+			Interval scale = scaleTrackers.get(c).getEnclosing();
+			if (!scale.equals(sc.getScale())) {
+				sc.setScale(scale);
 			}
 		}
 	}
@@ -217,7 +465,9 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	private void readObject(ObjectInputStream i) throws IOException, ClassNotFoundException {
 		i.defaultReadObject();
 		
-		measListener = new MeasurementListener();
+		cellListeners = new CellListener[cells.length][];
+		snapshotRows = new Measurement[cells.length][];
+		scaleTrackers = new HashMap<Criterion, RangeTracker>();
 		ordinalCriteriaRanksSets = new HashMap<Criterion, RankSet<Alternative>>();
 		
 		for (Criterion c : criteria) {
@@ -230,33 +480,63 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 			}
 		}
 		
-		for (Map<Alternative, Measurement> m : measurements.values()) {
-			for (Measurement meas : m.values()) {
-				if (meas != null) {
-					meas.addPropertyChangeListener(measListener);
+		for (Criterion c : criteria) {
+			int cSlot = criterionSlots.get(c);
+			Measurement[] row = cells[cSlot];
+			createRow(c, cSlot);
+			for (int a = 0; a < numAlternativeSlots; ++a) {
+				if (row[a] != null) {
+					connect(c, cSlot, a, row[a]);
 				}
 			}
 		}
 	}
 
-	private class MeasurementListener implements PropertyChangeListener {
-		public void propertyChange(PropertyChangeEvent evt) {
-			if (evt.getSource() instanceof CardinalMeasurement) {
-				updateScales();
+	/**
+	 * Listens to the measurement of a single cell. On a ScaleCriterion, the cell keeps its range in
+	 * the tracker of the criterion, so that a change only updates the scale of its own criterion.
+	 */
+	private class CellListener implements PropertyChangeListener {
+		private final Criterion crit;
+		private final int slot;
+		private final Measurement meas;
+		private RangeTracker tracker;
+		private double start;
+		private double end;
+		
+		public CellListener(Criterion crit, int slot, Measurement meas) {
+			this.crit = crit;
+			this.slot = slot;
+			this.meas = meas;
+			track();
+		}
+		
+		private void track() {
+			tracker = scaleTrackers.get(crit);
+			if (tracker != null) {
+				Interval range = ((CardinalMeasurement) meas).getRange();
+				start = range.getStart();
+				end = range.getEnd();
+				tracker.add(start, end);
 			}
-			fireMeasurementChanged();
 		}
-	}
-	
-	protected void disconnectConnectMeasurementListener(Criterion crit, Alternative alt, Measurement meas) {
-		if (meas == null) {
-			throw new NullPointerException("null measurement");
+		
+		public void untrack() {
+			if (tracker != null) {
+				tracker.remove(start, end);
+				tracker = null;
+			}
 		}
-		Measurement m = measurements.get(crit).get(alt);
-		if (m != null) {
-			m.removePropertyChangeListener(measListener);
+		
+		public void propertyChange(PropertyChangeEvent evt) {
+			snapshotRows[slot] = null;
+			if (tracker != null) {
+				untrack();
+				track();
+				scaleChanged(crit);
+			}
+			fireMeasurementChanged();
 		}
-		meas.addPropertyChangeListener(measListener);
 	}
 	
 	@Override
@@ -270,28 +550,96 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 		
 		ImpactMatrix other = new ImpactMatrix(alts, crit);	
 
-		int cIndex = 0;
-		for (Criterion c : getCriteria()) {
-			int aIndex = 0;
-
+		for (int cIndex = 0; cIndex < crit.size(); cIndex++) {
+			Criterion c = getCriteria().get(cIndex);
 			if (this.getBaseline(c) != null) {
 				other.setBaseline(crit.get(cIndex), this.getBaseline(c).deepCopy());
 			}
-			for (Alternative a : getAlternatives()) {
-				Measurement m = getMeasurement(c, a).deepCopy();
+			for (int aIndex = 0; aIndex < alts.size(); aIndex++) {
+				Measurement m = getMeasurement(cIndex, aIndex).deepCopy();
 				// ensure measurements on the same criterion have the same baseline:
 				if (m instanceof RelativeGaussianMeasurementBase) {
 					((RelativeGaussianMeasurementBase)m).setBaseline(other.getBaseline(crit.get(cIndex)));
 				}
-				other.setMeasurement(crit.get(cIndex), alts.get(aIndex), m);
-				aIndex++;
+				other.setMeasurementNoFires(crit.get(cIndex), alts.get(aIndex), m);
 			}
-			cIndex++;
 		}
+		other.updateScales();
 		return other;		
 	}
+	
+	/**
+	 * Makes a copy for simulation, like {@link #deepCopy(List, List)}, but without listeners and
+	 * without updating the scales: the criteria should be copies that carry the scale. The copies of
+	 * the measurements of a criterion are shared with the previous snapshot, unless its row changed
+	 * since, so the cost of a snapshot is proportional to the changed rows. Rows with relative
+	 * measurements are copied every time, as their baseline holds the sampling state of a simulation.
+	 * The snapshot can not be edited.
+	 * 
+	 * @throws UnsupportedOperationException when editing the snapshot.
+	 */
+	public ImpactMatrix snapshot(List<Criterion> crit, List<Alternative> alts) {
+		if (getAlternatives().size() != alts.size()) {
+			throw new IllegalArgumentException("ImpactMatrix.snapshot() : getAlternatives().size() != alts.size()");
+		}
+		if (getCriteria().size() != crit.size()) {
+			throw new IllegalArgumentException("ImpactMatrix.snapshot() : getCriteria().size() != crit.size()");
+		}
+		if (criterionOrder == null) {
+			index();
+		}
+		
+		ImpactMatrix other = new ImpactMatrix();
+		other.snapshot = true;
+		other.alternatives.addAll(alts);
+		other.criteria.addAll(crit);
+		other.cells = new Measurement[crit.size()][];
+		other.cellListeners = new CellListener[crit.size()][];
+		other.snapshotRows = new Measurement[crit.size()][];
+		other.numCriterionSlots = crit.size();
+		other.numAlternativeSlots = alts.size();
+		other.alternativeCapacity = alts.size();
+		for (int aIndex = 0; aIndex < alts.size(); aIndex++) {
+			other.alternativeSlots.put(alts.get(aIndex), aIndex);
+		}
+		for (int cIndex = 0; cIndex < crit.size(); cIndex++) {
+			int slot = criterionOrder[cIndex];
+			BaselineGaussianMeasurement baseline = getBaseline(criteria.get(cIndex));
+			if (baseline != null) {
+				baseline = baseline.deepCopy();
+				other.baselines.put(crit.get(cIndex), baseline);
+			}
+			Measurement[] row = snapshotRows[slot];
+			if (row == null) {
+				row = new Measurement[alts.size()];
+				boolean shared = true;
+				for (int aIndex = 0; aIndex < alts.size(); aIndex++) {
+					Measurement m = cells[slot][alternativeOrder[aIndex]].deepCopy();
+					if (m instanceof RelativeGaussianMeasurementBase) {
+						((RelativeGaussianMeasurementBase) m).setBaseline(baseline);
+						shared = false;
+					}
+					row[aIndex] = m;
+				}
+				if (shared) {
+					snapshotRows[slot] = row;
+				}
+			}
+			other.cells[cIndex] = row;
+			other.criterionSlots.put(crit.get(cIndex), cIndex);
+		}
+		return other;
+	}
+	
+	/**
+	 * @return true if this matrix was made by {@link #snapshot(List, List)}.
+	 */
+	public boolean isSnapshot() {
+		return snapshot;
+	}
 
 	public void setBaseline(Criterion c, BaselineGaussianMeasurement m) {
+		assertNotSnapshot();
 		baselines.put(c, m);		
 	}
 
@@ -301,14 +649,18 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 
 	@Override
 	public void reorderAlternatives(List<Alternative> newAlts) {
+		assertNotSnapshot();
 		this.alternatives.clear();
 		this.alternatives.addAll(newAlts);
+		alternativesChanged();
 	}
 
 	@Override
 	public void reorderCriteria(List<Criterion> newCrit) {
+		assertNotSnapshot();
 		this.criteria.clear();
 		this.criteria.addAll(newCrit);
+		structureChanged();
 	}
 	
 	@SuppressWarnings("unused")
@@ -323,22 +675,29 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 		}
 		@Override
 		public void read(InputElement ie, ImpactMatrix mat) throws XMLStreamException {
+			// index the elements first, so that the matrix can be installed in a single pass
+			List<Alternative> alts = new ArrayList<Alternative>();
+			List<Criterion> crits = new ArrayList<Criterion>();
+			Map<Alternative, Integer> altIndex = new HashMap<Alternative, Integer>();
+			Map<Criterion, Integer> critIndex = new HashMap<Criterion, Integer>();
+			List<CriterionAlternativeMeasurement> elements = new ArrayList<CriterionAlternativeMeasurement>();
 			while (ie.hasNext()) {
 				CriterionAlternativeMeasurement m = ie.get("measurement", CriterionAlternativeMeasurement.class);
-				mat.addAlternative(m.getAlternative(), false);
-				mat.addCriterion(m.getCriterion(), false);
-				mat.setMeasurementNoFires(m.getCriterion(), m.getAlternative(), m.getMeasurement());
-				if (m.getMeasurement() instanceof RelativeGaussianMeasurementBase) {
-					RelativeGaussianMeasurementBase rm = (RelativeGaussianMeasurementBase)m.getMeasurement();
-					mat.setBaseline(m.getCriterion(), rm.getBaseline());
+				elements.add(m);
+				if (!altIndex.containsKey(m.getAlternative())) {
+					altIndex.put(m.getAlternative(), alts.size());
+					alts.add(m.getAlternative());
 				}
-				if (m.getCriterion() instanceof ScaleCriterion) {
-					ScaleCriterion sc = (ScaleCriterion) m.getCriterion();
-					if (sc.getScale() == null) {
-						mat.updateScales();
-					}
+				if (!critIndex.containsKey(m.getCriterion())) {
+					critIndex.put(m.getCriterion(), crits.size());
+					crits.add(m.getCriterion());
 				}
 			}
+			Measurement[][] meas = new Measurement[crits.size()][alts.size()];
+			for (CriterionAlternativeMeasurement m : elements) {
+				meas[critIndex.get(m.getCriterion())][altIndex.get(m.getAlternative())] = m.getMeasurement();
+			}
+			mat.load(alts, crits, meas);
 		}
 		@Override
 		public void write(ImpactMatrix mat, OutputElement oe) throws XMLStreamException {
@@ -352,11 +711,26 @@ public final class ImpactMatrix extends AbstractMeasurements implements Independ
 	};
 
 	@Override
-	public void sample(RandomUtil random, double[][] target) {
-		Sampler sampler = new Sampler(this, random);
+	protected void sampleMeasurements(RandomUtil random, double[][] target) {
+		if (criterionOrder == null) {
+			index();
+		}
+		Sampler sampler = null;
 		updateBaselines(random);
-		for (int i = 0; i < getCriteria().size(); i++) {
-			sampler.sample(getCriteria().get(i), target[i]);
+		for (int i = 0; i < criterionOrder.length; i++) {
+			Criterion c = criteria.get(i);
+			if (c instanceof CardinalCriterion) {
+				Measurement[] row = cells[criterionOrder[i]];
+				double[] t = target[i];
+				for (int j = 0; j < alternativeOrder.length; j++) {
+					t[j] = ((CardinalMeasurement) row[alternativeOrder[j]]).sample(random);
+				}
+			} else {
+				if (sampler == null) {
+					sampler = new Sampler(this, random);
+				}
+				sampler.sample(c, target[i]);
+			}
 		}
 	}	
 	
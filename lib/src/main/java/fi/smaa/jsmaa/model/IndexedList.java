@@ -0,0 +1,160 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A list of distinct entities with a hash index from each entity to its position, so that
+ * {@link #indexOf(Object)} and {@link #contains(Object)} take O(1) and appending takes amortized
+ * O(1). Inserting or removing an entity re-indexes the entities after it.
+ * 
+ * Adding an entity that is already in the list throws IllegalArgumentException. {@link #set(int, Object)}
+ * does not check for duplicates, so that the list can be permuted in place (as by
+ * {@link java.util.Collections#sort(java.util.List)}); the index is consistent again once every
+ * entity occurs once.
+ */
+public class IndexedList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+	
+	private static final long serialVersionUID = -4217369386437095172L;
+	
+	private final ArrayList<E> elements;
+	private transient Map<E, Integer> index;
+	
+	public IndexedList() {
+		elements = new ArrayList<E>();
+		index = new HashMap<E, Integer>();
+	}
+	
+	/**
+	 * @throws IllegalArgumentException if the collection contains an entity more than once.
+	 */
+	public IndexedList(Collection<? extends E> c) {
+		elements = new ArrayList<E>(c.size());
+		index = new HashMap<E, Integer>(Math.max(16, 2 * c.size()));
+		addAll(c);
+	}
+	
+	@Override
+	public E get(int i) {
+		return elements.get(i);
+	}
+	
+	@Override
+	public int size() {
+		return elements.size();
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		Integer i = index.get(o);
+		return i == null ? -1 : i;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return index.containsKey(o);
+	}
+	
+	@Override
+	public void add(int i, E e) {
+		if (index.containsKey(e)) {
+			throw new IllegalArgumentException("IndexedList.add() : duplicate entity " + e);
+		}
+		elements.add(i, e);
+		++modCount;
+		reindex(i);
+	}
+	
+	@Override
+	public E set(int i, E e) {
+		E old = elements.set(i, e);
+		Integer oldIndex = index.get(old);
+		if (oldIndex != null && oldIndex == i) {
+			index.remove(old);
+		}
+		index.put(e, i);
+		return old;
+	}
+	
+	@Override
+	public E remove(int i) {
+		E old = elements.remove(i);
+		++modCount;
+		index.remove(old);
+		reindex(i);
+		return old;
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i < 0) {
+			return false;
+		}
+		remove(i);
+		return true;
+	}
+	
+	@Override
+	public void clear() {
+		elements.clear();
+		index.clear();
+		++modCount;
+	}
+	
+	@Override
+	protected void removeRange(int from, int to) {
+		for (int i = from; i < to; ++i) {
+			index.remove(elements.get(i));
+		}
+		elements.subList(from, to).clear();
+		++modCount;
+		reindex(from);
+	}
+	
+	private void reindex(int from) {
+		for (int i = from; i < elements.size(); ++i) {
+			index.put(elements.get(i), i);
+		}
+	}
+	
+	private void readObject(ObjectInputStream i) throws IOException, ClassNotFoundException {
+		i.defaultReadObject();
+		index = new HashMap<E, Integer>(Math.max(16, 2 * elements.size()));
+		reindex(0);
+	}
+}
@@ -22,7 +22,10 @@
 */
 package fi.smaa.jsmaa.model;
 
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @SuppressWarnings("serial")
 public class ModelChangeEvent extends EventObject {
@@ -37,13 +40,40 @@ public class ModelChangeEvent extends EventObject {
 	public static final int PREFERENCE_FUNCTION = 9;
 
 	private int type;
+	private Set<Integer> types;
 	
 	public ModelChangeEvent(Object source, int type) {
 		super(source);
 		this.type = type;
+		this.types = Collections.singleton(type);
 	}
 	
+	/**
+	 * A coalesced event for the changes of a transaction.
+	 * @param types the types of the changes, in the order they occurred. Not empty.
+	 * @see SMAAModel#commitTransaction()
+	 */
+	public ModelChangeEvent(Object source, Set<Integer> types) {
+		super(source);
+		this.type = types.iterator().next();
+		this.types = Collections.unmodifiableSet(new LinkedHashSet<Integer>(types));
+	}
+	
+	/**
+	 * The type of the change, or of the first change of a coalesced event.
+	 */
 	public int getType() {
 		return type;
 	}
+	
+	/**
+	 * The types of all changes this event stands for.
+	 */
+	public Set<Integer> getTypes() {
+		return types;
+	}
+	
+	public boolean hasType(int type) {
+		return types.contains(type);
+	}
 }
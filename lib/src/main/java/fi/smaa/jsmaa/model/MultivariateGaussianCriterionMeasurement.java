@@ -22,7 +22,7 @@
 */
 package fi.smaa.jsmaa.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
@@ -30,7 +30,6 @@ import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
-import org.apache.commons.math3.random.RandomVectorGenerator;
 
 import fi.smaa.common.MultivariateGaussianGenerator;
 import fi.smaa.common.RandomUtil;
@@ -46,16 +45,24 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 	private RealMatrix covarianceMatrix;
 	
 	/**
-	 * Caches the most recently used RandomUtil to check whether the MultivariateGaussianGenerator must be rebuilt.
+	 * The factorization of the covariance matrix, rebuilt when the covariance changes.
 	 */
-	private RandomUtil random;
+	private transient MultivariateGaussianGenerator mvgGenerator;
 	/**
-	 * Caches the MultivariateGaussianGenerator.
+	 * The mean vector as an array, rebuilt when the mean changes.
 	 */
-	private RandomVectorGenerator mvgGenerator;
+	private transient double[] mean;
+	/**
+	 * Samples generated ahead of time by a single matrix product, valid for the given RandomUtil only.
+	 */
+	private transient double[][] buffer;
+	private transient int buffered;
+	private transient RandomUtil bufferedFor;
+	
+	private static final int BUFFER_SIZE = 32;
 	
 	public MultivariateGaussianCriterionMeasurement(List<Alternative> alternatives) {
-		this.alternatives = new ArrayList<Alternative>(alternatives);
+		this.alternatives = new IndexedList<Alternative>(alternatives);
 		this.meanVector = new ArrayRealVector(alternatives.size(), 0.0);
 		this.covarianceMatrix = MatrixUtils.createRealIdentityMatrix(alternatives.size());
 	}
@@ -68,51 +75,77 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 	@Override
 	public void addAlternative(Alternative alt) {
 		alternatives.add(alt);
-		RealMatrix matrix = MatrixUtils.createRealIdentityMatrix(alternatives.size());
-		final RealMatrix newCovarianceMatrix = matrix;
-		newCovarianceMatrix.setSubMatrix(covarianceMatrix.getData(), 0, 0);
+		final int n = alternatives.size();
+		double[][] cov = new double[n][];
+		for (int i = 0; i < n - 1; ++i) {
+			cov[i] = Arrays.copyOf(covarianceMatrix.getRow(i), n);
+		}
+		cov[n - 1] = new double[n];
+		cov[n - 1][n - 1] = 1.0;
 		final RealVector newMeanVector = meanVector.append(0);
-		fireEvents(setMeanVectorInternal(newMeanVector), setCovarianceMatrixInternal(newCovarianceMatrix));
+		fireEvents(setMeanVectorInternal(newMeanVector), setStructure(cov));
 	}
 
 	@Override
 	public void deleteAlternative(Alternative alt) {
-		final int n = alternatives.size();
 		final int index = alternatives.indexOf(alt);
-		alternatives.remove(alt);
-
-		double select[][] = new double[n - 1][n];
-		for (int i = 0; i < n; ++i) {
-			if (i < index) {
-				select[i][i] = 1;
-			} else if (i > index) {
-				select[i - 1][i] = 1;
-			}
+		if (index < 0) {
+			return;
 		}
-		Array2DRowRealMatrix m = new Array2DRowRealMatrix(select);
-		
-		final RealVector newMeanVector = m.operate(meanVector);
-		final RealMatrix newCovarianceMatrix = covarianceMatrix.multiply(m.transpose()).preMultiply(m);
-		fireEvents(setMeanVectorInternal(newMeanVector), setCovarianceMatrixInternal(newCovarianceMatrix));
+		alternatives.remove(index);
+
+		int[] rows = new int[alternatives.size()];
+		for (int i = 0; i < rows.length; ++i) {
+			rows[i] = i < index ? i : i + 1;
+		}
+		fireEvents(setMeanVectorInternal(select(meanVector, rows)), setStructure(select(covarianceMatrix, rows)));
 	}
 
 	@Override
 	public void reorderAlternatives(List<Alternative> alts) {
-		final int n = alternatives.size();
-		
-		double permute[][] = new double[n][n];
-		for (int i = 0; i < n; ++i) {
-			int j = alternatives.indexOf(alts.get(i));
-			permute[i][j] = 1;
+		int[] rows = new int[alts.size()];
+		for (int i = 0; i < rows.length; ++i) {
+			rows[i] = alternatives.indexOf(alts.get(i));
 		}
-		Array2DRowRealMatrix m = new Array2DRowRealMatrix(permute);
 		
 		alternatives.clear();
 		alternatives.addAll(alts);
 		
-		final RealVector newMeanVector = m.operate(meanVector);
-		final RealMatrix newCovarianceMatrix = covarianceMatrix.multiply(m.transpose()).preMultiply(m);
-		fireEvents(setMeanVectorInternal(newMeanVector), setCovarianceMatrixInternal(newCovarianceMatrix));
+		fireEvents(setMeanVectorInternal(select(meanVector, rows)), setStructure(select(covarianceMatrix, rows)));
+	}
+	
+	private static RealVector select(RealVector v, int[] rows) {
+		double[] data = new double[rows.length];
+		for (int i = 0; i < rows.length; ++i) {
+			data[i] = v.getEntry(rows[i]);
+		}
+		return new ArrayRealVector(data, false);
+	}
+	
+	/**
+	 * @return the principal submatrix of the given rows and columns, in the given order.
+	 */
+	private static double[][] select(RealMatrix m, int[] rows) {
+		double[][] data = new double[rows.length][rows.length];
+		for (int i = 0; i < rows.length; ++i) {
+			double[] row = m.getRow(rows[i]);
+			for (int j = 0; j < rows.length; ++j) {
+				data[i][j] = row[rows[j]];
+			}
+		}
+		return data;
+	}
+	
+	/**
+	 * Sets a covariance matrix derived from the current one by a structural edit. Such a matrix is
+	 * still positive semi-definite, so the factorization is deferred until the next sample.
+	 */
+	private RealMatrix setStructure(double[][] cov) {
+		RealMatrix oldValue = covarianceMatrix;
+		covarianceMatrix = new Array2DRowRealMatrix(cov, false);
+		mvgGenerator = null;
+		buffered = 0;
+		return oldValue;
 	}
 
 	public void fireEvents(RealVector oldMeanVector, RealMatrix oldCovMatrix) {
@@ -132,6 +165,8 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 		}
 		RealVector oldValue = meanVector;
 		meanVector = newValue;
+		mean = null;
+		buffered = 0;
 		return oldValue;
 	}
 	
@@ -150,9 +185,8 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 					+ "x" + newValue.getColumnDimension() + ", expected " + alternatives.size() + "x" + alternatives.size());
 		}
 		try { 
-			mvgGenerator = random == null ? 
-				new MultivariateGaussianGenerator(meanVector, newValue, null) : 
-				random.createMultivariateGaussian(meanVector, newValue);
+			mvgGenerator = new MultivariateGaussianGenerator(newValue);
+			buffered = 0;
 		} catch (Exception e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -167,14 +201,29 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 
 	@Override
 	public void sample(RandomUtil random, double[][] target, int criterionIndex) {
-		if (this.random != random) {
-			this.random = random;
-			mvgGenerator = random.createMultivariateGaussian(meanVector, covarianceMatrix);
+		if (mean == null) {
+			mean = meanVector.toArray();
+		}
+		if (mvgGenerator == null) {
+			mvgGenerator = new MultivariateGaussianGenerator(covarianceMatrix);
 		}
-		double[] sample = mvgGenerator.nextVector();
-		for (int i = 0; i < alternatives.size(); ++i) {
-			target[criterionIndex][i] = sample[i];
+		if (random.isOrdered()) {
+			mvgGenerator.nextVector(random, mean, target[criterionIndex]);
+			return;
+		}
+		if (bufferedFor != random) {
+			bufferedFor = random;
+			buffered = 0;
+		}
+		if (buffered == 0) {
+			if (buffer == null || buffer[0].length != mean.length) {
+				buffer = new double[BUFFER_SIZE][mean.length];
+			}
+			mvgGenerator.nextVectors(random, mean, buffer);
+			buffered = BUFFER_SIZE;
 		}
+		--buffered;
+		System.arraycopy(buffer[buffered], 0, target[criterionIndex], 0, mean.length);
 	}
 	
 	/**
@@ -210,8 +259,10 @@ public class MultivariateGaussianCriterionMeasurement extends AbstractEntity imp
 		}
 		
 		MultivariateGaussianCriterionMeasurement m = new MultivariateGaussianCriterionMeasurement(alts);
-		m.setCovarianceMatrix(covarianceMatrix.copy());
-		m.setMeanVector(meanVector.copy());
+		m.covarianceMatrix = covarianceMatrix.copy();
+		m.meanVector = meanVector.copy();
+		// the covariance is unchanged, so the copy can share the factorization
+		m.mvgGenerator = mvgGenerator == null ? null : mvgGenerator.share();
 		return m;
 	}
 
@@ -35,9 +35,18 @@ import fi.smaa.common.RandomUtil;
  * @see Measurement. 
  */
 public class PerCriterionMeasurements extends AbstractMeasurements implements FullJointMeasurements {
+	/**
+	 * Listens to the measurement of a single criterion, so that a change only updates its scale.
+	 */
 	private class MeasurementListener implements PropertyChangeListener {
+		private final Criterion crit;
+		
+		public MeasurementListener(Criterion crit) {
+			this.crit = crit;
+		}
+		
 		public void propertyChange(PropertyChangeEvent evt) {
-			updateScales();
+			scaleChanged(crit);
 			fireMeasurementChanged();
 		}
 	}
@@ -45,20 +54,53 @@ public class PerCriterionMeasurements extends AbstractMeasurements implements Fu
 	
 	private static final long serialVersionUID = -6733139577051452519L;
 	private final Map<Criterion, CriterionMeasurement> critMeas = new HashMap<Criterion, CriterionMeasurement>();
-	private final MeasurementListener listener = new MeasurementListener();
+	private final Map<Criterion, MeasurementListener> listeners = new HashMap<Criterion, MeasurementListener>();
 	
 	public PerCriterionMeasurements(List<Criterion> criteria, List<Alternative> alternatives) {
 		super(criteria, alternatives);
 		for (Criterion c : criteria) {
-			critMeas.put(c, createDefaultMeasurement());
+			connect(c, createDefaultMeasurement());
+		}
+		updateScales();
+	}
+	
+	/**
+	 * Constructs the measurements in bulk, without creating the default measurement of each criterion.
+	 * The scales are computed once, at the end.
+	 * 
+	 * @param criteria the criteria.
+	 * @param alternatives the alternatives.
+	 * @param meas the measurement of each criterion, in the order of criteria. The measurements should
+	 * be defined over the given alternatives, in the same order.
+	 * @throws IllegalArgumentException if the number of measurements does not match the criteria.
+	 */
+	public PerCriterionMeasurements(List<Criterion> criteria, List<Alternative> alternatives, CriterionMeasurement[] meas) {
+		super(criteria, alternatives);
+		if (meas.length != criteria.size()) {
+			throw new IllegalArgumentException("meas.length != criteria.size()");
+		}
+		for (int i = 0; i < meas.length; ++i) {
+			connect(criteria.get(i), meas[i]);
 		}
 		updateScales();
 	}
 
 	private MultivariateGaussianCriterionMeasurement createDefaultMeasurement() {
-		final MultivariateGaussianCriterionMeasurement m = new MultivariateGaussianCriterionMeasurement(this.alternatives);
-		m.addPropertyChangeListener(listener);
-		return m;
+		return new MultivariateGaussianCriterionMeasurement(this.alternatives);
+	}
+	
+	private void connect(Criterion c, CriterionMeasurement m) {
+		MeasurementListener l = new MeasurementListener(c);
+		critMeas.put(c, m);
+		listeners.put(c, l);
+		m.addPropertyChangeListener(l);
+	}
+	
+	private void disconnect(Criterion c) {
+		CriterionMeasurement m = critMeas.remove(c);
+		if (m != null) {
+			m.removePropertyChangeListener(listeners.remove(c));
+		}
 	}
 	
 	/**
@@ -72,16 +114,16 @@ public class PerCriterionMeasurements extends AbstractMeasurements implements Fu
 	 * Set the measurement for this criterion.
 	 */
 	public void setCriterionMeasurement(Criterion c, CriterionMeasurement m) {
-		if (critMeas.containsKey(c)) {
-			critMeas.get(c).removePropertyChangeListener(listener);
-		}
-		critMeas.put(c, m);
-		m.addPropertyChangeListener(listener);
-		updateScales();
+		disconnect(c);
+		connect(c, m);
+		scaleChanged(c);
 	}
 
 	@Override
 	public void addAlternative(Alternative alt) {
+		if (alternatives.contains(alt)) {
+			return;
+		}
 		alternatives.add(alt);
 		for (Criterion c : criteria) {
 			critMeas.get(c).addAlternative(alt);
@@ -107,15 +149,17 @@ public class PerCriterionMeasurements extends AbstractMeasurements implements Fu
 
 	@Override
 	public void addCriterion(Criterion c, boolean updateScales) {
+		if (critMeas.containsKey(c)) {
+			return;
+		}
 		criteria.add(c);
-		critMeas.put(c, createDefaultMeasurement());
+		connect(c, createDefaultMeasurement());
 	}
 
 	@Override
 	public void deleteCriterion(Criterion c) {
 		criteria.remove(c);
-		critMeas.get(c).removePropertyChangeListener(listener);
-		critMeas.remove(c);
+		disconnect(c);
 	}
 
 	@Override
@@ -125,7 +169,7 @@ public class PerCriterionMeasurements extends AbstractMeasurements implements Fu
 	}
 
 	@Override
-	public void sample(RandomUtil random, double[][] target) {
+	protected void sampleMeasurements(RandomUtil random, double[][] target) {
 		for(int i = 0; i < criteria.size(); ++i) { 
 			getCriterionMeasurement(criteria.get(i)).sample(random, target, i);
 		}
@@ -155,9 +199,14 @@ public class PerCriterionMeasurements extends AbstractMeasurements implements Fu
 
 	private void updateScales() {
 		for(Criterion c : this.criteria) { 
-			if(c instanceof ScaleCriterion) { 
-				((ScaleCriterion)c).setScale(getRange(c));
-			}
+			scaleChanged(c);
+		}
+	}
+	
+	@Override
+	protected void updateScale(Criterion c) {
+		if(c instanceof ScaleCriterion) { 
+			((ScaleCriterion)c).setScale(getRange(c));
 		}
-	}	
+	}
 }
@@ -0,0 +1,70 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.util.TreeMap;
+
+/**
+ * The interval enclosing a multiset of ranges, maintained in O(log n) per added or removed range.
+ * Ranges are removed by the endpoints they were added with, as the measurements they come from may
+ * have changed in between.
+ */
+class RangeTracker {
+	private final TreeMap<Double, Integer> starts = new TreeMap<Double, Integer>();
+	private final TreeMap<Double, Integer> ends = new TreeMap<Double, Integer>();
+	
+	public void add(double start, double end) {
+		increment(starts, start);
+		increment(ends, end);
+	}
+	
+	public void remove(double start, double end) {
+		decrement(starts, start);
+		decrement(ends, end);
+	}
+	
+	/**
+	 * @return the enclosing interval, or [0, 0] if there are no ranges.
+	 */
+	public Interval getEnclosing() {
+		if (starts.isEmpty()) {
+			return new Interval(0.0, 0.0);
+		}
+		return new Interval(starts.firstKey(), ends.lastKey());
+	}
+	
+	private static void increment(TreeMap<Double, Integer> counts, double x) {
+		Integer n = counts.get(x);
+		counts.put(x, n == null ? 1 : n + 1);
+	}
+	
+	private static void decrement(TreeMap<Double, Integer> counts, double x) {
+		Integer n = counts.get(x);
+		assert(n != null);
+		if (n == 1) {
+			counts.remove(x);
+		} else {
+			counts.put(x, n - 1);
+		}
+	}
+}
@@ -27,26 +27,38 @@ import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
+/**
+ * Ranks 1..n over a set of objects. Changing a rank to one held by another object swaps the two,
+ * so that the ranks stay distinct. The ranks are indexed by value, so that a swap takes O(log n)
+ * and the maximum rank O(1). Ranks above n are allowed while a set is being loaded.
+ */
 public class RankSet<T extends DeepCopiable<T>> implements DeepCopiable<RankSet<T>>, Serializable {
 
 	private static final long serialVersionUID = -2783389914146035900L;
 	private transient RankListener rankListener = new RankListener();	
 	private Map<T, Rank> map = new HashMap<T, Rank>();
+	// the ranks by value
+	private transient TreeMap<Integer, Rank> ranks = new TreeMap<Integer, Rank>();
+	private transient int maxRank;
 	
 	public RankSet() {
 	}
 	
 	public RankSet(Map<T, Rank> map) {
-		for (int i=1;i<=map.entrySet().size();i++) {
-			if (!map.values().contains(new Rank(i))) {
+		for (Rank r : map.values()) {
+			if (r.getRank() > map.size() || ranks.put(r.getRank(), r) != null) {
 				throw new IllegalArgumentException("map doesn't contain all ranks 1,...,n");
 			}
 		}
 		this.map = map;
+		maxRank = map.size();
 		connectRankListeners();
 	}
 
@@ -56,6 +68,14 @@ public class RankSet<T extends DeepCopiable<T>> implements DeepCopiable<RankSet<
 		}
 	}
 	
+	private void indexRanks() {
+		ranks = new TreeMap<Integer, Rank>();
+		for (Rank r : map.values()) {
+			ranks.put(r.getRank(), r);
+		}
+		maxRank = ranks.isEmpty() ? 0 : ranks.lastKey();
+	}
+	
 	public void addObject(T o) {
 		if (!map.containsKey(o)) {
 			map.put(o, createNextAvailableRank());
@@ -65,18 +85,13 @@ public class RankSet<T extends DeepCopiable<T>> implements DeepCopiable<RankSet<
 	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
 		in.defaultReadObject();
 		rankListener = new RankListener();		
+		indexRanks();
 		connectRankListeners();
 	}
 	
 	private Rank createNextAvailableRank() {
-		int maxRank = 0;
-		for (Rank r : map.values()) {
-			int rn = r.getRank();
-			if (rn > maxRank) {
-				maxRank = rn;
-			}
-		}
-		Rank newRank = new Rank(maxRank + 1);
+		Rank newRank = new Rank(++maxRank);
+		ranks.put(maxRank, newRank);
 		newRank.addPropertyChangeListener(rankListener);
 		return newRank;
 	}
@@ -89,27 +104,40 @@ public class RankSet<T extends DeepCopiable<T>> implements DeepCopiable<RankSet<
 		return map.get(o);
 	}
 	
+	/**
+	 * @return the highest rank, n if the ranks are 1..n, or 0 if the set is empty.
+	 */
+	public int getMaxRank() {
+		return maxRank;
+	}
+	
 	public void deleteObject(T o) {
-		if (map.containsKey(o)) {
-			Rank r = map.get(o);
-			map.remove(o);
+		Rank r = map.remove(o);
+		if (r != null) {
+			r.removePropertyChangeListener(rankListener);
+			removeIndex(r, r.getRank());
 			shiftDownOneFrom(r.getRank());
 		}
 	}
-			
+	
+	/**
+	 * Moves the ranks above the given one down by one, in ascending order, so that each moves to a
+	 * free rank and no swaps occur. The listener keeps the index up to date.
+	 */
 	private void shiftDownOneFrom(int rank) {
-		for (Rank r : map.values()) {
-			r.removePropertyChangeListener(rankListener);
+		List<Rank> above = new ArrayList<Rank>(ranks.tailMap(rank, false).values());
+		for (Rank r : above) {
+			r.setRank(r.getRank() - 1);
 		}
-		for (Rank r : map.values()) {
-			int oRank = r.getRank();
-			if (oRank > rank) {
-				r.setRank(oRank - 1);
+	}
+	
+	private void removeIndex(Rank r, int val) {
+		if (ranks.get(val) == r) {
+			ranks.remove(val);
+			if (val == maxRank) {
+				maxRank = ranks.isEmpty() ? 0 : ranks.lastKey();
 			}
 		}
-		for (Rank r : map.values()) {
-			r.addPropertyChangeListener(rankListener);
-		}		
 	}
 
 	private class RankListener implements PropertyChangeListener {
@@ -126,11 +154,19 @@ public class RankSet<T extends DeepCopiable<T>> implements DeepCopiable<RankSet<
 		}		
 	}
 
+	/**
+	 * Moves r in the index and gives its old rank to the object that held the new one, if any. The
+	 * index is updated before the other rank fires, so that its listeners see a consistent set.
+	 */
 	private void ensureRanks(Rank r, int oldVal, int newVal) {
-		for (Rank ra : map.values()) {
-			if (ra.getRank() == newVal && ra != r) {
-				ra.setRank(oldVal);
-			}
+		Rank other = ranks.get(newVal);
+		removeIndex(r, oldVal);
+		ranks.put(newVal, r);
+		maxRank = Math.max(maxRank, newVal);
+		if (other != null && other != r) {
+			ranks.put(oldVal, other);
+			maxRank = Math.max(maxRank, oldVal);
+			other.setRank(oldVal);
 		}
 	}
 
@@ -142,9 +178,8 @@ public class RankSet<T extends DeepCopiable<T>> implements DeepCopiable<RankSet<
 			newMap.put(t, r.deepCopy());
 		}
 		newSet.map = newMap;
-		for (Rank r : newMap.values()) {
-			r.addPropertyChangeListener(newSet.rankListener);
-		}
+		newSet.indexRanks();
+		newSet.connectRankListeners();
 		return newSet;
 	}
-}
\ No newline at end of file
+}
@@ -29,7 +29,9 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
@@ -49,13 +51,18 @@ public class SMAAModel extends AbstractEntity {
 	
 	private static final long serialVersionUID = 6100076809211865658L;
 	
-	private List<Alternative> alternatives = new ArrayList<Alternative>();
-	private List<Criterion> criteria = new ArrayList<Criterion>();
+	private List<Alternative> alternatives = new IndexedList<Alternative>();
+	private List<Criterion> criteria = new IndexedList<Criterion>();
+	private boolean snapshot;
 	
 	transient private List<SMAAModelListener> modelListeners = new ArrayList<SMAAModelListener>();
 	transient protected ImpactMatrixListener impactListener = new ImpactListener();
 	transient private CriteriaListener critListener = new CriteriaListener();
 	transient private MyPreferenceListener prefListener = new MyPreferenceListener(); 
+	transient private int transactionDepth;
+	transient private Set<Integer> pendingChanges;
+	transient private List<AbstractMeasurements> batchedMeasurements;
+	transient private SnapshotCopies snapshotCopies;
 	
 	public SMAAModel(String name) {
 		this(name, new ImpactMatrix(Collections.<Alternative>emptyList(), Collections.<Criterion>emptyList()));
@@ -67,8 +74,27 @@ public class SMAAModel extends AbstractEntity {
 		impactMatrix = measurements;
 		impactMatrix.addListener(impactListener);
 	}
+	
+	/**
+	 * Constructs a snapshot of the original, without listeners.
+	 * @see #snapshot()
+	 */
+	protected SMAAModel(SMAAModel original) {
+		name = original.name;
+		snapshot = true;
+		SnapshotCopies copies = original.getSnapshotCopies();
+		alternatives = Collections.unmodifiableList(new IndexedList<Alternative>(copies.getCopies(original.alternatives)));
+		criteria = Collections.unmodifiableList(new IndexedList<Criterion>(copies.getCopies(original.criteria)));
+		if (original.impactMatrix instanceof ImpactMatrix) {
+			impactMatrix = ((ImpactMatrix) original.impactMatrix).snapshot(criteria, alternatives);
+		} else {
+			impactMatrix = original.impactMatrix.deepCopy(criteria, alternatives);
+		}
+		preferences = (PreferenceInformation) original.preferences.deepCopy();
+	}
 
 	public void setPreferenceInformation(PreferenceInformation preferences) {
+		assertNotSnapshot();
 		this.preferences = preferences;
 		preferences.addPropertyChangeListener(prefListener);
 		fireModelChange(ModelChangeEvent.PREFERENCES_TYPE);
@@ -93,6 +119,7 @@ public class SMAAModel extends AbstractEntity {
 	}
 	
 	public void setName(String name) {
+		assertNotSnapshot();
 		Object oldVal = this.name;
 		this.name = name;
 		firePropertyChange(PROPERTY_NAME, oldVal, name);
@@ -103,6 +130,7 @@ public class SMAAModel extends AbstractEntity {
 	}	
 	
 	synchronized public void addAlternative(Alternative alt) {
+		assertNotSnapshot();
 		if (alternatives.contains(alt)) {
 			return;
 		}
@@ -126,6 +154,7 @@ public class SMAAModel extends AbstractEntity {
 	}
 
 	synchronized public void addCriterion(Criterion crit) {
+		assertNotSnapshot();
 		criteria.add(crit);
 		preferences.removePropertyChangeListener(prefListener);
 		
@@ -157,6 +186,7 @@ public class SMAAModel extends AbstractEntity {
 	}
 	
 	synchronized public void deleteAlternative(Alternative a) {
+		assertNotSnapshot();
 		if (alternatives.remove(a)) {
 			impactMatrix.removeListener(impactListener);						
 			impactMatrix.deleteAlternative(a);
@@ -166,6 +196,7 @@ public class SMAAModel extends AbstractEntity {
 	}
 	
 	synchronized public void deleteCriterion(Criterion c) {
+		assertNotSnapshot();
 		if (criteria.remove(c)) {
 			c.removePropertyChangeListener(critListener);
 			
@@ -221,6 +252,42 @@ public class SMAAModel extends AbstractEntity {
 		model.setPreferenceInformation((PreferenceInformation) preferences.deepCopy());
 	}
 	
+	/**
+	 * Makes an immutable copy of the model for a simulation, which can be read while this model is
+	 * edited. The snapshot has no listeners, and editing it throws UnsupportedOperationException.
+	 * 
+	 * Unchanged parts are shared with the previous snapshot: the copy of an alternative or criterion
+	 * is kept, and follows the renames of the original, until the original changes otherwise. The
+	 * measurements of an {@link ImpactMatrix} share the rows that did not change; other measurements
+	 * are deep copied.
+	 */
+	synchronized public SMAAModel snapshot() {
+		getSnapshotCopies().begin();
+		SMAAModel model = new SMAAModel(this);
+		snapshotCopies.end();
+		return model;
+	}
+	
+	/**
+	 * @return true if this model was made by {@link #snapshot()}.
+	 */
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+	
+	protected void assertNotSnapshot() {
+		if (snapshot) {
+			throw new UnsupportedOperationException("a snapshot can not be edited");
+		}
+	}
+	
+	SnapshotCopies getSnapshotCopies() {
+		if (snapshotCopies == null) {
+			snapshotCopies = new SnapshotCopies();
+		}
+		return snapshotCopies;
+	}
+	
 	public void setMissingPreferences() {
 		setPreferenceInformation(
 				new MissingPreferenceInformation(getCriteria().size()));
@@ -238,8 +305,73 @@ public class SMAAModel extends AbstractEntity {
 		preferences.addPropertyChangeListener(prefListener);		
 	}	
 	
+	/**
+	 * Starts a transaction for a bulk edit. Until the matching {@link #commitTransaction()}, no
+	 * model change events are fired and the scales are not updated. Transactions nest; only the
+	 * outermost commit takes effect.
+	 */
+	synchronized public void beginTransaction() {
+		if (transactionDepth++ > 0) {
+			return;
+		}
+		pendingChanges = new LinkedHashSet<Integer>();
+		batchedMeasurements = new ArrayList<AbstractMeasurements>();
+		for (FullJointMeasurements m : getAllMeasurements()) {
+			if (m instanceof AbstractMeasurements) {
+				AbstractMeasurements am = (AbstractMeasurements) m;
+				am.beginBatch();
+				batchedMeasurements.add(am);
+			}
+		}
+	}
+	
+	/**
+	 * Commits the transaction. On the outermost commit, the scales changed in the transaction are
+	 * updated once, and the listeners get a single event for all changes, if there were any.
+	 * @throws IllegalStateException if no transaction was started.
+	 * @see ModelChangeEvent#getTypes()
+	 */
+	synchronized public void commitTransaction() {
+		if (transactionDepth == 0) {
+			throw new IllegalStateException("commitTransaction() without beginTransaction()");
+		}
+		if (transactionDepth > 1) {
+			--transactionDepth;
+			return;
+		}
+		// the deferred scale updates and measurement events are collected as part of the transaction
+		for (AbstractMeasurements m : batchedMeasurements) {
+			m.endBatch();
+		}
+		batchedMeasurements = null;
+		transactionDepth = 0;
+		Set<Integer> changes = pendingChanges;
+		pendingChanges = null;
+		if (!changes.isEmpty()) {
+			fireModelChange(new ModelChangeEvent(this, changes));
+		}
+	}
+	
+	synchronized public boolean isInTransaction() {
+		return transactionDepth > 0;
+	}
+	
+	/**
+	 * The measurements of the model, batched during a transaction.
+	 */
+	protected List<FullJointMeasurements> getAllMeasurements() {
+		return Collections.singletonList(impactMatrix);
+	}
+	
 	protected void fireModelChange(int type) {
-		ModelChangeEvent ev = new ModelChangeEvent(this, type);
+		if (transactionDepth > 0) {
+			pendingChanges.add(type);
+			return;
+		}
+		fireModelChange(new ModelChangeEvent(this, type));
+	}
+	
+	private void fireModelChange(ModelChangeEvent ev) {
 		for (SMAAModelListener l : modelListeners) {
 			l.modelChanged(ev);
 		}
@@ -280,13 +412,15 @@ public class SMAAModel extends AbstractEntity {
 	}
 
 	public void reorderAlternatives(List<Alternative> newAlts) {
-		this.alternatives = newAlts;
+		assertNotSnapshot();
+		this.alternatives = new IndexedList<Alternative>(newAlts);
 		impactMatrix.reorderAlternatives(newAlts);
 		fireModelChange(ModelChangeEvent.ALTERNATIVES);
 	}
 
 	public void reorderCriteria(List<Criterion> newCrit) {
-		this.criteria = newCrit;
+		assertNotSnapshot();
+		this.criteria = new IndexedList<Criterion>(newCrit);
 		impactMatrix.reorderCriteria(newCrit);
 		fireModelChange(ModelChangeEvent.CRITERIA);		
 	}
@@ -27,6 +27,7 @@ import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javolution.xml.XMLFormat;
@@ -37,7 +38,7 @@ public class SMAATRIModel extends SMAAModel {
 	
 	private static final long serialVersionUID = -739020656344899318L;
 	private ImpactMatrix profileMatrix;
-	private List<Category> categories = new ArrayList<Category>();
+	private List<Category> categories = new IndexedList<Category>();
 	private boolean optimistic;
 	private Interval lambda;
 	
@@ -45,7 +46,11 @@ public class SMAATRIModel extends SMAAModel {
 	public static final String PROPERTY_LAMBDA = "lambda";
 
 	public SMAATRIModel(String name) {
-		super(name);
+		this(name, new ImpactMatrix());
+	}
+
+	public SMAATRIModel(String name, FullJointMeasurements measurements) {
+		super(name, measurements);
 		profileMatrix = new ImpactMatrix();
 		optimistic = true;
 		lambda = new Interval(0.65, 0.85);
@@ -53,7 +58,24 @@ public class SMAATRIModel extends SMAAModel {
 		lambda.addPropertyChangeListener(new LambdaListener());
 	}
 	
+	/**
+	 * Constructs a snapshot of the original, without listeners.
+	 * @see #snapshot()
+	 */
+	protected SMAATRIModel(SMAATRIModel original) {
+		super(original);
+		categories = Collections.unmodifiableList(new IndexedList<Category>(original.getSnapshotCopies().getCopies(original.categories)));
+		List<Alternative> catsMinusLastOne = new ArrayList<Alternative>();
+		for (int i=0;i<categories.size()-1;i++) {
+			catsMinusLastOne.add(categories.get(i));
+		}
+		profileMatrix = original.profileMatrix.snapshot(getCriteria(), catsMinusLastOne);
+		optimistic = original.optimistic;
+		lambda = original.lambda.deepCopy();
+	}
+	
 	public void setRule(boolean optimistic) {
+		assertNotSnapshot();
 		this.optimistic = optimistic;
 		fireModelChange(ModelChangeEvent.PARAMETER);
 	}
@@ -67,6 +89,7 @@ public class SMAATRIModel extends SMAAModel {
 	}
 	
 	synchronized public void addCategory(Category cat) {
+		assertNotSnapshot();
 		categories.add(cat);
 		if (categories.size() > 1) {
 			profileMatrix.addAlternative(categories.get(categories.size()-2));
@@ -75,6 +98,7 @@ public class SMAATRIModel extends SMAAModel {
 	}
 	
 	synchronized public void deleteCategory(Alternative cat) {
+		assertNotSnapshot();
 		if (categories.remove(cat)) {
 			profileMatrix.deleteAlternative(cat);
 			fireModelChange(ModelChangeEvent.CATEGORIES);
@@ -90,6 +114,7 @@ public class SMAATRIModel extends SMAAModel {
 	 */
 	@Override
 	synchronized public void addCriterion(Criterion c) {
+		assertNotSnapshot();
 		if (!(c instanceof OutrankingCriterion)) {
 			throw new IllegalArgumentException("All criteria should be outranking-criteria");
 		}
@@ -99,6 +124,7 @@ public class SMAATRIModel extends SMAAModel {
 	
 	@Override
 	synchronized public void deleteCriterion(Criterion c) {
+		assertNotSnapshot();
 		profileMatrix.deleteCriterion(c);		
 		super.deleteCriterion(c);
 	}
@@ -132,7 +158,7 @@ public class SMAATRIModel extends SMAAModel {
 		for (Category cat : categories) {
 			cats.add(cat.deepCopy());
 		}
-		model.categories = cats;
+		model.categories = new IndexedList<Category>(cats);
 		
 		// set the profile matrix with categories minus the last one
 		List<Alternative> catsMinusLastOne = new ArrayList<Alternative>();
@@ -145,8 +171,17 @@ public class SMAATRIModel extends SMAAModel {
 		model.getLambda().setEnd(getLambda().getEnd());
 		return model;
 	}
+	
+	@Override
+	synchronized public SMAATRIModel snapshot() {
+		getSnapshotCopies().begin();
+		SMAATRIModel model = new SMAATRIModel(this);
+		getSnapshotCopies().end();
+		return model;
+	}
 
 	public void reorderCategories(List<Category> newCats) {
+		assertNotSnapshot();
 		assert(newCats.size() == categories.size());
 		if (categories.size() == 0) {
 			return;
@@ -154,7 +189,7 @@ public class SMAATRIModel extends SMAAModel {
 		Category oldLastCat = this.categories.get(this.categories.size()-1);
 		Category newLastCat = newCats.get(newCats.size()-1);
 		
-		this.categories = newCats;
+		this.categories = new IndexedList<Category>(newCats);
 		
 		// if the old & new last cats differ, remove the new last category, because it doesn't need an upper bound
 		// and add the old one, as it does
@@ -173,6 +208,7 @@ public class SMAATRIModel extends SMAAModel {
 	
 	@Override
 	public void reorderCriteria(List<Criterion> newCrit) {
+		assertNotSnapshot();
 		profileMatrix.reorderCriteria(newCrit);
 		super.reorderCriteria(newCrit);
 	}
@@ -181,6 +217,13 @@ public class SMAATRIModel extends SMAAModel {
 		return profileMatrix;
 	}
 	
+	@Override
+	protected List<FullJointMeasurements> getAllMeasurements() {
+		List<FullJointMeasurements> all = new ArrayList<FullJointMeasurements>(super.getAllMeasurements());
+		all.add(profileMatrix);
+		return all;
+	}
+	
 	@SuppressWarnings("unused")
 	private static final XMLFormat<SMAATRIModel> XML = new XMLFormat<SMAATRIModel>(SMAATRIModel.class) {		
 		@Override
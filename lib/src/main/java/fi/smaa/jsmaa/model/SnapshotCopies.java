@@ -0,0 +1,127 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The copies of the alternatives, criteria and categories of a model that its snapshots share. An
+ * original keeps its copy for as long as it is in the model: renames are applied to the copy, other
+ * changes cause the original to be copied again on the next snapshot. Outranking criteria are copied
+ * for every snapshot, as they hold the sampled thresholds of a simulation.
+ */
+class SnapshotCopies {
+	
+	private final Map<NamedObject, Copy> copies = new HashMap<NamedObject, Copy>();
+	private int generation;
+	private int used;
+	
+	/**
+	 * Starts a snapshot: the originals not passed to {@link #getCopies(List)} until {@link #end()}
+	 * are no longer in the model.
+	 */
+	public void begin() {
+		++generation;
+		used = 0;
+	}
+	
+	/**
+	 * The copies of the originals, in the same order.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends NamedObject & DeepCopiable<? super T>> List<T> getCopies(List<T> originals) {
+		List<T> list = new ArrayList<T>(originals.size());
+		for (T o : originals) {
+			if (o instanceof OutrankingCriterion) {
+				list.add((T) o.deepCopy());
+				continue;
+			}
+			Copy c = copies.get(o);
+			if (c == null) {
+				c = new Copy(o);
+				copies.put(o, c);
+				o.addPropertyChangeListener(c);
+			}
+			if (c.copy == null) {
+				c.copy = (NamedObject) o.deepCopy();
+			}
+			if (c.generation != generation) {
+				c.generation = generation;
+				++used;
+			}
+			list.add((T) c.copy);
+		}
+		return list;
+	}
+	
+	/**
+	 * Ends the snapshot, dropping the copies of the originals that were not used, in O(1) if there
+	 * were none.
+	 */
+	public void end() {
+		if (copies.size() == used) {
+			return;
+		}
+		Iterator<Copy> it = copies.values().iterator();
+		while (it.hasNext()) {
+			Copy c = it.next();
+			if (c.generation != generation) {
+				c.original.removePropertyChangeListener(c);
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of originals with a copy.
+	 */
+	public int size() {
+		return copies.size();
+	}
+	
+	private class Copy implements PropertyChangeListener {
+		private final NamedObject original;
+		private NamedObject copy;
+		private int generation;
+		
+		public Copy(NamedObject original) {
+			this.original = original;
+		}
+		
+		public void propertyChange(PropertyChangeEvent evt) {
+			if (NamedObject.PROPERTY_NAME.equals(evt.getPropertyName())) {
+				if (copy != null) {
+					copy.setName(original.getName());
+				}
+			} else {
+				copy = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import fi.smaa.jsmaa.diagnostics.Diagnostics;
+import fi.smaa.jsmaa.diagnostics.DiagnosticsProbe;
+import fi.smaa.jsmaa.model.SMAAModel;
+
+/**
+ * Compact binary alternative to the XML model files of {@link fi.smaa.jsmaa.model.xml.JSMAABinding}.
+ * <p>
+ * A file starts with {@link #MAGIC}, the format version and the model type, followed by flat sections
+ * (alternatives, criteria, baselines, measurements, preferences and, for SMAA-TRI, the categories and
+ * profiles). Each section is a one-byte tag and its length in bytes, so readers skip sections they
+ * do not know. All numbers are big-endian, strings are length-prefixed UTF-8, and measurements are a
+ * type tag followed by their parameters. Only models with an {@link fi.smaa.jsmaa.model.ImpactMatrix}
+ * can be stored, as with the XML format.
+ */
+public class BinaryModelFormat {
+	
+	public static final String FILE_EXTENSION = "jsmaab";
+	public static final int MAGIC = 0x4A534D42; // "JSMB"
+	public static final short FORMAT_VERSION = 1;
+
+	static final byte MODEL_SMAA2 = 1;
+	static final byte MODEL_SMAATRI = 2;
+
+	static final byte SECTION_ALTERNATIVES = 1;
+	static final byte SECTION_CRITERIA = 2;
+	static final byte SECTION_BASELINES = 3;
+	static final byte SECTION_MEASUREMENTS = 4;
+	static final byte SECTION_PREFERENCES = 5;
+	static final byte SECTION_CATEGORIES = 6;
+	static final byte SECTION_PROFILES = 7;
+	static final byte SECTION_END = 0;
+
+	static final byte CRITERION_SCALE = 1;
+	static final byte CRITERION_ORDINAL = 2;
+	static final byte CRITERION_OUTRANKING = 3;
+
+	static final byte MEASUREMENT_INTERVAL = 1;
+	static final byte MEASUREMENT_EXACT = 2;
+	static final byte MEASUREMENT_GAUSSIAN = 3;
+	static final byte MEASUREMENT_LOGNORMAL = 4;
+	static final byte MEASUREMENT_LOGITNORMAL = 5;
+	static final byte MEASUREMENT_BETA = 6;
+	static final byte MEASUREMENT_DISCRETE = 7;
+	static final byte MEASUREMENT_RANK = 8;
+	static final byte MEASUREMENT_RELATIVE_NORMAL = 9;
+	static final byte MEASUREMENT_RELATIVE_LOGITNORMAL = 10;
+
+	static final byte PREFERENCES_MISSING = 0;
+	static final byte PREFERENCES_CARDINAL = 1;
+	static final byte PREFERENCES_ORDINAL = 2;
+
+	private BinaryModelFormat() {
+	}
+
+	/**
+	 * Reads a model from a stream. The stream is read fully before decoding.
+	 * 
+	 * @throws IOException if reading fails or the stream doesn't contain a valid binary model.
+	 */
+	public static SMAAModel readModel(InputStream is) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		byte[] buf = new byte[65536];
+		for (int n = is.read(buf); n >= 0; n = is.read(buf)) {
+			bos.write(buf, 0, n);
+		}
+		return read(ByteBuffer.wrap(bos.toByteArray()));
+	}
+
+	/**
+	 * Reads a model from a file by memory-mapping it.
+	 * 
+	 * @throws IOException if reading fails or the file doesn't contain a valid binary model.
+	 */
+	public static SMAAModel readModel(File file) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			FileChannel channel = fis.getChannel();
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			fis.close();
+		}
+	}
+
+	/**
+	 * Writes a model to a stream. The stream is not closed.
+	 * 
+	 * @throws IllegalArgumentException if the model contains measurements that can not be stored.
+	 */
+	public static void writeModel(SMAAModel model, OutputStream os) throws IOException {
+		DiagnosticsProbe probe = Diagnostics.getProbe();
+		Object save = probe.modelIOStarted();
+		try {
+			DataOutputStream out = new DataOutputStream(os);
+			new BinaryModelWriter(model).write(out);
+			out.flush();
+		} finally {
+			probe.modelIOEnded(save, "binary", "save", model.getName());
+		}
+	}
+	
+	private static SMAAModel read(ByteBuffer buf) throws IOException {
+		DiagnosticsProbe probe = Diagnostics.getProbe();
+		Object load = probe.modelIOStarted();
+		SMAAModel model = null;
+		try {
+			model = new BinaryModelReader(buf).read();
+			return model;
+		} finally {
+			probe.modelIOEnded(load, "binary", "load", model != null ? model.getName() : null);
+		}
+	}
+
+	/**
+	 * Checks whether the file starts with the binary model header.
+	 */
+	public static boolean isBinaryModel(File file) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			byte[] head = new byte[4];
+			int n = 0;
+			while (n < head.length) {
+				int r = fis.read(head, n, head.length - n);
+				if (r < 0) {
+					return false;
+				}
+				n += r;
+			}
+			return ByteBuffer.wrap(head).getInt() == MAGIC;
+		} finally {
+			fis.close();
+		}
+	}
+}
@@ -0,0 +1,367 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.binary;
+
+import static fi.smaa.jsmaa.model.binary.BinaryModelFormat.*;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalCriterion;
+import fi.smaa.jsmaa.model.CardinalMeasurement;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Category;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.InvalidValuePointException;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.Measurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.OrdinalPreferenceInformation;
+import fi.smaa.jsmaa.model.OutrankingCriterion;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+/**
+ * Decodes a binary model from a buffer. The impact matrix is built in a single pass and
+ * installed in bulk, so loading is linear in the number of measurements.
+ */
+class BinaryModelReader {
+	
+	private final ByteBuffer buf;
+
+	private byte modelType;
+	private String name;
+	private List<Alternative> alternatives = new ArrayList<Alternative>();
+	private List<Criterion> criteria = new ArrayList<Criterion>();
+	private BaselineGaussianMeasurement[] baselines;
+	private Measurement[][] measurements;
+	private int position;
+	private boolean optimistic = true;
+	private Interval lambda;
+	private List<Category> categories = new ArrayList<Category>();
+	private Measurement[][] profiles;
+
+	public BinaryModelReader(ByteBuffer buf) {
+		this.buf = buf;
+	}
+
+	public SMAAModel read() throws IOException {
+		try {
+			readHeader();
+			boolean hasPreferences = false;
+			for (byte tag = buf.get(); tag != SECTION_END; tag = buf.get()) {
+				int length = buf.getInt();
+				int end = buf.position() + length;
+				switch (tag) {
+				case SECTION_ALTERNATIVES:
+					readAlternatives();
+					break;
+				case SECTION_CRITERIA:
+					readCriteria();
+					break;
+				case SECTION_BASELINES:
+					readBaselines();
+					break;
+				case SECTION_MEASUREMENTS:
+					measurements = readMeasurements(alternatives.size());
+					break;
+				case SECTION_PREFERENCES:
+					// preferences refer to the criteria of the constructed model
+					position = buf.position();
+					hasPreferences = true;
+					break;
+				case SECTION_CATEGORIES:
+					readCategories();
+					break;
+				case SECTION_PROFILES:
+					profiles = readMeasurements(Math.max(categories.size() - 1, 0));
+					break;
+				default:
+					// unknown section of a newer minor revision: skip
+				}
+				buf.position(end);
+			}
+			SMAAModel model = buildModel();
+			if (hasPreferences) {
+				buf.position(position);
+				readPreferences(model);
+			}
+			return model;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated binary model");
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid binary model: " + e.getMessage());
+		} catch (ClassCastException e) {
+			throw new IOException("Invalid binary model: " + e.getMessage());
+		}
+	}
+
+	private void readHeader() throws IOException {
+		if (buf.getInt() != MAGIC) {
+			throw new IOException("Not a binary JSMAA model");
+		}
+		short version = buf.getShort();
+		if (version > FORMAT_VERSION) {
+			throw new IOException("Unsupported binary model version " + version + ", only versions until " + FORMAT_VERSION + " supported");
+		}
+		modelType = buf.get();
+		if (modelType != MODEL_SMAA2 && modelType != MODEL_SMAATRI) {
+			throw new IOException("Unknown model type " + modelType);
+		}
+		name = readString();
+	}
+
+	private void readAlternatives() throws IOException {
+		int n = buf.getInt();
+		alternatives = new ArrayList<Alternative>(n);
+		for (int i=0;i<n;i++) {
+			alternatives.add(new Alternative(readString()));
+		}
+	}
+
+	private void readCriteria() throws IOException {
+		int n = buf.getInt();
+		criteria = new ArrayList<Criterion>(n);
+		for (int i=0;i<n;i++) {
+			byte type = buf.get();
+			String cName = readString();
+			switch (type) {
+			case CRITERION_SCALE:
+				ScaleCriterion sc = new ScaleCriterion(cName, buf.get() != 0);
+				sc.setScale(new Interval(buf.getDouble(), buf.getDouble()));
+				int pts = buf.getInt();
+				for (int j=0;j<pts;j++) {
+					try {
+						sc.addValuePoint(new Point2D(buf.getDouble(), buf.getDouble()));
+					} catch (InvalidValuePointException e) {
+						throw new IOException("Invalid value point in criterion " + cName + ": " + e.getMessage());
+					}
+				}
+				criteria.add(sc);
+				break;
+			case CRITERION_ORDINAL:
+				criteria.add(new OrdinalCriterion(cName));
+				break;
+			case CRITERION_OUTRANKING:
+				boolean asc = buf.get() != 0;
+				CardinalMeasurement indif = (CardinalMeasurement) readMeasurement(null);
+				CardinalMeasurement pref = (CardinalMeasurement) readMeasurement(null);
+				criteria.add(new OutrankingCriterion(cName, asc, indif, pref));
+				break;
+			default:
+				throw new IOException("Unknown criterion type " + type);
+			}
+		}
+	}
+
+	private void readBaselines() throws IOException {
+		baselines = new BaselineGaussianMeasurement[criteria.size()];
+		int n = buf.getInt();
+		for (int i=0;i<n;i++) {
+			int cIndex = buf.getInt();
+			if (cIndex < 0 || cIndex >= criteria.size()) {
+				throw new IOException("Baseline for criterion " + cIndex + " of " + criteria.size());
+			}
+			baselines[cIndex] = new BaselineGaussianMeasurement(buf.getDouble(), buf.getDouble());
+		}
+	}
+
+	private Measurement[][] readMeasurements(int numAlts) throws IOException {
+		int nCrit = buf.getInt();
+		int nAlts = buf.getInt();
+		if (nCrit != criteria.size() || nAlts != numAlts) {
+			throw new IOException("Measurement section dimensions " + nCrit + "x" + nAlts + 
+					" don't match " + criteria.size() + "x" + numAlts);
+		}
+		Measurement[][] meas = new Measurement[nCrit][nAlts];
+		for (int c=0;c<nCrit;c++) {
+			BaselineGaussianMeasurement baseline = getBaseline(c);
+			for (int a=0;a<nAlts;a++) {
+				meas[c][a] = readMeasurement(baseline);
+			}
+		}
+		return meas;
+	}
+
+	private BaselineGaussianMeasurement getBaseline(int cIndex) {
+		if (baselines == null) {
+			baselines = new BaselineGaussianMeasurement[criteria.size()];
+		}
+		if (baselines[cIndex] == null && criteria.get(cIndex) instanceof CardinalCriterion) {
+			baselines[cIndex] = new BaselineGaussianMeasurement();
+		}
+		return baselines[cIndex];
+	}
+
+	private Measurement readMeasurement(BaselineGaussianMeasurement baseline) throws IOException {
+		byte type = buf.get();
+		switch (type) {
+		case MEASUREMENT_INTERVAL:
+			return new Interval(buf.getDouble(), buf.getDouble());
+		case MEASUREMENT_EXACT:
+			return new ExactMeasurement(buf.getDouble());
+		case MEASUREMENT_GAUSSIAN:
+			return new GaussianMeasurement(buf.getDouble(), buf.getDouble());
+		case MEASUREMENT_LOGNORMAL:
+			return new LogNormalMeasurement(buf.getDouble(), buf.getDouble());
+		case MEASUREMENT_LOGITNORMAL:
+			return new LogitNormalMeasurement(buf.getDouble(), buf.getDouble());
+		case MEASUREMENT_BETA:
+			return new BetaMeasurement(buf.getDouble(), buf.getDouble(), buf.getDouble(), buf.getDouble());
+		case MEASUREMENT_DISCRETE:
+			int n = buf.getInt();
+			DiscreteMeasurement d = new DiscreteMeasurement();
+			for (int i=0;i<n;i++) {
+				d.add(new Point2D(buf.getDouble(), buf.getDouble()));
+			}
+			return d;
+		case MEASUREMENT_RANK:
+			return new Rank(buf.getInt());
+		case MEASUREMENT_RELATIVE_NORMAL:
+			return new RelativeNormalMeasurement(checkBaseline(baseline), 
+					new GaussianMeasurement(buf.getDouble(), buf.getDouble()));
+		case MEASUREMENT_RELATIVE_LOGITNORMAL:
+			return new RelativeLogitNormalMeasurement(checkBaseline(baseline),
+					new GaussianMeasurement(buf.getDouble(), buf.getDouble()));
+		default:
+			throw new IOException("Unknown measurement type " + type);
+		}
+	}
+
+	private BaselineGaussianMeasurement checkBaseline(BaselineGaussianMeasurement baseline) throws IOException {
+		if (baseline == null) {
+			throw new IOException("Relative measurement without a baseline");
+		}
+		return baseline;
+	}
+
+	private void readCategories() throws IOException {
+		optimistic = buf.get() != 0;
+		lambda = new Interval(buf.getDouble(), buf.getDouble());
+		int n = buf.getInt();
+		categories = new ArrayList<Category>(n);
+		for (int i=0;i<n;i++) {
+			categories.add(new Category(readString()));
+		}
+	}
+
+	private SMAAModel buildModel() throws IOException {
+		if (measurements == null) {
+			measurements = new Measurement[criteria.size()][0];
+			if (alternatives.size() > 0) {
+				throw new IOException("Missing measurements section");
+			}
+		}
+		ImpactMatrix matrix = new ImpactMatrix(alternatives, criteria, measurements);
+		for (int i=0;i<criteria.size();i++) {
+			if (baselines != null && baselines[i] != null) {
+				matrix.setBaseline(criteria.get(i), baselines[i]);
+			}
+		}
+
+		SMAAModel model;
+		if (modelType == MODEL_SMAATRI) {
+			SMAATRIModel tri = new SMAATRIModel(name, matrix);
+			for (Category c : categories) {
+				tri.addCategory(c);
+			}
+			if (lambda != null) {
+				tri.getLambda().setEnd(1.0);
+				tri.getLambda().setStart(lambda.getStart());
+				tri.getLambda().setEnd(lambda.getEnd());
+			}
+			tri.setRule(optimistic);
+			model = tri;
+		} else {
+			model = new SMAAModel(name, matrix);
+		}
+		for (Alternative a : alternatives) {
+			model.addAlternative(a);
+		}
+		for (Criterion c : criteria) {
+			model.addCriterion(c);
+		}
+		if (profiles != null) {
+			SMAATRIModel tri = (SMAATRIModel) model;
+			for (int c=0;c<criteria.size();c++) {
+				for (int k=0;k<profiles[c].length;k++) {
+					tri.setCategoryUpperBound((OutrankingCriterion) criteria.get(c), categories.get(k),
+							(CardinalMeasurement) profiles[c][k]);
+				}
+			}
+		}
+		return model;
+	}
+
+	private void readPreferences(SMAAModel model) throws IOException {
+		byte type = buf.get();
+		switch (type) {
+		case PREFERENCES_MISSING:
+			break;
+		case PREFERENCES_CARDINAL:
+			CardinalPreferenceInformation cp = new CardinalPreferenceInformation(new ArrayList<Criterion>(model.getCriteria()));
+			for (Criterion c : model.getCriteria()) {
+				cp.setMeasurement(c, (CardinalMeasurement) readMeasurement(null));
+			}
+			model.setPreferenceInformation(cp);
+			break;
+		case PREFERENCES_ORDINAL:
+			OrdinalPreferenceInformation op = new OrdinalPreferenceInformation(new ArrayList<Criterion>(model.getCriteria()));
+			for (Criterion c : model.getCriteria()) {
+				op.getMeasurement(c).setRank(buf.getInt());
+			}
+			model.setPreferenceInformation(op);
+			break;
+		default:
+			throw new IOException("Unknown preference information type " + type);
+		}
+	}
+
+	private String readString() throws UnsupportedEncodingException {
+		int len = buf.getInt();
+		if (len < 0 || len > buf.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[len];
+		buf.get(bytes);
+		return new String(bytes, "UTF-8");
+	}
+}
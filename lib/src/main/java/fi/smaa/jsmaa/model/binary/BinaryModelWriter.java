@@ -0,0 +1,265 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.binary;
+
+import static fi.smaa.jsmaa.model.binary.BinaryModelFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Category;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.Measurement;
+import fi.smaa.jsmaa.model.MissingPreferenceInformation;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.OrdinalPreferenceInformation;
+import fi.smaa.jsmaa.model.OutrankingCriterion;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.PreferenceInformation;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeGaussianMeasurementBase;
+import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+class BinaryModelWriter {
+	
+	private final SMAAModel model;
+	private final ImpactMatrix matrix;
+	private final ByteArrayOutputStream section = new ByteArrayOutputStream();
+	private final DataOutputStream out = new DataOutputStream(section);
+
+	public BinaryModelWriter(SMAAModel model) {
+		if (!(model.getMeasurements() instanceof ImpactMatrix)) {
+			throw new IllegalArgumentException("Only models with an impact matrix can be stored");
+		}
+		this.model = model;
+		this.matrix = (ImpactMatrix) model.getMeasurements();
+	}
+
+	public void write(DataOutputStream dest) throws IOException {
+		dest.writeInt(MAGIC);
+		dest.writeShort(FORMAT_VERSION);
+		dest.writeByte(model instanceof SMAATRIModel ? MODEL_SMAATRI : MODEL_SMAA2);
+		writeString(dest, model.getName());
+
+		writeAlternatives();
+		flushSection(dest, SECTION_ALTERNATIVES);
+		writeCriteria();
+		flushSection(dest, SECTION_CRITERIA);
+		writeBaselines();
+		flushSection(dest, SECTION_BASELINES);
+		writeMeasurements(matrix, model.getAlternatives());
+		flushSection(dest, SECTION_MEASUREMENTS);
+		writePreferences();
+		flushSection(dest, SECTION_PREFERENCES);
+		if (model instanceof SMAATRIModel) {
+			SMAATRIModel tri = (SMAATRIModel) model;
+			writeCategories(tri);
+			flushSection(dest, SECTION_CATEGORIES);
+			List<Category> cats = tri.getCategories();
+			writeMeasurements((ImpactMatrix) tri.getProfileImpactMatrix(), cats.subList(0, Math.max(cats.size() - 1, 0)));
+			flushSection(dest, SECTION_PROFILES);
+		}
+		dest.writeByte(SECTION_END);
+	}
+
+	private void flushSection(DataOutputStream dest, byte tag) throws IOException {
+		out.flush();
+		dest.writeByte(tag);
+		dest.writeInt(section.size());
+		section.writeTo(dest);
+		section.reset();
+	}
+
+	private void writeAlternatives() throws IOException {
+		out.writeInt(model.getAlternatives().size());
+		for (Alternative a : model.getAlternatives()) {
+			writeString(out, a.getName());
+		}
+	}
+
+	private void writeCriteria() throws IOException {
+		out.writeInt(model.getCriteria().size());
+		for (Criterion c : model.getCriteria()) {
+			if (c instanceof ScaleCriterion) {
+				ScaleCriterion sc = (ScaleCriterion) c;
+				out.writeByte(CRITERION_SCALE);
+				writeString(out, c.getName());
+				out.writeBoolean(sc.getAscending());
+				out.writeDouble(sc.getScale().getStart());
+				out.writeDouble(sc.getScale().getEnd());
+				List<Point2D> pts = sc.getValuePoints();
+				// the end points are implied by the scale
+				out.writeInt(pts.size() - 2);
+				for (Point2D p : pts.subList(1, pts.size() - 1)) {
+					out.writeDouble(p.getX());
+					out.writeDouble(p.getY());
+				}
+			} else if (c instanceof OrdinalCriterion) {
+				out.writeByte(CRITERION_ORDINAL);
+				writeString(out, c.getName());
+			} else if (c instanceof OutrankingCriterion) {
+				OutrankingCriterion oc = (OutrankingCriterion) c;
+				out.writeByte(CRITERION_OUTRANKING);
+				writeString(out, c.getName());
+				out.writeBoolean(oc.getAscending());
+				writeMeasurement(oc.getIndifMeasurement());
+				writeMeasurement(oc.getPrefMeasurement());
+			} else {
+				throw new IllegalArgumentException("Unsupported criterion type " + c.getClass().getName());
+			}
+		}
+	}
+
+	private void writeBaselines() throws IOException {
+		int count = 0;
+		for (Criterion c : model.getCriteria()) {
+			if (matrix.getBaseline(c) != null) {
+				count++;
+			}
+		}
+		out.writeInt(count);
+		for (int i=0;i<model.getCriteria().size();i++) {
+			BaselineGaussianMeasurement b = matrix.getBaseline(model.getCriteria().get(i));
+			if (b != null) {
+				out.writeInt(i);
+				out.writeDouble(b.getMean());
+				out.writeDouble(b.getStDev());
+			}
+		}
+	}
+
+	private void writeMeasurements(ImpactMatrix m, List<? extends Alternative> alts) throws IOException {
+		out.writeInt(model.getCriteria().size());
+		out.writeInt(alts.size());
+		for (Criterion c : model.getCriteria()) {
+			for (Alternative a : alts) {
+				writeMeasurement(m.getMeasurement(c, a));
+			}
+		}
+	}
+
+	private void writeMeasurement(Measurement m) throws IOException {
+		Class<?> type = m.getClass();
+		if (type.equals(Interval.class)) {
+			Interval i = (Interval) m;
+			out.writeByte(MEASUREMENT_INTERVAL);
+			out.writeDouble(i.getStart());
+			out.writeDouble(i.getEnd());
+		} else if (type.equals(ExactMeasurement.class)) {
+			out.writeByte(MEASUREMENT_EXACT);
+			out.writeDouble(((ExactMeasurement) m).getValue());
+		} else if (type.equals(GaussianMeasurement.class)) {
+			out.writeByte(MEASUREMENT_GAUSSIAN);
+			writeGaussian((GaussianMeasurement) m);
+		} else if (type.equals(LogNormalMeasurement.class)) {
+			out.writeByte(MEASUREMENT_LOGNORMAL);
+			writeGaussian((GaussianMeasurement) m);
+		} else if (type.equals(LogitNormalMeasurement.class)) {
+			out.writeByte(MEASUREMENT_LOGITNORMAL);
+			writeGaussian((GaussianMeasurement) m);
+		} else if (type.equals(BetaMeasurement.class)) {
+			BetaMeasurement b = (BetaMeasurement) m;
+			out.writeByte(MEASUREMENT_BETA);
+			out.writeDouble(b.getAlpha());
+			out.writeDouble(b.getBeta());
+			out.writeDouble(b.getMin());
+			out.writeDouble(b.getMax());
+		} else if (type.equals(DiscreteMeasurement.class)) {
+			DiscreteMeasurement d = (DiscreteMeasurement) m;
+			out.writeByte(MEASUREMENT_DISCRETE);
+			out.writeInt(d.size());
+			for (Point2D p : d) {
+				out.writeDouble(p.getX());
+				out.writeDouble(p.getY());
+			}
+		} else if (type.equals(Rank.class)) {
+			out.writeByte(MEASUREMENT_RANK);
+			out.writeInt(((Rank) m).getRank());
+		} else if (type.equals(RelativeNormalMeasurement.class)) {
+			out.writeByte(MEASUREMENT_RELATIVE_NORMAL);
+			writeGaussian(((RelativeGaussianMeasurementBase) m).getRelative());
+		} else if (type.equals(RelativeLogitNormalMeasurement.class)) {
+			out.writeByte(MEASUREMENT_RELATIVE_LOGITNORMAL);
+			writeGaussian(((RelativeGaussianMeasurementBase) m).getRelative());
+		} else {
+			throw new IllegalArgumentException("Unsupported measurement type " + type.getName());
+		}
+	}
+
+	private void writeGaussian(GaussianMeasurement g) throws IOException {
+		out.writeDouble(g.getMean());
+		out.writeDouble(g.getStDev());
+	}
+
+	private void writePreferences() throws IOException {
+		PreferenceInformation pref = model.getPreferenceInformation();
+		if (pref instanceof CardinalPreferenceInformation) {
+			out.writeByte(PREFERENCES_CARDINAL);
+			for (Criterion c : model.getCriteria()) {
+				writeMeasurement(((CardinalPreferenceInformation) pref).getMeasurement(c));
+			}
+		} else if (pref instanceof OrdinalPreferenceInformation) {
+			out.writeByte(PREFERENCES_ORDINAL);
+			for (Criterion c : model.getCriteria()) {
+				out.writeInt(((OrdinalPreferenceInformation) pref).getMeasurement(c).getRank());
+			}
+		} else if (pref instanceof MissingPreferenceInformation) {
+			out.writeByte(PREFERENCES_MISSING);
+		} else {
+			throw new IllegalArgumentException("Unsupported preference information " + pref.getClass().getName());
+		}
+	}
+
+	private void writeCategories(SMAATRIModel tri) throws IOException {
+		out.writeBoolean(tri.getRule());
+		out.writeDouble(tri.getLambda().getStart());
+		out.writeDouble(tri.getLambda().getEnd());
+		out.writeInt(tri.getCategories().size());
+		for (Category c : tri.getCategories()) {
+			writeString(out, c.getName());
+		}
+	}
+
+	private static void writeString(DataOutputStream dest, String s) throws IOException {
+		byte[] bytes = s.getBytes("UTF-8");
+		dest.writeInt(bytes.length);
+		dest.write(bytes);
+	}
+}
@@ -0,0 +1,380 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.csv;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.CriterionMeasurement;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.FullJointMeasurements;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.Measurement;
+import fi.smaa.jsmaa.model.MultivariateGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.PerCriterionMeasurements;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+/**
+ * Streaming reader for impact matrices in delimited text (CSV or TSV). Each record describes one
+ * cell: <code>alternative, criterion, type, parameters...</code>, where the type is one of
+ * <ul>
+ * <li><code>exact value</code>, <code>interval start end</code>,</li>
+ * <li><code>gaussian mean stdev</code>, <code>lognormal mean stdev</code>, <code>logitnormal mean stdev</code>,</li>
+ * <li><code>beta alpha beta min max</code>, <code>discrete x1 p1 x2 p2 ...</code>,</li>
+ * <li><code>rank r</code>, which makes the criterion ordinal,</li>
+ * <li><code>relnormal mean stdev</code>, <code>rellogitnormal mean stdev</code>, relative to the baseline of the
+ * criterion, which is given by a record with an empty alternative: <code>, criterion, baseline, mean stdev</code>.</li>
+ * </ul>
+ * Alternatives and criteria are ordered by their first appearance; cells without a record get the
+ * default measurement of their criterion.
+ * <p>
+ * Alternatively, a file can describe {@link PerCriterionMeasurements}, where every record is
+ * <code>alternative, criterion, mvgaussian, mean, cov1, ..., covi</code>: the mean of the alternative and its
+ * covariances with the first i alternatives (the lower triangle of the covariance matrix, including the diagonal).
+ * The kind of file is determined by the type of its first record.
+ * <p>
+ * Blank lines and lines starting with '#' are skipped, and a header record with the type column named
+ * "type" is ignored. The records are parsed one line at a time straight into the measurements, which are
+ * then installed in bulk without firing events, so memory use beyond the constructed model stays small.
+ */
+public class CSVMeasurementsReader {
+	
+	public static final String TSV_EXTENSION = "tsv";
+	
+	static final String TYPE_MVGAUSSIAN = "mvgaussian";
+	static final String TYPE_BASELINE = "baseline";
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final CSVTokenizer tokenizer;
+	
+	private final List<Alternative> alternatives = new ArrayList<Alternative>();
+	private final Map<String, Integer> altIndex = new HashMap<String, Integer>();
+	private final List<String> critNames = new ArrayList<String>();
+	private final Map<String, Integer> critIndex = new HashMap<String, Integer>();
+	
+	/**
+	 * Creates a reader that detects whether the fields are separated by tabs or commas.
+	 */
+	public CSVMeasurementsReader(Reader in) {
+		this(in, (char) 0);
+	}
+
+	public CSVMeasurementsReader(Reader in, char delimiter) {
+		BufferedReader br = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, BUFFER_SIZE);
+		tokenizer = new CSVTokenizer(br, delimiter);
+	}
+	
+	/**
+	 * Reads the measurements from a UTF-8 file. Files with the extension {@value #TSV_EXTENSION} are
+	 * tab-separated, others are comma-separated.
+	 */
+	public static FullJointMeasurements read(File file) throws IOException {
+		char delimiter = file.getName().toLowerCase().endsWith("." + TSV_EXTENSION) ? '\t' : ',';
+		Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			return new CSVMeasurementsReader(in, delimiter).read();
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Reads all records.
+	 * 
+	 * @return an {@link ImpactMatrix}, or {@link PerCriterionMeasurements} if the records are multivariate Gaussian.
+	 * @throws IOException if reading fails or a record is invalid.
+	 */
+	public FullJointMeasurements read() throws IOException {
+		List<String> rec = tokenizer.next();
+		if (rec != null && rec.size() > 2 && rec.get(2).equalsIgnoreCase("type")) {
+			rec = tokenizer.next();
+		}
+		if (rec != null && rec.size() > 2 && rec.get(2).equalsIgnoreCase(TYPE_MVGAUSSIAN)) {
+			return readPerCriterion(rec);
+		}
+		return readImpactMatrix(rec);
+	}
+	
+	private ImpactMatrix readImpactMatrix(List<String> rec) throws IOException {
+		List<Measurement[]> cells = new ArrayList<Measurement[]>();
+		List<BaselineGaussianMeasurement> baselines = new ArrayList<BaselineGaussianMeasurement>();
+		List<Boolean> ordinal = new ArrayList<Boolean>();
+		
+		for (; rec != null; rec = tokenizer.next()) {
+			checkFieldCount(rec, 3);
+			String type = rec.get(2).toLowerCase();
+			int c = criterionIndex(rec.get(1));
+			if (c == cells.size()) {
+				cells.add(new Measurement[16]);
+				baselines.add(null);
+				ordinal.add(type.equals("rank"));
+			}
+			if (type.equals(TYPE_BASELINE)) {
+				if (rec.get(0).length() != 0) {
+					throw new IOException(tokenizer.error("baseline record with an alternative"));
+				}
+				checkFieldCount(rec, 5);
+				BaselineGaussianMeasurement b = baseline(baselines, c);
+				b.setMean(parse(rec, 3));
+				b.setStDev(nonNegative(rec, 4));
+				continue;
+			}
+			if (ordinal.get(c) != type.equals("rank")) {
+				throw new IOException(tokenizer.error("ranks can not be mixed with cardinal measurements on criterion " + rec.get(1)));
+			}
+			int a = alternativeIndex(rec.get(0));
+			Measurement[] col = cells.get(c);
+			if (a >= col.length) {
+				col = Arrays.copyOf(col, Math.max(a + 1, col.length * 2));
+				cells.set(c, col);
+			}
+			if (col[a] != null) {
+				throw new IOException(tokenizer.error("duplicate record for " + rec.get(0) + " on " + rec.get(1)));
+			}
+			col[a] = parseMeasurement(rec, type, baselines, c);
+		}
+		
+		List<Criterion> criteria = new ArrayList<Criterion>(critNames.size());
+		Measurement[][] meas = new Measurement[critNames.size()][];
+		for (int c = 0; c < critNames.size(); ++c) {
+			criteria.add(ordinal.get(c) ? new OrdinalCriterion(critNames.get(c)) : new ScaleCriterion(critNames.get(c)));
+			meas[c] = Arrays.copyOf(cells.get(c), alternatives.size());
+			cells.set(c, null);
+		}
+		ImpactMatrix matrix;
+		try {
+			matrix = new ImpactMatrix(alternatives, criteria, meas);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("invalid measurements: " + e.getMessage());
+		}
+		for (int c = 0; c < criteria.size(); ++c) {
+			if (baselines.get(c) != null) {
+				matrix.setBaseline(criteria.get(c), baselines.get(c));
+			}
+		}
+		return matrix;
+	}
+
+	private Measurement parseMeasurement(List<String> rec, String type, List<BaselineGaussianMeasurement> baselines, int c) throws IOException {
+		if (type.equals("exact")) {
+			checkFieldCount(rec, 4);
+			return new ExactMeasurement(parse(rec, 3));
+		} else if (type.equals("interval")) {
+			checkFieldCount(rec, 5);
+			double start = parse(rec, 3);
+			double end = parse(rec, 4);
+			if (end < start) {
+				throw new IOException(tokenizer.error("interval end < start"));
+			}
+			return new Interval(start, end);
+		} else if (type.equals("gaussian")) {
+			checkFieldCount(rec, 5);
+			return new GaussianMeasurement(parse(rec, 3), nonNegative(rec, 4));
+		} else if (type.equals("lognormal")) {
+			checkFieldCount(rec, 5);
+			return new LogNormalMeasurement(parse(rec, 3), nonNegative(rec, 4));
+		} else if (type.equals("logitnormal")) {
+			checkFieldCount(rec, 5);
+			return new LogitNormalMeasurement(parse(rec, 3), nonNegative(rec, 4));
+		} else if (type.equals("beta")) {
+			checkFieldCount(rec, 7);
+			double alpha = parse(rec, 3);
+			double beta = parse(rec, 4);
+			double min = parse(rec, 5);
+			double max = parse(rec, 6);
+			if (alpha <= 0.0 || beta <= 0.0 || max < min) {
+				throw new IOException(tokenizer.error("invalid beta parameters"));
+			}
+			return new BetaMeasurement(alpha, beta, min, max);
+		} else if (type.equals("discrete")) {
+			if (rec.size() < 5 || (rec.size() - 3) % 2 != 0) {
+				throw new IOException(tokenizer.error("discrete measurement needs value, probability pairs"));
+			}
+			DiscreteMeasurement m = new DiscreteMeasurement();
+			for (int i = 3; i < rec.size(); i += 2) {
+				if (!m.add(new Point2D(parse(rec, i), parse(rec, i + 1)))) {
+					throw new IOException(tokenizer.error("invalid discrete point " + rec.get(i) + ", " + rec.get(i + 1)));
+				}
+			}
+			return m;
+		} else if (type.equals("rank")) {
+			checkFieldCount(rec, 4);
+			try {
+				return new Rank(Integer.parseInt(rec.get(3)));
+			} catch (NumberFormatException e) {
+				throw new IOException(tokenizer.error("invalid rank " + rec.get(3)));
+			}
+		} else if (type.equals("relnormal")) {
+			checkFieldCount(rec, 5);
+			return new RelativeNormalMeasurement(baseline(baselines, c), new GaussianMeasurement(parse(rec, 3), nonNegative(rec, 4)));
+		} else if (type.equals("rellogitnormal")) {
+			checkFieldCount(rec, 5);
+			return new RelativeLogitNormalMeasurement(baseline(baselines, c), new GaussianMeasurement(parse(rec, 3), nonNegative(rec, 4)));
+		}
+		throw new IOException(tokenizer.error("unknown measurement type " + rec.get(2)));
+	}
+	
+	private static BaselineGaussianMeasurement baseline(List<BaselineGaussianMeasurement> baselines, int c) {
+		if (baselines.get(c) == null) {
+			baselines.set(c, new BaselineGaussianMeasurement());
+		}
+		return baselines.get(c);
+	}
+
+	private PerCriterionMeasurements readPerCriterion(List<String> rec) throws IOException {
+		List<double[]> means = new ArrayList<double[]>();
+		List<double[][]> covs = new ArrayList<double[][]>();
+		
+		for (; rec != null; rec = tokenizer.next()) {
+			checkFieldCount(rec, 3);
+			if (!rec.get(2).equalsIgnoreCase(TYPE_MVGAUSSIAN)) {
+				throw new IOException(tokenizer.error("only " + TYPE_MVGAUSSIAN + " records are allowed after the first one"));
+			}
+			int c = criterionIndex(rec.get(1));
+			if (c == means.size()) {
+				means.add(new double[16]);
+				covs.add(new double[16][]);
+			}
+			int a = alternativeIndex(rec.get(0));
+			checkFieldCount(rec, a + 5);
+			if (a >= means.get(c).length) {
+				int size = Math.max(a + 1, means.get(c).length * 2);
+				means.set(c, Arrays.copyOf(means.get(c), size));
+				covs.set(c, Arrays.copyOf(covs.get(c), size));
+			}
+			if (covs.get(c)[a] != null) {
+				throw new IOException(tokenizer.error("duplicate record for " + rec.get(0) + " on " + rec.get(1)));
+			}
+			means.get(c)[a] = parse(rec, 3);
+			double[] row = new double[a + 1];
+			for (int i = 0; i <= a; ++i) {
+				row[i] = parse(rec, i + 4);
+			}
+			covs.get(c)[a] = row;
+		}
+		
+		final int n = alternatives.size();
+		List<Criterion> criteria = new ArrayList<Criterion>(critNames.size());
+		CriterionMeasurement[] meas = new CriterionMeasurement[critNames.size()];
+		for (int c = 0; c < critNames.size(); ++c) {
+			criteria.add(new ScaleCriterion(critNames.get(c)));
+			double[][] lower = covs.get(c);
+			double[][] full = new double[n][n];
+			for (int i = 0; i < n; ++i) {
+				if (i >= lower.length || lower[i] == null) {
+					throw new IOException("missing record for " + alternatives.get(i).getName() + " on " + critNames.get(c));
+				}
+				for (int j = 0; j <= i; ++j) {
+					full[i][j] = lower[i][j];
+					full[j][i] = lower[i][j];
+				}
+				lower[i] = null;
+			}
+			covs.set(c, null);
+			MultivariateGaussianCriterionMeasurement m = new MultivariateGaussianCriterionMeasurement(alternatives);
+			try {
+				m.setMeanVector(new ArrayRealVector(Arrays.copyOf(means.get(c), n), false));
+				m.setCovarianceMatrix(new Array2DRowRealMatrix(full, false));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("invalid covariance matrix for " + critNames.get(c) + ": " + e.getMessage());
+			}
+			meas[c] = m;
+		}
+		return new PerCriterionMeasurements(criteria, alternatives, meas);
+	}
+
+	private int alternativeIndex(String name) throws IOException {
+		if (name.length() == 0) {
+			throw new IOException(tokenizer.error("empty alternative name"));
+		}
+		Integer idx = altIndex.get(name);
+		if (idx == null) {
+			idx = alternatives.size();
+			altIndex.put(name, idx);
+			alternatives.add(new Alternative(name));
+		}
+		return idx;
+	}
+
+	private int criterionIndex(String name) throws IOException {
+		if (name.length() == 0) {
+			throw new IOException(tokenizer.error("empty criterion name"));
+		}
+		Integer idx = critIndex.get(name);
+		if (idx == null) {
+			idx = critNames.size();
+			critIndex.put(name, idx);
+			critNames.add(name);
+		}
+		return idx;
+	}
+	
+	private void checkFieldCount(List<String> rec, int count) throws IOException {
+		if (rec.size() < count) {
+			throw new IOException(tokenizer.error("expected " + count + " fields, found " + rec.size()));
+		}
+	}
+	
+	private double parse(List<String> rec, int field) throws IOException {
+		try {
+			return Double.parseDouble(rec.get(field));
+		} catch (NumberFormatException e) {
+			throw new IOException(tokenizer.error("invalid number " + rec.get(field)));
+		}
+	}
+	
+	private double nonNegative(List<String> rec, int field) throws IOException {
+		double v = parse(rec, field);
+		if (v < 0.0) {
+			throw new IOException(tokenizer.error("negative standard deviation " + rec.get(field)));
+		}
+		return v;
+	}
+}
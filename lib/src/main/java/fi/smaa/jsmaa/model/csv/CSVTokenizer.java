@@ -0,0 +1,136 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.csv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits delimited text into records, one line at a time. Fields may be quoted with double quotes,
+ * in which case they can contain the delimiter and doubled quotes. Unquoted fields are trimmed.
+ * Blank lines and lines starting with '#' are skipped. The field list is reused between records.
+ */
+class CSVTokenizer {
+	private final BufferedReader reader;
+	private final List<String> fields = new ArrayList<String>();
+	private final StringBuilder field = new StringBuilder();
+	private char delimiter;
+	private int lineNumber = 0;
+	
+	/**
+	 * @param reader the input.
+	 * @param delimiter the field delimiter, or 0 to detect a tab or a comma from the first record.
+	 */
+	public CSVTokenizer(BufferedReader reader, char delimiter) {
+		this.reader = reader;
+		this.delimiter = delimiter;
+	}
+	
+	/**
+	 * Reads the next record.
+	 * 
+	 * @return the fields of the record, valid until the next call, or null at the end of the input.
+	 */
+	public List<String> next() throws IOException {
+		String line;
+		do {
+			line = reader.readLine();
+			if (line == null) {
+				return null;
+			}
+			++lineNumber;
+		} while (line.trim().length() == 0 || line.charAt(0) == '#');
+		
+		if (delimiter == 0) {
+			delimiter = line.indexOf('\t') >= 0 ? '\t' : ',';
+		}
+		split(line);
+		return fields;
+	}
+
+	private void split(String line) throws IOException {
+		fields.clear();
+		int i = 0;
+		final int n = line.length();
+		while (true) {
+			while (i < n && line.charAt(i) == ' ') {
+				++i;
+			}
+			if (i < n && line.charAt(i) == '"') {
+				field.setLength(0);
+				++i;
+				while (true) {
+					if (i >= n) {
+						throw new IOException(error("unterminated quoted field"));
+					}
+					char ch = line.charAt(i++);
+					if (ch == '"') {
+						if (i < n && line.charAt(i) == '"') {
+							field.append('"');
+							++i;
+						} else {
+							break;
+						}
+					} else {
+						field.append(ch);
+					}
+				}
+				while (i < n && line.charAt(i) == ' ') {
+					++i;
+				}
+				if (i < n && line.charAt(i) != delimiter) {
+					throw new IOException(error("unexpected character after quoted field"));
+				}
+				fields.add(field.toString());
+			} else {
+				int end = line.indexOf(delimiter, i);
+				if (end < 0) {
+					end = n;
+				}
+				fields.add(line.substring(i, end).trim());
+				i = end;
+			}
+			if (i >= n) {
+				return;
+			}
+			++i; // skip the delimiter
+		}
+	}
+	
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	public char getDelimiter() {
+		return delimiter;
+	}
+	
+	/**
+	 * Prefixes a message with the current line number.
+	 */
+	public String error(String message) {
+		return "line " + lineNumber + ": " + message;
+	}
+}
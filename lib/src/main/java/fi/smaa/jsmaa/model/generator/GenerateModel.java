@@ -0,0 +1,189 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javolution.xml.stream.XMLStreamException;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.binary.BinaryModelFormat;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.PreferenceType;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+
+/**
+ * Command line front-end of {@link ModelGenerator}; writes the generated model as XML, or in the
+ * binary format if the file name ends with .{@value BinaryModelFormat#FILE_EXTENSION}.
+ */
+public class GenerateModel {
+	
+	private static final String USAGE =
+		"Usage: GenerateModel [options] <file>\n" +
+		"  --tri                  generate an SMAA-TRI model (default SMAA-2)\n" +
+		"  --alternatives=N       number of alternatives (10)\n" +
+		"  --criteria=N           number of criteria (5)\n" +
+		"  --categories=N         number of SMAA-TRI categories (3)\n" +
+		"  --measurements=T[:W],...  measurement types with weights, e.g. gaussian:2,beta (gaussian)\n" +
+		"  --value-points=N       points per piecewise linear value function (0)\n" +
+		"  --preferences=P        missing, ordinal, exact or interval (missing)\n" +
+		"  --seed=S               random seed (1)";
+
+	public static void main(String[] args) {
+		try {
+			SMAAModel model = run(args);
+			System.out.println("Generated " + model.getAlternatives().size() + " alternatives, "
+					+ model.getCriteria().size() + " criteria");
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Cannot write model: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Generates and writes the model described by the arguments.
+	 * 
+	 * @return the generated model.
+	 * @throws IllegalArgumentException if the arguments are invalid.
+	 */
+	public static SMAAModel run(String[] args) throws IOException {
+		boolean tri = false;
+		long seed = 1L;
+		File file = null;
+		Map<String, String> opts = new LinkedHashMap<String, String>();
+		for (String arg : args) {
+			if (arg.equals("--tri")) {
+				tri = true;
+			} else if (arg.startsWith("--")) {
+				int eq = arg.indexOf('=');
+				if (eq < 0) {
+					throw new IllegalArgumentException("Missing value for " + arg);
+				}
+				opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+			} else if (file == null) {
+				file = new File(arg);
+			} else {
+				throw new IllegalArgumentException("Unexpected argument " + arg);
+			}
+		}
+		if (file == null) {
+			throw new IllegalArgumentException("No output file given");
+		}
+		if (opts.containsKey("seed")) {
+			seed = parseLong(opts.remove("seed"), "seed");
+		}
+		ModelGenerator gen = new ModelGenerator(seed);
+		for (Map.Entry<String, String> e : opts.entrySet()) {
+			String key = e.getKey();
+			String value = e.getValue();
+			if (key.equals("alternatives")) {
+				gen.setAlternatives(parseInt(value, key));
+			} else if (key.equals("criteria")) {
+				gen.setCriteria(parseInt(value, key));
+			} else if (key.equals("categories")) {
+				gen.setCategories(parseInt(value, key));
+			} else if (key.equals("value-points")) {
+				gen.setValueFunctionPoints(parseInt(value, key));
+			} else if (key.equals("measurements")) {
+				gen.setMeasurementMix(parseMix(value));
+			} else if (key.equals("preferences")) {
+				gen.setPreferences(PreferenceType.valueOf(upper(value, "preferences")));
+			} else {
+				throw new IllegalArgumentException("Unknown option --" + key);
+			}
+		}
+		
+		SMAAModel model;
+		try {
+			model = tri ? gen.generateSMAATRI() : gen.generateSMAA2();
+		} catch (IllegalStateException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		if (!(model.getMeasurements() instanceof ImpactMatrix)) {
+			throw new IllegalArgumentException("Models with multivariate Gaussian measurements can not be saved");
+		}
+		write(model, file);
+		return model;
+	}
+
+	private static void write(SMAAModel model, File file) throws IOException {
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			if (file.getName().endsWith("." + BinaryModelFormat.FILE_EXTENSION)) {
+				BinaryModelFormat.writeModel(model, os);
+			} else {
+				JSMAABinding.writeModel(model, os);
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException(e.getMessage());
+		} finally {
+			os.close();
+		}
+	}
+
+	private static Map<MeasurementType, Integer> parseMix(String value) {
+		Map<MeasurementType, Integer> mix = new EnumMap<MeasurementType, Integer>(MeasurementType.class);
+		for (String part : value.split(",")) {
+			int colon = part.indexOf(':');
+			String type = colon < 0 ? part : part.substring(0, colon);
+			int weight = colon < 0 ? 1 : parseInt(part.substring(colon + 1), "measurement weight");
+			mix.put(MeasurementType.valueOf(upper(type, "measurement type")), weight);
+		}
+		return mix;
+	}
+	
+	private static String upper(String value, String what) {
+		String name = value.trim().toUpperCase().replace('-', '_');
+		if (name.length() == 0) {
+			throw new IllegalArgumentException("Empty " + what);
+		}
+		return name;
+	}
+
+	private static int parseInt(String value, String what) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + what + ": " + value);
+		}
+	}
+	
+	private static long parseLong(String value, String what) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + what + ": " + value);
+		}
+	}
+}
@@ -0,0 +1,503 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalMeasurement;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Category;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.CriterionMeasurement;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.FactorGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.FullJointMeasurements;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.InvalidValuePointException;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.Measurement;
+import fi.smaa.jsmaa.model.MultivariateGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.OrdinalPreferenceInformation;
+import fi.smaa.jsmaa.model.OutrankingCriterion;
+import fi.smaa.jsmaa.model.PerCriterionMeasurements;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+/**
+ * Generates SMAA-2 and SMAA-TRI models of arbitrary size for scaling and stress tests.
+ * <p>
+ * Each criterion gets one measurement type; the types are assigned to the criteria in proportion to
+ * their weights in the measurement mix. Every other criterion is descending. The same seed and
+ * settings always give the same model.
+ * <pre>
+ * SMAAModel model = new ModelGenerator(1L).setAlternatives(1000).setCriteria(20)
+ *     .setMeasurementMix(ModelGenerator.MeasurementType.GAUSSIAN, ModelGenerator.MeasurementType.BETA)
+ *     .setPreferences(ModelGenerator.PreferenceType.ORDINAL).generateSMAA2();
+ * </pre>
+ */
+public class ModelGenerator {
+	
+	public enum MeasurementType {
+		EXACT, INTERVAL, GAUSSIAN, LOGNORMAL, LOGITNORMAL, BETA, DISCRETE, RELATIVE_NORMAL, RELATIVE_LOGITNORMAL,
+		/** Ordinal criterion; SMAA-2 only. */
+		ORDINAL,
+		/** Correlated between alternatives; can not be mixed with the per-cell types above. */
+		MULTIVARIATE_GAUSSIAN,
+		/** Correlated between alternatives; can not be mixed with the per-cell types above. */
+		RELATIVE_MULTIVARIATE_GAUSSIAN,
+		/** Correlated between alternatives through two factors; can not be mixed with the per-cell types above. */
+		FACTOR_GAUSSIAN;
+		
+		boolean isJoint() {
+			return this == MULTIVARIATE_GAUSSIAN || this == RELATIVE_MULTIVARIATE_GAUSSIAN || this == FACTOR_GAUSSIAN;
+		}
+	}
+	
+	public enum PreferenceType {
+		MISSING, ORDINAL, EXACT, INTERVAL
+	}
+	
+	private static final double MAX_MEAN = 10.0;
+
+	private final long seed;
+	private int numAlternatives = 10;
+	private int numCriteria = 5;
+	private int numCategories = 3;
+	private Map<MeasurementType, Integer> mix = new EnumMap<MeasurementType, Integer>(MeasurementType.class);
+	private int valueFunctionPoints = 0;
+	private PreferenceType preferences = PreferenceType.MISSING;
+	
+	private RandomUtil random;
+	
+	public ModelGenerator(long seed) {
+		this.seed = seed;
+		mix.put(MeasurementType.GAUSSIAN, 1);
+	}
+	
+	public ModelGenerator setAlternatives(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("n < 0");
+		}
+		numAlternatives = n;
+		return this;
+	}
+	
+	public ModelGenerator setCriteria(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("n < 0");
+		}
+		numCriteria = n;
+		return this;
+	}
+	
+	/**
+	 * Sets the number of categories of SMAA-TRI models.
+	 */
+	public ModelGenerator setCategories(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("n < 1");
+		}
+		numCategories = n;
+		return this;
+	}
+	
+	/**
+	 * Sets the measurement types, each with the same share of the criteria.
+	 */
+	public ModelGenerator setMeasurementMix(MeasurementType ... types) {
+		Map<MeasurementType, Integer> m = new EnumMap<MeasurementType, Integer>(MeasurementType.class);
+		for (MeasurementType t : types) {
+			m.put(t, 1);
+		}
+		return setMeasurementMix(m);
+	}
+	
+	/**
+	 * Sets the measurement types with relative weights: a type gets a share of the criteria proportional
+	 * to its weight.
+	 * 
+	 * @throws IllegalArgumentException if the mix is empty, has non-positive weights, or mixes
+	 * multivariate Gaussian types with per-cell types.
+	 */
+	public ModelGenerator setMeasurementMix(Map<MeasurementType, Integer> weights) {
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("empty measurement mix");
+		}
+		Boolean joint = null;
+		for (Map.Entry<MeasurementType, Integer> e : weights.entrySet()) {
+			if (e.getValue() <= 0) {
+				throw new IllegalArgumentException("non-positive weight for " + e.getKey());
+			}
+			if (joint != null && joint != e.getKey().isJoint()) {
+				throw new IllegalArgumentException("multivariate Gaussian measurements can not be mixed with other types");
+			}
+			joint = e.getKey().isJoint();
+		}
+		mix = new EnumMap<MeasurementType, Integer>(weights);
+		return this;
+	}
+	
+	/**
+	 * Sets the number of points added to the piecewise linear value function of each scale criterion;
+	 * 0 keeps them linear.
+	 */
+	public ModelGenerator setValueFunctionPoints(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("n < 0");
+		}
+		valueFunctionPoints = n;
+		return this;
+	}
+	
+	public ModelGenerator setPreferences(PreferenceType type) {
+		preferences = type;
+		return this;
+	}
+	
+	/**
+	 * Generates an SMAA-2 model.
+	 */
+	public SMAAModel generateSMAA2() {
+		random = RandomUtil.createWithSeed(seed);
+		SMAAModel model = build(false);
+		addValueFunctionPoints(model);
+		setPreferenceInformation(model);
+		return model;
+	}
+	
+	/**
+	 * Generates an SMAA-TRI model, with the category profiles evenly spaced over the range of the
+	 * measurements of each criterion.
+	 * 
+	 * @throws IllegalStateException if the measurement mix includes ordinal criteria.
+	 */
+	public SMAATRIModel generateSMAATRI() {
+		if (mix.containsKey(MeasurementType.ORDINAL)) {
+			throw new IllegalStateException("SMAA-TRI models can not have ordinal criteria");
+		}
+		random = RandomUtil.createWithSeed(seed);
+		SMAATRIModel model = (SMAATRIModel) build(true);
+		setPreferenceInformation(model);
+		return model;
+	}
+	
+	private SMAAModel build(boolean tri) {
+		List<Alternative> alts = new ArrayList<Alternative>(numAlternatives);
+		for (int i = 0; i < numAlternatives; ++i) {
+			alts.add(new Alternative("Alternative " + (i + 1)));
+		}
+		MeasurementType[] types = assignTypes();
+		boolean joint = numCriteria > 0 && types[0].isJoint();
+		
+		Measurement[][] meas = new Measurement[numCriteria][];
+		CriterionMeasurement[] critMeas = new CriterionMeasurement[numCriteria];
+		Interval[] ranges = new Interval[numCriteria];
+		for (int j = 0; j < numCriteria; ++j) {
+			if (joint) {
+				critMeas[j] = createJoint(types[j], alts);
+				ranges[j] = critMeas[j].getRange();
+			} else {
+				meas[j] = createColumn(types[j]);
+				ranges[j] = range(meas[j]);
+			}
+		}
+		
+		List<Criterion> crits = new ArrayList<Criterion>(numCriteria);
+		for (int j = 0; j < numCriteria; ++j) {
+			String name = "Criterion " + (j + 1);
+			boolean ascending = j % 2 == 0;
+			if (tri) {
+				double width = ranges[j].getLength();
+				crits.add(new OutrankingCriterion(name, ascending, new ExactMeasurement(0.02 * width), new ExactMeasurement(0.05 * width)));
+			} else if (types[j] == MeasurementType.ORDINAL) {
+				crits.add(new OrdinalCriterion(name));
+			} else {
+				crits.add(new ScaleCriterion(name, ascending));
+			}
+		}
+		
+		FullJointMeasurements fjm;
+		if (joint) {
+			// added to the model empty, the model adds the alternatives and criteria
+			fjm = new PerCriterionMeasurements(Collections.<Criterion>emptyList(), Collections.<Alternative>emptyList());
+		} else {
+			fjm = new ImpactMatrix(alts, crits, meas);
+		}
+		SMAAModel model = tri ? new SMAATRIModel("Generated SMAA-TRI model", fjm) : new SMAAModel("Generated SMAA-2 model", fjm);
+		for (Alternative a : alts) {
+			model.addAlternative(a);
+		}
+		for (Criterion c : crits) {
+			model.addCriterion(c);
+		}
+		if (joint) {
+			for (int j = 0; j < numCriteria; ++j) {
+				((PerCriterionMeasurements) fjm).setCriterionMeasurement(crits.get(j), critMeas[j]);
+			}
+		}
+		if (tri) {
+			addCategories((SMAATRIModel) model, ranges);
+		}
+		return model;
+	}
+
+	private MeasurementType[] assignTypes() {
+		List<MeasurementType> expanded = new ArrayList<MeasurementType>();
+		for (Map.Entry<MeasurementType, Integer> e : mix.entrySet()) {
+			for (int i = 0; i < e.getValue(); ++i) {
+				expanded.add(e.getKey());
+			}
+		}
+		MeasurementType[] types = new MeasurementType[numCriteria];
+		for (int j = 0; j < numCriteria; ++j) {
+			types[j] = expanded.get((int) ((long) j * expanded.size() / numCriteria));
+		}
+		return types;
+	}
+
+	private Measurement[] createColumn(MeasurementType type) {
+		Measurement[] col = new Measurement[numAlternatives];
+		if (type == MeasurementType.ORDINAL) {
+			int[] perm = permutation(numAlternatives);
+			for (int i = 0; i < numAlternatives; ++i) {
+				col[i] = new Rank(perm[i] + 1);
+			}
+			return col;
+		}
+		BaselineGaussianMeasurement baseline = null;
+		if (type == MeasurementType.RELATIVE_NORMAL) {
+			baseline = new BaselineGaussianMeasurement(uniform(0.0, MAX_MEAN), uniform(0.1, 1.0));
+		} else if (type == MeasurementType.RELATIVE_LOGITNORMAL) {
+			baseline = new BaselineGaussianMeasurement(uniform(-2.0, 2.0), uniform(0.1, 0.5));
+		}
+		for (int i = 0; i < numAlternatives; ++i) {
+			col[i] = createCardinal(type, baseline);
+		}
+		return col;
+	}
+
+	private CardinalMeasurement createCardinal(MeasurementType type, BaselineGaussianMeasurement baseline) {
+		double mean = uniform(0.0, MAX_MEAN);
+		switch (type) {
+		case EXACT:
+			return new ExactMeasurement(mean);
+		case INTERVAL:
+			return new Interval(mean, mean + uniform(0.1, 2.0));
+		case GAUSSIAN:
+			return new GaussianMeasurement(mean, uniform(0.1, 1.0));
+		case LOGNORMAL:
+			return new LogNormalMeasurement(uniform(0.0, 2.0), uniform(0.05, 0.3));
+		case LOGITNORMAL:
+			return new LogitNormalMeasurement(uniform(-2.0, 2.0), uniform(0.1, 0.5));
+		case BETA:
+			return new BetaMeasurement(uniform(1.0, 5.0), uniform(1.0, 5.0), mean, mean + uniform(0.5, 3.0));
+		case DISCRETE:
+			DiscreteMeasurement d = new DiscreteMeasurement();
+			d.add(new Point2D(mean, 0.2));
+			d.add(new Point2D(mean + uniform(0.1, 1.0), 0.3));
+			d.add(new Point2D(mean + uniform(1.0, 2.0), 0.5));
+			return d;
+		case RELATIVE_NORMAL:
+			return new RelativeNormalMeasurement(baseline, new GaussianMeasurement(uniform(-1.0, 1.0), uniform(0.1, 0.5)));
+		case RELATIVE_LOGITNORMAL:
+			return new RelativeLogitNormalMeasurement(baseline, new GaussianMeasurement(uniform(-1.0, 1.0), uniform(0.1, 0.5)));
+		default:
+			throw new IllegalArgumentException("Not a per-cell measurement type: " + type);
+		}
+	}
+
+	private CriterionMeasurement createJoint(MeasurementType type, List<Alternative> alts) {
+		final int n = alts.size();
+		if (type == MeasurementType.FACTOR_GAUSSIAN) {
+			return createFactorModel(alts);
+		}
+		double[] mean = new double[n];
+		double[] sd = new double[n];
+		for (int i = 0; i < n; ++i) {
+			mean[i] = type == MeasurementType.MULTIVARIATE_GAUSSIAN ? uniform(0.0, MAX_MEAN) : uniform(-1.0, 1.0);
+			sd[i] = uniform(0.1, 1.0);
+		}
+		// equicorrelated covariance, positive definite for any correlation in [0, 1)
+		double rho = uniform(0.0, 0.8);
+		double[][] cov = new double[n][n];
+		for (int i = 0; i < n; ++i) {
+			for (int k = 0; k < n; ++k) {
+				cov[i][k] = (i == k ? 1.0 : rho) * sd[i] * sd[k];
+			}
+		}
+		MultivariateGaussianCriterionMeasurement m = new MultivariateGaussianCriterionMeasurement(alts);
+		m.setMeanVector(new ArrayRealVector(mean, false));
+		m.setCovarianceMatrix(new Array2DRowRealMatrix(cov, false));
+		if (type == MeasurementType.MULTIVARIATE_GAUSSIAN) {
+			return m;
+		}
+		return new RelativeGaussianCriterionMeasurement(m, new GaussianMeasurement(uniform(0.0, MAX_MEAN), uniform(0.1, 1.0)));
+	}
+
+	private CriterionMeasurement createFactorModel(List<Alternative> alts) {
+		final int n = alts.size();
+		final int k = 2;
+		double[] mean = new double[n];
+		double[][] loadings = new double[n][k];
+		double[] variances = new double[n];
+		for (int i = 0; i < n; ++i) {
+			mean[i] = uniform(0.0, MAX_MEAN);
+			for (int j = 0; j < k; ++j) {
+				loadings[i][j] = uniform(-0.5, 0.5);
+			}
+			variances[i] = uniform(0.01, 0.5);
+		}
+		FactorGaussianCriterionMeasurement m = new FactorGaussianCriterionMeasurement(alts, k);
+		m.setMeanVector(new ArrayRealVector(mean, false));
+		m.setLoadings(new Array2DRowRealMatrix(loadings, false));
+		m.setVariances(new ArrayRealVector(variances, false));
+		return m;
+	}
+
+	private static Interval range(Measurement[] col) {
+		double lo = Double.POSITIVE_INFINITY;
+		double hi = Double.NEGATIVE_INFINITY;
+		for (Measurement m : col) {
+			if (m instanceof CardinalMeasurement) {
+				Interval r = ((CardinalMeasurement) m).getRange();
+				lo = Math.min(lo, r.getStart());
+				hi = Math.max(hi, r.getEnd());
+			} else if (m instanceof Rank) {
+				int r = ((Rank) m).getRank();
+				lo = Math.min(lo, r);
+				hi = Math.max(hi, r);
+			}
+		}
+		return lo <= hi ? new Interval(lo, hi) : new Interval(0.0, 0.0);
+	}
+
+	private void addCategories(SMAATRIModel model, Interval[] ranges) {
+		for (int k = 0; k < numCategories; ++k) {
+			model.addCategory(new Category("Category " + (k + 1)));
+		}
+		for (int j = 0; j < numCriteria; ++j) {
+			OutrankingCriterion c = (OutrankingCriterion) model.getCriteria().get(j);
+			for (int k = 0; k < numCategories - 1; ++k) {
+				// profiles run from the worst category to the best one
+				double frac = (k + 1.0) / numCategories;
+				double bound = c.getAscending() ?
+						ranges[j].getStart() + frac * ranges[j].getLength() :
+						ranges[j].getEnd() - frac * ranges[j].getLength();
+				model.setCategoryUpperBound(c, model.getCategories().get(k), new ExactMeasurement(bound));
+			}
+		}
+	}
+
+	private void addValueFunctionPoints(SMAAModel model) {
+		if (valueFunctionPoints == 0) {
+			return;
+		}
+		for (Criterion c : model.getCriteria()) {
+			if (!(c instanceof ScaleCriterion)) {
+				continue;
+			}
+			ScaleCriterion sc = (ScaleCriterion) c;
+			Interval scale = sc.getScale();
+			if (scale.getLength() <= 0.0) {
+				continue;
+			}
+			for (int p = 1; p <= valueFunctionPoints; ++p) {
+				double t = p / (valueFunctionPoints + 1.0);
+				// concave in the direction of preference
+				double y = sc.getAscending() ? Math.sqrt(t) : Math.sqrt(1.0 - t);
+				try {
+					sc.addValuePoint(new Point2D(scale.getStart() + t * scale.getLength(), y));
+				} catch (InvalidValuePointException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+	}
+
+	private void setPreferenceInformation(SMAAModel model) {
+		List<Criterion> crits = new ArrayList<Criterion>(model.getCriteria());
+		switch (preferences) {
+		case MISSING:
+			break;
+		case ORDINAL:
+			OrdinalPreferenceInformation ord = new OrdinalPreferenceInformation(crits);
+			int[] perm = permutation(crits.size());
+			for (int j = 0; j < crits.size(); ++j) {
+				ord.getMeasurement(crits.get(j)).setRank(perm[j] + 1);
+			}
+			model.setPreferenceInformation(ord);
+			break;
+		case EXACT:
+		case INTERVAL:
+			double[] w = new double[crits.size()];
+			random.createSumToOneRand(w);
+			CardinalPreferenceInformation card = new CardinalPreferenceInformation(crits);
+			for (int j = 0; j < crits.size(); ++j) {
+				card.setMeasurement(crits.get(j), preferences == PreferenceType.EXACT ?
+						new ExactMeasurement(w[j]) : new Interval(0.75 * w[j], Math.min(1.0, 1.25 * w[j])));
+			}
+			model.setPreferenceInformation(card);
+			break;
+		}
+	}
+
+	private int[] permutation(int n) {
+		int[] perm = new int[n];
+		for (int i = 0; i < n; ++i) {
+			perm[i] = i;
+		}
+		for (int i = n - 1; i > 0; --i) {
+			int k = (int) (random.createUnif01() * (i + 1));
+			int tmp = perm[i];
+			perm[i] = perm[k];
+			perm[k] = tmp;
+		}
+		return perm;
+	}
+
+	private double uniform(double min, double max) {
+		return min + random.createUnif01() * (max - min);
+	}
+}
@@ -30,6 +30,8 @@ import javolution.xml.XMLObjectReader;
 import javolution.xml.XMLObjectWriter;
 import javolution.xml.XMLReferenceResolver;
 import javolution.xml.stream.XMLStreamException;
+import fi.smaa.jsmaa.diagnostics.Diagnostics;
+import fi.smaa.jsmaa.diagnostics.DiagnosticsProbe;
 import fi.smaa.jsmaa.model.Alternative;
 import fi.smaa.jsmaa.model.BetaMeasurement;
 import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
@@ -56,12 +58,30 @@ public class JSMAABinding extends XMLBinding {
 	}
 
 	public static SMAAModel readModel(InputStream is) throws XMLStreamException {
-		XMLObjectReader reader = new XMLObjectReader().setInput(is).setBinding(new JSMAABinding());
-		reader.setReferenceResolver(new XMLReferenceResolver());
-		return reader.read();
+		DiagnosticsProbe probe = Diagnostics.getProbe();
+		Object load = probe.modelIOStarted();
+		SMAAModel model = null;
+		try {
+			XMLObjectReader reader = new XMLObjectReader().setInput(is).setBinding(new JSMAABinding());
+			reader.setReferenceResolver(new XMLReferenceResolver());
+			model = reader.read();
+			return model;
+		} finally {
+			probe.modelIOEnded(load, "xml", "load", model != null ? model.getName() : null);
+		}
 	}
 	
 	public static void writeModel(SMAAModel model, OutputStream os) throws XMLStreamException {
+		DiagnosticsProbe probe = Diagnostics.getProbe();
+		Object save = probe.modelIOStarted();
+		try {
+			write(model, os);
+		} finally {
+			probe.modelIOEnded(save, "xml", "save", model.getName());
+		}
+	}
+	
+	private static void write(SMAAModel model, OutputStream os) throws XMLStreamException {
 		XMLObjectWriter writer = new XMLObjectWriter().setOutput(os).setBinding(new JSMAABinding());
 		writer.setReferenceResolver(new XMLReferenceResolver());		
 		writer.setIndentation("\t");
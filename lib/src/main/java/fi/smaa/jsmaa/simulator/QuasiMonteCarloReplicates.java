@@ -0,0 +1,168 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.util.List;
+import java.util.Map;
+
+import org.drugis.common.threading.Task;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+
+/**
+ * Runs a model with a number of independently randomized quasi-random generators (see
+ * {@link RandomUtil#createQuasiRandom(long)}) and estimates the results with their standard errors
+ * from the spread between the replicates. The replicates run one after the other on the calling
+ * thread. Iterations that reject weights or SMAA-TRI profiles draw the retries pseudo-randomly
+ * (see {@link RandomUtil#beginRejectionBlock()}); the other values keep their quasi-random
+ * coordinates, but models that reject often converge closer to the pseudo-random rate.
+ */
+public class QuasiMonteCarloReplicates {
+	
+	private final SMAAModel model;
+	private final int replicates;
+	private final int iterations;
+	private final long seed;
+	
+	private ReplicateEstimate rankAcceptabilities;
+	private ReplicateEstimate centralWeights;
+	private ReplicateEstimate confidenceFactors;
+	private ReplicateEstimate categoryAcceptabilities;
+	
+	/**
+	 * @param iterations the number of iterations of each replicate.
+	 * @param seed replicate r is randomized with seed + r.
+	 */
+	public QuasiMonteCarloReplicates(SMAAModel model, int replicates, int iterations, long seed) {
+		if (replicates < 2) {
+			throw new IllegalArgumentException("at least 2 replicates are needed to estimate the error");
+		}
+		this.model = model;
+		this.replicates = replicates;
+		this.iterations = iterations;
+		this.seed = seed;
+	}
+	
+	/**
+	 * @throws IterationException if a replicate fails.
+	 */
+	public void run() throws IterationException {
+		List<Alternative> alts = model.getAlternatives();
+		List<Criterion> crits = model.getCriteria();
+		if (model instanceof SMAATRIModel) {
+			SMAATRIModel tri = (SMAATRIModel) model;
+			categoryAcceptabilities = new ReplicateEstimate(alts.size(), tri.getCategories().size());
+		} else {
+			rankAcceptabilities = new ReplicateEstimate(alts.size(), alts.size());
+			centralWeights = new ReplicateEstimate(alts.size(), crits.size());
+			confidenceFactors = new ReplicateEstimate(alts.size(), 1);
+		}
+		for (int r=0;r<replicates;r++) {
+			RandomUtil random = RandomUtil.createQuasiRandom(seed + r);
+			if (model instanceof SMAATRIModel) {
+				SMAATRISimulation simulation = new SMAATRISimulation((SMAATRIModel) model, random, iterations);
+				runTask(simulation.getTask());
+				categoryAcceptabilities.add(toArray(alts, simulation.getResults().getCategoryAcceptabilities()));
+			} else {
+				SMAA2Simulation simulation = new SMAA2Simulation(model, random, iterations);
+				runTask(simulation.getTask());
+				SMAA2Results results = simulation.getResults();
+				rankAcceptabilities.add(toArray(alts, results.getRankAcceptabilities()));
+				centralWeights.add(toArray(alts, crits, results.getCentralWeightVectors()));
+				double[][] cf = new double[alts.size()][1];
+				Map<Alternative, Double> cfs = results.getConfidenceFactors();
+				Map<Alternative, List<Double>> ras = results.getRankAcceptabilities();
+				for (int i=0;i<alts.size();i++) {
+					// without first-rank hits there is no central weight vector to compute the factor with
+					cf[i][0] = ras.get(alts.get(i)).get(0) > 0.0 ? cfs.get(alts.get(i)) : Double.NaN;
+				}
+				confidenceFactors.add(cf);
+			}
+		}
+	}
+	
+	private static void runTask(Task task) {
+		task.run();
+		if (task.isFailed()) {
+			Throwable cause = task.getFailureCause();
+			if (cause instanceof IterationException) {
+				throw (IterationException) cause;
+			}
+			throw new IterationException("replicate failed: " + cause);
+		}
+	}
+	
+	private static double[][] toArray(List<Alternative> alts, Map<Alternative, List<Double>> values) {
+		double[][] arr = new double[alts.size()][];
+		for (int i=0;i<alts.size();i++) {
+			List<Double> row = values.get(alts.get(i));
+			arr[i] = new double[row.size()];
+			for (int j=0;j<row.size();j++) {
+				arr[i][j] = row.get(j);
+			}
+		}
+		return arr;
+	}
+	
+	private static double[][] toArray(List<Alternative> alts, List<Criterion> crits, Map<Alternative, Map<Criterion, Double>> values) {
+		double[][] arr = new double[alts.size()][crits.size()];
+		for (int i=0;i<alts.size();i++) {
+			for (int j=0;j<crits.size();j++) {
+				arr[i][j] = values.get(alts.get(i)).get(crits.get(j));
+			}
+		}
+		return arr;
+	}
+	
+	/**
+	 * @return [alternative][rank], or null for SMAA-TRI models.
+	 */
+	public ReplicateEstimate getRankAcceptabilities() {
+		return rankAcceptabilities;
+	}
+	
+	/**
+	 * @return [alternative][criterion], or null for SMAA-TRI models.
+	 */
+	public ReplicateEstimate getCentralWeights() {
+		return centralWeights;
+	}
+	
+	/**
+	 * @return [alternative][0], or null for SMAA-TRI models.
+	 */
+	public ReplicateEstimate getConfidenceFactors() {
+		return confidenceFactors;
+	}
+	
+	/**
+	 * @return [alternative][category], or null for SMAA-2 models.
+	 */
+	public ReplicateEstimate getCategoryAcceptabilities() {
+		return categoryAcceptabilities;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+/**
+ * Mean and standard error of a table of results (e.g. [alternative][rank]) over independent
+ * replicates. NaN values (e.g. central weights of an alternative that never ranked first) are left
+ * out of the cell they occur in.
+ */
+public class ReplicateEstimate {
+	
+	private final double[][] sum;
+	private final double[][] sumSq;
+	private final int[][] count;
+	
+	public ReplicateEstimate(int rows, int columns) {
+		sum = new double[rows][columns];
+		sumSq = new double[rows][columns];
+		count = new int[rows][columns];
+	}
+	
+	public void add(double[][] replicate) {
+		for (int i=0;i<sum.length;i++) {
+			for (int j=0;j<sum[i].length;j++) {
+				double x = replicate[i][j];
+				if (!Double.isNaN(x)) {
+					sum[i][j] += x;
+					sumSq[i][j] += x * x;
+					count[i][j]++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the means, or NaN for cells without values.
+	 */
+	public double[][] getMean() {
+		double[][] mean = new double[sum.length][];
+		for (int i=0;i<sum.length;i++) {
+			mean[i] = new double[sum[i].length];
+			for (int j=0;j<sum[i].length;j++) {
+				mean[i][j] = count[i][j] == 0 ? Double.NaN : sum[i][j] / count[i][j];
+			}
+		}
+		return mean;
+	}
+	
+	/**
+	 * @return the standard errors of the means, or NaN for cells with less than two values.
+	 */
+	public double[][] getStandardError() {
+		double[][] se = new double[sum.length][];
+		for (int i=0;i<sum.length;i++) {
+			se[i] = new double[sum[i].length];
+			for (int j=0;j<sum[i].length;j++) {
+				int n = count[i][j];
+				if (n < 2) {
+					se[i][j] = Double.NaN;
+				} else {
+					double mean = sum[i][j] / n;
+					double var = Math.max(0.0, (sumSq[i][j] - n * mean * mean) / (n - 1));
+					se[i][j] = Math.sqrt(var / n);
+				}
+			}
+		}
+		return se;
+	}
+}
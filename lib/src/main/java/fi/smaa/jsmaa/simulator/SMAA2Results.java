@@ -97,6 +97,10 @@ public class SMAA2Results extends SMAAResults {
 		return new Integer(rankAcceptabilities.getTotalHits(0));
 	}
 
+	public int getConfidenceIteration() {
+		return confidenceIteration;
+	}
+
 	public Map<Alternative, Map<Criterion, Double>> getCentralWeightVectors() {
 		
 		Map<Alternative, Map<Criterion, Double>> cw 
@@ -43,6 +43,7 @@ import fi.smaa.jsmaa.model.OrdinalCriterion;
 import fi.smaa.jsmaa.model.SMAAModel;
 import fi.smaa.jsmaa.model.ScaleCriterion;
 import fi.smaa.jsmaa.model.maut.UtilityFunction;
+import fi.smaa.jsmaa.simulator.SimulationMetrics.Phase;
 
 public class SMAA2Simulation extends SMAASimulation<SMAAModel> {
 
@@ -58,16 +59,23 @@ public class SMAA2Simulation extends SMAASimulation<SMAAModel> {
 	public SMAA2Simulation(SMAAModel amodel, RandomUtil random, int iterations) {
 		super(amodel, random);
 		results = new SMAA2Results(model.getAlternatives(), model.getCriteria(), REPORTING_INTERVAL);		
+		results.setMetrics(metrics);
 		reset();
 
 		rankAccComputation = new IterativeTask(new AbstractIterativeComputation(iterations) {
+			@Override
+			public void initialize() {
+				startMetrics(2 * getTotalIterations());
+			}
+			
 			@Override
 			public void doStep() {
-				generateWeights();
-				sampleMeasurements();
-				aggregate();
-				rankAlternatives();
-				results.update(ranks, weights);
+				try {
+					rankAccStep();
+				} catch (IterationException e) {
+					metrics.fail(e);
+					throw e;
+				}
 			}
 		}, "RA & CW computation");
 		rankAccComputation.setReportingInterval(REPORTING_INTERVAL);
@@ -75,9 +83,17 @@ public class SMAA2Simulation extends SMAASimulation<SMAAModel> {
 		confFacComputation = new IterativeTask(new AbstractIterativeComputation(iterations) {
 			@Override
 			public void doStep() {
-				sampleMeasurements();
-				aggregateWithCentralWeights();
-				results.confidenceUpdate(confidenceHits);
+				try {
+					confFacStep();
+				} catch (IterationException e) {
+					metrics.fail(e);
+					throw e;
+				}
+			}
+			
+			@Override
+			public void finish() {
+				metrics.finish();
 			}
 		}, "CF computation");
 		confFacComputation.setReportingInterval(REPORTING_INTERVAL);
@@ -88,6 +104,49 @@ public class SMAA2Simulation extends SMAASimulation<SMAAModel> {
 				new ActivityModel(rankAccComputation, confFacComputation, transitions), 
 				"SMAA-2");
 	}
+	
+	private void rankAccStep() {
+		random.nextPoint();
+		if (!metrics.startIteration()) {
+			generateWeights();
+			sampleMeasurements();
+			aggregate();
+			rankAlternatives();
+			results.update(ranks, weights);
+		} else {
+			long t = System.nanoTime();
+			generateWeights();
+			t = metrics.record(Phase.WEIGHTS, t);
+			sampleMeasurements();
+			t = metrics.record(Phase.MEASUREMENTS, t);
+			aggregate();
+			t = metrics.record(Phase.AGGREGATION, t);
+			rankAlternatives();
+			t = metrics.record(Phase.RANKING, t);
+			results.update(ranks, weights);
+			metrics.record(Phase.RESULTS, t);
+		}
+		if (trace != null) {
+			trace.write(weights, ranks, measurements);
+		}
+	}
+
+	private void confFacStep() {
+		random.nextPoint();
+		if (!metrics.startIteration()) {
+			sampleMeasurements();
+			aggregateWithCentralWeights();
+			results.confidenceUpdate(confidenceHits);
+		} else {
+			long t = System.nanoTime();
+			sampleMeasurements();
+			t = metrics.record(Phase.MEASUREMENTS, t);
+			aggregateWithCentralWeights();
+			t = metrics.record(Phase.AGGREGATION, t);
+			results.confidenceUpdate(confidenceHits);
+			metrics.record(Phase.RESULTS, t);
+		}
+	}
 
 	public SMAA2Results getResults() {
 		return results;
@@ -34,6 +34,7 @@ public abstract class SMAAResults {
 	protected ConcurrentLinkedQueue<SMAAResultsListener> listeners = new ConcurrentLinkedQueue<SMAAResultsListener>();
 	protected List<Alternative> alternatives;
 	protected int updateInterval;
+	private SimulationMetrics metrics;
 	
 	protected SMAAResults(List<Alternative> alts, int updateInterval) {
 		this.alternatives = alts;
@@ -52,10 +53,18 @@ public abstract class SMAAResults {
 		listeners.remove(listener);
 	}
 
+	void setMetrics(SimulationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	protected void fireResultsChanged() {
+		long start = metrics != null ? System.nanoTime() : 0L;
 		for (SMAAResultsListener listener : listeners) {
 			listener.resultsChanged(new ResultsEvent(this));
 		}
+		if (metrics != null) {
+			metrics.recordDispatch(System.nanoTime() - start);
+		}
 	}
 	
 	public List<Alternative> getAlternatives() {
@@ -25,19 +25,28 @@ package fi.smaa.jsmaa.simulator;
 import org.drugis.common.threading.Task;
 
 import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.PreferenceInformation;
 import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.simulator.trace.TraceWriter;
 
 public abstract class SMAASimulation<M extends SMAAModel> {
 	protected RandomUtil random;
 	protected double[][] measurements;
 	protected M model;
 	protected double[] weights;
+	protected TraceWriter trace;
+	protected final SimulationMetrics metrics;
+	// the preference information of the last sample, and the same if it counts rejections
+	private PreferenceInformation sampledPreferences;
+	private CardinalPreferenceInformation rejectingPreferences;
 	
 	public static int REPORTING_INTERVAL = 100;
 
 	public SMAASimulation(M model, RandomUtil random) {
 		this.model = model;
 		this.random = random;
+		this.metrics = new SimulationMetrics(getClass().getSimpleName(), model.getName());
 		initialize();
 	}
 	
@@ -47,6 +56,25 @@ public abstract class SMAASimulation<M extends SMAAModel> {
 	
 	public abstract SMAAResults getResults();
 	
+	/**
+	 * Streams the raw iterations to a trace, or stops tracing if null. Set the trace before the
+	 * task is started; the caller closes it once the task has finished or has been aborted.
+	 */
+	public void setTrace(TraceWriter trace) {
+		this.trace = trace;
+	}
+	
+	/**
+	 * The per-phase timing and throughput counters of this simulation.
+	 */
+	public SimulationMetrics getMetrics() {
+		return metrics;
+	}
+	
+	protected void startMetrics(int totalIterations) {
+		metrics.start(model.getAlternatives().size(), model.getCriteria().size(), totalIterations, random.getSeed());
+	}
+	
 	public void reset() {
 		initialize();
 	}
@@ -61,7 +89,18 @@ public abstract class SMAASimulation<M extends SMAAModel> {
 	}
 
 	protected void generateWeights() throws IterationException {
-		weights = model.getPreferenceInformation().sampleWeights(random);
+		PreferenceInformation pref = model.getPreferenceInformation();
+		if (pref != sampledPreferences) {
+			sampledPreferences = pref;
+			rejectingPreferences = pref instanceof CardinalPreferenceInformation ? (CardinalPreferenceInformation) pref : null;
+		}
+		try {
+			weights = pref.sampleWeights(random);
+		} finally {
+			if (rejectingPreferences != null) {
+				metrics.addWeightRejections(rejectingPreferences.getLastRejections());
+			}
+		}
 		
 		// hack until we can listen only to relevant events
 		if (weights.length != model.getCriteria().size()) {
@@ -70,4 +109,13 @@ public abstract class SMAASimulation<M extends SMAAModel> {
 	}
 	
 	public abstract Task getTask();
+	
+	/**
+	 * Aborts the task and ends the metrics, which are not ended by the task once it is aborted.
+	 * Can be called from any thread.
+	 */
+	public void abort() {
+		getTask().abort();
+		metrics.abort();
+	}
 }
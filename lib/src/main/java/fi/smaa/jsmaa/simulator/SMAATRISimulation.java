@@ -37,6 +37,7 @@ import fi.smaa.jsmaa.model.Criterion;
 import fi.smaa.jsmaa.model.OutrankingCriterion;
 import fi.smaa.jsmaa.model.SMAATRIModel;
 import fi.smaa.jsmaa.model.electre.ElectreTri;
+import fi.smaa.jsmaa.simulator.SimulationMetrics.Phase;
 
 public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 	
@@ -51,26 +52,64 @@ public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 	public SMAATRISimulation(SMAATRIModel triModel, RandomUtil random, int iterations) {
 		super(triModel, random);
 		results = new SMAATRIResults(model.getAlternatives(), model.getCategories(), REPORTING_INTERVAL);
+		results.setMetrics(metrics);
 		
 		catAccComputation = new IterativeTask(new AbstractIterativeComputation(iterations) {
+			@Override
+			public void initialize() {
+				startMetrics(getTotalIterations());
+			}
+			
 			@Override
 			public void doStep() {
-				if (getModel().getCategories().size() == 0) {
-					return;
+				try {
+					catAccStep();
+				} catch (IterationException e) {
+					metrics.fail(e);
+					throw e;
 				}
-				generateWeights();
-				sampleThresholds();
-				sampleMeasurements();
-				sampleCategoryUpperBounds();
-				sampleLambda();				
-				sortAlternatives();
-				updateHits();
+			}
+			
+			@Override
+			public void finish() {
+				metrics.finish();
 			}
 		}, "CatAcc computation");
 		catAccComputation.setReportingInterval(REPORTING_INTERVAL);
 
 	}
 	
+	private void catAccStep() {
+		if (getModel().getCategories().size() == 0) {
+			return;
+		}
+		random.nextPoint();
+		if (!metrics.startIteration()) {
+			generateWeights();
+			sampleThresholds();
+			sampleMeasurements();
+			sampleCategoryUpperBounds();
+			sampleLambda();				
+			sortAlternatives();
+			updateHits();
+		} else {
+			long t = System.nanoTime();
+			generateWeights();
+			t = metrics.record(Phase.WEIGHTS, t);
+			// the thresholds are sampled from criterion measurements, like the alternatives
+			sampleThresholds();
+			sampleMeasurements();
+			t = metrics.record(Phase.MEASUREMENTS, t);
+			sampleCategoryUpperBounds();
+			sampleLambda();
+			t = metrics.record(Phase.PROFILES, t);
+			sortAlternatives();
+			t = metrics.record(Phase.AGGREGATION, t);
+			updateHits();
+			metrics.record(Phase.RESULTS, t);
+		}
+	}
+	
 	public Task getTask() {
 		return catAccComputation;
 	}
@@ -83,11 +122,18 @@ public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 
 	private void updateHits() {
 		Integer[] cats = new Integer[getModel().getAlternatives().size()];
+		int[] traceCats = trace != null ? new int[cats.length] : null;
 		for (int i=0;i<cats.length;i++) {
 			Alternative alt = getModel().getAlternatives().get(i);
 			cats[i] = getModel().getCategories().indexOf(sortRes.get(alt));
+			if (traceCats != null) {
+				traceCats[i] = cats[i];
+			}
 		}
 		results.update(cats);
+		if (trace != null) {
+			trace.write(weights, traceCats, measurements);
+		}
 	}
 	
 	protected void sampleMeasurements() {
@@ -124,7 +170,19 @@ public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 	}
 
 	private void sampleCategoryUpperBounds() throws IterationException {
+		random.beginRejectionBlock();
+		try {
+			sampleCategoryUpperBoundsBlock();
+		} finally {
+			random.endRejectionBlock();
+		}
+	}
+	
+	private void sampleCategoryUpperBoundsBlock() throws IterationException {
 		for (int i=0;i<MAX_SAMPLE_TRIES;i++) {
+			if (i > 0) {
+				random.retryRejectionBlock();
+			}
 			categoryUpperBounds = new HashMap<Alternative, Map<OutrankingCriterion, Double>>();
 
 			for (int catIndex=0;catIndex<getModel().getCategories().size()-1;catIndex++) {
@@ -137,16 +195,18 @@ public class SMAATRISimulation extends SMAASimulation<SMAATRIModel> {
 				categoryUpperBounds.put(cat, m);
 			}
 			if (checkCategoryUpperBounds()) {
+				metrics.addProfileRejections(i);
 				break;
 			}
 			if (i == MAX_SAMPLE_TRIES-1) {
+				metrics.addProfileRejections(MAX_SAMPLE_TRIES);
 				throw new IterationException("Cannot sample category upper bounds, dominance not satisfied");				
 			}
 		}
 	}
 
 	private SMAATRIModel getModel() {
-		return (SMAATRIModel) model;
+		return model;
 	}
 
 	private boolean checkCategoryUpperBounds() {
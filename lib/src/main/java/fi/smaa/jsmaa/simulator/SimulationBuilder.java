@@ -25,6 +25,8 @@ package fi.smaa.jsmaa.simulator;
 import org.drugis.common.threading.Task;
 import org.drugis.common.threading.ThreadHandler;
 
+import fi.smaa.jsmaa.diagnostics.Diagnostics;
+import fi.smaa.jsmaa.diagnostics.DiagnosticsProbe;
 import fi.smaa.jsmaa.model.SMAAModel;
 
 public abstract class SimulationBuilder<M extends SMAAModel, R extends SMAAResults, T extends SMAASimulation<M>> implements Runnable {
@@ -32,10 +34,14 @@ public abstract class SimulationBuilder<M extends SMAAModel, R extends SMAAResul
 	protected M model;
 	protected static ThreadHandler handler = ThreadHandler.getInstance();
 	private Task d_task;
+	private SimulationMetrics d_metrics;
 
 	@SuppressWarnings("unchecked")
 	protected SimulationBuilder(M model) {
-		this.model = (M) model.deepCopy();
+		DiagnosticsProbe probe = Diagnostics.getProbe();
+		Object copy = probe.modelCopyStarted();
+		this.model = (M) model.snapshot();
+		probe.modelCopyEnded(copy, this.model.getName(), this.model.getAlternatives().size(), this.model.getCriteria().size());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -44,9 +50,13 @@ public abstract class SimulationBuilder<M extends SMAAModel, R extends SMAAResul
 		if (d_task != null) {
 			handler.abortTask(d_task);
 		}
+		if (d_metrics != null) {
+			d_metrics.abort();
+		}
 		R results = (R) simul.getResults();
 		prepareSimulation(simul, results);		
 		d_task = simul.getTask();
+		d_metrics = simul.getMetrics();
 		handler.scheduleTask(d_task);
 	}
 
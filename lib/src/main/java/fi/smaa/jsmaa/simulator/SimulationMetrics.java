@@ -0,0 +1,342 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import fi.smaa.jsmaa.diagnostics.Diagnostics;
+import fi.smaa.jsmaa.diagnostics.DiagnosticsProbe;
+import fi.smaa.jsmaa.diagnostics.DiagnosticsProbe.Outcome;
+
+/**
+ * Per-phase timing and throughput counters of a single simulation, published as a platform MBean
+ * under {@value #DOMAIN}:type=Simulation from its start until it ends.
+ * 
+ * The iteration methods are called from the simulation thread only. To keep the overhead low,
+ * only one in {@link #TIMING_INTERVAL} iterations is timed, and the counters are published to
+ * the MBean on those iterations. The time spent dispatching results events is reported
+ * separately, and is not included in the phase that triggered the dispatch.
+ * 
+ * The lifecycle of the simulation (start, reporting interval checkpoints, failure, and finish or
+ * abort) is also reported to the installed {@link DiagnosticsProbe}.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+	
+	public enum Phase {
+		WEIGHTS,
+		/** The criterion measurements, including the SMAA-TRI indifference and preference thresholds. */
+		MEASUREMENTS,
+		/** The SMAA-TRI category profiles and the cutting level lambda. */
+		PROFILES,
+		AGGREGATION,
+		RANKING,
+		RESULTS
+	}
+	
+	public static final String DOMAIN = "fi.smaa.jsmaa";
+	public static int TIMING_INTERVAL = 16;
+	
+	private static final AtomicInteger instances = new AtomicInteger();
+	
+	private final String simulationType;
+	private final String modelName;
+	private final int id;
+	private final int timingInterval;
+
+	private long iterations;
+	private volatile long publishedIterations;
+	private volatile long startNanos;
+	private volatile long endNanos;
+	private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+	private final AtomicLong timedIterations = new AtomicLong();
+	private final AtomicLong dispatchNanos = new AtomicLong();
+	private final AtomicLong dispatches = new AtomicLong();
+	// dispatch time since the start of the current timed iteration, not yet excluded from a phase
+	private long pendingDispatchNanos;
+	private long weightRejections;
+	private long profileRejections;
+	private volatile long publishedWeightRejections;
+	private volatile long publishedProfileRejections;
+	private ObjectName objectName;
+	private final DiagnosticsProbe probe = Diagnostics.getProbe();
+	private Object probeHandle;
+	private boolean ended;
+	
+	public SimulationMetrics(String simulationType, String modelName) {
+		this.simulationType = simulationType;
+		this.modelName = modelName;
+		this.id = instances.incrementAndGet();
+		this.timingInterval = Math.max(1, TIMING_INTERVAL);
+	}
+	
+	/**
+	 * Reports the start of the simulation and registers the MBean, unless the simulation has
+	 * already been aborted. Called from the simulation thread before the first iteration.
+	 * 
+	 * @param seed the seed of the random generator, or null if it is not known.
+	 */
+	public synchronized void start(int alternatives, int criteria, int totalIterations, Long seed) {
+		probeHandle = probe.simulationStarted(simulationType, modelName, alternatives, criteria, totalIterations, seed);
+		if (!ended) {
+			register();
+		}
+	}
+	
+	/**
+	 * Counts an iteration.
+	 * 
+	 * @return true if the phases of this iteration should be timed.
+	 */
+	public boolean startIteration() {
+		if (iterations == 0) {
+			startNanos = System.nanoTime();
+		}
+		iterations++;
+		if (iterations % SMAASimulation.REPORTING_INTERVAL == 0) {
+			probe.simulationCheckpoint(simulationType, modelName, iterations);
+		}
+		if (iterations % timingInterval == 0) {
+			publish();
+			timedIterations.incrementAndGet();
+			pendingDispatchNanos = 0;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Records a timed phase that started at the given nanoTime, excluding the results events
+	 * dispatched during the phase. A phase may be recorded more than once per iteration.
+	 * 
+	 * @return the current nanoTime, which is the start of the next phase.
+	 */
+	public long record(Phase phase, long start) {
+		long now = System.nanoTime();
+		phaseNanos.addAndGet(phase.ordinal(), now - start - pendingDispatchNanos);
+		pendingDispatchNanos = 0;
+		return now;
+	}
+	
+	/**
+	 * Records the dispatch of a results event. Called from the simulation thread.
+	 */
+	public void recordDispatch(long nanos) {
+		pendingDispatchNanos += nanos;
+		dispatchNanos.addAndGet(nanos);
+		dispatches.incrementAndGet();
+	}
+	
+	/**
+	 * Counts rejected weight samples; published on the timed iterations.
+	 */
+	public void addWeightRejections(int rejections) {
+		weightRejections += rejections;
+	}
+	
+	/**
+	 * Counts rejected profile samples; published on the timed iterations.
+	 */
+	public void addProfileRejections(int rejections) {
+		profileRejections += rejections;
+	}
+	
+	private void publish() {
+		publishedIterations = iterations;
+		publishedWeightRejections = weightRejections;
+		publishedProfileRejections = profileRejections;
+	}
+	
+	/**
+	 * Marks the simulation as completed and unregisters the MBean. Called from the simulation thread.
+	 */
+	public void finish() {
+		publish();
+		end(Outcome.FINISHED);
+	}
+	
+	/**
+	 * Marks the simulation as failed in the current iteration and unregisters the MBean. Called from
+	 * the simulation thread.
+	 */
+	public void fail(IterationException e) {
+		publish();
+		probe.iterationFailed(simulationType, modelName, iterations, e.getMessage());
+		end(Outcome.FAILED);
+	}
+	
+	/**
+	 * Marks the simulation as aborted and unregisters the MBean, unless it has already ended.
+	 */
+	public void abort() {
+		end(Outcome.ABORTED);
+	}
+	
+	private synchronized void end(Outcome outcome) {
+		if (ended) {
+			return;
+		}
+		ended = true;
+		endNanos = System.nanoTime();
+		probe.simulationEnded(probeHandle, publishedIterations, outcome);
+		unregister();
+	}
+	
+	/**
+	 * Registers this as a platform MBean. Failures are ignored; the metrics are diagnostics only.
+	 */
+	public synchronized void register() {
+		if (objectName != null) {
+			return;
+		}
+		try {
+			ObjectName name = new ObjectName(DOMAIN + ":type=Simulation,name=" + ObjectName.quote(String.valueOf(modelName)) 
+					+ ",simulation=" + simulationType + ",id=" + id);
+			getServer().registerMBean(this, name);
+			objectName = name;
+		} catch (JMException e) {
+			// not published
+		} catch (SecurityException e) {
+			// not published
+		}
+	}
+	
+	public synchronized void unregister() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			getServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			// already gone
+		}
+		objectName = null;
+	}
+	
+	/**
+	 * @return the name this is registered under, or null if it is not registered.
+	 */
+	public synchronized ObjectName getObjectName() {
+		return objectName;
+	}
+	
+	private static MBeanServer getServer() {
+		return ManagementFactory.getPlatformMBeanServer();
+	}
+
+	public String getSimulationType() {
+		return simulationType;
+	}
+
+	public String getModelName() {
+		return modelName;
+	}
+
+	public boolean isRunning() {
+		return startNanos != 0 && endNanos == 0;
+	}
+
+	public long getIterations() {
+		return publishedIterations;
+	}
+
+	public long getElapsedMillis() {
+		return getElapsedNanos() / 1000000L;
+	}
+
+	public double getIterationsPerSecond() {
+		long elapsed = getElapsedNanos();
+		if (elapsed <= 0) {
+			return 0.0;
+		}
+		return publishedIterations * 1E9 / elapsed;
+	}
+	
+	private long getElapsedNanos() {
+		long start = startNanos;
+		if (start == 0) {
+			return 0;
+		}
+		long end = endNanos;
+		return (end == 0 ? System.nanoTime() : end) - start;
+	}
+
+	public int getTimingInterval() {
+		return timingInterval;
+	}
+	
+	/**
+	 * @return the mean time spent in the phase per timed iteration, in nanoseconds.
+	 */
+	public double getMeanNanos(Phase phase) {
+		long samples = timedIterations.get();
+		return samples == 0 ? 0.0 : phaseNanos.get(phase.ordinal()) / (double) samples;
+	}
+
+	public double getWeightSamplingNanos() {
+		return getMeanNanos(Phase.WEIGHTS);
+	}
+
+	public double getMeasurementSamplingNanos() {
+		return getMeanNanos(Phase.MEASUREMENTS);
+	}
+
+	public double getProfileSamplingNanos() {
+		return getMeanNanos(Phase.PROFILES);
+	}
+
+	public double getAggregationNanos() {
+		return getMeanNanos(Phase.AGGREGATION);
+	}
+
+	public double getRankingNanos() {
+		return getMeanNanos(Phase.RANKING);
+	}
+
+	public double getResultsUpdateNanos() {
+		return getMeanNanos(Phase.RESULTS);
+	}
+
+	public double getListenerDispatchNanos() {
+		long n = dispatches.get();
+		return n == 0 ? 0.0 : dispatchNanos.get() / (double) n;
+	}
+
+	public long getListenerDispatches() {
+		return dispatches.get();
+	}
+
+	public long getWeightRejections() {
+		return publishedWeightRejections;
+	}
+
+	public long getProfileRejections() {
+		return publishedProfileRejections;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+/**
+ * Management interface of {@link SimulationMetrics}. Phase times are the mean nanoseconds spent in
+ * the phase per iteration, over the iterations that were timed; one in {@link #getTimingInterval()}
+ * iterations is timed. Phases that an iteration skips count as zero, so the phase times add up to
+ * the mean iteration time.
+ */
+public interface SimulationMetricsMBean {
+	
+	public String getSimulationType();
+	
+	public String getModelName();
+	
+	public boolean isRunning();
+	
+	public long getIterations();
+	
+	public long getElapsedMillis();
+	
+	public double getIterationsPerSecond();
+	
+	public int getTimingInterval();
+	
+	public double getWeightSamplingNanos();
+	
+	public double getMeasurementSamplingNanos();
+	
+	public double getProfileSamplingNanos();
+	
+	public double getAggregationNanos();
+	
+	public double getRankingNanos();
+	
+	/**
+	 * Mean time of a results update, including listener dispatch on the iterations that report.
+	 */
+	public double getResultsUpdateNanos();
+	
+	/**
+	 * Mean time of dispatching one results event to all listeners.
+	 */
+	public double getListenerDispatchNanos();
+	
+	public long getListenerDispatches();
+	
+	public long getWeightRejections();
+	
+	public long getProfileRejections();
+}
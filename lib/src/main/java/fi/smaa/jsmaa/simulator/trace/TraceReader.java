@@ -0,0 +1,238 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.trace;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fi.smaa.jsmaa.model.NamedObject;
+
+/**
+ * Reads the trace files written by {@link TraceWriter}.
+ * <p>
+ * A trace starts with a header: {@link #MAGIC}, the format version, the kind of trace (ranks or
+ * categories), a flag telling whether measurements are included, and the names of the alternatives,
+ * criteria and (for category traces) categories, each list as an int count followed by
+ * {@link java.io.DataOutput#writeUTF(String)} strings. It is followed by
+ * one fixed-size record per iteration: the weights as doubles, the rank or category index of each
+ * alternative as a short (an int if there are more than {@value java.lang.Short#MAX_VALUE}
+ * alternatives), and optionally the measurements as doubles, criterion by criterion. All numbers
+ * are big-endian.
+ */
+public class TraceReader implements Closeable {
+	
+	public static final int MAGIC = 0x4A534D54; // "JSMT"
+	public static final short FORMAT_VERSION = 1;
+	
+	public static final byte KIND_RANKS = 1;
+	public static final byte KIND_CATEGORIES = 2;
+	
+	private static final byte FLAG_MEASUREMENTS = 1;
+	
+	private final DataInputStream in;
+	private final byte kind;
+	private final boolean withMeasurements;
+	private final boolean wideValues;
+	private final List<String> alternatives;
+	private final List<String> criteria;
+	private final List<String> categories;
+	
+	private final double[] weights;
+	private final int[] values;
+	private final double[][] measurements;
+	private long records = 0;
+	
+	public TraceReader(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+	
+	public TraceReader(InputStream stream) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a JSMAA trace");
+			}
+			short version = in.readShort();
+			if (version != FORMAT_VERSION) {
+				throw new IOException("Unsupported trace version " + version);
+			}
+			kind = in.readByte();
+			if (kind != KIND_RANKS && kind != KIND_CATEGORIES) {
+				throw new IOException("Unknown trace kind " + kind);
+			}
+			withMeasurements = (in.readByte() & FLAG_MEASUREMENTS) != 0;
+			alternatives = readNames();
+			criteria = readNames();
+			categories = kind == KIND_CATEGORIES ? readNames() : Collections.<String>emptyList();
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		wideValues = isWide(alternatives.size());
+		weights = new double[criteria.size()];
+		values = new int[alternatives.size()];
+		measurements = withMeasurements ? new double[criteria.size()][alternatives.size()] : null;
+	}
+	
+	/**
+	 * Reads the next iteration into the arrays returned by {@link #getWeights()}, {@link #getValues()}
+	 * and {@link #getMeasurements()}.
+	 * 
+	 * @return false at the end of the trace.
+	 * @throws IOException if reading fails or the trace ends within a record.
+	 */
+	public boolean next() throws IOException {
+		in.mark(1);
+		if (in.read() < 0) {
+			return false;
+		}
+		in.reset();
+		for (int i = 0; i < weights.length; ++i) {
+			weights[i] = in.readDouble();
+		}
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = wideValues ? in.readInt() : in.readShort();
+		}
+		if (withMeasurements) {
+			for (double[] row : measurements) {
+				for (int i = 0; i < row.length; ++i) {
+					row[i] = in.readDouble();
+				}
+			}
+		}
+		++records;
+		return true;
+	}
+
+	public void close() throws IOException {
+		in.close();
+	}
+	
+	public boolean isCategoryTrace() {
+		return kind == KIND_CATEGORIES;
+	}
+	
+	public boolean hasMeasurements() {
+		return withMeasurements;
+	}
+	
+	public List<String> getAlternatives() {
+		return alternatives;
+	}
+	
+	public List<String> getCriteria() {
+		return criteria;
+	}
+	
+	public List<String> getCategories() {
+		return categories;
+	}
+	
+	/**
+	 * @return the weights of the current iteration, one per criterion.
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+	
+	/**
+	 * @return the ranks (0 is the best) or category indices of the current iteration, one per alternative.
+	 */
+	public int[] getValues() {
+		return values;
+	}
+	
+	/**
+	 * @return the measurements of the current iteration, indexed [criterion][alternative], or null if
+	 * the trace does not include measurements.
+	 */
+	public double[][] getMeasurements() {
+		return measurements;
+	}
+	
+	/**
+	 * @return the number of iterations read so far.
+	 */
+	public long getIterations() {
+		return records;
+	}
+	
+	private List<String> readNames() throws IOException {
+		int n = in.readInt();
+		if (n < 0) {
+			throw new IOException("Invalid trace header");
+		}
+		List<String> names = new ArrayList<String>(n);
+		for (int i = 0; i < n; ++i) {
+			names.add(in.readUTF());
+		}
+		return names;
+	}
+	
+	static boolean isWide(int numAlts) {
+		return numAlts > Short.MAX_VALUE;
+	}
+	
+	static int recordSize(int numAlts, int numCrits, boolean measurements) {
+		int size = numCrits * 8 + numAlts * (isWide(numAlts) ? 4 : 2);
+		if (measurements) {
+			size += numCrits * numAlts * 8;
+		}
+		return size;
+	}
+
+	static ByteBuffer encodeHeader(byte kind, boolean measurements, List<? extends NamedObject> alternatives,
+			List<? extends NamedObject> criteria, List<? extends NamedObject> categories) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeShort(FORMAT_VERSION);
+		out.writeByte(kind);
+		out.writeByte(measurements ? FLAG_MEASUREMENTS : 0);
+		writeNames(out, alternatives);
+		writeNames(out, criteria);
+		if (kind == KIND_CATEGORIES) {
+			writeNames(out, categories);
+		}
+		out.flush();
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+	private static void writeNames(DataOutputStream out, List<? extends NamedObject> objects) throws IOException {
+		out.writeInt(objects.size());
+		for (NamedObject o : objects) {
+			out.writeUTF(o.getName());
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import fi.smaa.jsmaa.model.NamedObject;
+
+/**
+ * Streams the raw iterations of a simulation to a trace file (see {@link TraceReader} for the layout).
+ * <p>
+ * Records are encoded into direct buffers on the simulation thread; full buffers are handed to a
+ * background thread that writes them to a {@link FileChannel}. The number of buffers is fixed, so
+ * memory use is bounded and the simulation waits only if the disk can not keep up. If writing fails,
+ * tracing stops and the failure is reported by {@link #close()}; the simulation itself is not affected.
+ */
+public class TraceWriter implements Closeable {
+	
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+	public static final int DEFAULT_BUFFER_COUNT = 4;
+	
+	private static final ByteBuffer END_OF_TRACE = ByteBuffer.allocate(0);
+
+	private final FileChannel channel;
+	private final int numAlts;
+	private final int numCrits;
+	private final boolean withMeasurements;
+	private final boolean wideValues;
+	private final int recordSize;
+	
+	private final BlockingQueue<ByteBuffer> free;
+	private final BlockingQueue<ByteBuffer> full;
+	private final Thread writerThread;
+	private ByteBuffer current;
+	private long records = 0;
+	private volatile IOException failure;
+	private boolean closed = false;
+	
+	/**
+	 * Creates a trace of SMAA-2 iterations: weights and the rank of each alternative.
+	 * 
+	 * @param measurements whether to include the sampled measurements.
+	 */
+	public static TraceWriter createRankTrace(File file, List<? extends NamedObject> alternatives,
+			List<? extends NamedObject> criteria, boolean measurements) throws IOException {
+		return new TraceWriter(file, TraceReader.KIND_RANKS, alternatives, criteria, null, measurements,
+				DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+	}
+
+	/**
+	 * Creates a trace of SMAA-TRI iterations: weights and the category index of each alternative.
+	 * 
+	 * @param measurements whether to include the sampled measurements.
+	 */
+	public static TraceWriter createCategoryTrace(File file, List<? extends NamedObject> alternatives,
+			List<? extends NamedObject> criteria, List<? extends NamedObject> categories, boolean measurements) throws IOException {
+		return new TraceWriter(file, TraceReader.KIND_CATEGORIES, alternatives, criteria, categories, measurements,
+				DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+	}
+	
+	TraceWriter(File file, byte kind, List<? extends NamedObject> alternatives, List<? extends NamedObject> criteria,
+			List<? extends NamedObject> categories, boolean measurements, int bufferSize, int bufferCount) throws IOException {
+		if (bufferCount < 2) {
+			throw new IllegalArgumentException("bufferCount < 2");
+		}
+		this.numAlts = alternatives.size();
+		this.numCrits = criteria.size();
+		this.withMeasurements = measurements;
+		this.wideValues = TraceReader.isWide(numAlts);
+		this.recordSize = TraceReader.recordSize(numAlts, numCrits, measurements);
+		
+		channel = new FileOutputStream(file).getChannel();
+		try {
+			writeFully(TraceReader.encodeHeader(kind, measurements, alternatives, criteria, categories));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		
+		int size = Math.max(bufferSize, recordSize);
+		free = new ArrayBlockingQueue<ByteBuffer>(bufferCount);
+		full = new ArrayBlockingQueue<ByteBuffer>(bufferCount);
+		for (int i = 1; i < bufferCount; ++i) {
+			free.add(ByteBuffer.allocateDirect(size));
+		}
+		current = ByteBuffer.allocateDirect(size);
+		
+		writerThread = new Thread(new Runnable() {
+			public void run() {
+				drain();
+			}
+		}, "jsmaa-trace-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+	
+	/**
+	 * Appends one iteration.
+	 * 
+	 * @param weights the weights, one per criterion.
+	 * @param values the rank (SMAA-2) or category index (SMAA-TRI) of each alternative.
+	 * @param measurements the sampled measurements, indexed [criterion][alternative]; ignored if the
+	 * trace does not include measurements.
+	 */
+	public void write(double[] weights, int[] values, double[][] measurements) {
+		assert(weights.length == numCrits && values.length == numAlts);
+		if (closed) {
+			throw new IllegalStateException("trace closed");
+		}
+		if (current == null) { // writing failed, tracing has stopped
+			return;
+		}
+		if (current.remaining() < recordSize) {
+			swap();
+			if (current == null) {
+				return;
+			}
+		}
+		for (int i = 0; i < numCrits; ++i) {
+			current.putDouble(weights[i]);
+		}
+		if (wideValues) {
+			for (int i = 0; i < numAlts; ++i) {
+				current.putInt(values[i]);
+			}
+		} else {
+			for (int i = 0; i < numAlts; ++i) {
+				current.putShort((short) values[i]);
+			}
+		}
+		if (withMeasurements) {
+			for (int c = 0; c < numCrits; ++c) {
+				double[] row = measurements[c];
+				for (int a = 0; a < numAlts; ++a) {
+					current.putDouble(row[a]);
+				}
+			}
+		}
+		++records;
+	}
+	
+	/**
+	 * @return the number of iterations written.
+	 */
+	public long getIterations() {
+		return records;
+	}
+	
+	/**
+	 * Writes the remaining iterations and closes the file. Calling close more than once has no effect.
+	 * 
+	 * @throws IOException if writing the trace failed at any point.
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (current != null && current.position() > 0) {
+				current.flip();
+				putFull(current);
+			}
+			current = null;
+			putFull(END_OF_TRACE);
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while closing the trace");
+		} finally {
+			channel.close();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void swap() {
+		current.flip();
+		try {
+			putFull(current);
+			current = failure == null ? free.take() : null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			current = null;
+		}
+	}
+
+	private void putFull(ByteBuffer buf) throws InterruptedException {
+		full.put(buf);
+	}
+
+	private void drain() {
+		while (true) {
+			ByteBuffer buf;
+			try {
+				buf = full.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (buf == END_OF_TRACE) {
+				return;
+			}
+			if (failure == null) {
+				try {
+					writeFully(buf);
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+			buf.clear();
+			free.add(buf);
+		}
+	}
+
+	private void writeFully(ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+}
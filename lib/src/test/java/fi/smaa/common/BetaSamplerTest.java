@@ -0,0 +1,116 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.RealDistribution;
+import org.apache.commons.math3.random.JDKRandomGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BetaSamplerTest {
+	
+	private static final int N = 20000;
+	// Kolmogorov-Smirnov critical value at the 0.1% level
+	private static final double KS_CRITICAL = 1.95 / Math.sqrt(N);
+	
+	private JDKRandomGenerator engine;
+	
+	@Before
+	public void setUp() {
+		engine = new JDKRandomGenerator();
+		engine.setSeed(1L);
+	}
+	
+	@Test
+	public void testDistribution() {
+		double[][] shapes = {{2.0, 5.0}, {0.5, 0.5}, {0.3, 4.0}, {1.0, 1.0}, {50.0, 20.0}, {0.1, 0.2}};
+		for (double[] s : shapes) {
+			BetaSampler sampler = new BetaSampler(s[0], s[1]);
+			double[] x = new double[N];
+			for (int i=0;i<N;i++) {
+				x[i] = sampler.sample(engine);
+				assertTrue(x[i] >= 0.0 && x[i] <= 1.0);
+			}
+			double d = ksStatistic(x, new BetaDistribution(s[0], s[1]));
+			assertTrue("beta(" + s[0] + ", " + s[1] + "): D = " + d, d < KS_CRITICAL);
+		}
+	}
+	
+	@Test
+	public void testZiggurat() {
+		double[] x = new double[N];
+		for (int i=0;i<N;i++) {
+			x[i] = Ziggurat.nextGaussian(engine);
+		}
+		double d = ksStatistic(x, new NormalDistribution());
+		assertTrue("D = " + d, d < KS_CRITICAL);
+	}
+	
+	@Test
+	public void testZigguratTail() {
+		int n = 1000000;
+		int tail = 0;
+		for (int i=0;i<n;i++) {
+			if (Math.abs(Ziggurat.nextGaussian(engine)) > 3.5) {
+				tail++;
+			}
+		}
+		double p = 2 * new NormalDistribution().cumulativeProbability(-3.5);
+		assertEquals(p, tail / (double) n, 4 * Math.sqrt(p / n));
+	}
+	
+	@Test
+	public void testRandomUtilScalesToRange() {
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		BetaSampler sampler = new BetaSampler(2.0, 2.0);
+		double sum = 0.0;
+		for (int i=0;i<N;i++) {
+			double x = random.createBeta(sampler, 10.0, 20.0);
+			assertTrue(x >= 10.0 && x <= 20.0);
+			sum += x;
+		}
+		assertEquals(15.0, sum / N, 0.05);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNonPositiveShapeFails() {
+		new BetaSampler(0.0, 1.0);
+	}
+	
+	private static double ksStatistic(double[] x, RealDistribution dist) {
+		Arrays.sort(x);
+		double d = 0.0;
+		for (int i=0;i<x.length;i++) {
+			double f = dist.cumulativeProbability(x[i]);
+			d = Math.max(d, Math.max(f - i / (double) x.length, (i + 1) / (double) x.length - f));
+		}
+		return d;
+	}
+}
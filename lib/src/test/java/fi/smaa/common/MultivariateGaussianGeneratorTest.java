@@ -108,4 +108,63 @@ public class MultivariateGaussianGeneratorTest {
 			}
 		}
 	}
+	
+	private static final double[][] COV = new double[][]{
+		{0.0, 0.0, 0.0, 0.0, 0.0},
+		{0.0, 0.013445532, 0.010394690, 0.009881156, 0.010499559},
+		{0.0, 0.010394690, 0.023006616, 0.008196856, 0.010732709},
+		{0.0, 0.009881156, 0.008196856, 0.019023866, 0.009210099},
+		{0.0, 0.010499559, 0.010732709, 0.009210099, 0.019107243}
+	};
+	
+	@Test
+	public void testNextVectorIntoTarget() {
+		MultivariateGaussianGenerator sampler = new MultivariateGaussianGenerator(new Array2DRowRealMatrix(COV));
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		double[] mean = new double[] { 1.0, 2.0, 3.0, 4.0, 5.0 };
+		double[] target = new double[COV.length];
+		StorelessCovariance cov = new StorelessCovariance(COV.length);
+		for (int i = 0; i < N_SAMPLES; ++i) {
+			sampler.nextVector(random, mean, target);
+			assertEquals(1.0, target[0], 0.0);
+			cov.increment(target);
+		}
+		assertCovariance(cov.getData());
+	}
+	
+	@Test
+	public void testNextVectorsMatchesCovariance() {
+		MultivariateGaussianGenerator sampler = new MultivariateGaussianGenerator(new Array2DRowRealMatrix(COV));
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		// not a multiple of the block size
+		double[][] target = new double[N_SAMPLES + 7][COV.length];
+		sampler.nextVectors(random, new double[COV.length], target);
+		StorelessCovariance cov = new StorelessCovariance(COV.length);
+		for (double[] row : target) {
+			cov.increment(row);
+		}
+		assertCovariance(cov.getData());
+	}
+	
+	@Test
+	public void testShareKeepsFactorization() {
+		MultivariateGaussianGenerator sampler = new MultivariateGaussianGenerator(new Array2DRowRealMatrix(COV));
+		MultivariateGaussianGenerator shared = sampler.share();
+		assertEquals(sampler.getRank(), shared.getRank());
+		assertEquals(4, shared.getRank());
+		assertEquals(5, shared.getDimension());
+		
+		double[] mean = new double[COV.length];
+		double[] a = new double[COV.length];
+		double[] b = new double[COV.length];
+		sampler.nextVector(RandomUtil.createWithSeed(1L), mean, a);
+		shared.nextVector(RandomUtil.createWithSeed(1L), mean, b);
+		assertArrayEquals(a, b, 0.0);
+	}
+	
+	private static void assertCovariance(double[][] sampleCov) {
+		for (int r = 0; r < COV.length; ++r) {
+			assertArrayEquals(COV[r], sampleCov[r], EPSILON);
+		}
+	}
 }
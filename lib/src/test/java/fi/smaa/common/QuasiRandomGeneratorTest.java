@@ -0,0 +1,124 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class QuasiRandomGeneratorTest {
+	
+	@Test
+	public void testInverseNormal() {
+		assertEquals(0.0, QuasiRandomGenerator.inverseNormal(0.5), 1E-8);
+		assertEquals(1.959963985, QuasiRandomGenerator.inverseNormal(0.975), 1E-8);
+		assertEquals(-2.326347874, QuasiRandomGenerator.inverseNormal(0.01), 1E-8);
+		assertEquals(3.090232306, QuasiRandomGenerator.inverseNormal(0.999), 1E-7);
+	}
+	
+	@Test
+	public void testUniformCoordinates() {
+		QuasiRandomGenerator gen = new QuasiRandomGenerator(1L);
+		int n = 4096;
+		double[] sums = new double[QuasiRandomGenerator.DIMENSIONS + 4];
+		for (int i=0;i<n;i++) {
+			gen.nextPoint();
+			for (int d=0;d<sums.length;d++) {
+				double u = gen.nextDouble();
+				assertTrue(u >= 0.0 && u < 1.0);
+				sums[d] += u;
+			}
+		}
+		for (int d=0;d<QuasiRandomGenerator.DIMENSIONS;d++) {
+			assertEquals(0.5, sums[d] / n, 0.005);
+		}
+	}
+	
+	@Test
+	public void testGaussianMoments() {
+		QuasiRandomGenerator gen = new QuasiRandomGenerator(1L);
+		int n = 10000;
+		double sum = 0.0;
+		double sumSq = 0.0;
+		for (int i=0;i<n;i++) {
+			gen.nextPoint();
+			double x = gen.nextGaussian();
+			sum += x;
+			sumSq += x * x;
+		}
+		assertEquals(0.0, sum / n, 0.002);
+		assertEquals(1.0, sumSq / n, 0.01);
+	}
+	
+	@Test
+	public void testSeedDeterminesSequence() {
+		QuasiRandomGenerator a = new QuasiRandomGenerator(1L);
+		QuasiRandomGenerator b = new QuasiRandomGenerator(1L);
+		QuasiRandomGenerator c = new QuasiRandomGenerator(2L);
+		a.nextPoint();
+		b.nextPoint();
+		c.nextPoint();
+		double x = a.nextDouble();
+		assertEquals(x, b.nextDouble(), 0.0);
+		assertFalse(x == c.nextDouble());
+	}
+	
+	@Test
+	public void testNextPointRestartsCoordinates() {
+		QuasiRandomGenerator gen = new QuasiRandomGenerator(1L);
+		gen.nextPoint();
+		double first = gen.nextDouble();
+		double second = gen.nextDouble();
+		gen.nextPoint();
+		double next = gen.nextDouble();
+		assertFalse(first == next);
+		assertFalse(second == next);
+	}
+	
+	@Test
+	public void testRepeatedBlockKeepsLaterCoordinates() {
+		QuasiRandomGenerator once = new QuasiRandomGenerator(1L);
+		QuasiRandomGenerator repeated = new QuasiRandomGenerator(1L);
+		once.nextPoint();
+		repeated.nextPoint();
+		
+		once.beginBlock();
+		double first = once.nextDouble();
+		once.nextDouble();
+		once.endBlock();
+		
+		repeated.beginBlock();
+		assertEquals(first, repeated.nextDouble(), 0.0);
+		repeated.nextDouble();
+		repeated.repeatBlock();
+		assertFalse(first == repeated.nextDouble());
+		repeated.nextDouble();
+		repeated.repeatBlock();
+		repeated.nextDouble();
+		repeated.endBlock();
+		
+		assertEquals(once.nextDouble(), repeated.nextDouble(), 0.0);
+	}
+}
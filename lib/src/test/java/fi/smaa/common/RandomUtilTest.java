@@ -82,4 +82,23 @@ public class RandomUtilTest {
 		gaus = random.createGaussian(1.0, 0.0);
 		assertEquals(1.0, gaus, 0.0001);
 	}
+
+	@Test
+	public void testNextPointIsNoOpForPseudoRandom() {
+		RandomUtil a = RandomUtil.createWithSeed(1L);
+		RandomUtil b = RandomUtil.createWithSeed(1L);
+		a.nextPoint();
+		assertFalse(a.isQuasiRandom());
+		assertEquals(b.createUnif01(), a.createUnif01(), 0.0);
+	}
+	
+	@Test
+	public void testCreateQuasiRandom() {
+		RandomUtil qmc = RandomUtil.createQuasiRandom(1L);
+		assertTrue(qmc.isQuasiRandom());
+		assertEquals(Long.valueOf(1L), qmc.getSeed());
+		qmc.nextPoint();
+		double u = qmc.createUnif01();
+		assertTrue(u >= 0.0 && u <= 1.0);
+	}
 }
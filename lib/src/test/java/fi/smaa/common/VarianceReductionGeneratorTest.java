@@ -0,0 +1,118 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.random.JDKRandomGenerator;
+import org.junit.Test;
+
+public class VarianceReductionGeneratorTest {
+	
+	private static VarianceReductionGenerator create(VarianceReduction scheme, int blockSize) {
+		JDKRandomGenerator engine = new JDKRandomGenerator();
+		engine.setSeed(1L);
+		return new VarianceReductionGenerator(engine, scheme, blockSize);
+	}
+	
+	@Test
+	public void testAntitheticPairs() {
+		VarianceReductionGenerator gen = create(VarianceReduction.ANTITHETIC, 10);
+		assertEquals(2, gen.getBlockSize());
+		for (int i=0;i<10;i++) {
+			gen.nextSample();
+			double u = gen.nextDouble();
+			double z = gen.nextGaussian();
+			gen.nextSample();
+			assertEquals(1.0 - u, gen.nextDouble(), 0.0);
+			assertEquals(-z, gen.nextGaussian(), 0.0);
+		}
+	}
+	
+	@Test
+	public void testAntitheticMismatchedDrawIsIndependent() {
+		VarianceReductionGenerator gen = create(VarianceReduction.ANTITHETIC, 2);
+		gen.nextSample();
+		double u = gen.nextDouble();
+		gen.nextSample();
+		double z = gen.nextGaussian();
+		double v = gen.nextDouble();
+		assertTrue(z != -u && z != 1.0 - u);
+		assertTrue(v >= 0.0 && v < 1.0);
+	}
+	
+	@Test
+	public void testLatinHypercubeVisitsEveryStratum() {
+		int n = 20;
+		VarianceReductionGenerator gen = create(VarianceReduction.LATIN_HYPERCUBE, n);
+		NormalDistribution normal = new NormalDistribution();
+		for (int block=0;block<3;block++) {
+			boolean[][] hit = new boolean[3][n];
+			for (int i=0;i<n;i++) {
+				gen.nextSample();
+				for (int d=0;d<3;d++) {
+					double u = d == 2 ? normal.cumulativeProbability(gen.nextGaussian()) : gen.nextDouble();
+					int stratum = (int) (u * n);
+					assertTrue(!hit[d][stratum]);
+					hit[d][stratum] = true;
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testLatinHypercubeMean() {
+		VarianceReductionGenerator gen = create(VarianceReduction.LATIN_HYPERCUBE, 100);
+		double sum = 0.0;
+		for (int i=0;i<100;i++) {
+			gen.nextSample();
+			sum += gen.nextGaussian();
+		}
+		assertEquals(0.0, sum / 100, 0.01);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoSchemeFails() {
+		create(VarianceReduction.NONE, 2);
+	}
+	
+	@Test
+	public void testRandomUtilMeasurementSample() {
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		assertSame(random, random.nextMeasurementSample());
+		random.setVarianceReduction(VarianceReduction.ANTITHETIC);
+		assertEquals(VarianceReduction.ANTITHETIC, random.getVarianceReduction());
+		double u = random.nextMeasurementSample().createUnif01();
+		assertEquals(1.0 - u, random.nextMeasurementSample().createUnif01(), 1E-12);
+		random.setVarianceReduction(VarianceReduction.NONE);
+		assertSame(random, random.nextMeasurementSample());
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testQuasiRandomFails() {
+		RandomUtil.createQuasiRandom(1L).setVarianceReduction(VarianceReduction.LATIN_HYPERCUBE);
+	}
+}
@@ -0,0 +1,145 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.diagnostics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAASimulation;
+
+public class DiagnosticsTest {
+	
+	private static class RecordingProbe implements DiagnosticsProbe {
+		List<String> events = new ArrayList<String>();
+		
+		public Object simulationStarted(String simulation, String modelName, int alternatives, int criteria,
+				int iterations, Long seed) {
+			events.add("start " + modelName + " " + alternatives + "x" + criteria + " " + iterations + " " + seed);
+			return "sim";
+		}
+		public void simulationEnded(Object handle, long iterations, Outcome outcome) {
+			events.add("end " + handle + " " + iterations + " " + outcome);
+		}
+		public void simulationCheckpoint(String simulation, String modelName, long iteration) {
+			events.add("checkpoint " + iteration);
+		}
+		public void iterationFailed(String simulation, String modelName, long iteration, String message) {
+			events.add("failed " + iteration + " " + message);
+		}
+		public Object modelCopyStarted() {
+			return "copy";
+		}
+		public void modelCopyEnded(Object handle, String modelName, int alternatives, int criteria) {
+			events.add(handle + " " + modelName);
+		}
+		public Object modelIOStarted() {
+			return "io";
+		}
+		public void modelIOEnded(Object handle, String format, String operation, String modelName) {
+			events.add(handle + " " + format + " " + operation + " " + modelName);
+		}
+	}
+	
+	private RecordingProbe probe;
+	private SMAAModel model;
+	
+	@Before
+	public void setUp() {
+		probe = new RecordingProbe();
+		Diagnostics.setProbe(probe);
+		model = new ModelGenerator(1L).setAlternatives(3).setCriteria(2)
+			.setMeasurementMix(MeasurementType.GAUSSIAN).generateSMAA2();
+		model.setName("model");
+	}
+	
+	@After
+	public void tearDown() {
+		Diagnostics.setProbe(null);
+	}
+	
+	@Test
+	public void testSimulationLifecycle() throws InterruptedException {
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithSeed(42), 2 * SMAASimulation.REPORTING_INTERVAL);
+		TaskUtil.run(simulation.getTask());
+		
+		List<String> expected = new ArrayList<String>();
+		expected.add("start model 3x2 " + 4 * SMAASimulation.REPORTING_INTERVAL + " 42");
+		for (int i=1;i<=4;i++) {
+			expected.add("checkpoint " + i * SMAASimulation.REPORTING_INTERVAL);
+		}
+		expected.add("end sim " + 4 * SMAASimulation.REPORTING_INTERVAL + " FINISHED");
+		assertEquals(expected, probe.events);
+	}
+	
+	@Test
+	public void testIterationFailure() throws InterruptedException {
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(model.getCriteria());
+		pref.setMeasurement(model.getCriteria().get(0), new ExactMeasurement(0.8));
+		pref.setMeasurement(model.getCriteria().get(1), new ExactMeasurement(0.8));
+		model.setPreferenceInformation(pref);
+		
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithRandomSeed(), 100);
+		TaskUtil.run(simulation.getTask());
+		
+		assertEquals(3, probe.events.size());
+		assertEquals("start model 3x2 200 null", probe.events.get(0));
+		assertEquals("failed 1 weight lower bounds over 1.0", probe.events.get(1));
+		assertEquals("end sim 1 FAILED", probe.events.get(2));
+	}
+	
+	@Test
+	public void testModelIO() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		JSMAABinding.writeModel(model, bos);
+		JSMAABinding.readModel(new ByteArrayInputStream(bos.toByteArray()));
+		
+		assertEquals(2, probe.events.size());
+		assertEquals("io xml save model", probe.events.get(0));
+		assertEquals("io xml load model", probe.events.get(1));
+	}
+	
+	@Test
+	public void testNoProviderDiscardsEvents() {
+		Diagnostics.setProbe(null);
+		assertTrue(Diagnostics.getProbe() != null);
+		Diagnostics.getProbe().simulationEnded(Diagnostics.getProbe().modelCopyStarted(), 0, DiagnosticsProbe.Outcome.FINISHED);
+	}
+}
@@ -158,5 +158,76 @@ public class DiscreteMeasurementTest {
 		dm.add(0, new Point2D(5, 0.4));
 		Assert.assertEquals(1.0, dm.getTotalProbability());
 	}
-
+	
+	@Test
+	public void testSampleDistribution() {
+		DiscreteMeasurement dm = new DiscreteMeasurement();
+		int n = 200;
+		double total = n * (n + 1) / 2;
+		for (int i=1;i<=n;i++) {
+			dm.add(new Point2D(i, i / total));
+		}
+		// accumulated rounding may leave the total just below 1
+		dm.add(new Point2D(n + 1, 1.0 - dm.getTotalProbability()));
+		
+		int iters = 100000;
+		int[] counts = new int[n + 2];
+		for (int i=0;i<iters;i++) {
+			counts[(int) dm.sample(random)]++;
+		}
+		assertEquals(0, counts[0]);
+		for (int i=1;i<=n;i+=20) {
+			double p = i / total;
+			assertEquals(p, counts[i] / (double) iters, 4 * Math.sqrt(p * (1 - p) / iters) + 1E-4);
+		}
+	}
+	
+	@Test
+	public void testSampleAfterChange() {
+		DiscreteMeasurement dm = twoPointDiscreteMeasurement();
+		dm.sample(random);
+		dm.set(0, new Point2D(7, 0.5));
+		dm.set(1, new Point2D(7, 0.5));
+		assertEquals(7.0, dm.sample(random), 0.0);
+		dm.remove(1);
+		dm.add(new Point2D(8, 0.5));
+		for (int i=0;i<20;i++) {
+			double x = dm.sample(random);
+			Assert.assertTrue(x == 7.0 || x == 8.0);
+		}
+	}
+	
+	@Test
+	public void testAddAllAtIndex() {
+		DiscreteMeasurement dm = onePointDiscreteMeasurement();
+		ArrayList<Point2D> points = new ArrayList<Point2D>();
+		points.add(new Point2D(6, 0.5));
+		Assert.assertTrue(dm.addAll(0, points));
+		assertEquals(1.0, dm.getTotalProbability(), 0.0);
+		assertEquals(6.0, dm.get(0).getX(), 0.0);
+	}
+	
+	@Test
+	public void testOrderedSampleDistribution() {
+		ArrayList<Point2D> points = new ArrayList<Point2D>();
+		points.add(new Point2D(3, 0.2));
+		points.add(new Point2D(1, 0.5));
+		points.add(new Point2D(2, 0.3));
+		DiscreteMeasurement dm = null;
+		try {
+			dm = new DiscreteMeasurement(points);
+		} catch (PointOutsideIntervalException e) {
+			Assert.fail(e.getMessage());
+		}
+		RandomUtil ordered = RandomUtil.createQuasiRandom(1L);
+		int[] counts = new int[4];
+		int iters = 1000;
+		for (int i=0;i<iters;i++) {
+			ordered.nextPoint();
+			counts[(int) dm.sample(ordered)]++;
+		}
+		assertEquals(0.5, counts[1] / (double) iters, 0.01);
+		assertEquals(0.3, counts[2] / (double) iters, 0.01);
+		assertEquals(0.2, counts[3] / (double) iters, 0.01);
+	}
 }
@@ -0,0 +1,258 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAATRISimulation;
+
+public class EmpiricalMeasurementsTest {
+	
+	private static final int DRAWS = 5;
+	private static final int CRITERIA = 2;
+	private static final int ALTERNATIVES = 3;
+	
+	private File file;
+	private EmpiricalDraws draws;
+	private SMAAModel model;
+	private EmpiricalMeasurements meas;
+	
+	private static double value(int draw, int crit, int alt) {
+		return ALTERNATIVES - alt + crit * 0.1 + draw * 0.01;
+	}
+	
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("jsmaa", "." + EmpiricalDraws.FILE_EXTENSION);
+		EmpiricalDrawsWriter writer = new EmpiricalDrawsWriter(file, CRITERIA, ALTERNATIVES);
+		for (int d = 0; d < DRAWS; ++d) {
+			double[][] draw = new double[CRITERIA][ALTERNATIVES];
+			for (int c = 0; c < CRITERIA; ++c) {
+				for (int a = 0; a < ALTERNATIVES; ++a) {
+					draw[c][a] = value(d, c, a);
+				}
+			}
+			writer.write(draw);
+		}
+		writer.close();
+		draws = new EmpiricalDraws(file);
+		meas = new EmpiricalMeasurements(draws);
+		model = new SMAAModel("model", meas);
+		for (int a = 0; a < ALTERNATIVES; ++a) {
+			model.addAlternative(new Alternative("a" + a));
+		}
+		for (int c = 0; c < CRITERIA; ++c) {
+			model.addCriterion(new ScaleCriterion("c" + c));
+		}
+	}
+	
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+	
+	@Test
+	public void testReadHeader() {
+		assertEquals(CRITERIA, draws.getNumCriteria());
+		assertEquals(ALTERNATIVES, draws.getNumAlternatives());
+		assertEquals(DRAWS, draws.getNumDraws());
+		assertEquals(EmpiricalDraws.HEADER_SIZE + DRAWS * CRITERIA * ALTERNATIVES * 8, file.length());
+	}
+	
+	@Test
+	public void testSampleIsOneJointDraw() {
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		double[][] target = new double[CRITERIA][ALTERNATIVES];
+		int[] counts = new int[DRAWS];
+		for (int i = 0; i < 5000; ++i) {
+			meas.sample(random, target);
+			int d = (int) Math.round((target[0][0] - ALTERNATIVES) * 100);
+			for (int c = 0; c < CRITERIA; ++c) {
+				for (int a = 0; a < ALTERNATIVES; ++a) {
+					assertEquals(value(d, c, a), target[c][a], 1E-12);
+				}
+			}
+			++counts[d];
+		}
+		for (int count : counts) {
+			assertEquals(1000, count, 100);
+		}
+	}
+	
+	@Test
+	public void testSampleAcrossSegments() throws IOException {
+		// three draws per segment, so that the draws are mapped in two segments
+		EmpiricalDraws segmented = new EmpiricalDraws(file, 3 * CRITERIA * ALTERNATIVES * 8 + 7);
+		assertEquals(3, segmented.getDrawsPerSegment());
+		EmpiricalMeasurements m = new EmpiricalMeasurements(segmented, model.getCriteria(), model.getAlternatives());
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		double[][] target = new double[CRITERIA][ALTERNATIVES];
+		boolean[] seen = new boolean[DRAWS];
+		for (int i = 0; i < 200; ++i) {
+			m.sample(random, target);
+			int d = (int) Math.round((target[0][0] - ALTERNATIVES) * 100);
+			assertEquals(value(d, 1, 2), target[1][2], 1E-12);
+			seen[d] = true;
+		}
+		for (boolean s : seen) {
+			assertTrue(s);
+		}
+	}
+	
+	@Test
+	public void testScales() {
+		ScaleCriterion c1 = (ScaleCriterion) model.getCriteria().get(1);
+		assertEquals(new Interval(value(0, 1, 2), value(DRAWS - 1, 1, 0)), c1.getScale());
+		model.deleteAlternative(model.getAlternatives().get(0));
+		assertEquals(new Interval(value(0, 1, 2), value(DRAWS - 1, 1, 1)), c1.getScale());
+		assertNull(meas.getRange(new OrdinalCriterion("o")));
+	}
+	
+	@Test
+	public void testReorderAndDelete() {
+		Alternative a0 = model.getAlternatives().get(0);
+		Alternative a1 = model.getAlternatives().get(1);
+		Alternative a2 = model.getAlternatives().get(2);
+		Criterion c0 = model.getCriteria().get(0);
+		Criterion c1 = model.getCriteria().get(1);
+		model.reorderAlternatives(new ArrayList<Alternative>(Arrays.asList(a2, a0, a1)));
+		model.reorderCriteria(new ArrayList<Criterion>(Arrays.asList(c1, c0)));
+		
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		double[][] target = new double[CRITERIA][ALTERNATIVES];
+		meas.sample(random, target);
+		int d = (int) Math.round((target[1][1] - ALTERNATIVES) * 100);
+		assertEquals(value(d, 1, 2), target[0][0], 1E-12);
+		assertEquals(value(d, 0, 1), target[1][2], 1E-12);
+		
+		// the freed column is bound to the next added alternative
+		model.deleteAlternative(a0);
+		assertNull(meas.getColumn(a0));
+		Alternative a3 = new Alternative("a3");
+		model.addAlternative(a3);
+		assertEquals(Integer.valueOf(0), meas.getColumn(a3));
+		assertEquals(Integer.valueOf(2), meas.getColumn(a2));
+		
+		target = new double[CRITERIA][ALTERNATIVES];
+		meas.sample(random, target);
+		d = (int) Math.round((target[1][2] - ALTERNATIVES) * 100);
+		assertEquals(value(d, 1, 2), target[0][0], 1E-12);
+		assertEquals(value(d, 0, 1), target[1][1], 1E-12);
+	}
+	
+	@Test
+	public void testAddBeyondDraws() {
+		try {
+			model.addAlternative(new Alternative("a3"));
+			fail();
+		} catch (IllegalStateException e) {
+		}
+		assertEquals(ALTERNATIVES, meas.getAlternatives().size());
+		try {
+			new EmpiricalMeasurements(draws, new ArrayList<Criterion>(), 
+					Arrays.asList(new Alternative("a"), new Alternative("b"), new Alternative("c"), new Alternative("d")));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	
+	@Test
+	public void testDeepCopySharesDraws() {
+		SMAAModel copy = model.deepCopy();
+		EmpiricalMeasurements m = (EmpiricalMeasurements) copy.getMeasurements();
+		assertSame(draws, m.getDraws());
+		assertEquals(meas.getColumn(model.getAlternatives().get(2)), m.getColumn(copy.getAlternatives().get(2)));
+		assertEquals(((ScaleCriterion) model.getCriteria().get(0)).getScale(), ((ScaleCriterion) copy.getCriteria().get(0)).getScale());
+	}
+	
+	@Test
+	public void testInvalidFile() throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(file.length() - 8);
+		raf.close();
+		try {
+			new EmpiricalDraws(file);
+			fail();
+		} catch (IOException e) {
+		}
+		raf = new RandomAccessFile(file, "rw");
+		raf.writeInt(0);
+		raf.close();
+		try {
+			new EmpiricalDraws(file);
+			fail();
+		} catch (IOException e) {
+		}
+	}
+	
+	@Test
+	public void testSMAA2Simulation() throws InterruptedException {
+		model.setPreferenceInformation(new MissingPreferenceInformation(CRITERIA));
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 1000);
+		TaskUtil.run(simulation.getTask());
+		// the first alternative is the best one in every draw
+		List<Double> ranks = simulation.getResults().getRankAcceptabilities().get(model.getAlternatives().get(0));
+		assertEquals(1.0, ranks.get(0), 1E-10);
+	}
+	
+	@Test
+	public void testSMAATRISimulation() throws InterruptedException {
+		EmpiricalMeasurements m = new EmpiricalMeasurements(draws);
+		SMAATRIModel tri = new SMAATRIModel("tri", m);
+		for (int a = 0; a < ALTERNATIVES; ++a) {
+			tri.addAlternative(new Alternative("a" + a));
+		}
+		for (int c = 0; c < CRITERIA; ++c) {
+			tri.addCriterion(new OutrankingCriterion("c" + c, true, new ExactMeasurement(0.0), new ExactMeasurement(0.0)));
+		}
+		Category worst = new Category("worst");
+		Category best = new Category("best");
+		tri.addCategory(worst);
+		tri.addCategory(best);
+		for (Criterion c : tri.getCriteria()) {
+			tri.setCategoryUpperBound((OutrankingCriterion) c, worst, new ExactMeasurement(1.5));
+		}
+		SMAATRISimulation simulation = new SMAATRISimulation(tri, RandomUtil.createWithFixedSeed(), 1000);
+		TaskUtil.run(simulation.getTask());
+		assertEquals(1.0, simulation.getResults().getCategoryAcceptabilities().get(tri.getAlternatives().get(0)).get(1), 1E-10);
+		assertEquals(1.0, simulation.getResults().getCategoryAcceptabilities().get(tri.getAlternatives().get(2)).get(0), 1E-10);
+	}
+}
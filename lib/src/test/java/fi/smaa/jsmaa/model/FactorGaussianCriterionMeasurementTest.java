@@ -0,0 +1,175 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.stat.correlation.StorelessCovariance;
+import org.drugis.common.JUnitUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+
+public class FactorGaussianCriterionMeasurementTest {
+	private List<Alternative> alternatives;
+	private FactorGaussianCriterionMeasurement m;
+	
+	private static final double[][] LOADINGS = new double[][] { {1.0, 0.0}, {0.5, 0.5}, {0.0, -1.0} };
+
+	@Before
+	public void setUp() {
+		alternatives = new ArrayList<Alternative>(
+				Arrays.asList(new Alternative("Ubuntu"), new Alternative("Debian"), new Alternative("Fedora")));
+		m = new FactorGaussianCriterionMeasurement(alternatives, 2);
+	}
+	
+	@Test
+	public void testInitialization() {
+		assertEquals(alternatives, m.getAlternatives());
+		assertEquals(2, m.getNumFactors());
+		assertEquals(new ArrayRealVector(3, 0.0), m.getMeanVector());
+		assertEquals(new ArrayRealVector(3, 1.0), m.getVariances());
+		assertEquals(new Array2DRowRealMatrix(new double[][] { {1.0, 0.0, 0.0}, {0.0, 1.0, 0.0}, {0.0, 0.0, 1.0} }), m.getCovarianceMatrix());
+	}
+	
+	@Test
+	public void testSetters() {
+		JUnitUtil.testSetter(m, FactorGaussianCriterionMeasurement.PROPERTY_MEAN_VECTOR, 
+				new ArrayRealVector(3, 0.0), new ArrayRealVector(new double[] { 25.3, 2.1, -3 }));
+		JUnitUtil.testSetter(m, FactorGaussianCriterionMeasurement.PROPERTY_LOADINGS,
+				new Array2DRowRealMatrix(3, 2), new Array2DRowRealMatrix(LOADINGS));
+		JUnitUtil.testSetter(m, FactorGaussianCriterionMeasurement.PROPERTY_VARIANCES, 
+				new ArrayRealVector(3, 1.0), new ArrayRealVector(new double[] { 0.1, 0.2, 0.0 }));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeVariance() {
+		m.setVariances(new ArrayRealVector(new double[] { 0.1, -0.2, 0.0 }));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testWrongSizeLoadings() {
+		m.setLoadings(new Array2DRowRealMatrix(4, 2));
+	}
+	
+	@Test
+	public void testCovarianceMatrix() {
+		m.setLoadings(new Array2DRowRealMatrix(LOADINGS));
+		m.setVariances(new ArrayRealVector(new double[] { 0.1, 0.2, 0.3 }));
+		RealMatrix expected = new Array2DRowRealMatrix(new double[][] { {1.1, 0.5, 0.0}, {0.5, 0.7, -0.5}, {0.0, -0.5, 1.3} });
+		assertEquals(0.0, expected.subtract(m.getCovarianceMatrix()).getNorm(), 1E-12);
+		assertEquals(0.7, m.getVariance(1), 1E-12);
+	}
+	
+	@Test
+	public void testModifyAlternatives() {
+		m.setLoadings(new Array2DRowRealMatrix(LOADINGS));
+		m.setMeanVector(new ArrayRealVector(new double[] { 25.3, 2.1, -3 }));
+		Alternative alt = new Alternative("Slackware");
+		m.addAlternative(alt);
+		alternatives.add(alt);
+		assertEquals(alternatives, m.getAlternatives());
+		assertEquals(new ArrayRealVector(new double[] { 25.3, 2.1, -3, 0.0 }), m.getMeanVector());
+		assertArrayEquals(new double[] { 0.0, 0.0 }, m.getLoadings().getRow(3), 0.0);
+		assertEquals(1.0, m.getVariances().getEntry(3), 0.0);
+		
+		Alternative del = alternatives.get(1);
+		alternatives.remove(del);
+		m.deleteAlternative(del);
+		assertEquals(alternatives, m.getAlternatives());
+		assertEquals(new ArrayRealVector(new double[] { 25.3, -3, 0.0 }), m.getMeanVector());
+		assertArrayEquals(new double[] { 0.0, -1.0 }, m.getLoadings().getRow(1), 0.0);
+		
+		List<Alternative> reordered = Arrays.asList(alternatives.get(1), alternatives.get(2), alternatives.get(0));
+		m.reorderAlternatives(reordered);
+		assertEquals(reordered, m.getAlternatives());
+		assertEquals(new ArrayRealVector(new double[] { -3, 0.0, 25.3 }), m.getMeanVector());
+		assertArrayEquals(new double[] { 1.0, 0.0 }, m.getLoadings().getRow(2), 0.0);
+	}
+	
+	@Test
+	public void testSampleCovariance() {
+		m.setLoadings(new Array2DRowRealMatrix(LOADINGS));
+		m.setVariances(new ArrayRealVector(new double[] { 0.1, 0.2, 0.3 }));
+		RealVector mean = new ArrayRealVector(new double[] { 25.3, 2.1, -3 });
+		m.setMeanVector(mean);
+		
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		double[][] target = new double[2][3];
+		StorelessCovariance cov = new StorelessCovariance(3);
+		double[] sum = new double[3];
+		int n = 20000;
+		for (int i = 0; i < n; ++i) {
+			m.sample(random, target, 1);
+			cov.increment(target[1]);
+			for (int j = 0; j < 3; ++j) {
+				sum[j] += target[1][j];
+			}
+		}
+		assertArrayEquals(new double[3], target[0], 0.0);
+		for (int j = 0; j < 3; ++j) {
+			assertEquals(mean.getEntry(j), sum[j] / n, 0.03);
+		}
+		double[][] expected = m.getCovarianceMatrix().getData();
+		for (int j = 0; j < 3; ++j) {
+			assertArrayEquals(expected[j], cov.getData()[j], 0.05);
+		}
+	}
+	
+	@Test
+	public void testGetRange() {
+		m.setLoadings(new Array2DRowRealMatrix(LOADINGS));
+		m.setMeanVector(new ArrayRealVector(new double[] { 25.3, 2.1, -3 }));
+		Interval interval = m.getRange();
+		assertEquals(25.3 + 1.96 * Math.sqrt(2.0), interval.getEnd(), 1E-9);
+		assertEquals(-3 - 1.96 * Math.sqrt(2.0), interval.getStart(), 1E-9);
+	}
+	
+	@Test
+	public void testDeepCopy() {
+		m.setLoadings(new Array2DRowRealMatrix(LOADINGS));
+		m.setMeanVector(new ArrayRealVector(new double[] { 666, 8, 665 }));
+		List<Alternative> newAlts = new ArrayList<Alternative>();
+		for (Alternative a : alternatives) {
+			newAlts.add(a.deepCopy());
+		}
+		FactorGaussianCriterionMeasurement clone = m.deepCopy(newAlts);
+		assertNotSame(m, clone);
+		assertEquals(newAlts, clone.getAlternatives());
+		assertEquals(m.getMeanVector(), clone.getMeanVector());
+		assertEquals(m.getLoadings(), clone.getLoadings());
+		assertNotSame(m.getLoadings(), clone.getLoadings());
+		assertEquals(m.getVariances(), clone.getVariances());
+	}
+}
@@ -26,7 +26,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -78,6 +80,40 @@ public class ImpactMatrixTest {
 		assertEquals(crit, m.getCriteria());
 	}
 	
+	@Test
+	public void testBulkConstructor() {
+		OrdinalCriterion c3 = new OrdinalCriterion("c3");
+		crit.add(c3);
+		Rank r1 = new Rank(2);
+		Rank r2 = new Rank(1);
+		Measurement[][] meas = new Measurement[][] {
+				{ new Interval(0.0, 1.0), new ExactMeasurement(3.0) },
+				{ new ExactMeasurement(2.0), new ExactMeasurement(2.0) },
+				{ r1, r2 } };
+		ImpactMatrix m = new ImpactMatrix(alts, crit, meas);
+		assertEquals(alts, m.getAlternatives());
+		assertEquals(crit, m.getCriteria());
+		assertEquals(new ExactMeasurement(3.0), m.getMeasurement(c1, a2));
+		assertEquals(new Interval(0.0, 3.0), c1.getScale());
+		assertEquals(new Interval(2.0, 2.0), c2.getScale());
+		
+		r2.setRank(2);
+		assertEquals(new Rank(1), m.getMeasurement(c3, a1));
+
+		ImpactMatrixListener mock = EasyMock.createMock(ImpactMatrixListener.class);
+		mock.measurementChanged();
+		EasyMock.replay(mock);
+		m.addListener(mock);
+		((ExactMeasurement) m.getMeasurement(c2, a1)).setValue(5.0);
+		EasyMock.verify(mock);
+		assertEquals(new Interval(2.0, 5.0), c2.getScale());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testBulkConstructorInvalidDimensions() {
+		new ImpactMatrix(alts, crit, new Measurement[2][1]);
+	}
+	
 	@Test
 	public void testAddAlternative() {
 		Alternative a = new Alternative("a");
@@ -232,6 +268,45 @@ public class ImpactMatrixTest {
 		assertEquals(new Interval(0.0, 10.0), c1.getScale());
 	}
 	
+	@Test
+	public void testScalesTrackMeasurementChanges() {
+		m = new ImpactMatrix(alts, crit);
+		Interval low = new Interval(0.0, 1.0);
+		Interval high = new Interval(2.0, 10.0);
+		m.setMeasurement(c1, a1, low);
+		m.setMeasurement(c1, a2, high);
+		m.setMeasurement(c2, a1, new ExactMeasurement(1.0));
+		
+		PropertyChangeListener l = EasyMock.createMock(PropertyChangeListener.class);
+		EasyMock.replay(l);
+		c2.addPropertyChangeListener(l);
+		high.setEnd(4.0);
+		assertEquals(new Interval(0.0, 4.0), c1.getScale());
+		high.setStart(-1.0);
+		low.setEnd(5.0);
+		assertEquals(new Interval(-1.0, 5.0), c1.getScale());
+		m.setMeasurement(c1, a2, new ExactMeasurement(0.5));
+		assertEquals(new Interval(0.0, 5.0), c1.getScale());
+		EasyMock.verify(l);
+		c2.removePropertyChangeListener(l);
+		
+		// a measurement in two cells updates both
+		m.setMeasurement(c2, a2, low);
+		low.setStart(-2.0);
+		assertEquals(new Interval(-2.0, 5.0), c1.getScale());
+		assertEquals(new Interval(-2.0, 5.0), c2.getScale());
+	}
+	
+	@Test
+	public void testSerializationTracksScales() throws Exception {
+		m = new ImpactMatrix(alts, crit);
+		m.setMeasurement(c1, a1, new Interval(0.0, 1.0));
+		ImpactMatrix nm = JUnitUtil.serializeObject(m);
+		ScaleCriterion nc1 = (ScaleCriterion) nm.getCriteria().get(0);
+		((Interval) nm.getMeasurement(nc1, nm.getAlternatives().get(0))).setEnd(3.0);
+		assertEquals(new Interval(0.0, 3.0), nc1.getScale());
+	}
+	
 	@Test
 	public void testMeasurementListenerFiresOnSet() {
 		ImpactMatrixListener mock = EasyMock.createMock(ImpactMatrixListener.class);
@@ -352,6 +427,50 @@ public class ImpactMatrixTest {
 		assertEquals(new Integer(1), r.getRank());
 	}
 	
+	@Test
+	public void testGetMeasurementByPosition() {
+		m = new ImpactMatrix(alts, crit);
+		ExactMeasurement meas = new ExactMeasurement(1.0);
+		m.setMeasurement(c2, a1, meas);
+		assertEquals(meas, m.getMeasurement(1, 0));
+		m.reorderAlternatives(Arrays.asList(a2, a1));
+		m.reorderCriteria(Arrays.<Criterion>asList(c2, c1));
+		assertEquals(meas, m.getMeasurement(0, 1));
+		assertEquals(meas, m.getMeasurement(c2, a1));
+	}
+	
+	@Test
+	public void testDeleteAndAddKeepsOtherMeasurements() {
+		m = new ImpactMatrix(alts, crit);
+		m.setMeasurement(c1, a2, new ExactMeasurement(2.0));
+		m.setMeasurement(c1, a1, new ExactMeasurement(5.0));
+		m.deleteAlternative(a1);
+		assertEquals(new Interval(2.0, 2.0), c1.getScale());
+		
+		// the freed slot is reused without affecting the remaining measurements
+		Alternative a3 = new Alternative("a3");
+		m.addAlternative(a3);
+		m.deleteCriterion(c2);
+		ScaleCriterion c3 = new ScaleCriterion("c3");
+		m.addCriterion(c3, true);
+		assertEquals(new ExactMeasurement(2.0), m.getMeasurement(c1, a2));
+		assertEquals(new Interval(), m.getMeasurement(c1, a3));
+		assertEquals(new Interval(), m.getMeasurement(c3, a2));
+		assertEquals(new Interval(0.0, 2.0), c1.getScale());
+	}
+	
+	@Test
+	public void testGrowsBeyondInitialCapacity() {
+		for (int i = 0; i < 20; ++i) {
+			m.addAlternative(new Alternative("a" + i));
+			m.addCriterion(new ScaleCriterion("c" + i), true);
+		}
+		m.setMeasurement(m.getCriteria().get(19), m.getAlternatives().get(19), new ExactMeasurement(3.0));
+		assertEquals(new ExactMeasurement(3.0), m.getMeasurement(19, 19));
+		assertEquals(new Interval(), m.getMeasurement(0, 19));
+		assertEquals(new Interval(), m.getMeasurement(19, 0));
+	}
+	
 	@Test
 	public void testSerializationConnectsRankListeners() throws Exception {
 		m.addAlternative(a1);
@@ -368,4 +487,54 @@ public class ImpactMatrixTest {
 		r1.setRank(2);
 		assertEquals(new Integer(1), r2.getRank());
 	}
+	
+	@Test
+	public void testSnapshotSharesUnchangedRows() {
+		m.addAlternative(a1);
+		m.addAlternative(a2);
+		m.addCriterion(c1, true);
+		m.addCriterion(c2, true);
+		m.setMeasurement(c1, a1, new ExactMeasurement(1.0));
+		
+		ImpactMatrix s1 = m.snapshot(crit, alts);
+		assertTrue(s1.isSnapshot());
+		assertEquals(new ExactMeasurement(1.0), s1.getMeasurement(c1, a1));
+		assertFalse(s1.getMeasurement(c1, a1) == m.getMeasurement(c1, a1));
+		ImpactMatrix s2 = m.snapshot(crit, alts);
+		assertTrue(s1.getMeasurement(c1, a1) == s2.getMeasurement(c1, a1));
+		
+		((Interval) m.getMeasurement(c2, a2)).setEnd(2.0);
+		ImpactMatrix s3 = m.snapshot(crit, alts);
+		assertTrue(s2.getMeasurement(c1, a1) == s3.getMeasurement(c1, a1));
+		assertFalse(s2.getMeasurement(c2, a1) == s3.getMeasurement(c2, a1));
+		assertEquals(new Interval(0.0, 2.0), s3.getMeasurement(c2, a2));
+		assertEquals(new Interval(0.0, 0.0), s2.getMeasurement(c2, a2));
+		
+		List<Alternative> reordered = Arrays.asList(a2, a1);
+		m.reorderAlternatives(reordered);
+		ImpactMatrix s4 = m.snapshot(crit, reordered);
+		assertEquals(new ExactMeasurement(1.0), s4.getMeasurement(0, 1));
+	}
+	
+	@Test
+	public void testSnapshotCopiesRelativeRows() {
+		m.addAlternative(a1);
+		m.addCriterion(c1, true);
+		m.setMeasurement(c1, a1, new RelativeNormalMeasurement(m.getBaseline(c1), new GaussianMeasurement(0.0, 1.0)));
+		List<Criterion> oneCrit = Collections.<Criterion>singletonList(c1);
+		List<Alternative> oneAlt = Collections.singletonList(a1);
+		
+		ImpactMatrix s1 = m.snapshot(oneCrit, oneAlt);
+		ImpactMatrix s2 = m.snapshot(oneCrit, oneAlt);
+		RelativeNormalMeasurement r1 = (RelativeNormalMeasurement) s1.getMeasurement(c1, a1);
+		assertFalse(r1 == s2.getMeasurement(c1, a1));
+		assertTrue(r1.getBaseline() == s1.getBaseline(c1));
+		assertFalse(r1.getBaseline() == m.getBaseline(c1));
+	}
+	
+	@Test(expected=UnsupportedOperationException.class)
+	public void testSnapshotCannotBeEdited() {
+		m.addCriterion(c1, true);
+		m.snapshot(Collections.<Criterion>singletonList(c1), Collections.<Alternative>emptyList()).addAlternative(a1);
+	}
 }
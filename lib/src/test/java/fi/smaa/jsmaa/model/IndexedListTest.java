@@ -0,0 +1,103 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.drugis.common.JUnitUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedListTest {
+	
+	private IndexedList<Alternative> list;
+	private Alternative a1;
+	private Alternative a2;
+	private Alternative a3;
+
+	@Before
+	public void setUp() {
+		a1 = new Alternative("a1");
+		a2 = new Alternative("a2");
+		a3 = new Alternative("a3");
+		list = new IndexedList<Alternative>(Arrays.asList(a1, a2, a3));
+	}
+	
+	private void assertIndexed(List<Alternative> expected) {
+		assertEquals(expected, list);
+		for (int i = 0; i < expected.size(); ++i) {
+			assertEquals(i, list.indexOf(expected.get(i)));
+			assertTrue(list.contains(expected.get(i)));
+		}
+	}
+	
+	@Test
+	public void testIndexOf() {
+		assertIndexed(Arrays.asList(a1, a2, a3));
+		assertEquals(-1, list.indexOf(new Alternative("a1")));
+		assertFalse(list.contains(new Alternative("a1")));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testAddDuplicate() {
+		list.add(a2);
+	}
+	
+	@Test
+	public void testInsertAndRemove() {
+		Alternative a4 = new Alternative("a4");
+		list.add(1, a4);
+		assertIndexed(Arrays.asList(a1, a4, a2, a3));
+		assertTrue(list.remove(a1));
+		assertFalse(list.remove(a1));
+		assertEquals(-1, list.indexOf(a1));
+		assertIndexed(Arrays.asList(a4, a2, a3));
+		list.subList(1, 3).clear();
+		assertIndexed(Arrays.asList(a4));
+		assertEquals(-1, list.indexOf(a3));
+		list.clear();
+		assertTrue(list.isEmpty());
+		assertFalse(list.contains(a4));
+	}
+	
+	@Test
+	public void testPermuteInPlace() {
+		Collections.reverse(list);
+		assertIndexed(Arrays.asList(a3, a2, a1));
+		Collections.sort(list);
+		assertIndexed(Arrays.asList(a1, a2, a3));
+	}
+	
+	@Test
+	public void testSerialization() throws Exception {
+		IndexedList<Alternative> copy = JUnitUtil.serializeObject(list);
+		assertEquals(3, copy.size());
+		assertEquals(2, copy.indexOf(copy.get(2)));
+	}
+}
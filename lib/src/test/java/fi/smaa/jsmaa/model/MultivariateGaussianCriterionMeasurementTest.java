@@ -205,4 +205,76 @@ public class MultivariateGaussianCriterionMeasurementTest {
 		assertEquals(m.getCovarianceMatrix(), clone.getCovarianceMatrix());
 		assertNotSame(m.getCovarianceMatrix(), clone.getCovarianceMatrix());
 	}
+	
+	@Test
+	public void testSampleAfterMeanChange() {
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		m.setCovarianceMatrix(new Array2DRowRealMatrix(new double[3][3]));
+		double[][] target = new double[1][3];
+		m.sample(random, target, 0);
+		assertArrayEquals(new double[3], target[0], 0.0);
+		
+		double[] mean = new double[] { 25.3, 2.1, -3 };
+		m.setMeanVector(new ArrayRealVector(mean));
+		m.sample(random, target, 0);
+		assertArrayEquals(mean, target[0], 0.0);
+	}
+	
+	@Test
+	public void testSampleAfterCovarianceChange() {
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		m.setMeanVector(new ArrayRealVector(new double[] { 1.0, 2.0, 3.0 }));
+		double[][] target = new double[1][3];
+		m.sample(random, target, 0);
+		assertFalse(target[0][0] == 1.0);
+		
+		m.setCovarianceMatrix(new Array2DRowRealMatrix(new double[3][3]));
+		m.sample(random, target, 0);
+		assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, target[0], 0.0);
+	}
+	
+	@Test
+	public void testDeepCopySamples() {
+		m.setMeanVector(new ArrayRealVector(new double[] { 666, 8, 665 }));
+		m.setCovarianceMatrix(MatrixUtils.createRealDiagonalMatrix(new double[] { 4, 3, 2 }));
+		MultivariateGaussianCriterionMeasurement clone = m.deepCopy(alternatives);
+		
+		double[][] a = new double[1][3];
+		double[][] b = new double[1][3];
+		m.sample(RandomUtil.createWithSeed(1L), a, 0);
+		clone.sample(RandomUtil.createWithSeed(1L), b, 0);
+		assertArrayEquals(a[0], b[0], 0.0);
+	}
+	
+	@Test
+	public void testSampleAfterStructuralEdits() {
+		RandomUtil random = RandomUtil.createWithSeed(1L);
+		m.setCovarianceMatrix(MatrixUtils.createRealDiagonalMatrix(new double[] { 0.0, 1.0, 0.0 }));
+		m.setMeanVector(new ArrayRealVector(new double[] { 1.0, 2.0, 3.0 }));
+		double[][] target = new double[1][3];
+		m.sample(random, target, 0);
+		
+		m.deleteAlternative(alternatives.get(1));
+		target = new double[1][2];
+		m.sample(random, target, 0);
+		assertArrayEquals(new double[] { 1.0, 3.0 }, target[0], 0.0);
+		
+		m.reorderAlternatives(Arrays.asList(alternatives.get(2), alternatives.get(0)));
+		m.sample(random, target, 0);
+		assertArrayEquals(new double[] { 3.0, 1.0 }, target[0], 0.0);
+		
+		m.addAlternative(new Alternative("Slackware"));
+		target = new double[1][3];
+		m.sample(random, target, 0);
+		assertEquals(3.0, target[0][0], 0.0);
+		assertEquals(1.0, target[0][1], 0.0);
+		assertFalse(target[0][2] == 0.0);
+	}
+	
+	@Test
+	public void testDeleteMissingAlternative() {
+		m.deleteAlternative(new Alternative("Gentoo"));
+		assertEquals(3, m.getAlternatives().size());
+		assertEquals(3, m.getCovarianceMatrix().getRowDimension());
+	}
 }
@@ -29,12 +29,15 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.beans.PropertyChangeListener;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.MatrixUtils;
+import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -73,6 +76,16 @@ public class PerCriterionMeasurementsTest {
 		assertEquals(m.getCriterionMeasurement(criteria.get(1)).getRange(), ((ScaleCriterion)criteria.get(1)).getScale());
 	}
 	
+	@Test
+	public void testChangeMeasurementOnlyUpdatesOwnScale() {
+		PropertyChangeListener l = EasyMock.createMock(PropertyChangeListener.class);
+		EasyMock.replay(l);
+		criteria.get(1).addPropertyChangeListener(l);
+		((MultivariateGaussianCriterionMeasurement) m.getCriterionMeasurement(criteria.get(0))).setMeanVector(new ArrayRealVector(new double[] {2.0, 1.0, 1.0}));
+		EasyMock.verify(l);
+		assertEquals(m.getCriterionMeasurement(criteria.get(0)).getRange(), ((ScaleCriterion)criteria.get(0)).getScale());
+	}
+	
 	@Test
 	public void testChangeMeasurement() {
 		((MultivariateGaussianCriterionMeasurement) m.getCriterionMeasurement(criteria.get(0))).setMeanVector(new ArrayRealVector(new double[] {1.0, 1.0, 1.0}));
@@ -90,6 +103,17 @@ public class PerCriterionMeasurementsTest {
 		assertEquals(m.getCriterionMeasurement(criteria.get(0)).getRange(), ((ScaleCriterion)criteria.get(0)).getScale());
 	}
 	
+	@Test
+	public void testAddExistingAlternativeAndCriterion() {
+		CriterionMeasurement cm = m.getCriterionMeasurement(criteria.get(0));
+		m.addAlternative(alternatives.get(0));
+		m.addCriterion(criteria.get(0), true);
+		assertEquals(alternatives, m.getAlternatives());
+		assertEquals(criteria, m.getCriteria());
+		assertSame(cm, m.getCriterionMeasurement(criteria.get(0)));
+		assertEquals(alternatives, cm.getAlternatives());
+	}
+	
 	@Test
 	public void testDeleteAlternatives() {
 		((MultivariateGaussianCriterionMeasurement) m.getCriterionMeasurement(criteria.get(0))).setMeanVector(new ArrayRealVector(new double[] {1.0, -1.0, -1.0}));
@@ -0,0 +1,52 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RangeTrackerTest {
+	
+	@Test
+	public void testEmpty() {
+		assertEquals(new Interval(0.0, 0.0), new RangeTracker().getEnclosing());
+	}
+	
+	@Test
+	public void testAddRemove() {
+		RangeTracker t = new RangeTracker();
+		t.add(1.0, 2.0);
+		t.add(0.0, 3.0);
+		t.add(0.0, 3.0);
+		t.add(-1.0, 1.0);
+		assertEquals(new Interval(-1.0, 3.0), t.getEnclosing());
+		t.remove(-1.0, 1.0);
+		t.remove(0.0, 3.0);
+		assertEquals(new Interval(0.0, 3.0), t.getEnclosing());
+		t.remove(0.0, 3.0);
+		assertEquals(new Interval(1.0, 2.0), t.getEnclosing());
+		t.remove(1.0, 2.0);
+		assertEquals(new Interval(0.0, 0.0), t.getEnclosing());
+	}
+}
@@ -202,4 +202,83 @@ public class RankSetTest {
 		newSet.getRank(newAltA).setRank(1);
 		assertEquals(new Integer(2), newSet.getRank(newAltB).getRank());
 	}
+	
+	@Test
+	public void testMaxRank() {
+		assertEquals(0, rs.getMaxRank());
+		rs.addObject(alta);
+		rs.addObject(altb);
+		rs.addObject(altc);
+		assertEquals(3, rs.getMaxRank());
+		rs.getRank(altc).setRank(1);
+		assertEquals(3, rs.getMaxRank());
+		rs.deleteObject(altb);
+		assertEquals(2, rs.getMaxRank());
+		rs.deleteObject(altc);
+		rs.deleteObject(alta);
+		assertEquals(0, rs.getMaxRank());
+	}
+	
+	@Test
+	public void testLoadRanksOutOfOrder() {
+		// as when reading a file: each object is added and then given its final rank
+		rs.addObject(alta);
+		rs.getRank(alta).setRank(3);
+		assertEquals(3, rs.getMaxRank());
+		rs.addObject(altb);
+		rs.getRank(altb).setRank(1);
+		rs.addObject(altc);
+		rs.getRank(altc).setRank(2);
+		assertEquals(new Integer(3), rs.getRank(alta).getRank());
+		assertEquals(new Integer(1), rs.getRank(altb).getRank());
+		assertEquals(new Integer(2), rs.getRank(altc).getRank());
+		assertEquals(3, rs.getMaxRank());
+		
+		rs.getRank(altb).setRank(3);
+		assertEquals(new Integer(1), rs.getRank(alta).getRank());
+	}
+	
+	@Test
+	public void testDeleteObjectFiresShiftedRanks() {
+		rs.addObject(alta);
+		rs.addObject(altb);
+		rs.addObject(altc);
+		final int[] fired = new int[1];
+		PropertyChangeListener l = new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent evt) {
+				++fired[0];
+			}
+		};
+		rs.getRank(alta).addPropertyChangeListener(l);
+		rs.getRank(altc).addPropertyChangeListener(l);
+		rs.deleteObject(altb);
+		assertEquals(1, fired[0]);
+		assertEquals(new Integer(2), rs.getRank(altc).getRank());
+		
+		rs.getRank(altc).setRank(1);
+		assertEquals(new Integer(2), rs.getRank(alta).getRank());
+		assertEquals(3, fired[0]);
+	}
+	
+	@Test
+	public void testManyObjects() {
+		int n = 20000;
+		Alternative[] alts = new Alternative[n];
+		for (int i = 0; i < n; ++i) {
+			alts[i] = new Alternative("a" + i);
+			rs.addObject(alts[i]);
+		}
+		for (int i = 0; i < n / 2; ++i) {
+			rs.getRank(alts[i]).setRank(n - i);
+		}
+		for (int i = 0; i < n; ++i) {
+			assertEquals(new Integer(n - i), rs.getRank(alts[i]).getRank());
+		}
+		for (int i = 1; i < 100; ++i) {
+			rs.deleteObject(alts[n - i]);
+		}
+		assertEquals(n - 99, rs.getMaxRank());
+		assertEquals(new Integer(n - 99), rs.getRank(alts[0]).getRank());
+		assertEquals(new Integer(1), rs.getRank(alts[n - 100]).getRank());
+	}
 }
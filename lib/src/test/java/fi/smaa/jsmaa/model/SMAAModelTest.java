@@ -31,6 +31,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
@@ -327,4 +329,157 @@ public class SMAAModelTest {
 		assertEquals(newList, m.getCriteria());
 		assertEquals(newList, ((IndependentMeasurements) m.getMeasurements()).getCriteria());
 	}
+	
+	private static class EventRecorder implements SMAAModelListener {
+		final List<ModelChangeEvent> events = new ArrayList<ModelChangeEvent>();
+		public void modelChanged(ModelChangeEvent ev) {
+			events.add(ev);
+		}
+	}
+	
+	@Test
+	public void testTransactionCoalescesEvents() {
+		model.addAlternative(a1);
+		model.addAlternative(a2);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		ImpactMatrix m = (ImpactMatrix) model.getMeasurements();
+		EventRecorder rec = new EventRecorder();
+		model.addModelListener(rec);
+		final int[] scaleUpdates = new int[1];
+		c1.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent evt) {
+				if (evt.getPropertyName().equals(ScaleCriterion.PROPERTY_SCALE)) {
+					++scaleUpdates[0];
+				}
+			}
+		});
+		
+		model.beginTransaction();
+		Interval ival = new Interval(0.0, 1.0);
+		m.setMeasurement(c1, a1, ival);
+		m.setMeasurement(c1, a2, new Interval(1.0, 4.0));
+		ival.setEnd(2.0);
+		model.beginTransaction();
+		model.setName("bulk");
+		model.commitTransaction();
+		assertTrue(model.isInTransaction());
+		assertTrue(rec.events.isEmpty());
+		assertEquals(0, scaleUpdates[0]);
+		assertEquals(new Interval(0.0, 0.0), c1.getScale());
+		model.commitTransaction();
+		
+		assertFalse(model.isInTransaction());
+		assertEquals(new Interval(0.0, 4.0), c1.getScale());
+		assertEquals(1, scaleUpdates[0]);
+		assertEquals(1, rec.events.size());
+		ModelChangeEvent ev = rec.events.get(0);
+		assertTrue(ev.hasType(ModelChangeEvent.MEASUREMENT_TYPE));
+		assertTrue(ev.hasType(ModelChangeEvent.MEASUREMENT));
+		assertFalse(ev.hasType(ModelChangeEvent.ALTERNATIVES));
+		assertEquals(ev.getTypes().iterator().next().intValue(), ev.getType());
+		
+		// events fire as usual after the transaction
+		m.setMeasurement(c2, a1, new ExactMeasurement(1.0));
+		assertTrue(rec.events.size() > 1);
+	}
+	
+	@Test
+	public void testEmptyTransactionFiresNothing() {
+		SMAAModelListener mock = createMock(SMAAModelListener.class);
+		model.addModelListener(mock);
+		replay(mock);
+		model.beginTransaction();
+		model.commitTransaction();
+		verify(mock);
+	}
+	
+	@Test
+	public void testSnapshot() {
+		model.addAlternative(a1);
+		model.addAlternative(a2);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, a1, new Interval(0.0, 6.0));
+		
+		SMAAModel s1 = model.snapshot();
+		assertTrue(s1.isSnapshot());
+		assertFalse(model.isSnapshot());
+		assertEquals(model.getName(), s1.getName());
+		assertEquals(2, s1.getAlternatives().size());
+		assertEquals(2, s1.getCriteria().size());
+		assertFalse(s1.getAlternatives().get(0) == a1);
+		assertEquals("alt1", s1.getAlternatives().get(0).getName());
+		ScaleCriterion sc1 = (ScaleCriterion) s1.getCriteria().get(0);
+		assertEquals(new Interval(0.0, 6.0), sc1.getScale());
+		assertEquals(new Interval(0.0, 6.0), ((IndependentMeasurements) s1.getMeasurements()).getMeasurement(sc1, s1.getAlternatives().get(0)));
+		assertFalse(model.getPreferenceInformation() == s1.getPreferenceInformation());
+		
+		SMAAModel s2 = model.snapshot();
+		assertTrue(s1.getAlternatives().get(0) == s2.getAlternatives().get(0));
+		assertTrue(s1.getCriteria().get(0) == s2.getCriteria().get(0));
+		
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c2, a2, new Interval(1.0, 2.0));
+		SMAAModel s3 = model.snapshot();
+		assertTrue(s2.getCriteria().get(0) == s3.getCriteria().get(0));
+		assertFalse(s2.getCriteria().get(1) == s3.getCriteria().get(1));
+		assertEquals(new Interval(0.0, 2.0), ((ScaleCriterion) s3.getCriteria().get(1)).getScale());
+	}
+	
+	@Test
+	public void testSnapshotFollowsRenames() {
+		model.addAlternative(a1);
+		model.addCriterion(c1);
+		SMAAModel s = model.snapshot();
+		a1.setName("renamed");
+		c1.setName("crit");
+		assertEquals("renamed", s.getAlternatives().get(0).getName());
+		assertEquals("crit", s.getCriteria().get(0).getName());
+		assertTrue(s.getCriteria().get(0) == model.snapshot().getCriteria().get(0));
+	}
+	
+	@Test
+	public void testSnapshotReleasesDeletedEntities() {
+		model.addAlternative(a1);
+		model.addAlternative(a2);
+		model.addCriterion(c1);
+		SMAAModel s = model.snapshot();
+		assertEquals(3, model.getSnapshotCopies().size());
+		
+		model.deleteAlternative(a2);
+		model.snapshot();
+		assertEquals(2, model.getSnapshotCopies().size());
+		a2.setName("deleted");
+		assertEquals("alt2", s.getAlternatives().get(1).getName());
+	}
+	
+	@Test(expected=UnsupportedOperationException.class)
+	public void testSnapshotCannotBeEdited() {
+		model.snapshot().addAlternative(a1);
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testCommitWithoutTransaction() {
+		model.commitTransaction();
+	}
+	
+	@Test
+	public void testSMAATRITransactionBatchesProfiles() {
+		SMAATRIModel tri = new SMAATRIModel("tri");
+		OutrankingCriterion c = new OutrankingCriterion("c", true, new ExactMeasurement(0.0), new ExactMeasurement(0.0));
+		tri.addCriterion(c);
+		Category cat1 = new Category("cat1");
+		tri.addCategory(cat1);
+		tri.addCategory(new Category("cat2"));
+		EventRecorder rec = new EventRecorder();
+		tri.addModelListener(rec);
+		tri.beginTransaction();
+		tri.setCategoryUpperBound(c, cat1, new ExactMeasurement(1.0));
+		tri.addAlternative(a1);
+		assertTrue(rec.events.isEmpty());
+		tri.commitTransaction();
+		assertEquals(1, rec.events.size());
+		assertTrue(rec.events.get(0).hasType(ModelChangeEvent.ALTERNATIVES));
+		assertTrue(rec.events.get(0).hasType(ModelChangeEvent.MEASUREMENT_TYPE));
+	}
 }
@@ -28,6 +28,7 @@ import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -41,6 +42,8 @@ import org.drugis.common.JUnitUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import fi.smaa.common.RandomUtil;
+
 public class SMAATRIModelTest {
 
 	private SMAATRIModel model;
@@ -172,6 +175,51 @@ public class SMAATRIModelTest {
 		}
 	}	
 	
+	@Test
+	public void testSnapshot() {
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		model.addCategory(cat1);
+		model.addCategory(cat2);
+		model.setRule(false);
+		model.setCategoryUpperBound(c1, cat1, new ExactMeasurement(0.5));
+		
+		SMAATRIModel s = model.snapshot();
+		assertTrue(s.isSnapshot());
+		assertFalse(s.getRule());
+		assertEquals(model.getLambda(), s.getLambda());
+		assertFalse(model.getLambda() == s.getLambda());
+		assertEquals(2, s.getCategories().size());
+		assertEquals(new ExactMeasurement(0.5), 
+				s.getCategoryUpperBound((OutrankingCriterion) s.getCriteria().get(0), s.getCategories().get(0)));
+		
+		cat1.setName("renamed");
+		assertEquals("renamed", s.getCategories().get(0).getName());
+		assertTrue(s.getCategories().get(1) == model.snapshot().getCategories().get(1));
+	}
+	
+	@Test
+	public void testOverlappingSnapshotsHaveOwnThresholds() throws Exception {
+		model.addCriterion(c1);
+		c1.setIndifMeasurement(new Interval(0.0, 1.0));
+		c1.setPrefMeasurement(new Interval(1.0, 2.0));
+		
+		SMAATRIModel s1 = model.snapshot();
+		SMAATRIModel s2 = model.snapshot();
+		OutrankingCriterion t1 = (OutrankingCriterion) s1.getCriteria().get(0);
+		OutrankingCriterion t2 = (OutrankingCriterion) s2.getCriteria().get(0);
+		assertFalse(t1 == t2);
+		
+		double indif = t2.getIndifferenceThreshold();
+		double pref = t2.getPreferenceThreshold();
+		RandomUtil random = RandomUtil.createWithFixedSeed();
+		for (int i=0;i<10;i++) {
+			t1.sampleThresholds(random);
+		}
+		assertEquals(indif, t2.getIndifferenceThreshold(), 0.0);
+		assertEquals(pref, t2.getPreferenceThreshold(), 0.0);
+	}
+	
 	@Test
 	public void testDeleteCategory() {
 		model.addCategory(cat1);
@@ -0,0 +1,255 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Category;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.LogitNormalMeasurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.OrdinalPreferenceInformation;
+import fi.smaa.jsmaa.model.OutrankingCriterion;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeGaussianMeasurementBase;
+import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+
+public class BinaryModelFormatTest {
+	
+	private SMAAModel model;
+	private Alternative a1;
+	private Alternative a2;
+	private ScaleCriterion c1;
+	private ScaleCriterion c2;
+	private OrdinalCriterion c3;
+	private ScaleCriterion c4;
+
+	@Before
+	public void setUp() throws Exception {
+		model = new SMAAModel("model");
+		a1 = new Alternative("a1");
+		a2 = new Alternative("a2");
+		c1 = new ScaleCriterion("c1", true);
+		c2 = new ScaleCriterion("c2", false);
+		c3 = new OrdinalCriterion("c3");
+		c4 = new ScaleCriterion("c4");
+		model.addAlternative(a1);
+		model.addAlternative(a2);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		model.addCriterion(c3);
+		model.addCriterion(c4);
+		ImpactMatrix m = (ImpactMatrix) model.getMeasurements();
+		m.setMeasurement(c1, a1, new GaussianMeasurement(1.0, 0.5));
+		m.setMeasurement(c1, a2, new BetaMeasurement(2.0, 3.0, 0.0, 10.0));
+		m.setMeasurement(c2, a1, new LogNormalMeasurement(0.1, 0.2));
+		m.setMeasurement(c2, a2, new DiscreteMeasurement(Arrays.asList(new Point2D(1.0, 0.25), new Point2D(3.0, 0.75))));
+		((Rank) m.getMeasurement(c3, a2)).setRank(1);
+		BaselineGaussianMeasurement base = new BaselineGaussianMeasurement(0.3, 0.1);
+		m.setBaseline(c4, base);
+		m.setMeasurement(c4, a1, new RelativeNormalMeasurement(base, new GaussianMeasurement(0.2, 0.05)));
+		m.setMeasurement(c4, a2, new RelativeLogitNormalMeasurement(base, new GaussianMeasurement(-0.2, 0.05)));
+		c1.addValuePoint(new Point2D(1.0, 0.3));
+		
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(model.getCriteria());
+		pref.setMeasurement(c1, new Interval(0.1, 0.3));
+		pref.setMeasurement(c2, new ExactMeasurement(0.2));
+		model.setPreferenceInformation(pref);
+	}
+
+	@Test
+	public void testRoundTripEqualsXML() throws Exception {
+		SMAAModel nmodel = roundTrip(model);
+		assertEquals(toXML(model), toXML(nmodel));
+	}
+	
+	@Test
+	public void testRoundTripStructure() throws Exception {
+		SMAAModel nmodel = roundTrip(model);
+		ImpactMatrix m = (ImpactMatrix) nmodel.getMeasurements();
+		assertEquals(nmodel.getAlternatives(), m.getAlternatives());
+		assertEquals(nmodel.getCriteria(), m.getCriteria());
+		assertTrue(nmodel.getCriteria().get(2) instanceof OrdinalCriterion);
+		ScaleCriterion nc1 = (ScaleCriterion) nmodel.getCriteria().get(0);
+		assertEquals(c1.getScale(), nc1.getScale());
+		assertEquals(c1.getValuePoints(), nc1.getValuePoints());
+		assertEquals(new Rank(2), m.getMeasurement(nmodel.getCriteria().get(2), nmodel.getAlternatives().get(0)));
+		
+		ScaleCriterion nc4 = (ScaleCriterion) nmodel.getCriteria().get(3);
+		BaselineGaussianMeasurement nbase = m.getBaseline(nc4);
+		assertEquals(new BaselineGaussianMeasurement(0.3, 0.1), nbase);
+		for (Alternative a : nmodel.getAlternatives()) {
+			assertSame(nbase, ((RelativeGaussianMeasurementBase) m.getMeasurement(nc4, a)).getBaseline());
+		}
+		assertEquals(new Interval(0.1, 0.3), ((CardinalPreferenceInformation) nmodel.getPreferenceInformation()).getMeasurement(nc1));
+	}
+	
+	@Test
+	public void testOrdinalPreferences() throws Exception {
+		OrdinalPreferenceInformation pref = new OrdinalPreferenceInformation(model.getCriteria());
+		pref.getMeasurement(c4).setRank(1);
+		pref.getMeasurement(c2).setRank(2);
+		model.setPreferenceInformation(pref);
+		SMAAModel nmodel = roundTrip(model);
+		assertEquals(pref.getRanks(), ((OrdinalPreferenceInformation) nmodel.getPreferenceInformation()).getRanks());
+	}
+	
+	@Test
+	public void testSMAATRIModel() throws Exception {
+		SMAATRIModel tri = new SMAATRIModel("tri");
+		tri.setRule(false);
+		tri.addAlternative(a1);
+		tri.addCategory(new Category("good"));
+		tri.addCategory(new Category("bad"));
+		OutrankingCriterion oc = new OutrankingCriterion("oc", false, new ExactMeasurement(1.0), new Interval(2.0, 3.0));
+		tri.addCriterion(oc);
+		tri.getLambda().setStart(0.7);
+		tri.setCategoryUpperBound(oc, tri.getCategories().get(0), new LogitNormalMeasurement(0.0, 1.0));
+		((ImpactMatrix) tri.getMeasurements()).setMeasurement(oc, a1, new Interval(1.0, 2.0));
+		
+		SMAAModel nmodel = roundTrip(tri);
+		assertTrue(nmodel instanceof SMAATRIModel);
+		assertEquals(toXML(tri), toXML(nmodel));
+		assertEquals(2, ((SMAATRIModel) nmodel).getCategories().size());
+	}
+	
+	@Test
+	public void testReadMappedFile() throws Exception {
+		File f = File.createTempFile("model", "." + BinaryModelFormat.FILE_EXTENSION);
+		f.deleteOnExit();
+		FileOutputStream fos = new FileOutputStream(f);
+		BinaryModelFormat.writeModel(model, fos);
+		fos.close();
+		assertTrue(BinaryModelFormat.isBinaryModel(f));
+		assertEquals(toXML(model), toXML(BinaryModelFormat.readModel(f)));
+	}
+	
+	@Test
+	public void testLargeModelMeasurementsInOrder() throws Exception {
+		SMAAModel big = new SMAAModel("big");
+		for (int i=0;i<200;i++) {
+			big.addAlternative(new Alternative("a" + i));
+		}
+		for (int i=0;i<10;i++) {
+			big.addCriterion(new ScaleCriterion("c" + i));
+		}
+		ImpactMatrix m = (ImpactMatrix) big.getMeasurements();
+		for (int c=0;c<10;c++) {
+			for (int a=0;a<200;a++) {
+				m.setMeasurement(big.getCriteria().get(c), big.getAlternatives().get(a), new ExactMeasurement((double) (c * 1000 + a)));
+			}
+		}
+		SMAAModel nmodel = roundTrip(big);
+		ImpactMatrix nm = (ImpactMatrix) nmodel.getMeasurements();
+		assertEquals(new ExactMeasurement(9199.0), nm.getMeasurement(nmodel.getCriteria().get(9), nmodel.getAlternatives().get(199)));
+		assertEquals(new Interval(9000.0, 9199.0), ((ScaleCriterion) nmodel.getCriteria().get(9)).getScale());
+	}
+	
+	@Test(expected=IOException.class)
+	public void testReadInvalidHeader() throws Exception {
+		BinaryModelFormat.readModel(new ByteArrayInputStream("<SMAA-2-model/>".getBytes("UTF-8")));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testReadTruncated() throws Exception {
+		byte[] data = toBinary(model);
+		BinaryModelFormat.readModel(new ByteArrayInputStream(Arrays.copyOf(data, data.length / 2)));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testReadCorruptBaselineIndex() throws Exception {
+		byte[] data = toBinary(model);
+		// the baseline of c4: criterion index, mean and standard deviation
+		byte[] baseline = ByteBuffer.allocate(20).putInt(3).putDouble(0.3).putDouble(0.1).array();
+		int offset = -1;
+		for (int i=0;offset < 0 && i<=data.length-baseline.length;i++) {
+			if (Arrays.equals(baseline, Arrays.copyOfRange(data, i, i + baseline.length))) {
+				offset = i;
+			}
+		}
+		assertTrue(offset >= 0);
+		ByteBuffer.wrap(data).putInt(offset, 7);
+		BinaryModelFormat.readModel(new ByteArrayInputStream(data));
+	}
+	
+	@Test
+	public void testIsBinaryModelFalseForXML() throws Exception {
+		File f = File.createTempFile("model", ".jsmaa");
+		f.deleteOnExit();
+		FileOutputStream fos = new FileOutputStream(f);
+		JSMAABinding.writeModel(model, fos);
+		fos.close();
+		assertFalse(BinaryModelFormat.isBinaryModel(f));
+	}
+	
+	@Test
+	public void testWriteIsDeterministic() throws Exception {
+		assertArrayEquals(toBinary(model), toBinary(roundTrip(model)));
+	}
+
+	private static SMAAModel roundTrip(SMAAModel m) throws IOException {
+		return BinaryModelFormat.readModel(new ByteArrayInputStream(toBinary(m)));
+	}
+
+	private static byte[] toBinary(SMAAModel m) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		BinaryModelFormat.writeModel(m, bos);
+		return bos.toByteArray();
+	}
+
+	private static String toXML(SMAAModel m) throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		JSMAABinding.writeModel(m, bos);
+		return bos.toString("UTF-8");
+	}
+}
@@ -0,0 +1,204 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.DiscreteMeasurement;
+import fi.smaa.jsmaa.model.ExactMeasurement;
+import fi.smaa.jsmaa.model.FullJointMeasurements;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.LogNormalMeasurement;
+import fi.smaa.jsmaa.model.MultivariateGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.PerCriterionMeasurements;
+import fi.smaa.jsmaa.model.Point2D;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+
+public class CSVMeasurementsReaderTest {
+	
+	private static FullJointMeasurements read(String text) throws IOException {
+		return new CSVMeasurementsReader(new StringReader(text)).read();
+	}
+
+	@Test
+	public void testReadImpactMatrix() throws IOException {
+		ImpactMatrix m = (ImpactMatrix) read(
+				"# generated\n" +
+				"alternative,criterion,type,p1,p2\n" +
+				"a1,c1,exact,1.5\n" +
+				"a2,c1,interval,0.0,2.0\n" +
+				"\n" +
+				"a1,c2,gaussian,1.0,0.5\n" +
+				"a2,c2,lognormal,0.1,0.2\n" +
+				"a1,c3,beta,2,3,0,10\n" +
+				"a2,c3,discrete,1,0.5,2,0.5\n");
+		
+		assertEquals(2, m.getAlternatives().size());
+		assertEquals(3, m.getCriteria().size());
+		Alternative a1 = m.getAlternatives().get(0);
+		Alternative a2 = m.getAlternatives().get(1);
+		assertEquals("a1", a1.getName());
+		assertEquals("a2", a2.getName());
+		Criterion c1 = m.getCriteria().get(0);
+		assertTrue(c1 instanceof ScaleCriterion);
+		assertEquals("c1", c1.getName());
+		assertEquals(new ExactMeasurement(1.5), m.getMeasurement(c1, a1));
+		assertEquals(new Interval(0.0, 2.0), m.getMeasurement(c1, a2));
+		assertEquals(new Interval(0.0, 2.0), ((ScaleCriterion) c1).getScale());
+		Criterion c2 = m.getCriteria().get(1);
+		assertEquals(new GaussianMeasurement(1.0, 0.5), m.getMeasurement(c2, a1));
+		assertEquals(new LogNormalMeasurement(0.1, 0.2), m.getMeasurement(c2, a2));
+		Criterion c3 = m.getCriteria().get(2);
+		assertEquals(new BetaMeasurement(2, 3, 0, 10), m.getMeasurement(c3, a1));
+		DiscreteMeasurement d = (DiscreteMeasurement) m.getMeasurement(c3, a2);
+		assertEquals(2, d.size());
+		assertEquals(new Point2D(2.0, 0.5), d.get(1));
+	}
+	
+	@Test
+	public void testReadTabSeparatedWithQuotesAndMissingCells() throws IOException {
+		ImpactMatrix m = (ImpactMatrix) read(
+				"\"a, 1\"\tc1\texact\t1.0\n" +
+				"a2\t\"c \"\"2\"\"\"\texact\t2.0\n");
+		
+		Alternative a1 = m.getAlternatives().get(0);
+		Alternative a2 = m.getAlternatives().get(1);
+		Criterion c1 = m.getCriteria().get(0);
+		Criterion c2 = m.getCriteria().get(1);
+		assertEquals("a, 1", a1.getName());
+		assertEquals("c \"2\"", c2.getName());
+		assertEquals(new Interval(), m.getMeasurement(c1, a2));
+		assertEquals(new Interval(), m.getMeasurement(c2, a1));
+		assertEquals(new ExactMeasurement(2.0), m.getMeasurement(c2, a2));
+	}
+	
+	@Test
+	public void testReadRanksAndRelativeMeasurements() throws IOException {
+		ImpactMatrix m = (ImpactMatrix) read(
+				"a1,ord,rank,2\n" +
+				"a2,ord,rank,1\n" +
+				"a1,rel,relnormal,0.5,0.1\n" +
+				",rel,baseline,1.0,0.2\n" +
+				"a2,rel,relnormal,-0.5,0.1\n");
+		
+		Criterion ord = m.getCriteria().get(0);
+		Criterion rel = m.getCriteria().get(1);
+		assertTrue(ord instanceof OrdinalCriterion);
+		assertEquals(new Rank(2), m.getMeasurement(ord, m.getAlternatives().get(0)));
+		assertEquals(new Rank(1), m.getMeasurement(ord, m.getAlternatives().get(1)));
+		
+		assertEquals(1.0, m.getBaseline(rel).getMean(), 0.0);
+		assertEquals(0.2, m.getBaseline(rel).getStDev(), 0.0);
+		RelativeNormalMeasurement r = (RelativeNormalMeasurement) m.getMeasurement(rel, m.getAlternatives().get(0));
+		assertSame(m.getBaseline(rel), r.getBaseline());
+		assertEquals(0.5, r.getRelative().getMean(), 0.0);
+	}
+	
+	@Test
+	public void testReadPerCriterionMeasurements() throws IOException {
+		PerCriterionMeasurements m = (PerCriterionMeasurements) read(
+				"a1,c1,mvgaussian,1.0,1.0\n" +
+				"a2,c1,mvgaussian,2.0,0.5,2.0\n" +
+				"a2,c2,mvgaussian,4.0,0.5,3.0\n" +
+				"a1,c2,mvgaussian,3.0,1.0\n");
+		
+		assertEquals(2, m.getAlternatives().size());
+		assertEquals(2, m.getCriteria().size());
+		MultivariateGaussianCriterionMeasurement c1 = (MultivariateGaussianCriterionMeasurement) m.getCriterionMeasurement(m.getCriteria().get(0));
+		assertEquals(2.0, c1.getMeanVector().getEntry(1), 0.0);
+		assertEquals(0.5, c1.getCovarianceMatrix().getEntry(0, 1), 0.0);
+		assertEquals(0.5, c1.getCovarianceMatrix().getEntry(1, 0), 0.0);
+		assertEquals(2.0, c1.getCovarianceMatrix().getEntry(1, 1), 0.0);
+		MultivariateGaussianCriterionMeasurement c2 = (MultivariateGaussianCriterionMeasurement) m.getCriterionMeasurement(m.getCriteria().get(1));
+		assertEquals(3.0, c2.getMeanVector().getEntry(0), 0.0);
+		assertEquals(3.0, c2.getCovarianceMatrix().getEntry(1, 1), 0.0);
+		assertEquals(m.getAlternatives(), c2.getAlternatives());
+	}
+	
+	@Test
+	public void testReadLargeFile() throws IOException {
+		File file = File.createTempFile("jsmaa", "." + CSVMeasurementsReader.TSV_EXTENSION);
+		file.deleteOnExit();
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		final int nAlts = 20000;
+		for (int i = 0; i < nAlts; ++i) {
+			out.write("alt" + i + "\tc1\texact\t" + i + "\n");
+			out.write("alt" + i + "\tc2\tgaussian\t" + i + "\t1.0\n");
+			out.write("alt" + i + "\tc3\trank\t" + (nAlts - i) + "\n");
+		}
+		out.close();
+		
+		ImpactMatrix m = (ImpactMatrix) CSVMeasurementsReader.read(file);
+		assertEquals(nAlts, m.getAlternatives().size());
+		assertEquals(3, m.getCriteria().size());
+		Alternative last = m.getAlternatives().get(nAlts - 1);
+		assertEquals(new ExactMeasurement(nAlts - 1.0), m.getMeasurement(m.getCriteria().get(0), last));
+		assertEquals(new Rank(1), m.getMeasurement(m.getCriteria().get(2), last));
+		assertEquals(new Interval(0.0, nAlts - 1.0), ((ScaleCriterion) m.getCriteria().get(0)).getScale());
+	}
+	
+	@Test
+	public void testInvalidRecords() {
+		String[] invalid = {
+				"a1,c1,exact\n",
+				"a1,c1,exact,x\n",
+				"a1,c1,interval,2,1\n",
+				"a1,c1,unknown,1\n",
+				"a1,c1,exact,1\na1,c1,exact,2\n",
+				"a1,c1,rank,1\na2,c1,exact,2\n",
+				"a1,c1,rank,1\na2,c1,rank,3\n",
+				"a1,c1,gaussian,0,-1\n",
+				"\"a1,c1,exact,1\n",
+				"a1,c1,mvgaussian,0,1\na2,c1,exact,1\n",
+				"a1,c1,mvgaussian,0,1\na2,c1,mvgaussian,0,1\n",
+				"a1,c1,mvgaussian,0,1\na2,c2,mvgaussian,0,1,1\n",
+		};
+		for (String text : invalid) {
+			try {
+				read(text);
+				fail("accepted " + text);
+			} catch (IOException e) {
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.model.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javolution.xml.stream.XMLStreamException;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.BetaMeasurement;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.FactorGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.MultivariateGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.OrdinalPreferenceInformation;
+import fi.smaa.jsmaa.model.OutrankingCriterion;
+import fi.smaa.jsmaa.model.PerCriterionMeasurements;
+import fi.smaa.jsmaa.model.Rank;
+import fi.smaa.jsmaa.model.RelativeGaussianCriterionMeasurement;
+import fi.smaa.jsmaa.model.RelativeNormalMeasurement;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+import fi.smaa.jsmaa.model.binary.BinaryModelFormat;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.PreferenceType;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAATRISimulation;
+
+public class ModelGeneratorTest {
+	
+	private static String toXml(SMAAModel model) throws XMLStreamException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JSMAABinding.writeModel(model, out);
+		return out.toString();
+	}
+
+	@Test
+	public void testSizeAndMix() {
+		Map<MeasurementType, Integer> mix = new EnumMap<MeasurementType, Integer>(MeasurementType.class);
+		mix.put(MeasurementType.GAUSSIAN, 2);
+		mix.put(MeasurementType.BETA, 1);
+		mix.put(MeasurementType.RELATIVE_NORMAL, 1);
+		mix.put(MeasurementType.ORDINAL, 2);
+		SMAAModel model = new ModelGenerator(1L).setAlternatives(50).setCriteria(12).setMeasurementMix(mix).generateSMAA2();
+		
+		assertEquals(50, model.getAlternatives().size());
+		assertEquals(12, model.getCriteria().size());
+		ImpactMatrix m = (ImpactMatrix) model.getMeasurements();
+		int[] counts = new int[4];
+		for (Criterion c : model.getCriteria()) {
+			Object meas = m.getMeasurement(c, model.getAlternatives().get(0));
+			if (meas instanceof RelativeNormalMeasurement) {
+				++counts[2];
+				assertTrue(((RelativeNormalMeasurement) meas).getBaseline() == m.getBaseline(c));
+			} else if (meas instanceof GaussianMeasurement) {
+				++counts[0];
+			} else if (meas instanceof BetaMeasurement) {
+				++counts[1];
+			} else if (meas instanceof Rank) {
+				assertTrue(c instanceof OrdinalCriterion);
+				++counts[3];
+			}
+		}
+		assertArrayEquals(new int[] {4, 2, 2, 4}, counts);
+		assertFalse(((ScaleCriterion) model.getCriteria().get(1)).getAscending());
+	}
+	
+	@Test
+	public void testDeterministic() throws XMLStreamException {
+		ModelGenerator gen = new ModelGenerator(7L).setAlternatives(20).setCriteria(10)
+			.setMeasurementMix(MeasurementType.EXACT, MeasurementType.INTERVAL, MeasurementType.LOGNORMAL,
+					MeasurementType.LOGITNORMAL, MeasurementType.DISCRETE, MeasurementType.RELATIVE_LOGITNORMAL)
+			.setValueFunctionPoints(2).setPreferences(PreferenceType.INTERVAL);
+		String xml = toXml(gen.generateSMAA2());
+		assertEquals(xml, toXml(gen.generateSMAA2()));
+		assertEquals(xml, toXml(new ModelGenerator(7L).setAlternatives(20).setCriteria(10)
+			.setMeasurementMix(MeasurementType.EXACT, MeasurementType.INTERVAL, MeasurementType.LOGNORMAL,
+					MeasurementType.LOGITNORMAL, MeasurementType.DISCRETE, MeasurementType.RELATIVE_LOGITNORMAL)
+			.setValueFunctionPoints(2).setPreferences(PreferenceType.INTERVAL).generateSMAA2()));
+		assertFalse(xml.equals(toXml(new ModelGenerator(8L).setAlternatives(20).setCriteria(10).generateSMAA2())));
+	}
+	
+	@Test
+	public void testValueFunctionsAndPreferences() {
+		SMAAModel model = new ModelGenerator(1L).setCriteria(4).setValueFunctionPoints(3).setPreferences(PreferenceType.ORDINAL).generateSMAA2();
+		for (Criterion c : model.getCriteria()) {
+			assertEquals(5, ((ScaleCriterion) c).getValuePoints().size());
+		}
+		assertTrue(model.getPreferenceInformation() instanceof OrdinalPreferenceInformation);
+		
+		model = new ModelGenerator(1L).setCriteria(4).setPreferences(PreferenceType.EXACT).generateSMAA2();
+		CardinalPreferenceInformation pref = (CardinalPreferenceInformation) model.getPreferenceInformation();
+		double sum = 0.0;
+		for (Criterion c : model.getCriteria()) {
+			sum += pref.getMeasurement(c).getRange().getStart();
+		}
+		assertEquals(1.0, sum, 1E-10);
+	}
+	
+	@Test
+	public void testMultivariateGaussian() {
+		SMAAModel model = new ModelGenerator(1L).setAlternatives(5).setCriteria(4)
+			.setMeasurementMix(MeasurementType.MULTIVARIATE_GAUSSIAN, MeasurementType.RELATIVE_MULTIVARIATE_GAUSSIAN)
+			.generateSMAA2();
+		PerCriterionMeasurements m = (PerCriterionMeasurements) model.getMeasurements();
+		assertEquals(5, m.getAlternatives().size());
+		assertEquals(4, m.getCriteria().size());
+		assertTrue(m.getCriterionMeasurement(model.getCriteria().get(0)) instanceof MultivariateGaussianCriterionMeasurement);
+		assertTrue(m.getCriterionMeasurement(model.getCriteria().get(3)) instanceof RelativeGaussianCriterionMeasurement);
+		assertEquals(5, ((MultivariateGaussianCriterionMeasurement) m.getCriterionMeasurement(model.getCriteria().get(0))).getMeanVector().getDimension());
+	}
+	
+	@Test
+	public void testFactorGaussian() {
+		SMAAModel model = new ModelGenerator(1L).setAlternatives(500).setCriteria(2)
+			.setMeasurementMix(MeasurementType.FACTOR_GAUSSIAN).generateSMAA2();
+		PerCriterionMeasurements m = (PerCriterionMeasurements) model.getMeasurements();
+		FactorGaussianCriterionMeasurement meas = (FactorGaussianCriterionMeasurement) m.getCriterionMeasurement(model.getCriteria().get(0));
+		assertEquals(500, meas.getMeanVector().getDimension());
+		assertEquals(2, meas.getNumFactors());
+		
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 20);
+		simulation.getTask().run();
+		assertTrue(simulation.getTask().isFinished());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testMixJointAndCellTypes() {
+		new ModelGenerator(1L).setMeasurementMix(MeasurementType.MULTIVARIATE_GAUSSIAN, MeasurementType.GAUSSIAN);
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testOrdinalSMAATRI() {
+		new ModelGenerator(1L).setMeasurementMix(MeasurementType.ORDINAL).generateSMAATRI();
+	}
+	
+	@Test
+	public void testSimulateGeneratedModels() throws InterruptedException {
+		SMAAModel model = new ModelGenerator(3L).setAlternatives(8).setCriteria(6)
+			.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.BETA, MeasurementType.ORDINAL, MeasurementType.RELATIVE_NORMAL)
+			.setPreferences(PreferenceType.INTERVAL).setValueFunctionPoints(1).generateSMAA2();
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 200);
+		TaskUtil.run(simulation.getTask());
+		assertTrue(simulation.getTask().isFinished());
+		assertFalse(simulation.getTask().isFailed());
+		
+		SMAATRIModel tri = new ModelGenerator(3L).setAlternatives(8).setCriteria(4).setCategories(4)
+			.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.INTERVAL).generateSMAATRI();
+		assertEquals(4, tri.getCategories().size());
+		assertTrue(tri.getCriteria().get(0) instanceof OutrankingCriterion);
+		SMAATRISimulation triSimulation = new SMAATRISimulation(tri, RandomUtil.createWithFixedSeed(), 200);
+		TaskUtil.run(triSimulation.getTask());
+		assertFalse(triSimulation.getTask().isFailed());
+	}
+	
+	@Test
+	public void testGenerateModelCommandLine() throws IOException {
+		File file = File.createTempFile("generated", "." + BinaryModelFormat.FILE_EXTENSION);
+		file.deleteOnExit();
+		GenerateModel.run(new String[] {"--tri", "--alternatives=30", "--criteria=3", "--categories=2",
+				"--measurements=gaussian:2,beta", "--seed=5", file.getPath()});
+		SMAAModel model = BinaryModelFormat.readModel(file);
+		assertTrue(model instanceof SMAATRIModel);
+		assertEquals(30, model.getAlternatives().size());
+		assertEquals(3, model.getCriteria().size());
+		
+		String[][] invalid = {
+				{},
+				{"--alternatives=x", file.getPath()},
+				{"--unknown=1", file.getPath()},
+				{"--measurements=nonsense", file.getPath()},
+				{"--measurements=multivariate-gaussian", file.getPath()},
+		};
+		for (String[] args : invalid) {
+			try {
+				GenerateModel.run(args);
+				fail();
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+}
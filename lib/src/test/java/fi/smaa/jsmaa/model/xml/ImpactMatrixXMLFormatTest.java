@@ -34,6 +34,9 @@ import fi.smaa.jsmaa.model.ExactMeasurement;
 import fi.smaa.jsmaa.model.ImpactMatrix;
 import fi.smaa.jsmaa.model.BaselineGaussianMeasurement;
 import fi.smaa.jsmaa.model.RelativeGaussianMeasurementBase;
+import fi.smaa.jsmaa.model.OrdinalCriterion;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.Rank;
 import fi.smaa.jsmaa.model.RelativeLogitNormalMeasurement;
 import fi.smaa.jsmaa.model.ScaleCriterion;
 
@@ -96,4 +99,37 @@ public class ImpactMatrixXMLFormatTest {
 		assertSame(nm.getBaseline(nm.getCriteria().get(0)), 
 				((RelativeGaussianMeasurementBase)nm.getMeasurement(nm.getCriteria().get(0), nm.getAlternatives().get(1))).getBaseline());
 	}
+	
+	@Test
+	public void testMarshalLargeImpactMatrix() throws XMLStreamException {
+		ImpactMatrix mat = new ImpactMatrix();
+		for (int i = 0; i < 50; i++) {
+			mat.addAlternative(new Alternative("a" + i));
+		}
+		for (int j = 0; j < 20; j++) {
+			if (j % 5 == 0) {
+				mat.addCriterion(new OrdinalCriterion("o" + j), true);
+			} else {
+				ScaleCriterion c = new ScaleCriterion("c" + j);
+				mat.addCriterion(c, true);
+				for (int i = 0; i < 50; i++) {
+					mat.setMeasurement(c, mat.getAlternatives().get(i), new Interval((double) i, (double) (i + j)));
+				}
+			}
+		}
+		
+		ImpactMatrix nm = XMLHelper.fromXml(XMLHelper.toXml(mat, ImpactMatrix.class));
+		
+		assertEquals(50, nm.getAlternatives().size());
+		assertEquals(20, nm.getCriteria().size());
+		for (int j = 0; j < 20; j++) {
+			assertEquals(mat.getCriteria().get(j).getName(), nm.getCriteria().get(j).getName());
+			for (int i = 0; i < 50; i++) {
+				assertEquals(mat.getMeasurement(mat.getCriteria().get(j), mat.getAlternatives().get(i)),
+						nm.getMeasurement(nm.getCriteria().get(j), nm.getAlternatives().get(i)));
+			}
+		}
+		assertEquals(new Rank(50), nm.getMeasurement(nm.getCriteria().get(0), nm.getAlternatives().get(49)));
+		assertEquals(new Interval(0.0, 68.0), ((ScaleCriterion) nm.getCriteria().get(19)).getScale());
+	}
 }
@@ -0,0 +1,98 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.performance;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects performance results and writes them as JSON, so that the numbers can be tracked over
+ * builds. The file is given by the performance.report system property (default
+ * target/performance-report.json).
+ */
+public class PerformanceReport {
+	
+	private final List<PerformanceResult> results = new ArrayList<PerformanceResult>();
+	
+	public synchronized void add(PerformanceResult result) {
+		results.add(result);
+	}
+	
+	public synchronized List<PerformanceResult> getResults() {
+		return new ArrayList<PerformanceResult>(results);
+	}
+	
+	public static File getReportFile() {
+		return new File(System.getProperty("performance.report", "target/performance-report.json"));
+	}
+	
+	public synchronized void write(File file) throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create " + dir);
+		}
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+		try {
+			out.println("{");
+			out.println("  \"timestamp\": " + System.currentTimeMillis() + ",");
+			out.println("  \"java\": " + quote(System.getProperty("java.vm.name") + " " + System.getProperty("java.version")) + ",");
+			out.println("  \"processors\": " + Runtime.getRuntime().availableProcessors() + ",");
+			out.println("  \"results\": [");
+			for (int i=0;i<results.size();i++) {
+				PerformanceResult r = results.get(i);
+				out.print(String.format(Locale.US, "    {\"name\": %s, \"iterations\": %d, \"iterationsPerSecond\": %.1f, " +
+						"\"bytesPerIteration\": %.1f, \"minIterationsPerSecond\": %.1f, \"maxBytesPerIteration\": %.1f, " +
+						"\"passed\": %b}",
+						quote(r.getName()), r.getIterations(), r.getIterationsPerSecond(), r.getBytesPerIteration(),
+						r.getMinIterationsPerSecond(), r.getMaxBytesPerIteration(),
+						r.isThroughputWithinBudget() && r.isAllocationWithinBudget()));
+				out.println(i < results.size() - 1 ? "," : "");
+			}
+			out.println("  ]");
+			out.println("}");
+		} finally {
+			out.close();
+		}
+	}
+	
+	private static String quote(String s) {
+		StringBuilder b = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				b.append('\\');
+			}
+			if (c < 0x20) {
+				b.append(String.format("\\u%04x", (int) c));
+			} else {
+				b.append(c);
+			}
+		}
+		return b.append('"').toString();
+	}
+}
@@ -0,0 +1,90 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.performance;
+
+/**
+ * The measured throughput and allocation of one performance case, with its budget.
+ */
+public class PerformanceResult {
+	private final String name;
+	private final long iterations;
+	private final long nanos;
+	private final long allocatedBytes;
+	private final double minIterationsPerSecond;
+	private final double maxBytesPerIteration;
+	
+	/**
+	 * @param allocatedBytes the bytes allocated by the measuring thread, or -1 if the JVM does not
+	 * support allocation counters.
+	 */
+	public PerformanceResult(String name, long iterations, long nanos, long allocatedBytes,
+			double minIterationsPerSecond, double maxBytesPerIteration) {
+		this.name = name;
+		this.iterations = iterations;
+		this.nanos = nanos;
+		this.allocatedBytes = allocatedBytes;
+		this.minIterationsPerSecond = minIterationsPerSecond;
+		this.maxBytesPerIteration = maxBytesPerIteration;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public long getIterations() {
+		return iterations;
+	}
+	
+	public double getIterationsPerSecond() {
+		return iterations * 1E9 / nanos;
+	}
+	
+	/**
+	 * @return the bytes allocated per iteration, or -1 if unknown.
+	 */
+	public double getBytesPerIteration() {
+		return allocatedBytes < 0 ? -1.0 : allocatedBytes / (double) iterations;
+	}
+	
+	public double getMinIterationsPerSecond() {
+		return minIterationsPerSecond;
+	}
+	
+	public double getMaxBytesPerIteration() {
+		return maxBytesPerIteration;
+	}
+	
+	public boolean isThroughputWithinBudget() {
+		return getIterationsPerSecond() >= minIterationsPerSecond;
+	}
+	
+	public boolean isAllocationWithinBudget() {
+		return allocatedBytes < 0 || getBytesPerIteration() <= maxBytesPerIteration;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s: %.0f it/s (budget >= %.0f), %.0f B/it (budget <= %.0f)", name, 
+				getIterationsPerSecond(), minIterationsPerSecond, getBytesPerIteration(), maxBytesPerIteration);
+	}
+}
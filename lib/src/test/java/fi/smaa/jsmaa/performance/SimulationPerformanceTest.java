@@ -0,0 +1,237 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.performance;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Properties;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.FullJointMeasurements;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.PreferenceType;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAASimulation;
+import fi.smaa.jsmaa.simulator.SMAATRISimulation;
+
+/**
+ * Throughput and allocation budgets for fixed-seed simulations and samplers on generated reference
+ * models. The budgets are in budgets.properties; throughput budgets are multiplied by the
+ * performance.throughputScale system property (default 1.0) to account for slower machines.
+ * 
+ * Only run in the performance profile (mvn -Pperformance test).
+ */
+public class SimulationPerformanceTest {
+	
+	private static final long SEED = 1L;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 3;
+	
+	private static Properties budgets;
+	private static PerformanceReport report;
+	
+	private abstract static class Case {
+		/**
+		 * Sets up a fresh, untimed run.
+		 */
+		public abstract void prepare();
+		
+		/**
+		 * @return the number of iterations that were run.
+		 */
+		public abstract long run();
+	}
+	
+	private static class SimulationCase extends Case {
+		private final SMAAModel model;
+		private final int iterations;
+		private SMAASimulation<?> simulation;
+		
+		public SimulationCase(SMAAModel model, int iterations) {
+			this.model = model;
+			this.iterations = iterations;
+		}
+
+		public void prepare() {
+			if (model instanceof SMAATRIModel) {
+				simulation = new SMAATRISimulation((SMAATRIModel) model, RandomUtil.createWithSeed(SEED), iterations);
+			} else {
+				simulation = new SMAA2Simulation(model, RandomUtil.createWithSeed(SEED), iterations);
+			}
+		}
+
+		public long run() {
+			simulation.getTask().run();
+			assertFalse("Simulation failed: " + simulation.getTask().getFailureCause(), simulation.getTask().isFailed());
+			return simulation.getMetrics().getIterations();
+		}
+	}
+	
+	private static class SamplerCase extends Case {
+		private final FullJointMeasurements measurements;
+		private final double[][] target;
+		private final int iterations;
+		private RandomUtil random;
+		
+		public SamplerCase(SMAAModel model, int iterations) {
+			this.measurements = model.getMeasurements();
+			this.target = new double[model.getCriteria().size()][model.getAlternatives().size()];
+			this.iterations = iterations;
+		}
+		
+		public void prepare() {
+			random = RandomUtil.createWithSeed(SEED);
+		}
+		
+		public long run() {
+			for (int i=0;i<iterations;i++) {
+				measurements.sample(random, target);
+			}
+			return iterations;
+		}
+	}
+	
+	@BeforeClass
+	public static void loadBudgets() throws IOException {
+		budgets = new Properties();
+		InputStream is = SimulationPerformanceTest.class.getResourceAsStream("budgets.properties");
+		assertNotNull("budgets.properties missing", is);
+		try {
+			budgets.load(is);
+		} finally {
+			is.close();
+		}
+		report = new PerformanceReport();
+	}
+	
+	@AfterClass
+	public static void writeReport() throws IOException {
+		report.write(PerformanceReport.getReportFile());
+	}
+	
+	private static ModelGenerator generator(int alts, int crits) {
+		return new ModelGenerator(SEED).setAlternatives(alts).setCriteria(crits)
+			.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.LOGNORMAL, MeasurementType.INTERVAL, MeasurementType.BETA);
+	}
+	
+	@Test
+	public void testSMAA2Small() {
+		check("smaa2-10x5", new SimulationCase(generator(10, 5).generateSMAA2(), 2000));
+	}
+	
+	@Test
+	public void testSMAA2Medium() {
+		check("smaa2-50x10", new SimulationCase(generator(50, 10).generateSMAA2(), 300));
+	}
+	
+	@Test
+	public void testSMAA2OrdinalPreferences() {
+		check("smaa2-ordinal-20x8", new SimulationCase(generator(20, 8).setPreferences(PreferenceType.ORDINAL).generateSMAA2(), 1000));
+	}
+	
+	@Test
+	public void testSMAA2IntervalPreferences() {
+		check("smaa2-interval-20x4", new SimulationCase(generator(20, 4).setPreferences(PreferenceType.INTERVAL).generateSMAA2(), 1000));
+	}
+	
+	@Test
+	public void testSMAATRI() {
+		check("smaatri-20x5", new SimulationCase(new ModelGenerator(SEED).setAlternatives(20).setCriteria(5)
+				.setCategories(3).setMeasurementMix(MeasurementType.GAUSSIAN).generateSMAATRI(), 1000));
+	}
+	
+	@Test
+	public void testImpactMatrixSampler() {
+		check("sampler-impactmatrix-50x10", new SamplerCase(generator(50, 10).generateSMAA2(), 5000));
+	}
+	
+	@Test
+	public void testMultivariateGaussianSampler() {
+		check("sampler-mvgaussian-50x10", new SamplerCase(new ModelGenerator(SEED).setAlternatives(50).setCriteria(10)
+				.setMeasurementMix(MeasurementType.MULTIVARIATE_GAUSSIAN).generateSMAA2(), 5000));
+	}
+	
+	private void check(String name, Case c) {
+		for (int i=0;i<WARMUP_ROUNDS;i++) {
+			c.prepare();
+			c.run();
+		}
+		PerformanceResult best = null;
+		for (int i=0;i<MEASURED_ROUNDS;i++) {
+			c.prepare();
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			long iterations = c.run();
+			long nanos = System.nanoTime() - start;
+			if (bytes >= 0) {
+				bytes = allocatedBytes() - bytes;
+			}
+			PerformanceResult r = new PerformanceResult(name, iterations, nanos, bytes,
+					getBudget(name, "minIterationsPerSecond") * getThroughputScale(), getBudget(name, "maxBytesPerIteration"));
+			if (best == null || r.getIterationsPerSecond() > best.getIterationsPerSecond()) {
+				best = r;
+			}
+		}
+		report.add(best);
+		System.out.println(best);
+		assertTrue("Throughput below budget: " + best, best.isThroughputWithinBudget());
+		assertTrue("Allocation above budget: " + best, best.isAllocationWithinBudget());
+	}
+	
+	private static double getBudget(String name, String key) {
+		String value = budgets.getProperty(name + "." + key);
+		assertNotNull("No budget " + name + "." + key, value);
+		return Double.parseDouble(value);
+	}
+	
+	private static double getThroughputScale() {
+		return Double.parseDouble(System.getProperty("performance.throughputScale", "1.0"));
+	}
+	
+	/**
+	 * @return the bytes allocated by the current thread so far, or -1 if the JVM can't tell.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+}
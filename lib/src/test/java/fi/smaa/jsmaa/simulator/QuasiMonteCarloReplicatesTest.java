@@ -0,0 +1,136 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+
+public class QuasiMonteCarloReplicatesTest {
+	
+	private static final int REPLICATES = 8;
+	private static final int ITERATIONS = 1000;
+	
+	private SMAAModel generateModel() {
+		return new ModelGenerator(1L).setAlternatives(4).setCriteria(3)
+			.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.INTERVAL).generateSMAA2();
+	}
+	
+	@Test
+	public void testSMAA2Estimates() {
+		SMAAModel model = generateModel();
+		QuasiMonteCarloReplicates qmc = new QuasiMonteCarloReplicates(model, REPLICATES, ITERATIONS, 1L);
+		qmc.run();
+		
+		double[][] ra = qmc.getRankAcceptabilities().getMean();
+		for (int i=0;i<ra.length;i++) {
+			double sum = 0.0;
+			for (double d : ra[i]) {
+				sum += d;
+			}
+			assertEquals(1.0, sum, 1E-9);
+		}
+		assertEquals(4, qmc.getCentralWeights().getMean().length);
+		assertEquals(3, qmc.getCentralWeights().getMean()[0].length);
+		assertEquals(1, qmc.getConfidenceFactors().getMean()[0].length);
+		assertNull(qmc.getCategoryAcceptabilities());
+	}
+	
+	@Test
+	public void testSMAATRIEstimates() {
+		SMAATRIModel model = new ModelGenerator(1L).setAlternatives(4).setCriteria(3).setCategories(3)
+			.setMeasurementMix(MeasurementType.GAUSSIAN).generateSMAATRI();
+		QuasiMonteCarloReplicates qmc = new QuasiMonteCarloReplicates(model, REPLICATES, ITERATIONS, 1L);
+		qmc.run();
+		
+		assertEquals(3, qmc.getCategoryAcceptabilities().getMean()[0].length);
+		assertNull(qmc.getRankAcceptabilities());
+	}
+	
+	@Test
+	public void testSmallerErrorThanPseudoRandom() {
+		SMAAModel model = generateModel();
+		QuasiMonteCarloReplicates qmc = new QuasiMonteCarloReplicates(model, REPLICATES, ITERATIONS, 1L);
+		qmc.run();
+		
+		ReplicateEstimate mc = new ReplicateEstimate(4, 4);
+		for (int r=0;r<REPLICATES;r++) {
+			SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithSeed(1L + r), ITERATIONS);
+			simulation.getTask().run();
+			Map<Alternative, List<Double>> ras = simulation.getResults().getRankAcceptabilities();
+			double[][] ra = new double[4][4];
+			for (int i=0;i<4;i++) {
+				for (int j=0;j<4;j++) {
+					ra[i][j] = ras.get(model.getAlternatives().get(i)).get(j);
+				}
+			}
+			mc.add(ra);
+		}
+		
+		double qmcError = meanError(qmc.getRankAcceptabilities());
+		double mcError = meanError(mc);
+		assertTrue("QMC " + qmcError + ", MC " + mcError, qmcError < mcError);
+	}
+	
+	private static double meanError(ReplicateEstimate e) {
+		double sum = 0.0;
+		int n = 0;
+		for (double[] row : e.getStandardError()) {
+			for (double d : row) {
+				if (!Double.isNaN(d)) {
+					sum += d;
+					n++;
+				}
+			}
+		}
+		return sum / n;
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testSingleReplicateFails() {
+		new QuasiMonteCarloReplicates(generateModel(), 1, ITERATIONS, 1L);
+	}
+	
+	@Test
+	public void testReplicateEstimate() {
+		ReplicateEstimate e = new ReplicateEstimate(1, 2);
+		e.add(new double[][] {{1.0, Double.NaN}});
+		e.add(new double[][] {{3.0, 2.0}});
+		assertEquals(2.0, e.getMean()[0][0], 0.0);
+		assertEquals(2.0, e.getMean()[0][1], 0.0);
+		assertEquals(1.0, e.getStandardError()[0][0], 1E-12);
+		assertTrue(Double.isNaN(e.getStandardError()[0][1]));
+	}
+}
@@ -0,0 +1,186 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.CardinalPreferenceInformation;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.simulator.SimulationMetrics.Phase;
+
+public class SimulationMetricsTest {
+	
+	private int oldInterval;
+	
+	@Before
+	public void setUp() {
+		oldInterval = SimulationMetrics.TIMING_INTERVAL;
+		SimulationMetrics.TIMING_INTERVAL = 1;
+	}
+	
+	@After
+	public void tearDown() {
+		SimulationMetrics.TIMING_INTERVAL = oldInterval;
+	}
+	
+	private SMAAModel generateModel() {
+		return new ModelGenerator(1L).setAlternatives(4).setCriteria(3)
+			.setMeasurementMix(MeasurementType.GAUSSIAN).generateSMAA2();
+	}
+	
+	@Test
+	public void testSMAA2Phases() throws InterruptedException {
+		SMAA2Simulation simulation = new SMAA2Simulation(generateModel(), RandomUtil.createWithFixedSeed(), 1000);
+		SimulationMetrics metrics = simulation.getMetrics();
+		assertFalse(metrics.isRunning());
+		TaskUtil.run(simulation.getTask());
+		
+		assertFalse(metrics.isRunning());
+		assertEquals(2000, metrics.getIterations());
+		assertEquals(2000 / SMAASimulation.REPORTING_INTERVAL, metrics.getListenerDispatches());
+		assertTrue(metrics.getIterationsPerSecond() > 0.0);
+		for (Phase p : new Phase[] { Phase.WEIGHTS, Phase.MEASUREMENTS, Phase.AGGREGATION, Phase.RANKING, Phase.RESULTS }) {
+			assertTrue(p.toString(), metrics.getMeanNanos(p) > 0.0);
+		}
+		assertEquals(0.0, metrics.getProfileSamplingNanos(), 0.0);
+		assertEquals(0, metrics.getWeightRejections());
+	}
+	
+	@Test
+	public void testTimingInterval() throws InterruptedException {
+		SimulationMetrics.TIMING_INTERVAL = 16;
+		SimulationMetrics metrics = new SimulationMetrics("test", "model");
+		int timed = 0;
+		for (int i=0;i<100;i++) {
+			if (metrics.startIteration()) {
+				timed++;
+			}
+		}
+		assertEquals(6, timed);
+		assertEquals(96, metrics.getIterations());
+		assertTrue(metrics.isRunning());
+		
+		metrics.addProfileRejections(3);
+		metrics.addProfileRejections(0);
+		assertEquals(0, metrics.getProfileRejections());
+		metrics.finish();
+		assertEquals(100, metrics.getIterations());
+		assertEquals(3, metrics.getProfileRejections());
+		assertFalse(metrics.isRunning());
+	}
+	
+	@Test
+	public void testDispatchExcludedFromPhase() {
+		SimulationMetrics metrics = new SimulationMetrics("test", "model");
+		assertTrue(metrics.startIteration());
+		long start = System.nanoTime() - 1000000000L;
+		metrics.recordDispatch(999000000L);
+		metrics.record(Phase.RESULTS, start);
+		assertTrue(metrics.getResultsUpdateNanos() >= 1000000.0);
+		assertTrue(metrics.getResultsUpdateNanos() < 100000000.0);
+		assertEquals(999000000.0, metrics.getListenerDispatchNanos(), 0.0);
+	}
+	
+	@Test
+	public void testWeightRejections() throws InterruptedException {
+		SMAAModel model = generateModel();
+		CardinalPreferenceInformation pref = new CardinalPreferenceInformation(model.getCriteria());
+		pref.setMeasurement(model.getCriteria().get(0), new Interval(0.0, 0.1));
+		pref.setMeasurement(model.getCriteria().get(1), new Interval(0.0, 0.1));
+		pref.setMeasurement(model.getCriteria().get(2), new Interval(0.0, 1.0));
+		model.setPreferenceInformation(pref);
+		
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), 100);
+		TaskUtil.run(simulation.getTask());
+		assertTrue(simulation.getMetrics().getWeightRejections() > 0);
+	}
+	
+	@Test
+	public void testSMAATRIPhases() throws InterruptedException {
+		SMAATRISimulation simulation = new SMAATRISimulation(
+				new ModelGenerator(1L).setAlternatives(4).setCriteria(3).setCategories(3).generateSMAATRI(),
+				RandomUtil.createWithFixedSeed(), 100);
+		TaskUtil.run(simulation.getTask());
+		SimulationMetrics metrics = simulation.getMetrics();
+		assertEquals(100, metrics.getIterations());
+		assertTrue(metrics.getProfileSamplingNanos() > 0.0);
+	}
+	
+	@Test
+	public void testRegisterAndUnregister() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		SMAA2Simulation simulation = new SMAA2Simulation(generateModel(), RandomUtil.createWithFixedSeed(), 100);
+		SimulationMetrics metrics = simulation.getMetrics();
+		assertNull(metrics.getObjectName());
+		metrics.start(4, 3, 200, null);
+		ObjectName name = metrics.getObjectName();
+		assertNotNull(name);
+		assertTrue(server.isRegistered(name));
+		assertEquals("SMAA2Simulation", server.getAttribute(name, "SimulationType"));
+
+		TaskUtil.run(simulation.getTask());
+		assertNull(metrics.getObjectName());
+		assertFalse(server.isRegistered(name));
+	}
+	
+	@Test
+	public void testSimulationAbortUnregisters() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		SMAA2Simulation simulation = new SMAA2Simulation(generateModel(), RandomUtil.createWithFixedSeed(), 100);
+		SimulationMetrics metrics = simulation.getMetrics();
+		metrics.start(4, 3, 200, null);
+		ObjectName name = metrics.getObjectName();
+		assertTrue(server.isRegistered(name));
+		
+		simulation.abort();
+		assertTrue(simulation.getTask().isAborted());
+		assertNull(metrics.getObjectName());
+		assertFalse(server.isRegistered(name));
+	}
+	
+	@Test
+	public void testNotRegisteredAfterAbort() {
+		SimulationMetrics metrics = new SimulationMetrics("test", "model");
+		metrics.abort();
+		metrics.start(4, 3, 200, null);
+		assertNull(metrics.getObjectName());
+	}
+}
@@ -0,0 +1,240 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.equivalence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAATRIResults;
+import fi.smaa.jsmaa.simulator.equivalence.EquivalenceReport.Deviation;
+
+/**
+ * Checks that a candidate simulation engine produces the same results as a reference engine within
+ * Monte Carlo error. Both engines are run with independent seeds, and every rank or category
+ * acceptability, central weight and confidence factor is compared with a two-sample z-test:
+ * <ul>
+ * <li>acceptabilities and confidence factors are proportions, with standard error
+ * sqrt(p (1 - p) (1/n1 + 1/n2)) for the pooled proportion p;</li>
+ * <li>central weights are means of weights in [0, 1] over the first-rank hits h, whose variance is
+ * at most w (1 - w), giving the conservative standard error sqrt(w (1 - w) (1/h1 + 1/h2)).</li>
+ * </ul>
+ * Confidence factors are computed with the estimated central weights, so they vary more than a
+ * proportion when those are poorly determined. They are only compared for alternatives with at
+ * least {@link #setMinConfidenceHits(int) a minimum number} of first-rank hits in both runs.
+ * <p>
+ * The critical value is Bonferroni-corrected for the number of quantities of a model, so that the
+ * probability of reporting a deviation between equivalent engines is at most alpha per model.
+ */
+public class EquivalenceHarness {
+	
+	public static final int DEFAULT_ITERATIONS = 10000;
+	public static final double DEFAULT_ALPHA = 0.001;
+	public static final int DEFAULT_MIN_CONFIDENCE_HITS = 500;
+	
+	private final SimulationEngine reference;
+	private final SimulationEngine candidate;
+	private int iterations = DEFAULT_ITERATIONS;
+	private double alpha = DEFAULT_ALPHA;
+	private long referenceSeed = 1L;
+	private long candidateSeed = 2L;
+	private int minConfidenceHits = DEFAULT_MIN_CONFIDENCE_HITS;
+	
+	public EquivalenceHarness(SimulationEngine candidate) {
+		this(new ReferenceEngine(), candidate);
+	}
+	
+	public EquivalenceHarness(SimulationEngine reference, SimulationEngine candidate) {
+		this.reference = reference;
+		this.candidate = candidate;
+	}
+	
+	public EquivalenceHarness setIterations(int iterations) {
+		this.iterations = iterations;
+		return this;
+	}
+	
+	/**
+	 * @param alpha the probability of a false deviation per model.
+	 */
+	public EquivalenceHarness setAlpha(double alpha) {
+		if (alpha <= 0.0 || alpha >= 1.0) {
+			throw new IllegalArgumentException("alpha not in (0, 1)");
+		}
+		this.alpha = alpha;
+		return this;
+	}
+	
+	/**
+	 * @param hits the number of first-rank hits an alternative needs in both runs for its confidence
+	 * factors to be compared.
+	 */
+	public EquivalenceHarness setMinConfidenceHits(int hits) {
+		this.minConfidenceHits = hits;
+		return this;
+	}
+	
+	public EquivalenceHarness setSeeds(long referenceSeed, long candidateSeed) {
+		this.referenceSeed = referenceSeed;
+		this.candidateSeed = candidateSeed;
+		return this;
+	}
+	
+	public EquivalenceReport compareAll(Map<String, SMAAModel> models) {
+		EquivalenceReport report = new EquivalenceReport();
+		for (Map.Entry<String, SMAAModel> e : models.entrySet()) {
+			report.addAll(compare(e.getKey(), e.getValue()));
+		}
+		return report;
+	}
+	
+	public EquivalenceReport compare(String name, SMAAModel model) {
+		List<Comparison> comparisons = new ArrayList<Comparison>();
+		if (model instanceof SMAATRIModel) {
+			SMAATRIModel tri = (SMAATRIModel) model;
+			SMAATRIResults ref = reference.runSMAATRI(tri, RandomUtil.createWithSeed(referenceSeed), iterations);
+			SMAATRIResults cand = candidate.runSMAATRI(tri, RandomUtil.createWithSeed(candidateSeed), iterations);
+			compareAcceptabilities("CA", ref.getAlternatives(), ref.getCategoryAcceptabilities(), ref.getIteration(),
+					cand.getAlternatives(), cand.getCategoryAcceptabilities(), cand.getIteration(), comparisons);
+		} else {
+			SMAA2Results ref = reference.runSMAA2(model, RandomUtil.createWithSeed(referenceSeed), iterations);
+			SMAA2Results cand = candidate.runSMAA2(model, RandomUtil.createWithSeed(candidateSeed), iterations);
+			compareSMAA2(ref, cand, comparisons);
+		}
+		return evaluate(name, comparisons);
+	}
+	
+	private EquivalenceReport evaluate(String name, List<Comparison> comparisons) {
+		EquivalenceReport report = new EquivalenceReport();
+		double criticalZ = comparisons.isEmpty() ? 0.0 :
+			new NormalDistribution().inverseCumulativeProbability(1.0 - alpha / (2.0 * comparisons.size()));
+		report.setComparisons(comparisons.size(), criticalZ);
+		for (Comparison c : comparisons) {
+			double z = c.getZ();
+			if (Math.abs(z) > criticalZ) {
+				report.add(new Deviation(name, c.quantity, c.reference, c.candidate, z));
+			}
+		}
+		return report;
+	}
+	
+	private void compareSMAA2(SMAA2Results ref, SMAA2Results cand, List<Comparison> comparisons) {
+		List<Alternative> refAlts = ref.getAlternatives();
+		List<Alternative> candAlts = cand.getAlternatives();
+		Map<Alternative, List<Double>> refRA = ref.getRankAcceptabilities();
+		Map<Alternative, List<Double>> candRA = cand.getRankAcceptabilities();
+		compareAcceptabilities("RA", refAlts, refRA, ref.getRankAccIteration(), candAlts, candRA, cand.getRankAccIteration(), comparisons);
+		
+		Map<Alternative, Map<Criterion, Double>> refCW = ref.getCentralWeightVectors();
+		Map<Alternative, Map<Criterion, Double>> candCW = cand.getCentralWeightVectors();
+		Map<Alternative, Double> refCF = ref.getConfidenceFactors();
+		Map<Alternative, Double> candCF = cand.getConfidenceFactors();
+		List<? extends Criterion> refCrits = ref.getCriteria();
+		List<? extends Criterion> candCrits = cand.getCriteria();
+		checkSameSize(refCrits.size(), candCrits.size(), "criteria");
+		for (int i=0;i<refAlts.size();i++) {
+			Alternative refAlt = refAlts.get(i);
+			Alternative candAlt = candAlts.get(i);
+			double refHits = refRA.get(refAlt).get(0) * ref.getRankAccIteration();
+			double candHits = candRA.get(candAlt).get(0) * cand.getRankAccIteration();
+			if (refHits < 1.0 || candHits < 1.0) {
+				// no central weight vector, and hence no confidence factor, in one of them
+				continue;
+			}
+			for (int j=0;j<refCrits.size();j++) {
+				comparisons.add(Comparison.mean("CW[" + refAlt + "][" + refCrits.get(j) + "]", 
+						refCW.get(refAlt).get(refCrits.get(j)), refHits, candCW.get(candAlt).get(candCrits.get(j)), candHits));
+			}
+			if (refHits >= minConfidenceHits && candHits >= minConfidenceHits) {
+				comparisons.add(Comparison.proportion("CF[" + refAlt + "]", refCF.get(refAlt), ref.getConfidenceIteration(),
+						candCF.get(candAlt), cand.getConfidenceIteration()));
+			}
+		}
+	}
+	
+	private void compareAcceptabilities(String label, List<Alternative> refAlts, Map<Alternative, List<Double>> ref, int refN,
+			List<Alternative> candAlts, Map<Alternative, List<Double>> cand, int candN, List<Comparison> comparisons) {
+		checkSameSize(refAlts.size(), candAlts.size(), "alternatives");
+		for (int i=0;i<refAlts.size();i++) {
+			List<Double> r = ref.get(refAlts.get(i));
+			List<Double> c = cand.get(candAlts.get(i));
+			checkSameSize(r.size(), c.size(), "acceptability indices");
+			for (int j=0;j<r.size();j++) {
+				comparisons.add(Comparison.proportion(label + "[" + refAlts.get(i) + "][" + j + "]", r.get(j), refN, c.get(j), candN));
+			}
+		}
+	}
+	
+	private static void checkSameSize(int ref, int cand, String what) {
+		if (ref != cand) {
+			throw new IllegalStateException("Reference has " + ref + " " + what + ", candidate " + cand);
+		}
+	}
+	
+	private static class Comparison {
+		final String quantity;
+		final double reference;
+		final double candidate;
+		final double standardError;
+		
+		private Comparison(String quantity, double reference, double candidate, double standardError) {
+			this.quantity = quantity;
+			this.reference = reference;
+			this.candidate = candidate;
+			this.standardError = standardError;
+		}
+		
+		static Comparison proportion(String quantity, double p1, double n1, double p2, double n2) {
+			double p = clamp((p1 * n1 + p2 * n2) / (n1 + n2));
+			return new Comparison(quantity, p1, p2, Math.sqrt(p * (1.0 - p) * (1.0 / n1 + 1.0 / n2)));
+		}
+		
+		static Comparison mean(String quantity, double w1, double n1, double w2, double n2) {
+			double w = clamp((w1 * n1 + w2 * n2) / (n1 + n2));
+			return new Comparison(quantity, w1, w2, Math.sqrt(w * (1.0 - w) * (1.0 / n1 + 1.0 / n2)));
+		}
+		
+		private static double clamp(double p) {
+			return Math.max(0.0, Math.min(1.0, p));
+		}
+		
+		double getZ() {
+			double diff = candidate - reference;
+			if (Double.isNaN(diff)) {
+				return Double.isNaN(candidate) && Double.isNaN(reference) ? 0.0 : Double.POSITIVE_INFINITY;
+			}
+			if (standardError == 0.0) {
+				return diff == 0.0 ? 0.0 : Math.signum(diff) * Double.POSITIVE_INFINITY;
+			}
+			return diff / standardError;
+		}
+	}
+}
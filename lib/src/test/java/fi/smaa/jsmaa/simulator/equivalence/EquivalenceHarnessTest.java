@@ -0,0 +1,97 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.equivalence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.MissingPreferenceInformation;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.PreferenceType;
+import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAATRIResults;
+
+public class EquivalenceHarnessTest {
+	
+	/**
+	 * Ignores the preference information of the model.
+	 */
+	private static class MissingPreferencesEngine extends ReferenceEngine {
+		@Override
+		public SMAA2Results runSMAA2(SMAAModel model, RandomUtil random, int iterations) {
+			SMAAModel copy = model.deepCopy();
+			copy.setPreferenceInformation(new MissingPreferenceInformation(copy.getCriteria().size()));
+			return super.runSMAA2(copy, random, iterations);
+		}
+		
+		@Override
+		public SMAATRIResults runSMAATRI(SMAATRIModel model, RandomUtil random, int iterations) {
+			SMAATRIModel copy = model.deepCopy();
+			copy.setPreferenceInformation(new MissingPreferenceInformation(copy.getCriteria().size()));
+			return super.runSMAATRI(copy, random, iterations);
+		}
+	}
+	
+	@Test
+	public void testReferenceIsEquivalentToItself() {
+		Map<String, SMAAModel> corpus = ModelCorpus.getModels();
+		EquivalenceReport report = new EquivalenceHarness(new ReferenceEngine()).setIterations(5000).compareAll(corpus);
+		assertTrue(report.toString(), report.isEquivalent());
+		assertTrue(report.getComparisons() > 100);
+	}
+	
+	@Test
+	public void testSameSeedGivesNoDifference() {
+		EquivalenceReport report = new EquivalenceHarness(new ReferenceEngine()).setSeeds(3L, 3L).setIterations(1000)
+			.compare("model", ModelCorpus.getModels().get("smaa2-cardinal"));
+		assertTrue(report.isEquivalent());
+	}
+	
+	@Test
+	public void testDetectsDeviation() {
+		SMAAModel model = new ModelGenerator(1L).setAlternatives(6).setCriteria(4)
+			.setPreferences(PreferenceType.EXACT).generateSMAA2();
+		EquivalenceReport report = new EquivalenceHarness(new MissingPreferencesEngine()).setIterations(5000)
+			.compare("model", model);
+		assertFalse(report.isEquivalent());
+		assertEquals("model", report.getDeviations().get(0).getModel());
+	}
+	
+	@Test
+	public void testDetectsSMAATRIDeviation() {
+		SMAATRIModel model = new ModelGenerator(1L).setAlternatives(6).setCriteria(3).setCategories(3)
+			.setPreferences(PreferenceType.EXACT).generateSMAATRI();
+		EquivalenceReport report = new EquivalenceHarness(new MissingPreferencesEngine()).setIterations(5000)
+			.compare("model", model);
+		assertFalse(report.isEquivalent());
+		assertTrue(report.getDeviations().get(0).getQuantity().startsWith("CA["));
+	}
+}
@@ -0,0 +1,129 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.equivalence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of an {@link EquivalenceHarness} comparison: the number of quantities compared and
+ * those that differ significantly.
+ */
+public class EquivalenceReport {
+	
+	public static class Deviation {
+		private final String model;
+		private final String quantity;
+		private final double reference;
+		private final double candidate;
+		private final double z;
+		
+		public Deviation(String model, String quantity, double reference, double candidate, double z) {
+			this.model = model;
+			this.quantity = quantity;
+			this.reference = reference;
+			this.candidate = candidate;
+			this.z = z;
+		}
+		
+		public String getModel() {
+			return model;
+		}
+		
+		/**
+		 * @return e.g. "RA[Alternative 1][0]", "CW[Alternative 1][Criterion 2]", "CF[Alternative 1]" or "CA[Alternative 1][0]".
+		 */
+		public String getQuantity() {
+			return quantity;
+		}
+		
+		public double getReference() {
+			return reference;
+		}
+		
+		public double getCandidate() {
+			return candidate;
+		}
+		
+		/**
+		 * @return the difference in standard errors.
+		 */
+		public double getZ() {
+			return z;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%s %s: reference %.4f, candidate %.4f (z = %.1f)", model, quantity, reference, candidate, z);
+		}
+	}
+	
+	private final List<Deviation> deviations = new ArrayList<Deviation>();
+	private int comparisons;
+	private double criticalZ;
+	
+	void add(Deviation d) {
+		deviations.add(d);
+	}
+	
+	void setComparisons(int comparisons, double criticalZ) {
+		this.comparisons = comparisons;
+		this.criticalZ = criticalZ;
+	}
+	
+	void addAll(EquivalenceReport other) {
+		deviations.addAll(other.deviations);
+		comparisons += other.comparisons;
+		criticalZ = Math.max(criticalZ, other.criticalZ);
+	}
+	
+	public boolean isEquivalent() {
+		return deviations.isEmpty();
+	}
+	
+	public List<Deviation> getDeviations() {
+		return Collections.unmodifiableList(deviations);
+	}
+	
+	public int getComparisons() {
+		return comparisons;
+	}
+	
+	/**
+	 * @return the |z| above which a difference was reported.
+	 */
+	public double getCriticalZ() {
+		return criticalZ;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		b.append(String.format("%d of %d quantities differ significantly (|z| > %.2f)", deviations.size(), comparisons, criticalZ));
+		for (Deviation d : deviations) {
+			b.append("\n  ").append(d);
+		}
+		return b.toString();
+	}
+}
@@ -0,0 +1,85 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.equivalence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.generator.ModelGenerator;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.MeasurementType;
+import fi.smaa.jsmaa.model.generator.ModelGenerator.PreferenceType;
+
+/**
+ * Fixed-seed models covering the measurement types, preference types and both methods, for
+ * comparing simulation engines.
+ */
+public class ModelCorpus {
+	
+	private static final long SEED = 1L;
+	
+	private ModelCorpus() {
+	}
+	
+	public static Map<String, SMAAModel> getModels() {
+		Map<String, SMAAModel> models = new LinkedHashMap<String, SMAAModel>();
+		models.put("smaa2-cardinal", generator(6, 4)
+				.setMeasurementMix(MeasurementType.EXACT, MeasurementType.INTERVAL, MeasurementType.GAUSSIAN,
+						MeasurementType.LOGNORMAL, MeasurementType.BETA, MeasurementType.DISCRETE)
+				.generateSMAA2());
+		models.put("smaa2-ordinal-criteria", generator(5, 4)
+				.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.ORDINAL)
+				.generateSMAA2());
+		models.put("smaa2-relative", generator(5, 3)
+				.setMeasurementMix(MeasurementType.RELATIVE_NORMAL, MeasurementType.RELATIVE_LOGITNORMAL)
+				.generateSMAA2());
+		models.put("smaa2-multivariate", generator(5, 3)
+				.setMeasurementMix(MeasurementType.MULTIVARIATE_GAUSSIAN)
+				.generateSMAA2());
+		models.put("smaa2-ordinal-preferences", generator(6, 4)
+				.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.INTERVAL)
+				.setPreferences(PreferenceType.ORDINAL)
+				.generateSMAA2());
+		models.put("smaa2-interval-preferences", generator(6, 3)
+				.setMeasurementMix(MeasurementType.GAUSSIAN)
+				.setPreferences(PreferenceType.INTERVAL)
+				.generateSMAA2());
+		models.put("smaa2-exact-preferences", generator(6, 4)
+				.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.LOGITNORMAL)
+				.setValueFunctionPoints(3)
+				.setPreferences(PreferenceType.EXACT)
+				.generateSMAA2());
+		models.put("smaatri", generator(6, 4).setCategories(3)
+				.setMeasurementMix(MeasurementType.GAUSSIAN, MeasurementType.INTERVAL)
+				.generateSMAATRI());
+		models.put("smaatri-exact-preferences", generator(6, 3).setCategories(4)
+				.setMeasurementMix(MeasurementType.GAUSSIAN)
+				.setPreferences(PreferenceType.EXACT)
+				.generateSMAATRI());
+		return models;
+	}
+	
+	private static ModelGenerator generator(int alts, int crits) {
+		return new ModelGenerator(SEED).setAlternatives(alts).setCriteria(crits);
+	}
+}
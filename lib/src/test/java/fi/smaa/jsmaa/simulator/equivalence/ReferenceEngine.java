@@ -0,0 +1,60 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.equivalence;
+
+import org.drugis.common.threading.Task;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAASimulation;
+import fi.smaa.jsmaa.simulator.SMAATRIResults;
+import fi.smaa.jsmaa.simulator.SMAATRISimulation;
+
+/**
+ * Runs the plain {@link SMAA2Simulation} and {@link SMAATRISimulation} on the calling thread.
+ */
+public class ReferenceEngine implements SimulationEngine {
+
+	public SMAA2Results runSMAA2(SMAAModel model, RandomUtil random, int iterations) {
+		SMAA2Simulation simulation = new SMAA2Simulation(model, random, iterations);
+		run(simulation);
+		return simulation.getResults();
+	}
+
+	public SMAATRIResults runSMAATRI(SMAATRIModel model, RandomUtil random, int iterations) {
+		SMAATRISimulation simulation = new SMAATRISimulation(model, random, iterations);
+		run(simulation);
+		return simulation.getResults();
+	}
+
+	private static void run(SMAASimulation<?> simulation) {
+		Task task = simulation.getTask();
+		task.run();
+		if (task.isFailed()) {
+			throw new IllegalStateException("Reference simulation failed", task.getFailureCause());
+		}
+	}
+}
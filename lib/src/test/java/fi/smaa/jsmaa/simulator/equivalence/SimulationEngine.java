@@ -0,0 +1,43 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.equivalence;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAATRIResults;
+
+/**
+ * A way of computing SMAA results, to be compared against the {@link ReferenceEngine} by the
+ * {@link EquivalenceHarness}. Implementations run to completion before returning.
+ */
+public interface SimulationEngine {
+	
+	/**
+	 * @param iterations the number of iterations of each phase (RA & CW, CF).
+	 */
+	public SMAA2Results runSMAA2(SMAAModel model, RandomUtil random, int iterations);
+	
+	public SMAATRIResults runSMAATRI(SMAATRIModel model, RandomUtil random, int iterations);
+}
@@ -0,0 +1,160 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.simulator.trace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.drugis.common.threading.TaskUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Category;
+import fi.smaa.jsmaa.model.GaussianMeasurement;
+import fi.smaa.jsmaa.model.IndependentMeasurements;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+
+public class TraceWriterTest {
+	
+	private File file;
+	private Alternative alt1 = new Alternative("alt1");
+	private Alternative alt2 = new Alternative("alt2");
+	private ScaleCriterion c1 = new ScaleCriterion("c1");
+	private ScaleCriterion c2 = new ScaleCriterion("c2");
+	
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("jsmaa", ".trace");
+	}
+	
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testSMAA2Trace() throws IOException, InterruptedException {
+		SMAAModel model = new SMAAModel("model");
+		model.addAlternative(alt1);
+		model.addAlternative(alt2);
+		model.addCriterion(c1);
+		model.addCriterion(c2);
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt1, new Interval(1.0, 1.0));
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c1, alt2, new Interval(0.0, 0.0));
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c2, alt1, new GaussianMeasurement(0.0, 1.0));
+		((IndependentMeasurements) model.getMeasurements()).setMeasurement(c2, alt2, new GaussianMeasurement(1.0, 1.0));
+		
+		final int iters = 5000;
+		SMAA2Simulation simulation = new SMAA2Simulation(model, RandomUtil.createWithFixedSeed(), iters);
+		TraceWriter trace = TraceWriter.createRankTrace(file, model.getAlternatives(), model.getCriteria(), true);
+		simulation.setTrace(trace);
+		TaskUtil.run(simulation.getTask());
+		trace.close();
+		assertEquals(iters, trace.getIterations());
+		
+		TraceReader reader = new TraceReader(file);
+		assertFalse(reader.isCategoryTrace());
+		assertTrue(reader.hasMeasurements());
+		assertEquals(Arrays.asList("alt1", "alt2"), reader.getAlternatives());
+		assertEquals(Arrays.asList("c1", "c2"), reader.getCriteria());
+		
+		int[][] hits = new int[2][2];
+		while (reader.next()) {
+			assertEquals(1.0, reader.getWeights()[0] + reader.getWeights()[1], 1E-10);
+			assertEquals(1.0, reader.getMeasurements()[0][0], 0.0);
+			assertEquals(0.0, reader.getMeasurements()[0][1], 0.0);
+			for (int a = 0; a < 2; ++a) {
+				++hits[a][reader.getValues()[a]];
+			}
+		}
+		reader.close();
+		assertEquals(iters, reader.getIterations());
+		
+		SMAA2Results results = simulation.getResults();
+		List<Double> ra1 = results.getRankAcceptabilities().get(alt1);
+		List<Double> ra2 = results.getRankAcceptabilities().get(alt2);
+		for (int r = 0; r < 2; ++r) {
+			assertEquals(ra1.get(r), hits[0][r] / (double) iters, 1E-10);
+			assertEquals(ra2.get(r), hits[1][r] / (double) iters, 1E-10);
+		}
+	}
+	
+	@Test
+	public void testSmallBuffers() throws IOException {
+		List<Alternative> alts = Arrays.asList(alt1, alt2);
+		List<ScaleCriterion> crits = Arrays.asList(c1, c2);
+		List<Category> cats = Arrays.asList(new Category("good"), new Category("bad"));
+		TraceWriter trace = new TraceWriter(file, TraceReader.KIND_CATEGORIES, alts, crits, cats, false, 40, 2);
+		for (int i = 0; i < 1000; ++i) {
+			trace.write(new double[] {i, -i}, new int[] {i % 2, 1 - i % 2}, null);
+		}
+		trace.close();
+		trace.close();
+		
+		TraceReader reader = new TraceReader(file);
+		assertTrue(reader.isCategoryTrace());
+		assertFalse(reader.hasMeasurements());
+		assertEquals(Arrays.asList("good", "bad"), reader.getCategories());
+		for (int i = 0; i < 1000; ++i) {
+			assertTrue(reader.next());
+			assertArrayEquals(new double[] {i, -i}, reader.getWeights(), 0.0);
+			assertArrayEquals(new int[] {i % 2, 1 - i % 2}, reader.getValues());
+			assertNull(reader.getMeasurements());
+		}
+		assertFalse(reader.next());
+		reader.close();
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testWriteAfterClose() throws IOException {
+		TraceWriter trace = TraceWriter.createRankTrace(file, Arrays.asList(alt1), Arrays.asList(c1), false);
+		trace.close();
+		trace.write(new double[] {1.0}, new int[] {0}, null);
+	}
+	
+	@Test
+	public void testInvalidTrace() {
+		try {
+			new TraceReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+			fail();
+		} catch (IOException e) {
+		}
+	}
+}
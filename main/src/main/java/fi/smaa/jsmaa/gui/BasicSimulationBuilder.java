@@ -22,13 +22,8 @@
 */
 package fi.smaa.jsmaa.gui;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.util.List;
-
 import javax.swing.JFrame;
 
-import fi.smaa.jsmaa.model.NamedObject;
 import fi.smaa.jsmaa.model.SMAAModel;
 import fi.smaa.jsmaa.model.SMAATRIModel;
 import fi.smaa.jsmaa.simulator.ResultsEvent;
@@ -50,9 +45,6 @@ public abstract class BasicSimulationBuilder<M extends SMAAModel, R extends SMAA
 		super(model);
 		this.factory = factory;
 		this.frame = frame;
-		
-		connectNameAdapters(model.getAlternatives(), this.model.getAlternatives());
-		connectNameAdapters(model.getCriteria(), this.model.getCriteria());
 	}
 	
 	@Override
@@ -68,29 +60,6 @@ public abstract class BasicSimulationBuilder<M extends SMAAModel, R extends SMAA
 		factory.getProgressModel().setTask(simulation.getTask());
 	}
 
-	protected void connectNameAdapters(List<? extends NamedObject> oldModelObjects,
-			List<? extends NamedObject> newModelObjects) {
-		assert(oldModelObjects.size() == newModelObjects.size());
-		for (int i=0;i<oldModelObjects.size();i++) {
-			NamedObject mCrit = oldModelObjects.get(i);
-			NamedObject nmCrit = newModelObjects.get(i);
-			mCrit.addPropertyChangeListener(new NameUpdater(nmCrit));
-		}
-	}		
-
-	private class NameUpdater implements PropertyChangeListener {
-
-		private NamedObject toUpdate;
-		public NameUpdater(NamedObject toUpdate) {
-			this.toUpdate = toUpdate;
-		}
-		public void propertyChange(PropertyChangeEvent evt) {
-			if (evt.getPropertyName().equals(NamedObject.PROPERTY_NAME)){ 
-				toUpdate.setName((String) evt.getNewValue());
-			}
-		}
-	}
-
 	private class SimulationProgressListener implements SMAAResultsListener {
 		public void resultsChanged(ResultsEvent ev) {
 			if (ev.getException() != null) {
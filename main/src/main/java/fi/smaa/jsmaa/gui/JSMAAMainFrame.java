@@ -59,6 +59,7 @@ import fi.smaa.jsmaa.model.NamedObject;
 import fi.smaa.jsmaa.model.SMAAModel;
 import fi.smaa.jsmaa.model.SMAAModelListener;
 import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.model.binary.BinaryModelFormat;
 import fi.smaa.jsmaa.model.xml.InvalidModelVersionException;
 import fi.smaa.jsmaa.model.xml.JSMAABinding;
 import fi.smaa.jsmaa.simulator.BuildQueue;
@@ -205,7 +206,13 @@ public class JSMAAMainFrame extends JFrame implements MenuDirector {
 	private boolean trySaveModel(File file) {
 		try {
 			FileOutputStream fos = new FileOutputStream(file);
-			JSMAABinding.writeModel(modelManager.getModel(), new BufferedOutputStream(fos));
+			if (BinaryModelFormat.FILE_EXTENSION.equals(MyFileFilter.getExtension(file))) {
+				BufferedOutputStream bos = new BufferedOutputStream(fos);
+				BinaryModelFormat.writeModel(modelManager.getModel(), bos);
+				bos.flush();
+			} else {
+				JSMAABinding.writeModel(modelManager.getModel(), new BufferedOutputStream(fos));
+			}
 			fos.close();
 			modelManager.setSaved(true);
 			return true;
@@ -233,9 +240,14 @@ public class JSMAAMainFrame extends JFrame implements MenuDirector {
 			public void doAction(String path, String extension) {
 			try {		
 				File file = new File(path);
-				InputStream fis = new FileInputStream(file);
-				SMAAModel loadedModel = JSMAABinding.readModel(new BufferedInputStream(fis));
-				fis.close();
+				SMAAModel loadedModel;
+				if (BinaryModelFormat.isBinaryModel(file)) {
+					loadedModel = BinaryModelFormat.readModel(file);
+				} else {
+					InputStream fis = new FileInputStream(file);
+					loadedModel = JSMAABinding.readModel(new BufferedInputStream(fis));
+					fis.close();
+				}
 
 				modelManager.setModel(loadedModel);
 				modelManager.setModelFile(file);
@@ -270,8 +282,8 @@ public class JSMAAMainFrame extends JFrame implements MenuDirector {
 	}
 
 	private File checkFileExtension(File file) {
-		if (MyFileFilter.getExtension(file) == null ||
-				!MyFileFilter.getExtension(file).equals(JSMAA_MODELFILE_EXTENSION)) {
+		String ext = MyFileFilter.getExtension(file);
+		if (ext == null || !(ext.equals(JSMAA_MODELFILE_EXTENSION) || ext.equals(BinaryModelFormat.FILE_EXTENSION))) {
 			return new File(file.getAbsolutePath() + "." + JSMAA_MODELFILE_EXTENSION);
 		}
 		return file;
@@ -291,19 +303,29 @@ public class JSMAAMainFrame extends JFrame implements MenuDirector {
 	private class MySMAAModelListener implements SMAAModelListener {
 		public void modelChanged(ModelChangeEvent ev) {
 			buildNewSimulator();
-			switch (ev.getType()) {
-			case ModelChangeEvent.CRITERIA:
-			case ModelChangeEvent.ALTERNATIVES:
-			case ModelChangeEvent.CATEGORIES:
+			// a coalesced event of a transaction may stand for several types of change
+			boolean structure = false;
+			boolean rebuild = false;
+			for (int type : ev.getTypes()) {
+				switch (type) {
+				case ModelChangeEvent.CRITERIA:
+				case ModelChangeEvent.ALTERNATIVES:
+				case ModelChangeEvent.CATEGORIES:
+					structure = true;
+					break;
+				case ModelChangeEvent.MEASUREMENT:
+				case ModelChangeEvent.MEASUREMENT_TYPE:
+				case ModelChangeEvent.PREFERENCES:
+				case ModelChangeEvent.PREFERENCE_FUNCTION:
+					break;
+				default:
+					rebuild = true;
+				}
+			}
+			if (structure) {
 				reconnectNameListeners();
 				Focuser.focus(guiFactory.getTree(), guiFactory.getTreeModel(), guiFactory.getTreeModel().getModelNode());
-				break;
-			case ModelChangeEvent.MEASUREMENT:
-			case ModelChangeEvent.MEASUREMENT_TYPE:
-			case ModelChangeEvent.PREFERENCES:
-			case ModelChangeEvent.PREFERENCE_FUNCTION:
-				break;
-			default:
+			} else if (rebuild) {
 				rebuildRightPanel();
 			}
 		}
@@ -33,8 +33,6 @@ public class SMAATRISimulationBuilder extends BasicSimulationBuilder<SMAATRIMode
 
 	public SMAATRISimulationBuilder(SMAATRIModel model, GUIFactory factory, JFrame frame) {
 		super(model, factory, frame);
-		
-		connectNameAdapters(model.getCategories(), this.model.getCategories());		
 	}
 	
 	@Override
@@ -61,8 +61,8 @@ public class LeftTreeModel implements TreeModel{
 		this.smaaModel = smaaModel;
 		smaaModel.addModelListener(new SMAAModelListener() {
 			public void modelChanged(ModelChangeEvent ev) {
-				if (ev.getType() == ModelChangeEvent.ALTERNATIVES ||
-						ev.getType() == ModelChangeEvent.CRITERIA) {
+				if (ev.hasType(ModelChangeEvent.ALTERNATIVES) ||
+						ev.hasType(ModelChangeEvent.CRITERIA)) {
 					fireTreeChange();
 				}
 			}
@@ -45,7 +45,7 @@ public class LeftTreeModelSMAATRI extends LeftTreeModel {
 		
 		smaaModel.addModelListener(new SMAAModelListener() {
 			public void modelChanged(ModelChangeEvent ev) {
-				if (ev.getType() == ModelChangeEvent.CATEGORIES) {
+				if (ev.hasType(ModelChangeEvent.CATEGORIES)) {
 					fireTreeChange();
 				}
 			}
@@ -0,0 +1,145 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.service;
+
+import java.util.List;
+
+/**
+ * Minimal streaming JSON writer for the simulation service responses. Commas between
+ * members are inserted automatically; keys and values must be written in matching pairs.
+ */
+public class JSONWriter {
+
+	private StringBuilder buf = new StringBuilder();
+	private boolean first = true;
+
+	public JSONWriter beginObject() {
+		separate();
+		buf.append('{');
+		first = true;
+		return this;
+	}
+
+	public JSONWriter endObject() {
+		buf.append('}');
+		first = false;
+		return this;
+	}
+
+	public JSONWriter beginArray() {
+		separate();
+		buf.append('[');
+		first = true;
+		return this;
+	}
+
+	public JSONWriter endArray() {
+		buf.append(']');
+		first = false;
+		return this;
+	}
+
+	public JSONWriter key(String key) {
+		separate();
+		appendString(key);
+		buf.append(':');
+		first = true;
+		return this;
+	}
+
+	public JSONWriter value(String value) {
+		separate();
+		if (value == null) {
+			buf.append("null");
+		} else {
+			appendString(value);
+		}
+		return this;
+	}
+
+	public JSONWriter value(long value) {
+		separate();
+		buf.append(value);
+		return this;
+	}
+
+	public JSONWriter value(double value) {
+		separate();
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			buf.append("null");
+		} else {
+			buf.append(value);
+		}
+		return this;
+	}
+
+	public JSONWriter values(List<Double> list) {
+		beginArray();
+		for (Double d : list) {
+			value(d == null ? Double.NaN : d.doubleValue());
+		}
+		return endArray();
+	}
+
+	/**
+	 * Writes a pre-rendered JSON fragment as the next value.
+	 */
+	public JSONWriter raw(String json) {
+		separate();
+		buf.append(json);
+		return this;
+	}
+
+	private void separate() {
+		if (!first) {
+			buf.append(',');
+		}
+		first = false;
+	}
+
+	private void appendString(String s) {
+		buf.append('"');
+		for (int i=0;i<s.length();i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"': buf.append("\\\""); break;
+			case '\\': buf.append("\\\\"); break;
+			case '\n': buf.append("\\n"); break;
+			case '\r': buf.append("\\r"); break;
+			case '\t': buf.append("\\t"); break;
+			default:
+				if (c < 0x20) {
+					buf.append(String.format("\\u%04x", (int) c));
+				} else {
+					buf.append(c);
+				}
+			}
+		}
+		buf.append('"');
+	}
+
+	@Override
+	public String toString() {
+		return buf.toString();
+	}
+}
@@ -0,0 +1,295 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.drugis.common.threading.Task;
+
+import fi.smaa.common.RandomUtil;
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.Criterion;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.SMAATRIModel;
+import fi.smaa.jsmaa.simulator.ResultsEvent;
+import fi.smaa.jsmaa.simulator.SMAA2Results;
+import fi.smaa.jsmaa.simulator.SMAA2Simulation;
+import fi.smaa.jsmaa.simulator.SMAAResults;
+import fi.smaa.jsmaa.simulator.SMAAResultsListener;
+import fi.smaa.jsmaa.simulator.SMAASimulation;
+import fi.smaa.jsmaa.simulator.SMAATRIResults;
+import fi.smaa.jsmaa.simulator.SMAATRISimulation;
+
+/**
+ * A single simulation submitted to the service. The job owns its model (parsed from the
+ * submitted document, so it is never shared with other jobs) and its own RandomUtil.
+ * Snapshots of the results are rendered on the simulation thread, so readers never
+ * observe half-updated results.
+ */
+public class SimulationJob implements Runnable {
+	
+	public enum Status {
+		QUEUED, RUNNING, FINISHED, FAILED, CANCELLED
+	}
+
+	private static final long SNAPSHOT_INTERVAL = 200;
+
+	private final String id;
+	private final SMAAModel model;
+	private final int iterations;
+	private final long seed;
+
+	private volatile Status status = Status.QUEUED;
+	private volatile SMAASimulation<?> simulation;
+	private volatile boolean cancelled;
+	private volatile int iteration;
+	private volatile String error;
+	private volatile long started;
+	private volatile long finished;
+
+	private String snapshot;
+	private long snapshotVersion;
+	private long lastSnapshotTime;
+
+	public SimulationJob(String id, SMAAModel model, int iterations, long seed) {
+		this.id = id;
+		this.model = model;
+		this.iterations = iterations;
+		this.seed = seed;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return the total number of iterations to run: SMAA-2 runs a second pass for the confidence factors.
+	 */
+	public int getTotalIterations() {
+		return model instanceof SMAATRIModel ? iterations : 2 * iterations;
+	}
+
+	public int getIteration() {
+		return iteration;
+	}
+
+	public double getProgress() {
+		return (double) iteration / (double) getTotalIterations();
+	}
+
+	public boolean isDone() {
+		return status == Status.FINISHED || status == Status.FAILED || status == Status.CANCELLED;
+	}
+
+	public void run() {
+		if (cancelled) {
+			return;
+		}
+		started = System.currentTimeMillis();
+		status = Status.RUNNING;
+		try {
+			SMAASimulation<?> simulation = createSimulation(RandomUtil.createWithSeed(seed));
+			Task task = simulation.getTask();
+			final SMAAResults results = simulation.getResults();
+			results.addResultsListener(new SMAAResultsListener() {
+				public void resultsChanged(ResultsEvent ev) {
+					updateProgress(results, false);
+				}
+			});
+			this.simulation = simulation;
+			if (cancelled) {
+				finish(Status.CANCELLED);
+				return;
+			}
+			// run on the worker thread, so that the queue bounds the number of running simulations
+			task.run();
+			if (task.isFailed()) {
+				Throwable cause = task.getFailureCause();
+				error = cause == null ? "Simulation failed" : cause.getMessage();
+				finish(Status.FAILED);
+			} else if (cancelled || task.isAborted()) {
+				finish(Status.CANCELLED);
+			} else {
+				updateProgress(results, true);
+				finish(Status.FINISHED);
+			}
+		} catch (RuntimeException e) {
+			error = e.getMessage();
+			finish(Status.FAILED);
+		}
+	}
+
+	/**
+	 * Cancels the job. A queued job never starts, a running one is aborted.
+	 */
+	public void cancel() {
+		cancelled = true;
+		SMAASimulation<?> s = simulation;
+		if (s != null) {
+			s.abort();
+		} else if (status == Status.QUEUED) {
+			finish(Status.CANCELLED);
+		}
+	}
+
+	private SMAASimulation<?> createSimulation(RandomUtil random) {
+		if (model instanceof SMAATRIModel) {
+			return new SMAATRISimulation((SMAATRIModel) model, random, iterations);
+		}
+		return new SMAA2Simulation(model, random, iterations);
+	}
+
+	private void updateProgress(SMAAResults results, boolean last) {
+		if (results instanceof SMAA2Results) {
+			SMAA2Results r = (SMAA2Results) results;
+			iteration = r.getRankAccIteration() + r.getConfidenceIteration();
+		} else {
+			iteration = ((SMAATRIResults) results).getIteration();
+		}
+		long now = System.currentTimeMillis();
+		if (last || now - lastSnapshotTime >= SNAPSHOT_INTERVAL) {
+			String json = renderResults(results);
+			synchronized (this) {
+				lastSnapshotTime = now;
+				snapshot = json;
+				snapshotVersion++;
+				notifyAll();
+			}
+		}
+	}
+
+	private synchronized void finish(Status s) {
+		if (isDone()) {
+			return;
+		}
+		finished = System.currentTimeMillis();
+		status = s;
+		snapshotVersion++;
+		notifyAll();
+	}
+
+	/**
+	 * Blocks until a snapshot newer than the given version is available, the job is done,
+	 * or the timeout expires.
+	 * 
+	 * @return the current snapshot version
+	 */
+	public synchronized long awaitSnapshot(long version, long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (snapshotVersion <= version && !isDone()) {
+			long wait = deadline - System.currentTimeMillis();
+			if (wait <= 0) {
+				break;
+			}
+			wait(wait);
+		}
+		return snapshotVersion;
+	}
+
+	/**
+	 * @return the latest results snapshot as JSON, or null if none has been taken yet.
+	 */
+	public synchronized String getSnapshot() {
+		return snapshot;
+	}
+
+	public long getRunningTime() {
+		if (started == 0) {
+			return 0;
+		}
+		return (finished == 0 ? System.currentTimeMillis() : finished) - started;
+	}
+
+	public String toJSON() {
+		JSONWriter w = new JSONWriter().beginObject();
+		w.key("id").value(id);
+		w.key("model").value(model.getName());
+		w.key("method").value(model instanceof SMAATRIModel ? "SMAA-TRI" : "SMAA-2");
+		w.key("status").value(status.toString());
+		w.key("seed").value(seed);
+		w.key("iteration").value(iteration);
+		w.key("totalIterations").value(getTotalIterations());
+		w.key("progress").value(getProgress());
+		w.key("runningTime").value(getRunningTime());
+		if (error != null) {
+			w.key("error").value(error);
+		}
+		String s = getSnapshot();
+		if (s != null) {
+			w.key("results").raw(s);
+		}
+		return w.endObject().toString();
+	}
+
+	private static String renderResults(SMAAResults results) {
+		JSONWriter w = new JSONWriter().beginObject();
+		if (results instanceof SMAA2Results) {
+			SMAA2Results r = (SMAA2Results) results;
+			w.key("rankAcceptabilities");
+			writeAcceptabilities(w, r.getAlternatives(), r.getRankAcceptabilities());
+			w.key("centralWeights").beginObject();
+			Map<Alternative, Map<Criterion, Double>> cws = r.getCentralWeightVectors();
+			for (Alternative a : r.getAlternatives()) {
+				w.key(a.getName()).beginObject();
+				for (Criterion c : r.getCriteria()) {
+					w.key(c.getName()).value(cws.get(a).get(c));
+				}
+				w.endObject();
+			}
+			w.endObject();
+			w.key("confidenceFactors").beginObject();
+			Map<Alternative, Double> cfs = r.getConfidenceFactors();
+			for (Alternative a : r.getAlternatives()) {
+				w.key(a.getName()).value(cfs.get(a));
+			}
+			w.endObject();
+		} else {
+			SMAATRIResults r = (SMAATRIResults) results;
+			w.key("categories").beginArray();
+			for (Alternative c : r.getCategories()) {
+				w.value(c.getName());
+			}
+			w.endArray();
+			w.key("categoryAcceptabilities");
+			writeAcceptabilities(w, r.getAlternatives(), r.getCategoryAcceptabilities());
+		}
+		return w.endObject().toString();
+	}
+
+	private static void writeAcceptabilities(JSONWriter w, List<Alternative> alts, Map<Alternative, List<Double>> accs) {
+		w.beginObject();
+		for (Alternative a : alts) {
+			w.key(a.getName()).values(accs.get(a));
+		}
+		w.endObject();
+	}
+}
@@ -0,0 +1,183 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fi.smaa.jsmaa.model.SMAAModel;
+
+/**
+ * Bounded queue of simulation jobs. At most <code>workers</code> jobs run concurrently and at most
+ * <code>capacity</code> further jobs wait; submitting beyond that is rejected instead of
+ * letting the backlog grow without bound.
+ */
+public class SimulationJobQueue {
+	
+	private static final int MAX_RETAINED_JOBS = 1000;
+
+	private final ThreadPoolExecutor executor;
+	private final Map<String, SimulationJob> jobs = new LinkedHashMap<String, SimulationJob>();
+	private final AtomicLong nextId = new AtomicLong(1);
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicLong completedJobs = new AtomicLong();
+	private final AtomicLong completedIterations = new AtomicLong();
+	private final long startTime = System.currentTimeMillis();
+
+	public SimulationJobQueue(int workers, int capacity) {
+		executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(capacity), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "jsmaa-job-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		}) {
+			@Override
+			protected void beforeExecute(Thread t, Runnable r) {
+				running.incrementAndGet();
+			}
+			@Override
+			protected void afterExecute(Runnable r, Throwable t) {
+				running.decrementAndGet();
+				SimulationJob job = (SimulationJob) r;
+				if (job.getStatus() == SimulationJob.Status.FINISHED) {
+					completedJobs.incrementAndGet();
+					completedIterations.addAndGet(job.getTotalIterations());
+				}
+			}
+		};
+	}
+
+	/**
+	 * Queues a simulation of the model. The model must not be referenced by anyone else.
+	 * 
+	 * @throws RejectedExecutionException if the queue is full or shut down.
+	 */
+	public SimulationJob submit(SMAAModel model, int iterations, long seed) throws RejectedExecutionException {
+		SimulationJob job = new SimulationJob(Long.toString(nextId.getAndIncrement()), model, iterations, seed);
+		// register first, so that the job can be found as soon as a worker may start it
+		synchronized (jobs) {
+			jobs.put(job.getId(), job);
+			evictFinished();
+		}
+		try {
+			executor.execute(job);
+		} catch (RejectedExecutionException e) {
+			synchronized (jobs) {
+				jobs.remove(job.getId());
+			}
+			throw e;
+		}
+		return job;
+	}
+
+	public SimulationJob getJob(String id) {
+		synchronized (jobs) {
+			return jobs.get(id);
+		}
+	}
+
+	public List<SimulationJob> getJobs() {
+		synchronized (jobs) {
+			return new ArrayList<SimulationJob>(jobs.values());
+		}
+	}
+
+	/**
+	 * Cancels the job if it is still queued or running, and forgets it if it has already completed.
+	 * 
+	 * @return the job, or null if no such job exists.
+	 */
+	public SimulationJob cancel(String id) {
+		SimulationJob job = getJob(id);
+		if (job == null) {
+			return null;
+		}
+		if (job.isDone()) {
+			synchronized (jobs) {
+				jobs.remove(id);
+			}
+		} else {
+			executor.remove(job);
+			job.cancel();
+		}
+		return job;
+	}
+
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public int getRunningJobs() {
+		return running.get();
+	}
+
+	public long getCompletedJobs() {
+		return completedJobs.get();
+	}
+
+	/**
+	 * @return the number of simulation iterations completed per second since the queue was created.
+	 */
+	public double getIterationThroughput() {
+		return completedIterations.get() / getUptimeSeconds();
+	}
+
+	/**
+	 * @return the number of jobs completed per second since the queue was created.
+	 */
+	public double getJobThroughput() {
+		return completedJobs.get() / getUptimeSeconds();
+	}
+
+	private double getUptimeSeconds() {
+		return Math.max(System.currentTimeMillis() - startTime, 1L) / 1000.0;
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+		for (SimulationJob job : getJobs()) {
+			job.cancel();
+		}
+	}
+
+	private void evictFinished() {
+		for (Iterator<SimulationJob> it = jobs.values().iterator(); it.hasNext() && jobs.size() > MAX_RETAINED_JOBS;) {
+			if (it.next().isDone()) {
+				it.remove();
+			}
+		}
+	}
+}
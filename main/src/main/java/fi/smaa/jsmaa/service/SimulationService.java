@@ -0,0 +1,277 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import javolution.xml.stream.XMLStreamException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+
+/**
+ * Lightweight HTTP front-end to a {@link SimulationJobQueue}, using only the HTTP server
+ * built into the JDK. Resources:
+ * <ul>
+ * <li><code>POST /jobs[?iterations=N&amp;seed=S]</code> - submit a .jsmaa model document, returns the job</li>
+ * <li><code>GET /jobs</code> - list of jobs</li>
+ * <li><code>GET /jobs/{id}</code> - status, progress and latest results snapshot of a job</li>
+ * <li><code>GET /jobs/{id}/stream</code> - newline-delimited snapshots until the job is done</li>
+ * <li><code>DELETE /jobs/{id}</code> - cancel a job, or forget a completed one</li>
+ * <li><code>GET /status</code> - queue depth, running jobs and throughput</li>
+ * </ul>
+ * The service has no authentication, so it listens on the loopback interface unless another
+ * address is given explicitly.
+ */
+public class SimulationService {
+
+	public static final int DEFAULT_PORT = 8642;
+	public static final int DEFAULT_ITERATIONS = 10000;
+	public static final int MAX_ITERATIONS = 10000000;
+	private static final long STREAM_TIMEOUT = 1000;
+	private static final String JSON_TYPE = "application/json; charset=UTF-8";
+	// the number of requests handled at once; every open stream holds one
+	private static final int HANDLER_THREADS = 16;
+
+	private final HttpServer server;
+	private final ExecutorService handlers;
+	private final SimulationJobQueue queue;
+	private final Random seeds = new Random();
+
+	/**
+	 * Creates a service listening on the loopback interface.
+	 */
+	public SimulationService(int port, int workers, int capacity) throws IOException {
+		// the loopback address, as InetAddress.getLoopbackAddress() is not available in Java 6
+		this(InetAddress.getByName(null), port, workers, capacity);
+	}
+
+	/**
+	 * @param address the address to listen on, or null to listen on every interface.
+	 */
+	public SimulationService(InetAddress address, int port, int workers, int capacity) throws IOException {
+		queue = new SimulationJobQueue(workers, capacity);
+		server = HttpServer.create(new InetSocketAddress(address, port), 0);
+		server.createContext("/jobs", new JobsHandler());
+		server.createContext("/status", new StatusHandler());
+		handlers = Executors.newFixedThreadPool(HANDLER_THREADS);
+		server.setExecutor(handlers);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	public void stop() {
+		server.stop(0);
+		handlers.shutdownNow();
+		queue.shutdown();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	public SimulationJobQueue getQueue() {
+		return queue;
+	}
+
+	private class JobsHandler implements HttpHandler {
+		public void handle(HttpExchange ex) throws IOException {
+			try {
+				String[] path = ex.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+				String method = ex.getRequestMethod();
+				if (path.length == 1) {
+					if (method.equals("POST")) {
+						submit(ex);
+					} else if (method.equals("GET")) {
+						list(ex);
+					} else {
+						send(ex, 405, error("Method not allowed"));
+					}
+					return;
+				}
+				SimulationJob job = queue.getJob(path[1]);
+				if (job == null || path.length > 3) {
+					send(ex, 404, error("No such job"));
+				} else if (path.length == 3 && path[2].equals("stream") && method.equals("GET")) {
+					stream(ex, job);
+				} else if (path.length == 3) {
+					send(ex, 404, error("No such resource"));
+				} else if (method.equals("GET")) {
+					send(ex, 200, job.toJSON());
+				} else if (method.equals("DELETE")) {
+					send(ex, 200, queue.cancel(job.getId()).toJSON());
+				} else {
+					send(ex, 405, error("Method not allowed"));
+				}
+			} finally {
+				ex.close();
+			}
+		}
+
+		private void submit(HttpExchange ex) throws IOException {
+			Map<String, String> params = parseQuery(ex.getRequestURI());
+			int iterations;
+			long seed;
+			try {
+				iterations = params.containsKey("iterations") ? Integer.parseInt(params.get("iterations")) : DEFAULT_ITERATIONS;
+				seed = params.containsKey("seed") ? Long.parseLong(params.get("seed")) : nextSeed();
+			} catch (NumberFormatException e) {
+				send(ex, 400, error("Invalid number: " + e.getMessage()));
+				return;
+			}
+			if (iterations <= 0 || iterations > MAX_ITERATIONS) {
+				send(ex, 400, error("iterations must be within 1 and " + MAX_ITERATIONS));
+				return;
+			}
+			SMAAModel model;
+			try {
+				model = JSMAABinding.readModel(new BufferedInputStream(ex.getRequestBody()));
+			} catch (XMLStreamException e) {
+				send(ex, 400, error("Invalid model document: " + e.getMessage()));
+				return;
+			}
+			try {
+				SimulationJob job = queue.submit(model, iterations, seed);
+				ex.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+				send(ex, 202, job.toJSON());
+			} catch (RejectedExecutionException e) {
+				send(ex, 503, error("Job queue full"));
+			}
+		}
+
+		private void list(HttpExchange ex) throws IOException {
+			JSONWriter w = new JSONWriter().beginArray();
+			for (SimulationJob job : queue.getJobs()) {
+				w.beginObject();
+				w.key("id").value(job.getId());
+				w.key("status").value(job.getStatus().toString());
+				w.key("progress").value(job.getProgress());
+				w.endObject();
+			}
+			send(ex, 200, w.endArray().toString());
+		}
+
+		private void stream(HttpExchange ex, SimulationJob job) throws IOException {
+			ex.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=UTF-8");
+			ex.sendResponseHeaders(200, 0);
+			OutputStream os = ex.getResponseBody();
+			long version = -1;
+			try {
+				while (true) {
+					boolean done = job.isDone();
+					long current = job.awaitSnapshot(version, STREAM_TIMEOUT);
+					if (current != version || done) {
+						version = current;
+						os.write((job.toJSON() + "\n").getBytes("UTF-8"));
+						os.flush();
+					}
+					if (done) {
+						break;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			os.close();
+		}
+	}
+
+	private class StatusHandler implements HttpHandler {
+		public void handle(HttpExchange ex) throws IOException {
+			try {
+				JSONWriter w = new JSONWriter().beginObject();
+				w.key("queueDepth").value(queue.getQueueDepth());
+				w.key("runningJobs").value(queue.getRunningJobs());
+				w.key("completedJobs").value(queue.getCompletedJobs());
+				w.key("jobsPerSecond").value(queue.getJobThroughput());
+				w.key("iterationsPerSecond").value(queue.getIterationThroughput());
+				send(ex, 200, w.endObject().toString());
+			} finally {
+				ex.close();
+			}
+		}
+	}
+
+	private synchronized long nextSeed() {
+		return seeds.nextLong();
+	}
+
+	private static String error(String msg) {
+		return new JSONWriter().beginObject().key("error").value(msg).endObject().toString();
+	}
+
+	private static void send(HttpExchange ex, int code, String body) throws IOException {
+		byte[] bytes = body.getBytes("UTF-8");
+		ex.getResponseHeaders().set("Content-Type", JSON_TYPE);
+		ex.sendResponseHeaders(code, bytes.length);
+		OutputStream os = ex.getResponseBody();
+		os.write(bytes);
+		os.close();
+	}
+
+	private static Map<String, String> parseQuery(URI uri) {
+		Map<String, String> params = new HashMap<String, String>();
+		String query = uri.getRawQuery();
+		if (query == null) {
+			return params;
+		}
+		for (String pair : query.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0) {
+				params.put(pair.substring(0, eq), pair.substring(eq + 1));
+			}
+		}
+		return params;
+	}
+
+	/**
+	 * Starts the service. Arguments (all optional): port, number of concurrent jobs, queue capacity,
+	 * and the address to listen on (the loopback interface by default, 0.0.0.0 for every interface).
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		InetAddress address = InetAddress.getByName(args.length > 3 ? args[3] : null);
+		SimulationService service = new SimulationService(address, port, workers, capacity);
+		service.start();
+		System.out.println("JSMAA simulation service listening on " + address.getHostAddress() + ":" + service.getPort());
+	}
+}
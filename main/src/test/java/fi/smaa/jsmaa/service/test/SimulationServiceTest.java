@@ -0,0 +1,164 @@
+/*
+    This file is part of JSMAA.
+    JSMAA is distributed from http://smaa.fi/.
+
+    (c) Tommi Tervonen, 2009-2010.
+    (c) Tommi Tervonen, Gert van Valkenhoef 2011.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid 2012.
+    (c) Tommi Tervonen, Gert van Valkenhoef, Joel Kuiper, Daan Reid, Raymond Vermaas 2013-2015.
+
+    JSMAA is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    JSMAA is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with JSMAA.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package fi.smaa.jsmaa.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.smaa.jsmaa.model.Alternative;
+import fi.smaa.jsmaa.model.ImpactMatrix;
+import fi.smaa.jsmaa.model.Interval;
+import fi.smaa.jsmaa.model.SMAAModel;
+import fi.smaa.jsmaa.model.ScaleCriterion;
+import fi.smaa.jsmaa.model.xml.JSMAABinding;
+import fi.smaa.jsmaa.service.SimulationJob;
+import fi.smaa.jsmaa.service.SimulationJobQueue;
+import fi.smaa.jsmaa.service.SimulationService;
+
+public class SimulationServiceTest {
+
+	private SimulationService service;
+	private byte[] modelDoc;
+
+	@Before
+	public void setUp() throws Exception {
+		service = new SimulationService(0, 1, 1);
+		service.start();
+
+		SMAAModel model = new SMAAModel("model");
+		Alternative a1 = new Alternative("a1");
+		Alternative a2 = new Alternative("a2");
+		ScaleCriterion c = new ScaleCriterion("c");
+		model.addAlternative(a1);
+		model.addAlternative(a2);
+		model.addCriterion(c);
+		((ImpactMatrix) model.getMeasurements()).setMeasurement(c, a1, new Interval(0.0, 1.0));
+		((ImpactMatrix) model.getMeasurements()).setMeasurement(c, a2, new Interval(2.0, 3.0));
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		JSMAABinding.writeModel(model, bos);
+		modelDoc = bos.toByteArray();
+	}
+
+	@After
+	public void tearDown() {
+		service.stop();
+	}
+
+	@Test
+	public void testSubmitRunsToCompletion() throws Exception {
+		String resp = request("POST", "/jobs?iterations=1000&seed=1", modelDoc, 202);
+		assertTrue(resp.contains("\"id\":\"1\""));
+		SimulationJob job = service.getQueue().getJob("1");
+		waitUntilDone(job);
+		assertEquals(SimulationJob.Status.FINISHED, job.getStatus());
+
+		String status = request("GET", "/jobs/1", null, 200);
+		assertTrue(status.contains("\"status\":\"FINISHED\""));
+		assertTrue(status.contains("\"a2\":[1.0,0.0]"));
+		assertTrue(status.contains("\"progress\":1.0"));
+
+		String stream = request("GET", "/jobs/1/stream", null, 200);
+		assertTrue(stream.endsWith("\n"));
+		assertTrue(stream.contains("\"status\":\"FINISHED\""));
+		
+		assertTrue(request("GET", "/status", null, 200).contains("\"completedJobs\":1"));
+	}
+
+	@Test
+	public void testSameSeedGivesSameResults() throws Exception {
+		request("POST", "/jobs?iterations=500&seed=7", modelDoc, 202);
+		waitUntilDone(service.getQueue().getJob("1"));
+		request("POST", "/jobs?iterations=500&seed=7", modelDoc, 202);
+		waitUntilDone(service.getQueue().getJob("2"));
+		assertEquals(service.getQueue().getJob("1").getSnapshot(), service.getQueue().getJob("2").getSnapshot());
+	}
+
+	@Test
+	public void testCancelAndForget() throws Exception {
+		request("POST", "/jobs?iterations=5000000", modelDoc, 202);
+		request("POST", "/jobs", modelDoc, 202);
+		request("POST", "/jobs", modelDoc, 503);
+		assertEquals(1, service.getQueue().getQueueDepth());
+
+		request("DELETE", "/jobs/2", null, 200);
+		request("DELETE", "/jobs/1", null, 200);
+		SimulationJobQueue queue = service.getQueue();
+		waitUntilDone(queue.getJob("1"));
+		assertEquals(SimulationJob.Status.CANCELLED, queue.getJob("1").getStatus());
+		assertEquals(SimulationJob.Status.CANCELLED, queue.getJob("2").getStatus());
+		assertEquals(0, queue.getQueueDepth());
+
+		request("DELETE", "/jobs/1", null, 200);
+		assertNull(queue.getJob("1"));
+		assertNotNull(queue.getJob("2"));
+		request("GET", "/jobs/1", null, 404);
+	}
+
+	@Test
+	public void testInvalidRequests() throws Exception {
+		request("POST", "/jobs", "<foo>".getBytes("UTF-8"), 400);
+		request("POST", "/jobs?iterations=0", modelDoc, 400);
+		request("POST", "/jobs?seed=x", modelDoc, 400);
+		request("PUT", "/jobs", modelDoc, 405);
+	}
+
+	private static void waitUntilDone(SimulationJob job) throws InterruptedException {
+		while (!job.isDone()) {
+			Thread.sleep(10);
+		}
+	}
+
+	private String request(String method, String path, byte[] body, int expectedCode) throws IOException {
+		URL url = new URL("http://localhost:" + service.getPort() + path);
+		HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+		conn.setRequestMethod(method);
+		if (body != null) {
+			conn.setDoOutput(true);
+			OutputStream os = conn.getOutputStream();
+			os.write(body);
+			os.close();
+		}
+		assertEquals(expectedCode, conn.getResponseCode());
+		InputStream is = expectedCode < 400 ? conn.getInputStream() : conn.getErrorStream();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		for (int n = is.read(buf); n >= 0; n = is.read(buf)) {
+			bos.write(buf, 0, n);
+		}
+		is.close();
+		return bos.toString("UTF-8");
+	}
+}